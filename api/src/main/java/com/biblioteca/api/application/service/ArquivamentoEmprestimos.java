@@ -0,0 +1,275 @@
+package com.biblioteca.api.application.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manutenção das partições mensais de empréstimos (migration V9): cria os meses seguintes e
+ * reúne na partição emprestimos_historico os meses mais antigos que o horizonte configurado.
+ *
+ * Um mês só é arquivado quando todos os seus empréstimos estão DEVOLVIDO; com algum ainda
+ * aberto, ele e os seguintes esperam a próxima execução, porque o histórico cobre uma faixa
+ * contínua de datas. Assim o histórico só tem empréstimos encerrados (o banco garante com uma
+ * constraint) e as consultas de empréstimos abertos limitam a data a {@link #inicioAbertos()},
+ * o que deixa o histórico fora do plano.
+ *
+ * Para estender a faixa do histórico sem varrê-lo com a tabela bloqueada, a nova constraint de
+ * faixa é validada antes, numa transação à parte que não bloqueia leituras nem escritas. O
+ * ATTACH também teria de varrer a partição default atrás de linhas da nova faixa; pelo mesmo
+ * caminho, ela ganha antes uma constraint validada que exclui a faixa (só datas além dos meses
+ * criados caem nela), e o PostgreSQL dispensa as duas varreduras. O arquivamento em si desanexa
+ * o histórico e o mês, copia as linhas do mês e reanexa o histórico com a faixa maior,
+ * bloqueando a tabela só durante a cópia de um mês.
+ */
+@Component
+public class ArquivamentoEmprestimos {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoEmprestimos.class);
+
+    private static final String HISTORICO = "emprestimos_historico";
+    private static final String CONSTRAINT_FAIXA = "ck_emprestimos_historico_faixa";
+    private static final String CONSTRAINT_PISO_DEFAULT = "ck_emprestimos_default_piso";
+    // Chave do advisory lock que impede duas instâncias de arquivar ao mesmo tempo
+    private static final long CHAVE_BLOQUEIO = 0x656D70726573L;
+    private static final DateTimeFormatter NOME_MES = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern FAIXA = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+
+    private static final String TABELA_PARTICIONADA =
+            "SELECT count(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('emprestimos')";
+
+    private static final String PARTICOES =
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'emprestimos'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int horizonteMeses;
+    private final int mesesAdiante;
+    private final ReentrantLock execucao = new ReentrantLock();
+
+    private volatile boolean particionada;
+    // Sem partições (ou antes da carga), nenhuma data é excluída das consultas
+    private volatile LocalDate inicioAbertos = LocalDate.EPOCH;
+
+    public ArquivamentoEmprestimos(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   @Value("${emprestimos.arquivamento.habilitado:true}") boolean habilitado,
+                                   @Value("${emprestimos.arquivamento.horizonte-meses:12}") int horizonteMeses,
+                                   @Value("${emprestimos.arquivamento.meses-adiante:3}") int mesesAdiante) {
+        if (horizonteMeses < 1) {
+            throw new IllegalArgumentException("emprestimos.arquivamento.horizonte-meses deve ser maior que zero");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.horizonteMeses = horizonteMeses;
+        this.mesesAdiante = mesesAdiante;
+    }
+
+    /**
+     * Data a partir da qual estão todos os empréstimos que ainda podem estar abertos
+     * (ATIVO ou ATRASADO): tudo antes dela está no histórico, só com DEVOLVIDO.
+     */
+    public LocalDate inicioAbertos() {
+        return inicioAbertos;
+    }
+
+    public boolean arquivado(LocalDate dataEmprestimo) {
+        return dataEmprestimo != null && dataEmprestimo.isBefore(inicioAbertos);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        try {
+            Integer tabelas = jdbcTemplate.queryForObject(TABELA_PARTICIONADA, Integer.class);
+            particionada = tabelas != null && tabelas > 0;
+        } catch (DataAccessException e) {
+            // Banco sem os catálogos do PostgreSQL (ex.: testes em memória)
+            particionada = false;
+        }
+        if (!particionada) {
+            log.info("Tabela emprestimos não particionada (migration V9 não aplicada): arquivamento desligado");
+            return;
+        }
+        inicioAbertos = lerParticoes().stream()
+                .filter(particao -> HISTORICO.equals(particao.nome()))
+                .map(Particao::fim)
+                .findFirst()
+                .orElse(LocalDate.EPOCH);
+    }
+
+    @Scheduled(cron = "${emprestimos.arquivamento.cron:0 30 3 * * *}")
+    public void executar() {
+        if (!habilitado || !particionada) {
+            return;
+        }
+        execucao.lock();
+        try {
+            LocalDate mesAtual = LocalDate.now().withDayOfMonth(1);
+            for (int i = 0; i <= mesesAdiante; i++) {
+                criarParticao(mesAtual.plusMonths(i));
+            }
+            arquivarAte(mesAtual.minusMonths(horizonteMeses));
+        } finally {
+            execucao.unlock();
+        }
+    }
+
+    private void criarParticao(LocalDate mes) {
+        String nome = "emprestimos_" + mes.format(NOME_MES);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nome + " PARTITION OF emprestimos " +
+                    "FOR VALUES FROM ('" + mes + "') TO ('" + mes.plusMonths(1) + "')");
+        } catch (DataAccessException e) {
+            // Tipicamente linhas desse mês já gravadas na partição default
+            log.error("Não foi possível criar a partição {}: {}", nome, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // Arquiva, do mais antigo para o mais novo, os meses que terminam até o corte
+    private void arquivarAte(LocalDate corte) {
+        List<Particao> mensais = new ArrayList<>();
+        Particao historico = null;
+        String particaoDefault = null;
+        for (Particao particao : lerParticoes()) {
+            if (HISTORICO.equals(particao.nome())) {
+                historico = particao;
+            } else if (particao.inicio() != null) {
+                mensais.add(particao);
+            } else if (particao.fim() == null) {
+                particaoDefault = particao.nome();
+            }
+        }
+        if (historico == null) {
+            log.warn("Partição {} não encontrada: arquivamento ignorado", HISTORICO);
+            return;
+        }
+        mensais.sort(Comparator.comparing(Particao::inicio));
+
+        long inicio = System.currentTimeMillis();
+        int arquivados = 0;
+        for (Particao mes : mensais) {
+            if (mes.fim().isAfter(corte)) {
+                break;
+            }
+            try {
+                if (!arquivar(mes, historico.fim(), particaoDefault)) {
+                    break;
+                }
+            } catch (DataAccessException e) {
+                log.error("Falha ao arquivar a partição {}: {}", mes.nome(), e.getMostSpecificCause().getMessage());
+                break;
+            }
+            historico = new Particao(HISTORICO, null, mes.fim());
+            inicioAbertos = mes.fim();
+            arquivados++;
+        }
+        if (arquivados > 0) {
+            log.info("Arquivamento de empréstimos: {} meses movidos para {} em {} ms; histórico até {}",
+                    arquivados, HISTORICO, System.currentTimeMillis() - inicio, inicioAbertos);
+        }
+    }
+
+    // particaoDefault null quando a tabela não tem partição default
+    private boolean arquivar(Particao mes, LocalDate fimHistorico, String particaoDefault) {
+        if (!mes.inicio().equals(fimHistorico)) {
+            log.warn("Partição {} não começa onde o histórico termina ({}): arquivamento interrompido",
+                    mes.nome(), fimHistorico);
+            return false;
+        }
+        Integer abertos = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + mes.nome() + " WHERE status <> 'DEVOLVIDO'", Integer.class);
+        if (abertos != null && abertos > 0) {
+            log.warn("Partição {} ainda tem {} empréstimos abertos: arquivamento interrompido", mes.nome(), abertos);
+            return false;
+        }
+
+        // Fora da transação do arquivamento: a validação varre o histórico sem bloquear a tabela
+        String novaFaixa = CONSTRAINT_FAIXA + "_" + mes.fim().format(NOME_MES);
+        jdbcTemplate.execute("ALTER TABLE " + HISTORICO + " DROP CONSTRAINT IF EXISTS " + novaFaixa);
+        jdbcTemplate.execute("ALTER TABLE " + HISTORICO + " ADD CONSTRAINT " + novaFaixa +
+                " CHECK (data_emprestimo < DATE '" + mes.fim() + "') NOT VALID");
+        jdbcTemplate.execute("ALTER TABLE " + HISTORICO + " VALIDATE CONSTRAINT " + novaFaixa);
+        String novoPiso = CONSTRAINT_PISO_DEFAULT + "_" + mes.fim().format(NOME_MES);
+        if (particaoDefault != null) {
+            jdbcTemplate.execute("ALTER TABLE " + particaoDefault + " DROP CONSTRAINT IF EXISTS " + novoPiso);
+            jdbcTemplate.execute("ALTER TABLE " + particaoDefault + " ADD CONSTRAINT " + novoPiso +
+                    " CHECK (data_emprestimo >= DATE '" + mes.fim() + "') NOT VALID");
+            jdbcTemplate.execute("ALTER TABLE " + particaoDefault + " VALIDATE CONSTRAINT " + novoPiso);
+        }
+
+        Boolean arquivado = transactionTemplate.execute(status -> {
+            Boolean bloqueio = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, CHAVE_BLOQUEIO);
+            if (!Boolean.TRUE.equals(bloqueio)) {
+                log.info("Arquivamento de empréstimos em andamento em outra instância");
+                return false;
+            }
+            // Reconfere dentro do bloqueio: um empréstimo pode ter sido reaberto nesse intervalo
+            Integer reabertos = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM " + mes.nome() + " WHERE status <> 'DEVOLVIDO'", Integer.class);
+            if (reabertos != null && reabertos > 0) {
+                return false;
+            }
+            jdbcTemplate.execute("ALTER TABLE emprestimos DETACH PARTITION " + HISTORICO);
+            jdbcTemplate.execute("ALTER TABLE emprestimos DETACH PARTITION " + mes.nome());
+            // A faixa anterior recusaria as linhas do mês; a nova, já validada, continua provando o ATTACH
+            jdbcTemplate.execute("ALTER TABLE " + HISTORICO + " DROP CONSTRAINT IF EXISTS " +
+                    CONSTRAINT_FAIXA + "_" + mes.inicio().format(NOME_MES));
+            // Gravadas agrupadas por usuário: o histórico de cada um fica em poucas páginas
+            jdbcTemplate.update("INSERT INTO " + HISTORICO + " SELECT * FROM " + mes.nome() +
+                    " ORDER BY usuario_id, data_emprestimo, id");
+            jdbcTemplate.execute("DROP TABLE " + mes.nome());
+            // As constraints validadas provam a nova faixa: o ATTACH não varre o histórico nem a default
+            jdbcTemplate.execute("ALTER TABLE emprestimos ATTACH PARTITION " + HISTORICO +
+                    " FOR VALUES FROM (MINVALUE) TO ('" + mes.fim() + "')");
+            if (particaoDefault != null) {
+                jdbcTemplate.execute("ALTER TABLE " + particaoDefault + " DROP CONSTRAINT IF EXISTS " +
+                        CONSTRAINT_PISO_DEFAULT + "_" + mes.inicio().format(NOME_MES));
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(arquivado);
+    }
+
+    private List<Particao> lerParticoes() {
+        return jdbcTemplate.query(PARTICOES, (rs, linha) -> {
+            String nome = rs.getString(1);
+            Matcher faixa = FAIXA.matcher(rs.getString(2));
+            if (!faixa.find()) {
+                // Partição default
+                return new Particao(nome, null, null);
+            }
+            return new Particao(nome, data(faixa.group(1)), data(faixa.group(2)));
+        });
+    }
+
+    // Limite de faixa como o PostgreSQL o descreve: 'AAAA-MM-DD' ou MINVALUE
+    private static LocalDate data(String limite) {
+        if ("MINVALUE".equalsIgnoreCase(limite)) {
+            return null;
+        }
+        return LocalDate.parse(limite.replace("'", ""));
+    }
+
+    // inicio null: faixa aberta por baixo (histórico); fim null: partição default
+    private record Particao(String nome, LocalDate inicio, LocalDate fim) {
+    }
+}
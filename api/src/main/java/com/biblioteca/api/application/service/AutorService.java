@@ -1,14 +1,22 @@
 package com.biblioteca.api.application.service;
 
 import com.biblioteca.api.domain.dto.AutorDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
 import com.biblioteca.api.domain.entity.Autor;
 import com.biblioteca.api.domain.repository.AutorRepository;
+import com.biblioteca.api.infrastructure.config.CacheConfig;
 import com.biblioteca.api.infrastructure.exception.ResourceNotFoundException;
+import com.biblioteca.api.infrastructure.pagination.CursorPaginacao;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class AutorService {
@@ -30,29 +38,50 @@ public class AutorService {
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.AUTORES, key = "#id")
     public AutorDTO obterPorId(Long id) {
-        Autor autor = autorRepository.findById(id)
+        return autorRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Autor não encontrado"));
+    }
+
+    // Lê do banco ignorando o DTO em cache, que pode ser anterior a uma alteração feita por outra
+    // instância, e deixa o cache atualizado
+    @Transactional(readOnly = true)
+    @CachePut(cacheNames = CacheConfig.AUTORES, key = "#id")
+    public AutorDTO recarregarPorId(Long id) {
+        return autorRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Autor não encontrado"));
+    }
+
+    // Versões para GET condicional: só metadados, sem carregar o recurso
+    @Transactional(readOnly = true)
+    public LocalDateTime obterVersao(Long id) {
+        return autorRepository.buscarDataAtualizacao(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Autor não encontrado"));
-        return converterParaDTO(autor);
     }
 
     @Transactional(readOnly = true)
-    public List<AutorDTO> obterTodos() {
-        return autorRepository.findAll()
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+    public VersaoColecaoDTO obterVersaoColecao() {
+        return autorRepository.buscarVersaoColecao();
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaDTO<AutorDTO> listarPagina(String cursor, Integer tamanho) {
+        int limite = CursorPaginacao.limitarTamanho(tamanho);
+        List<AutorDTO> autores = autorRepository.buscarDTOsAposId(
+                CursorPaginacao.decodificarId(cursor), CursorPaginacao.limiteConsulta(limite));
+
+        return CursorPaginacao.montarPagina(autores, limite, Function.identity(),
+                autor -> CursorPaginacao.codificar(autor.getId()));
     }
 
     @Transactional(readOnly = true)
     public List<AutorDTO> buscarPorNome(String nome) {
-        return autorRepository.findByNomeContainingIgnoreCase(nome)
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        return autorRepository.buscarDTOsPorNome(nome);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.AUTORES, CacheConfig.AUTORES_JSON}, key = "#id")
     public AutorDTO atualizar(Long id, AutorDTO dto) {
         Autor autor = autorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Autor não encontrado"));
@@ -65,6 +94,7 @@ public class AutorService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.AUTORES, CacheConfig.AUTORES_JSON}, key = "#id")
     public void excluir(Long id) {
         if (!autorRepository.existsById(id)) {
             throw new ResourceNotFoundException("Autor não encontrado");
@@ -72,7 +102,7 @@ public class AutorService {
         autorRepository.deleteById(id);
     }
 
-    private AutorDTO converterParaDTO(Autor autor) {
+    AutorDTO converterParaDTO(Autor autor) {
         return new AutorDTO(
                 autor.getId(),
                 autor.getNome(),
@@ -1,14 +1,22 @@
 package com.biblioteca.api.application.service;
 
 import com.biblioteca.api.domain.dto.CategoriaDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
 import com.biblioteca.api.domain.entity.Categoria;
 import com.biblioteca.api.domain.repository.CategoriaRepository;
+import com.biblioteca.api.infrastructure.config.CacheConfig;
 import com.biblioteca.api.infrastructure.exception.ResourceNotFoundException;
+import com.biblioteca.api.infrastructure.pagination.CursorPaginacao;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class CategoriaService {
@@ -34,29 +42,50 @@ public class CategoriaService {
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS, key = "#id")
     public CategoriaDTO obterPorId(Long id) {
-        Categoria categoria = categoriaRepository.findById(id)
+        return categoriaRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
+    }
+
+    // Lê do banco ignorando o DTO em cache, que pode ser anterior a uma alteração feita por outra
+    // instância, e deixa o cache atualizado
+    @Transactional(readOnly = true)
+    @CachePut(cacheNames = CacheConfig.CATEGORIAS, key = "#id")
+    public CategoriaDTO recarregarPorId(Long id) {
+        return categoriaRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
+    }
+
+    // Versões para GET condicional: só metadados, sem carregar o recurso
+    @Transactional(readOnly = true)
+    public LocalDateTime obterVersao(Long id) {
+        return categoriaRepository.buscarDataAtualizacao(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
-        return converterParaDTO(categoria);
     }
 
     @Transactional(readOnly = true)
-    public List<CategoriaDTO> obterTodas() {
-        return categoriaRepository.findAll()
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+    public VersaoColecaoDTO obterVersaoColecao() {
+        return categoriaRepository.buscarVersaoColecao();
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaDTO<CategoriaDTO> listarPagina(String cursor, Integer tamanho) {
+        int limite = CursorPaginacao.limitarTamanho(tamanho);
+        List<CategoriaDTO> categorias = categoriaRepository.buscarDTOsAposId(
+                CursorPaginacao.decodificarId(cursor), CursorPaginacao.limiteConsulta(limite));
+
+        return CursorPaginacao.montarPagina(categorias, limite, Function.identity(),
+                categoria -> CursorPaginacao.codificar(categoria.getId()));
     }
 
     @Transactional(readOnly = true)
     public List<CategoriaDTO> buscarPorNome(String nome) {
-        return categoriaRepository.findByNomeContainingIgnoreCase(nome)
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        return categoriaRepository.buscarDTOsPorNome(nome);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIAS, CacheConfig.CATEGORIAS_JSON}, key = "#id")
     public CategoriaDTO atualizar(Long id, CategoriaDTO dto) {
         Categoria categoria = categoriaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
@@ -69,6 +98,7 @@ public class CategoriaService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIAS, CacheConfig.CATEGORIAS_JSON}, key = "#id")
     public void excluir(Long id) {
         if (!categoriaRepository.existsById(id)) {
             throw new ResourceNotFoundException("Categoria não encontrada");
@@ -76,7 +106,7 @@ public class CategoriaService {
         categoriaRepository.deleteById(id);
     }
 
-    private CategoriaDTO converterParaDTO(Categoria categoria) {
+    CategoriaDTO converterParaDTO(Categoria categoria) {
         return new CategoriaDTO(
                 categoria.getId(),
                 categoria.getNome(),
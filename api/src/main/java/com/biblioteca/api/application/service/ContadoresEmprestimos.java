@@ -0,0 +1,78 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.ResumoEmprestimosDTO;
+import com.biblioteca.api.domain.repository.EmprestimoRepository;
+import com.biblioteca.api.domain.repository.ResumoEmprestimosRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Contadores de empréstimos por usuário (ativos, atrasados e total), atualizados dentro da
+ * transação que cria, devolve, altera ou exclui o empréstimo. A varredura de atrasos ajusta
+ * os mesmos contadores na instrução que marca os empréstimos vencidos.
+ *
+ * Um usuário sem linha de resumo (anterior aos contadores) tem o histórico contado na
+ * primeira alteração; até lá, a leitura calcula o resumo direto dos empréstimos.
+ */
+@Component
+public class ContadoresEmprestimos {
+
+    private final ResumoEmprestimosRepository resumoRepository;
+    private final EmprestimoRepository emprestimoRepository;
+
+    public ContadoresEmprestimos(ResumoEmprestimosRepository resumoRepository,
+                                 EmprestimoRepository emprestimoRepository) {
+        this.resumoRepository = resumoRepository;
+        this.emprestimoRepository = emprestimoRepository;
+    }
+
+    public void registrar(Long usuarioId, String statusAnterior, String statusNovo, int variacaoTotal) {
+        aplicar(usuarioId, Variacao.de(statusAnterior, statusNovo, variacaoTotal));
+    }
+
+    public void registrarTodas(Map<Long, Variacao> variacoesPorUsuario) {
+        variacoesPorUsuario.forEach(this::aplicar);
+    }
+
+    // Vazio só quando o usuário não tem resumo nem empréstimos
+    public Optional<ResumoEmprestimosDTO> obter(Long usuarioId) {
+        Optional<ResumoEmprestimosDTO> resumo = resumoRepository.buscarDTOPorUsuario(usuarioId);
+        return resumo.isPresent() ? resumo : emprestimoRepository.calcularResumo(usuarioId);
+    }
+
+    private void aplicar(Long usuarioId, Variacao variacao) {
+        if (variacao.nula()) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        if (resumoRepository.somar(usuarioId, variacao.ativos(), variacao.atrasados(), variacao.total(), agora) == 0) {
+            resumoRepository.inicializar(usuarioId, variacao.ativos(), variacao.atrasados(), variacao.total(), agora);
+        }
+    }
+
+    // Efeito de uma mudança de status sobre os contadores; null representa "sem empréstimo"
+    public record Variacao(int ativos, int atrasados, int total) {
+
+        public static Variacao de(String statusAnterior, String statusNovo, int variacaoTotal) {
+            return new Variacao(
+                    contar("ATIVO", statusNovo) - contar("ATIVO", statusAnterior),
+                    contar("ATRASADO", statusNovo) - contar("ATRASADO", statusAnterior),
+                    variacaoTotal);
+        }
+
+        public Variacao somar(Variacao outra) {
+            return new Variacao(ativos + outra.ativos, atrasados + outra.atrasados, total + outra.total);
+        }
+
+        boolean nula() {
+            return ativos == 0 && atrasados == 0 && total == 0;
+        }
+
+        private static int contar(String status, String valor) {
+            return status.equals(valor) ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.DisponibilidadeLivroDTO;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.infrastructure.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Registro em memória dos exemplares disponíveis por livro, usado como filtro de admissão
+ * antes do decremento condicional no banco.
+ *
+ * O saldo de cada título é dividido em faixas (uma por núcleo), cada uma com seu próprio
+ * contador atômico, para que retiradas concorrentes do mesmo título não disputem a mesma
+ * variável. Títulos esgotados são recusados aqui sem tocar no banco. O banco continua sendo
+ * a fonte da verdade: as entradas expiram após alguns segundos e são recarregadas.
+ */
+@Component
+public class ControleExemplares {
+
+    private final LivroRepository livroRepository;
+    private final Cache<Long, Saldo> saldos;
+    private final int faixasPorTitulo;
+
+    public ControleExemplares(LivroRepository livroRepository,
+                              @Value("${emprestimos.exemplares.tamanho-maximo:100000}") long tamanhoMaximo,
+                              @Value("${emprestimos.exemplares.validade-segundos:5}") long validadeSegundos) {
+        this.livroRepository = livroRepository;
+        this.saldos = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(validadeSegundos))
+                .build();
+        this.faixasPorTitulo = Integer.highestOneBit(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Retira exemplares do saldo em memória. Se a transação corrente não for confirmada,
+     * os exemplares são devolvidos automaticamente.
+     */
+    public boolean reservar(Long livroId, int quantidade) {
+        Saldo saldo = saldos.get(livroId, this::carregar);
+        if (!saldo.retirar(quantidade)) {
+            return false;
+        }
+
+        aoConcluirTransacao(confirmada -> {
+            if (!confirmada && saldos.getIfPresent(livroId) == saldo) {
+                saldo.depositar(quantidade);
+            }
+        });
+        return true;
+    }
+
+    // Carrega numa única consulta os saldos ainda não conhecidos (usado pelos lotes)
+    public void carregar(Collection<Long> livroIds) {
+        List<Long> ausentes = livroIds.stream()
+                .filter(livroId -> saldos.getIfPresent(livroId) == null)
+                .toList();
+        if (ausentes.isEmpty()) {
+            return;
+        }
+
+        for (DisponibilidadeLivroDTO disponibilidade : livroRepository.buscarDisponibilidades(ausentes)) {
+            saldos.asMap().putIfAbsent(disponibilidade.getLivroId(), novoSaldo(disponibilidade.getQuantidadeDisponivel()));
+        }
+    }
+
+    public void liberarAposCommit(Long livroId, int quantidade) {
+        aoConcluirTransacao(confirmada -> {
+            Saldo saldo = saldos.getIfPresent(livroId);
+            if (confirmada && saldo != null) {
+                saldo.depositar(quantidade);
+            }
+        });
+    }
+
+    // Descarta o saldo em memória; a próxima reserva recarrega do banco
+    public void invalidar(Long livroId) {
+        saldos.invalidate(livroId);
+    }
+
+    public void invalidarAposCommit(Long livroId) {
+        aoConcluirTransacao(confirmada -> saldos.invalidate(livroId));
+    }
+
+    private Saldo carregar(Long livroId) {
+        int disponiveis = livroRepository.buscarQuantidadeDisponivel(livroId)
+                .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
+        return novoSaldo(disponiveis);
+    }
+
+    private Saldo novoSaldo(int disponiveis) {
+        // Não faz sentido ter mais faixas do que exemplares
+        int faixas = Math.min(faixasPorTitulo, Integer.highestOneBit(Math.max(disponiveis, 1)));
+        return new Saldo(disponiveis, faixas);
+    }
+
+    private static void aoConcluirTransacao(Consumer<Boolean> acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                acao.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    static final class Saldo {
+
+        private final AtomicInteger[] faixas;
+        private final int mascara;
+
+        Saldo(int disponiveis, int quantidadeFaixas) {
+            this.faixas = new AtomicInteger[quantidadeFaixas];
+            this.mascara = quantidadeFaixas - 1;
+            for (int i = 0; i < quantidadeFaixas; i++) {
+                int parte = disponiveis / quantidadeFaixas + (i < disponiveis % quantidadeFaixas ? 1 : 0);
+                faixas[i] = new AtomicInteger(Math.max(parte, 0));
+            }
+        }
+
+        boolean retirar(int quantidade) {
+            int inicio = ThreadLocalRandom.current().nextInt(faixas.length);
+            int obtido = 0;
+
+            for (int i = 0; i < faixas.length && obtido < quantidade; i++) {
+                AtomicInteger faixa = faixas[(inicio + i) & mascara];
+                int atual;
+                while ((atual = faixa.get()) > 0) {
+                    int parte = Math.min(atual, quantidade - obtido);
+                    if (faixa.compareAndSet(atual, atual - parte)) {
+                        obtido += parte;
+                        break;
+                    }
+                }
+            }
+
+            if (obtido < quantidade) {
+                depositar(obtido);
+                return false;
+            }
+            return true;
+        }
+
+        void depositar(int quantidade) {
+            if (quantidade > 0) {
+                faixas[ThreadLocalRandom.current().nextInt(faixas.length)].addAndGet(quantidade);
+            }
+        }
+    }
+}
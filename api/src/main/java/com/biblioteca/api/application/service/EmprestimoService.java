@@ -1,31 +1,75 @@
 package com.biblioteca.api.application.service;
 
 import com.biblioteca.api.domain.dto.EmprestimoDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import com.biblioteca.api.domain.dto.ResultadoLoteDTO;
+import com.biblioteca.api.domain.dto.ResumoEmprestimosDTO;
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
 import com.biblioteca.api.domain.entity.Emprestimo;
 import com.biblioteca.api.domain.entity.Usuario;
 import com.biblioteca.api.domain.entity.Livro;
 import com.biblioteca.api.domain.repository.EmprestimoRepository;
 import com.biblioteca.api.domain.repository.UsuarioRepository;
 import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.infrastructure.config.CacheConfig;
+import com.biblioteca.api.infrastructure.database.JanelaLeituraPropriaEscrita;
 import com.biblioteca.api.infrastructure.exception.ResourceNotFoundException;
+import com.biblioteca.api.infrastructure.pagination.CursorPaginacao;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EmprestimoService {
 
+    private static final int TAMANHO_MAXIMO_LOTE = 100;
+    private static final String STATUS_ENCERRADO = "DEVOLVIDO";
+    private static final LocalDateTime EXPORTAR_DESDE_O_INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Chave anterior a qualquer empréstimo na ordem decrescente do histórico (primeira página)
+    private static final LocalDate HISTORICO_INICIO = LocalDate.of(9999, 12, 31);
+
     private final EmprestimoRepository emprestimoRepository;
     private final UsuarioRepository usuarioRepository;
     private final LivroRepository livroRepository;
+    private final ControleExemplares controleExemplares;
+    private final ContadoresEmprestimos contadores;
+    private final MapaDisponibilidade mapaDisponibilidade;
+    private final FilaReservas filaReservas;
+    private final JanelaLeituraPropriaEscrita janelaLeituraPropriaEscrita;
+    private final ArquivamentoEmprestimos arquivamento;
+    private final Cache livrosEmCache;
 
-    public EmprestimoService(EmprestimoRepository emprestimoRepository, UsuarioRepository usuarioRepository, LivroRepository livroRepository) {
+    public EmprestimoService(EmprestimoRepository emprestimoRepository, UsuarioRepository usuarioRepository,
+                             LivroRepository livroRepository, ControleExemplares controleExemplares,
+                             ContadoresEmprestimos contadores, MapaDisponibilidade mapaDisponibilidade,
+                             FilaReservas filaReservas, JanelaLeituraPropriaEscrita janelaLeituraPropriaEscrita,
+                             ArquivamentoEmprestimos arquivamento, CacheManager cacheManager) {
         this.emprestimoRepository = emprestimoRepository;
         this.usuarioRepository = usuarioRepository;
         this.livroRepository = livroRepository;
+        this.controleExemplares = controleExemplares;
+        this.contadores = contadores;
+        this.mapaDisponibilidade = mapaDisponibilidade;
+        this.filaReservas = filaReservas;
+        this.janelaLeituraPropriaEscrita = janelaLeituraPropriaEscrita;
+        this.arquivamento = arquivamento;
+        this.livrosEmCache = cacheManager.getCache(CacheConfig.LIVROS);
     }
 
     @Transactional
@@ -33,112 +77,405 @@ public class EmprestimoService {
         Usuario usuario = usuarioRepository.findById(dto.getUsuarioId())
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
-        Livro livro = livroRepository.findById(dto.getLivroId())
-                .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
-
-        if (livro.getQuantidadeDisponivel() <= 0) {
+        // Quem tem um exemplar separado pela fila de reservas leva esse exemplar; os demais
+        // passam pelo saldo em memória, que recusa títulos esgotados sem ir ao banco
+        boolean separado = filaReservas.retirar(usuario.getId(), dto.getLivroId());
+        if (!separado && !controleExemplares.reservar(dto.getLivroId(), 1)) {
             throw new IllegalArgumentException("Livro não está disponível");
         }
+        // O livro não é carregado, só referenciado
+        Livro livro = livroRepository.getReferenceById(dto.getLivroId());
 
-        Emprestimo emprestimo = new Emprestimo();
-        emprestimo.setDataEmprestimo(LocalDate.now());
-        emprestimo.setDataDevolucaoPrevista(LocalDate.now().plusDays(14)); // 14 dias de prazo
-        emprestimo.setStatus("ATIVO");
-        emprestimo.setUsuario(usuario);
-        emprestimo.setLivro(livro);
-
-        // Decrementar quantidade disponível
-        livro.setQuantidadeDisponivel(livro.getQuantidadeDisponivel() - 1);
-        livroRepository.save(livro);
+        Emprestimo emprestimo = novoEmprestimo(usuario, livro);
 
         emprestimoRepository.save(emprestimo);
+        contadores.registrar(usuario.getId(), null, emprestimo.getStatus(), 1);
+        // Decremento no banco por último: o bloqueio da linha do livro, que vai até o fim da
+        // transação, fica restrito ao commit e não cobre o insert do empréstimo nem os contadores
+        if (!separado) {
+            baixarExemplar(dto.getLivroId());
+        }
+        // Com réplicas, as próximas leituras de quem escreveu vão ao primário por alguns instantes
+        janelaLeituraPropriaEscrita.registrarEscrita();
         return converterParaDTO(emprestimo);
     }
 
+    /**
+     * Processa vários empréstimos numa única transação. Cada item tem seu próprio resultado:
+     * a falha de um item não desfaz os demais.
+     */
+    @Transactional
+    public List<ResultadoLoteDTO> criarEmLote(List<EmprestimoDTO> itens) {
+        validarLote(itens);
+
+        Map<Long, Usuario> usuarios = usuarioRepository.findAllById(idsDistintos(itens, EmprestimoDTO::getUsuarioId))
+                .stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+        controleExemplares.carregar(idsDistintos(itens, EmprestimoDTO::getLivroId));
+
+        ResultadoLoteDTO[] resultados = new ResultadoLoteDTO[itens.size()];
+        Map<Long, List<Integer>> pedidosPorLivro = new LinkedHashMap<>();
+        List<Integer> reservados = new ArrayList<>();
+        for (int i = 0; i < itens.size(); i++) {
+            EmprestimoDTO item = itens.get(i);
+            if (item.getUsuarioId() == null || item.getLivroId() == null) {
+                resultados[i] = falha(i, "Usuário e livro são obrigatórios");
+            } else if (!usuarios.containsKey(item.getUsuarioId())) {
+                resultados[i] = falha(i, "Usuário não encontrado");
+            } else if (filaReservas.retirar(item.getUsuarioId(), item.getLivroId())) {
+                // Exemplar já separado para o usuário pela fila de reservas
+                reservados.add(i);
+            } else {
+                pedidosPorLivro.computeIfAbsent(item.getLivroId(), livroId -> new ArrayList<>()).add(i);
+            }
+        }
+
+        // Reserva em memória por título; os decrementos no banco seguem num único round trip.
+        // Aqui eles vêm antes dos inserts, porque decidem quais itens são atendidos: as linhas
+        // dos livros do lote ficam bloqueadas também durante a gravação dos empréstimos
+        Map<Long, Integer> reservasPorLivro = new LinkedHashMap<>();
+        List<Integer> individuais = new ArrayList<>();
+        pedidosPorLivro.forEach((livroId, posicoes) -> {
+            try {
+                if (controleExemplares.reservar(livroId, posicoes.size())) {
+                    reservasPorLivro.put(livroId, posicoes.size());
+                } else {
+                    individuais.addAll(posicoes);
+                }
+            } catch (ResourceNotFoundException ex) {
+                posicoes.forEach(i -> resultados[i] = falha(i, ex.getMessage()));
+            }
+        });
+
+        Set<Long> atendidos = livroRepository.reservarExemplaresEmLote(reservasPorLivro);
+        for (Long livroId : reservasPorLivro.keySet()) {
+            if (atendidos.contains(livroId)) {
+                livrosEmCache.evict(livroId);
+                mapaDisponibilidade.verificarAposCommit(livroId);
+                reservados.addAll(pedidosPorLivro.get(livroId));
+            } else {
+                controleExemplares.invalidar(livroId);
+                individuais.addAll(pedidosPorLivro.get(livroId));
+            }
+        }
+
+        // Títulos sem saldo para todos os pedidos: atende item a item até esgotar
+        for (Integer i : individuais) {
+            try {
+                reservarExemplar(itens.get(i).getLivroId());
+                reservados.add(i);
+            } catch (IllegalArgumentException | ResourceNotFoundException ex) {
+                resultados[i] = falha(i, ex.getMessage());
+            }
+        }
+
+        List<Emprestimo> emprestimos = new ArrayList<>();
+        Map<Long, ContadoresEmprestimos.Variacao> variacoes = new LinkedHashMap<>();
+        for (Integer i : reservados) {
+            EmprestimoDTO item = itens.get(i);
+            Emprestimo emprestimo = novoEmprestimo(usuarios.get(item.getUsuarioId()), livroRepository.getReferenceById(item.getLivroId()));
+            emprestimos.add(emprestimo);
+            variacoes.merge(item.getUsuarioId(), ContadoresEmprestimos.Variacao.de(null, emprestimo.getStatus(), 1),
+                    ContadoresEmprestimos.Variacao::somar);
+        }
+
+        // Inserts agrupados em lotes JDBC (hibernate.jdbc.batch_size)
+        emprestimoRepository.saveAll(emprestimos);
+        contadores.registrarTodas(variacoes);
+        janelaLeituraPropriaEscrita.registrarEscrita();
+        for (int k = 0; k < reservados.size(); k++) {
+            int i = reservados.get(k);
+            resultados[i] = new ResultadoLoteDTO(i, true, converterParaDTO(emprestimos.get(k)), null);
+        }
+        return Arrays.asList(resultados);
+    }
+
     @Transactional(readOnly = true)
     public EmprestimoDTO obterPorId(Long id) {
-        Emprestimo emprestimo = emprestimoRepository.findById(id)
+        return emprestimoRepository.buscarDTOPorId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Empréstimo não encontrado"));
-        return converterParaDTO(emprestimo);
     }
 
+    // Versões para GET condicional: só metadados, sem carregar o recurso
     @Transactional(readOnly = true)
-    public List<EmprestimoDTO> obterTodos() {
-        return emprestimoRepository.findAll()
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+    public LocalDateTime obterVersao(Long id) {
+        return emprestimoRepository.buscarDataAtualizacao(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Empréstimo não encontrado"));
+    }
+
+    @Transactional(readOnly = true)
+    public VersaoColecaoDTO obterVersaoColecao() {
+        return emprestimoRepository.buscarVersaoColecao();
+    }
+
+    @Transactional(readOnly = true)
+    public VersaoColecaoDTO obterVersaoPorUsuario(Long usuarioId) {
+        return emprestimoRepository.buscarVersaoPorUsuario(usuarioId);
+    }
+
+    @Transactional(readOnly = true)
+    public VersaoColecaoDTO obterVersaoPorLivro(Long livroId) {
+        return emprestimoRepository.buscarVersaoPorLivro(livroId);
+    }
+
+    @Transactional(readOnly = true)
+    public VersaoColecaoDTO obterVersaoPorStatus(String status) {
+        if (!STATUS_ENCERRADO.equals(status)) {
+            return emprestimoRepository.buscarVersaoAbertosPorStatus(status, arquivamento.inicioAbertos());
+        }
+        return emprestimoRepository.buscarVersaoPorStatus(status);
+    }
+
+    // Exportação do histórico em fluxo, sem montar a lista: a memória não cresce com o volume
+    @Transactional(readOnly = true)
+    public void exportar(LocalDateTime desde, Consumer<EmprestimoDTO> consumidor) {
+        try (Stream<EmprestimoDTO> emprestimos = emprestimoRepository.exportarDTOs(
+                desde != null ? desde : EXPORTAR_DESDE_O_INICIO)) {
+            emprestimos.forEach(consumidor);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaDTO<EmprestimoDTO> listarPagina(String cursor, Integer tamanho) {
+        int limite = CursorPaginacao.limitarTamanho(tamanho);
+        List<EmprestimoDTO> emprestimos = emprestimoRepository.buscarDTOsAposId(
+                CursorPaginacao.decodificarId(cursor), CursorPaginacao.limiteConsulta(limite));
+
+        return CursorPaginacao.montarPagina(emprestimos, limite, Function.identity(),
+                emprestimo -> CursorPaginacao.codificar(emprestimo.getId()));
     }
 
     @Transactional(readOnly = true)
     public List<EmprestimoDTO> buscarPorUsuario(Long usuarioId) {
-        return emprestimoRepository.findByUsuarioId(usuarioId)
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        return emprestimoRepository.buscarDTOsPorUsuario(usuarioId);
+    }
+
+    // Contadores mantidos a cada alteração: uma leitura por chave, sem percorrer o histórico
+    @Transactional(readOnly = true)
+    public ResumoEmprestimosDTO obterResumo(Long usuarioId) {
+        return contadores.obter(usuarioId).orElseGet(() -> {
+            if (!usuarioRepository.existsById(usuarioId)) {
+                throw new ResourceNotFoundException("Usuário não encontrado");
+            }
+            return new ResumoEmprestimosDTO(usuarioId, 0L, 0L, 0L);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaDTO<EmprestimoDTO> buscarHistorico(Long usuarioId, String status, String cursor, Integer tamanho) {
+        int limite = CursorPaginacao.limitarTamanho(tamanho);
+
+        LocalDate data = HISTORICO_INICIO;
+        Long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            CursorPaginacao.ChaveCursor chave = CursorPaginacao.decodificarChave(cursor);
+            data = converterData(chave.chave());
+            id = chave.id();
+        }
+
+        List<EmprestimoDTO> emprestimos = status == null || status.isBlank()
+                ? emprestimoRepository.buscarHistoricoApos(usuarioId, data, id, CursorPaginacao.limiteConsulta(limite))
+                : emprestimoRepository.buscarHistoricoPorStatusApos(usuarioId, status, data, id,
+                        CursorPaginacao.limiteConsulta(limite));
+
+        return CursorPaginacao.montarPagina(emprestimos, limite, Function.identity(),
+                emprestimo -> CursorPaginacao.codificar(emprestimo.getDataEmprestimo().toString(), emprestimo.getId()));
     }
 
     @Transactional(readOnly = true)
     public List<EmprestimoDTO> buscarPorLivro(Long livroId) {
-        return emprestimoRepository.findByLivroId(livroId)
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        return emprestimoRepository.buscarDTOsPorLivro(livroId);
     }
 
     @Transactional(readOnly = true)
     public List<EmprestimoDTO> buscarPorStatus(String status) {
-        return emprestimoRepository.findByStatus(status)
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        // Só DEVOLVIDO pode estar no histórico arquivado; os demais status ficam nas partições recentes
+        if (!STATUS_ENCERRADO.equals(status)) {
+            return emprestimoRepository.buscarDTOsAbertosPorStatus(status, arquivamento.inicioAbertos());
+        }
+        return emprestimoRepository.buscarDTOsPorStatus(status);
     }
 
     @Transactional
     public EmprestimoDTO devolver(Long id) {
-        Emprestimo emprestimo = emprestimoRepository.findById(id)
+        Emprestimo emprestimo = emprestimoRepository.buscarParaAtualizacao(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Empréstimo não encontrado"));
 
+        if ("DEVOLVIDO".equals(emprestimo.getStatus())) {
+            throw new IllegalArgumentException("Empréstimo já foi devolvido");
+        }
+
+        String statusAnterior = emprestimo.getStatus();
         emprestimo.setDataDevolucaoReal(LocalDate.now());
         emprestimo.setStatus("DEVOLVIDO");
 
-        // Incrementar quantidade disponível
-        Livro livro = emprestimo.getLivro();
-        livro.setQuantidadeDisponivel(livro.getQuantidadeDisponivel() + 1);
-        livroRepository.save(livro);
+        liberarExemplar(emprestimo.getLivro().getId());
 
         emprestimoRepository.save(emprestimo);
+        contadores.registrar(emprestimo.getUsuario().getId(), statusAnterior, emprestimo.getStatus(), 0);
+        janelaLeituraPropriaEscrita.registrarEscrita();
         return converterParaDTO(emprestimo);
     }
 
+    @Transactional
+    public List<ResultadoLoteDTO> devolverEmLote(List<Long> ids) {
+        validarLote(ids);
+
+        Map<Long, Emprestimo> emprestimos = emprestimoRepository.buscarTodosParaAtualizacao(idsDistintos(ids, Function.identity()))
+                .stream()
+                .collect(Collectors.toMap(Emprestimo::getId, Function.identity()));
+
+        ResultadoLoteDTO[] resultados = new ResultadoLoteDTO[ids.size()];
+        Map<Long, Integer> liberacoesPorLivro = new LinkedHashMap<>();
+        Map<Long, ContadoresEmprestimos.Variacao> variacoes = new LinkedHashMap<>();
+        LocalDate hoje = LocalDate.now();
+        for (int i = 0; i < ids.size(); i++) {
+            Emprestimo emprestimo = emprestimos.get(ids.get(i));
+            if (emprestimo == null) {
+                resultados[i] = falha(i, "Empréstimo não encontrado");
+            } else if ("DEVOLVIDO".equals(emprestimo.getStatus())) {
+                resultados[i] = falha(i, "Empréstimo já foi devolvido");
+            } else {
+                variacoes.merge(emprestimo.getUsuario().getId(),
+                        ContadoresEmprestimos.Variacao.de(emprestimo.getStatus(), "DEVOLVIDO", 0),
+                        ContadoresEmprestimos.Variacao::somar);
+                emprestimo.setDataDevolucaoReal(hoje);
+                emprestimo.setStatus("DEVOLVIDO");
+                liberacoesPorLivro.merge(emprestimo.getLivro().getId(), 1, Integer::sum);
+                resultados[i] = new ResultadoLoteDTO(i, true, converterParaDTO(emprestimo), null);
+            }
+        }
+
+        // Exemplares devolvidos vão primeiro para quem está na fila de reservas do título
+        liberacoesPorLivro.replaceAll((livroId, quantidade) -> quantidade - filaReservas.repassar(livroId, quantidade));
+        liberacoesPorLivro.values().removeIf(quantidade -> quantidade == 0);
+
+        Set<Long> liberados = livroRepository.liberarExemplaresEmLote(liberacoesPorLivro);
+        liberados.forEach(livroId -> {
+            controleExemplares.liberarAposCommit(livroId, liberacoesPorLivro.get(livroId));
+            livrosEmCache.evict(livroId);
+            mapaDisponibilidade.verificarAposCommit(livroId);
+        });
+
+        // Os updates dos empréstimos saem agrupados no flush que antecede os contadores
+        contadores.registrarTodas(variacoes);
+        janelaLeituraPropriaEscrita.registrarEscrita();
+        return Arrays.asList(resultados);
+    }
+
     @Transactional
     public EmprestimoDTO atualizar(Long id, EmprestimoDTO dto) {
         Emprestimo emprestimo = emprestimoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Empréstimo não encontrado"));
 
+        // O histórico arquivado só guarda empréstimos encerrados (constraint da partição)
+        if (arquivamento.arquivado(emprestimo.getDataEmprestimo()) && !STATUS_ENCERRADO.equals(dto.getStatus())) {
+            throw new IllegalArgumentException("Empréstimo arquivado não pode ser reaberto");
+        }
+
+        String statusAnterior = emprestimo.getStatus();
         emprestimo.setDataDevolucaoPrevista(dto.getDataDevolucaoPrevista());
         emprestimo.setStatus(dto.getStatus());
 
+        // A varredura só olha prazos à frente da sua marca d'água: um prazo movido
+        // para o passado já é marcado aqui
+        if ("ATIVO".equals(emprestimo.getStatus()) && emprestimo.getDataDevolucaoPrevista() != null
+                && emprestimo.getDataDevolucaoPrevista().isBefore(LocalDate.now())) {
+            emprestimo.setStatus("ATRASADO");
+        }
+
         emprestimoRepository.save(emprestimo);
+        contadores.registrar(emprestimo.getUsuario().getId(), statusAnterior, emprestimo.getStatus(), 0);
+        janelaLeituraPropriaEscrita.registrarEscrita();
         return converterParaDTO(emprestimo);
     }
 
     @Transactional
     public void excluir(Long id) {
-        Emprestimo emprestimo = emprestimoRepository.findById(id)
+        Emprestimo emprestimo = emprestimoRepository.buscarParaAtualizacao(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Empréstimo não encontrado"));
 
-        if ("ATIVO".equals(emprestimo.getStatus())) {
-            // Incrementar quantidade disponível do livro
-            Livro livro = emprestimo.getLivro();
-            livro.setQuantidadeDisponivel(livro.getQuantidadeDisponivel() + 1);
-            livroRepository.save(livro);
+        if (!"DEVOLVIDO".equals(emprestimo.getStatus())) {
+            // Exemplar ainda estava emprestado: volta para o acervo
+            liberarExemplar(emprestimo.getLivro().getId());
         }
 
-        emprestimoRepository.deleteById(id);
+        emprestimoRepository.delete(emprestimo);
+        contadores.registrar(emprestimo.getUsuario().getId(), emprestimo.getStatus(), null, -1);
+        janelaLeituraPropriaEscrita.registrarEscrita();
+    }
+
+    private Emprestimo novoEmprestimo(Usuario usuario, Livro livro) {
+        Emprestimo emprestimo = new Emprestimo();
+        emprestimo.setDataEmprestimo(LocalDate.now());
+        emprestimo.setDataDevolucaoPrevista(LocalDate.now().plusDays(14)); // 14 dias de prazo
+        emprestimo.setStatus("ATIVO");
+        emprestimo.setUsuario(usuario);
+        emprestimo.setLivro(livro);
+        return emprestimo;
+    }
+
+    private static void validarLote(List<?> itens) {
+        if (itens == null || itens.isEmpty()) {
+            throw new IllegalArgumentException("O lote deve conter ao menos um item");
+        }
+        if (itens.size() > TAMANHO_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("O lote pode conter no máximo " + TAMANHO_MAXIMO_LOTE + " itens");
+        }
+    }
+
+    private static <T> Set<Long> idsDistintos(List<T> itens, Function<T, Long> id) {
+        return itens.stream()
+                .map(id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static LocalDate converterData(String valor) {
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    private static ResultadoLoteDTO falha(int indice, String mensagem) {
+        return new ResultadoLoteDTO(indice, false, null, mensagem);
+    }
+
+    private void reservarExemplar(Long livroId) {
+        if (!controleExemplares.reservar(livroId, 1)) {
+            throw new IllegalArgumentException("Livro não está disponível");
+        }
+        baixarExemplar(livroId);
+    }
+
+    // Decremento condicional no banco do exemplar já retirado do saldo em memória
+    private void baixarExemplar(Long livroId) {
+        if (livroRepository.reservarExemplares(livroId, 1, LocalDateTime.now()) == 0) {
+            // Outro nó levou o último exemplar: descarta o saldo em memória desatualizado
+            controleExemplares.invalidar(livroId);
+            throw new IllegalArgumentException("Livro não está disponível");
+        }
+        // A quantidade disponível mudou: o livro em cache é removido após o commit e, se
+        // esgotou, sai do mapa de disponibilidade
+        livrosEmCache.evict(livroId);
+        mapaDisponibilidade.verificarAposCommit(livroId);
+    }
+
+    // Devolve um exemplar ao acervo, ou o separa para o próximo da fila de reservas do título
+    void liberarExemplar(Long livroId) {
+        if (filaReservas.repassar(livroId, 1) > 0) {
+            return;
+        }
+        if (livroRepository.liberarExemplares(livroId, 1, LocalDateTime.now()) > 0) {
+            controleExemplares.liberarAposCommit(livroId, 1);
+            livrosEmCache.evict(livroId);
+            mapaDisponibilidade.verificarAposCommit(livroId);
+        }
     }
 
-    private EmprestimoDTO converterParaDTO(Emprestimo emprestimo) {
+    EmprestimoDTO converterParaDTO(Emprestimo emprestimo) {
         return new EmprestimoDTO(
                 emprestimo.getId(),
                 emprestimo.getDataEmprestimo(),
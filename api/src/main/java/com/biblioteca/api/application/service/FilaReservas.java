@@ -0,0 +1,187 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.ReservaFilaDTO;
+import com.biblioteca.api.domain.entity.Reserva;
+import com.biblioteca.api.domain.repository.ReservaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Filas de reserva por livro. A fila fica no banco (tabela reservas, em ordem de chegada) e
+ * todas as decisões saem dele: separar o exemplar devolvido para o primeiro da fila é uma única
+ * instrução, na mesma transação da devolução, e a retirada bloqueia a reserva do usuário.
+ *
+ * Uma cópia ordenada de cada título fica em memória só para informar a posição de cada reserva e
+ * o tamanho da fila; ela muda depois do commit e, como o saldo de exemplares, expira após alguns
+ * segundos e é recarregada do banco.
+ */
+@Component
+public class FilaReservas {
+
+    private static final Comparator<ReservaFilaDTO> ORDEM_CHEGADA =
+            Comparator.comparing(ReservaFilaDTO::getDataReserva).thenComparing(ReservaFilaDTO::getId);
+
+    private final ReservaRepository reservaRepository;
+    private final Cache<Long, Fila> filas;
+    private final Duration prazoRetirada;
+
+    public FilaReservas(ReservaRepository reservaRepository,
+                        @Value("${reservas.fila.tamanho-maximo:100000}") long tamanhoMaximo,
+                        @Value("${reservas.fila.validade-segundos:5}") long validadeSegundos,
+                        @Value("${reservas.prazo-retirada-horas:48}") long prazoRetiradaHoras) {
+        this.reservaRepository = reservaRepository;
+        this.filas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(validadeSegundos))
+                .build();
+        this.prazoRetirada = Duration.ofHours(prazoRetiradaHoras);
+    }
+
+    /**
+     * Separa até {@code quantidade} exemplares devolvidos para os primeiros da fila, que têm
+     * {@code reservas.prazo-retirada-horas} para retirá-los. Devolve quantos foram separados;
+     * o restante volta ao acervo pelo caminho normal.
+     */
+    public int repassar(Long livroId, int quantidade) {
+        int repassados = 0;
+        while (repassados < quantidade) {
+            LocalDateTime agora = LocalDateTime.now();
+            Optional<Long> reservaId = reservaRepository.separarParaProxima(livroId, agora.plus(prazoRetirada), agora);
+            if (reservaId.isEmpty()) {
+                break;
+            }
+            aposCommit(() -> {
+                Fila fila = filas.getIfPresent(livroId);
+                if (fila != null) {
+                    fila.separar(reservaId.get());
+                }
+            });
+            repassados++;
+        }
+        return repassados;
+    }
+
+    /**
+     * Encerra a reserva ativa do usuário para o livro, se houver, ao emprestá-lo. Devolve true
+     * quando havia um exemplar separado para ele: esse exemplar já está fora do acervo.
+     */
+    public boolean retirar(Long usuarioId, Long livroId) {
+        return reservaRepository.buscarAtivaParaAtualizacao(usuarioId, livroId)
+                .map(reserva -> {
+                    boolean separado = "DISPONIVEL".equals(reserva.getStatus());
+                    reserva.setStatus("ATENDIDA");
+                    removerAposCommit(livroId, usuarioId);
+                    return separado;
+                })
+                .orElse(false);
+    }
+
+    public void adicionarAposCommit(Reserva reserva) {
+        Long livroId = reserva.getLivro().getId();
+        ReservaFilaDTO entrada = new ReservaFilaDTO(reserva.getId(), reserva.getUsuario().getId(),
+                reserva.getStatus(), reserva.getDataReserva());
+        aposCommit(() -> {
+            Fila fila = filas.getIfPresent(livroId);
+            if (fila != null) {
+                fila.adicionar(entrada);
+            }
+        });
+    }
+
+    public void removerAposCommit(Long livroId, Long usuarioId) {
+        aposCommit(() -> {
+            Fila fila = filas.getIfPresent(livroId);
+            if (fila != null) {
+                fila.remover(usuarioId);
+            }
+        });
+    }
+
+    // Descarta a fila em memória; o próximo acesso recarrega do banco
+    public void invalidarAposCommit(Long livroId) {
+        aposCommit(() -> filas.invalidate(livroId));
+    }
+
+    public int aguardando(Long livroId) {
+        return filas.get(livroId, this::carregar).aguardando.size();
+    }
+
+    // Posição (a partir de 1) da reserva do usuário entre as que aguardam exemplar
+    public OptionalInt posicao(Long livroId, Long usuarioId) {
+        return filas.get(livroId, this::carregar).posicao(usuarioId);
+    }
+
+    private Fila carregar(Long livroId) {
+        Fila fila = new Fila();
+        reservaRepository.buscarFila(livroId).forEach(fila::adicionar);
+        return fila;
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    /**
+     * Reservas ativas de um título: as que aguardam, em ordem de chegada, e o índice por
+     * usuário (aguardando ou com exemplar separado).
+     */
+    static final class Fila {
+
+        private final ConcurrentSkipListSet<ReservaFilaDTO> aguardando = new ConcurrentSkipListSet<>(ORDEM_CHEGADA);
+        private final Map<Long, ReservaFilaDTO> porUsuario = new ConcurrentHashMap<>();
+
+        void adicionar(ReservaFilaDTO reserva) {
+            porUsuario.put(reserva.getUsuarioId(), reserva);
+            if ("AGUARDANDO".equals(reserva.getStatus())) {
+                aguardando.add(reserva);
+            }
+        }
+
+        void separar(Long reservaId) {
+            for (ReservaFilaDTO reserva : aguardando) {
+                if (reserva.getId().equals(reservaId)) {
+                    aguardando.remove(reserva);
+                    reserva.setStatus("DISPONIVEL");
+                    return;
+                }
+            }
+        }
+
+        void remover(Long usuarioId) {
+            ReservaFilaDTO reserva = porUsuario.remove(usuarioId);
+            if (reserva != null) {
+                aguardando.remove(reserva);
+            }
+        }
+
+        OptionalInt posicao(Long usuarioId) {
+            ReservaFilaDTO reserva = porUsuario.get(usuarioId);
+            if (reserva == null || !aguardando.contains(reserva)) {
+                return OptionalInt.empty();
+            }
+            return OptionalInt.of(aguardando.headSet(reserva).size() + 1);
+        }
+    }
+}
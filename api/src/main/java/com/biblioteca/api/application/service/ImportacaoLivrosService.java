@@ -0,0 +1,257 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.AutorDTO;
+import com.biblioteca.api.domain.dto.CategoriaDTO;
+import com.biblioteca.api.domain.dto.ErroImportacaoDTO;
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.dto.LivroImportacaoDTO;
+import com.biblioteca.api.domain.dto.ResultadoImportacaoDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.event.LivroAlteradoEvent;
+import com.biblioteca.api.domain.repository.AutorRepository;
+import com.biblioteca.api.domain.repository.CategoriaRepository;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.infrastructure.importacao.LeitorImportacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importação em massa de livros a partir de um arquivo CSV ou JSON Lines.
+ *
+ * O arquivo é lido em fluxo e gravado em lotes JDBC, cada lote na sua própria transação.
+ * Antes da leitura, os ISBNs já cadastrados e os autores e categorias (por nome) são
+ * carregados em memória, então validar um registro não custa nenhuma consulta. Autores e
+ * categorias que ainda não existem são criados na primeira vez que aparecem. Um registro
+ * com problema é rejeitado e relatado sem interromper o restante do arquivo.
+ */
+@Service
+public class ImportacaoLivrosService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoLivrosService.class);
+
+    private static final int TAMANHO_LOTE = 1000;
+    private static final int MAXIMO_ERROS_LISTADOS = 1000;
+    private static final int TAMANHO_MAXIMO_TITULO = 255;
+    private static final int TAMANHO_MAXIMO_ISBN = 50;
+    private static final int TAMANHO_MAXIMO_DESCRICAO = 1000;
+
+    private final LivroRepository livroRepository;
+    private final AutorRepository autorRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate leituraTemplate;
+
+    public ImportacaoLivrosService(LivroRepository livroRepository, AutorRepository autorRepository,
+                                   CategoriaRepository categoriaRepository, ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.livroRepository = livroRepository;
+        this.autorRepository = autorRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leituraTemplate = new TransactionTemplate(transactionManager);
+        this.leituraTemplate.setReadOnly(true);
+    }
+
+    public ResultadoImportacaoDTO importar(LeitorImportacao leitor) throws IOException {
+        long inicio = System.currentTimeMillis();
+        Importacao importacao = new Importacao();
+
+        LeitorImportacao.Registro registro;
+        while ((registro = leitor.proximo()) != null) {
+            importacao.resultado.setRegistrosLidos(importacao.resultado.getRegistrosLidos() + 1);
+            if (registro.erro() != null) {
+                importacao.rejeitar(registro.numero(), null, registro.erro());
+                continue;
+            }
+
+            LivroImportacaoDTO item = registro.livro();
+            String erro = validar(item);
+            if (erro == null && !importacao.isbns.add(item.getIsbn())) {
+                erro = "ISBN já cadastrado";
+            }
+            if (erro != null) {
+                importacao.rejeitar(registro.numero(), item.getIsbn(), erro);
+                continue;
+            }
+
+            int disponivel = item.getQuantidadeDisponivel() != null
+                    ? item.getQuantidadeDisponivel()
+                    : item.getQuantidadeTotal();
+            importacao.adicionar(registro.numero(), new LivroDTO(null, item.getTitulo(), item.getIsbn(),
+                    item.getDescricao(), item.getAnoPublicacao(), item.getQuantidadeTotal(), disponivel,
+                    importacao.resolverAutor(item.getAutor()), importacao.resolverCategoria(item.getCategoria())));
+        }
+        importacao.gravarLote();
+
+        ResultadoImportacaoDTO resultado = importacao.resultado;
+        resultado.setDuracaoMs(System.currentTimeMillis() - inicio);
+        log.info("Importação de livros: {} lidos, {} importados, {} rejeitados em {} ms",
+                resultado.getRegistrosLidos(), resultado.getImportados(), resultado.getRejeitados(),
+                resultado.getDuracaoMs());
+        return resultado;
+    }
+
+    private String validar(LivroImportacaoDTO item) {
+        if (item.getIsbn() == null || item.getIsbn().isBlank()) {
+            return "ISBN não pode ser vazio";
+        }
+        item.setIsbn(item.getIsbn().trim());
+        if (item.getIsbn().length() > TAMANHO_MAXIMO_ISBN) {
+            return "ISBN com mais de " + TAMANHO_MAXIMO_ISBN + " caracteres";
+        }
+        if (item.getTitulo() == null || item.getTitulo().isBlank()) {
+            return "Título não pode ser vazio";
+        }
+        if (item.getTitulo().length() > TAMANHO_MAXIMO_TITULO) {
+            return "Título com mais de " + TAMANHO_MAXIMO_TITULO + " caracteres";
+        }
+        if (item.getDescricao() != null && item.getDescricao().length() > TAMANHO_MAXIMO_DESCRICAO) {
+            return "Descrição com mais de " + TAMANHO_MAXIMO_DESCRICAO + " caracteres";
+        }
+        if (item.getAnoPublicacao() == null) {
+            return "Ano de publicação é obrigatório";
+        }
+        if (item.getQuantidadeTotal() == null || item.getQuantidadeTotal() <= 0) {
+            return "Quantidade deve ser maior que zero";
+        }
+        Integer disponivel = item.getQuantidadeDisponivel();
+        if (disponivel != null && (disponivel < 0 || disponivel > item.getQuantidadeTotal())) {
+            return "Quantidade disponível deve estar entre zero e a quantidade total";
+        }
+        if (item.getAutor() == null || item.getAutor().isBlank()) {
+            return "Autor não pode ser vazio";
+        }
+        if (item.getCategoria() == null || item.getCategoria().isBlank()) {
+            return "Categoria não pode ser vazia";
+        }
+        return null;
+    }
+
+    private static String chave(String nome) {
+        return nome.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Estado de uma importação: os mapas de apoio, o lote corrente e o resultado parcial.
+     */
+    private class Importacao {
+
+        private final ResultadoImportacaoDTO resultado = new ResultadoImportacaoDTO();
+        private final Set<String> isbns = new HashSet<>();
+        private final Map<String, Long> autores = new HashMap<>();
+        private final Map<String, Long> categorias = new HashMap<>();
+        private final List<LivroDTO> lote = new ArrayList<>(TAMANHO_LOTE);
+        private final List<Long> registrosDoLote = new ArrayList<>(TAMANHO_LOTE);
+
+        Importacao() {
+            leituraTemplate.executeWithoutResult(status -> livroRepository.percorrerIsbns(isbns::add));
+            for (AutorDTO autor : autorRepository.buscarTodosDTOs()) {
+                autores.putIfAbsent(chave(autor.getNome()), autor.getId());
+            }
+            for (CategoriaDTO categoria : categoriaRepository.buscarTodosDTOs()) {
+                categorias.putIfAbsent(chave(categoria.getNome()), categoria.getId());
+            }
+        }
+
+        void adicionar(long registro, LivroDTO livro) {
+            lote.add(livro);
+            registrosDoLote.add(registro);
+            if (lote.size() == TAMANHO_LOTE) {
+                gravarLote();
+            }
+        }
+
+        void gravarLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> gravar(lote, registrosDoLote));
+            } catch (DataAccessException e) {
+                // Um registro derrubou o lote inteiro: regrava um a um para isolar o culpado
+                log.warn("Lote de importação falhou ({}), gravando registro a registro", e.getMostSpecificCause().getMessage());
+                for (int i = 0; i < lote.size(); i++) {
+                    List<LivroDTO> unitario = List.of(lote.get(i));
+                    List<Long> registro = List.of(registrosDoLote.get(i));
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> gravar(unitario, registro));
+                    } catch (DataAccessException falha) {
+                        rejeitar(registro.get(0), unitario.get(0).getIsbn(), falha.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            lote.clear();
+            registrosDoLote.clear();
+        }
+
+        // Os eventos são entregues ao índice de busca depois do commit do lote
+        private void gravar(List<LivroDTO> livros, List<Long> registros) {
+            List<Long> ids = livroRepository.alocarIds(livros.size());
+            for (int i = 0; i < livros.size(); i++) {
+                livros.get(i).setId(ids.get(i));
+            }
+            Set<Long> inseridos = livroRepository.inserirEmLote(livros);
+            for (int i = 0; i < livros.size(); i++) {
+                LivroDTO livro = livros.get(i);
+                if (inseridos.contains(livro.getId())) {
+                    resultado.setImportados(resultado.getImportados() + 1);
+                    eventPublisher.publishEvent(new LivroAlteradoEvent(livro.getId(), livro));
+                } else {
+                    // Cadastrado por outra requisição depois da carga dos ISBNs
+                    rejeitar(registros.get(i), livro.getIsbn(), "ISBN já cadastrado");
+                }
+            }
+        }
+
+        Long resolverAutor(String nome) {
+            return autores.computeIfAbsent(chave(nome), k -> {
+                Autor autor = new Autor();
+                autor.setNome(nome.trim());
+                resultado.setAutoresCriados(resultado.getAutoresCriados() + 1);
+                return autorRepository.save(autor).getId();
+            });
+        }
+
+        Long resolverCategoria(String nome) {
+            return categorias.computeIfAbsent(chave(nome), k -> {
+                Categoria categoria = new Categoria();
+                categoria.setNome(nome.trim());
+                try {
+                    Long id = categoriaRepository.save(categoria).getId();
+                    resultado.setCategoriasCriadas(resultado.getCategoriasCriadas() + 1);
+                    return id;
+                } catch (DataIntegrityViolationException e) {
+                    // Criada em paralelo por outra requisição (nome é único)
+                    return categoriaRepository.findByNomeIgnoreCase(nome.trim())
+                            .orElseThrow(() -> e)
+                            .getId();
+                }
+            });
+        }
+
+        void rejeitar(long registro, String isbn, String mensagem) {
+            resultado.setRejeitados(resultado.getRejeitados() + 1);
+            if (resultado.getErros().size() < MAXIMO_ERROS_LISTADOS) {
+                resultado.getErros().add(new ErroImportacaoDTO(registro, isbn, mensagem));
+            }
+        }
+    }
+}
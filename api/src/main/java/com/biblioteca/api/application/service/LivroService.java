@@ -1,30 +1,65 @@
 package com.biblioteca.api.application.service;
 
 import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
 import com.biblioteca.api.domain.entity.Livro;
 import com.biblioteca.api.domain.entity.Autor;
 import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.event.LivroAlteradoEvent;
 import com.biblioteca.api.domain.repository.LivroRepository;
 import com.biblioteca.api.domain.repository.AutorRepository;
 import com.biblioteca.api.domain.repository.CategoriaRepository;
+import com.biblioteca.api.infrastructure.config.CacheConfig;
 import com.biblioteca.api.infrastructure.exception.ResourceNotFoundException;
+import com.biblioteca.api.infrastructure.pagination.CursorPaginacao;
+import com.biblioteca.api.infrastructure.search.IndiceBuscaLivros;
+import com.biblioteca.api.infrastructure.search.NormalizadorTexto;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class LivroService {
 
+    public static final int LIMITE_PADRAO_BUSCA = 100;
+    public static final int LIMITE_MAXIMO_BUSCA = 500;
+    private static final LocalDateTime EXPORTAR_DESDE_O_INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final LivroRepository livroRepository;
     private final AutorRepository autorRepository;
     private final CategoriaRepository categoriaRepository;
+    private final AutorService autorService;
+    private final CategoriaService categoriaService;
+    private final ControleExemplares controleExemplares;
+    private final IndiceBuscaLivros indiceBusca;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public LivroService(LivroRepository livroRepository, AutorRepository autorRepository, CategoriaRepository categoriaRepository) {
+    public LivroService(LivroRepository livroRepository, AutorRepository autorRepository, CategoriaRepository categoriaRepository,
+                        AutorService autorService, CategoriaService categoriaService,
+                        ControleExemplares controleExemplares, IndiceBuscaLivros indiceBusca,
+                        ApplicationEventPublisher eventPublisher) {
         this.livroRepository = livroRepository;
         this.autorRepository = autorRepository;
         this.categoriaRepository = categoriaRepository;
+        this.autorService = autorService;
+        this.categoriaService = categoriaService;
+        this.controleExemplares = controleExemplares;
+        this.indiceBusca = indiceBusca;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -33,11 +68,8 @@ public class LivroService {
             throw new IllegalArgumentException("Livro com este ISBN já existe");
         }
 
-        Autor autor = autorRepository.findById(dto.getAutorId())
-                .orElseThrow(() -> new ResourceNotFoundException("Autor não encontrado"));
-
-        Categoria categoria = categoriaRepository.findById(dto.getCategoriaId())
-                .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
+        Autor autor = referenciarAutor(dto.getAutorId());
+        Categoria categoria = referenciarCategoria(dto.getCategoriaId());
 
         Livro livro = new Livro();
         livro.setTitulo(dto.getTitulo());
@@ -50,49 +82,122 @@ public class LivroService {
         livro.setCategoria(categoria);
 
         livroRepository.save(livro);
-        return converterParaDTO(livro);
+        return publicarAlteracao(livro);
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.LIVROS, key = "#id")
     public LivroDTO obterPorId(Long id) {
-        Livro livro = livroRepository.findById(id)
+        return livroRepository.buscarDTOPorId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
-        return converterParaDTO(livro);
     }
 
+    // Lê do banco ignorando o DTO em cache, que pode ser anterior a uma alteração feita por outra
+    // instância, e deixa o cache atualizado
     @Transactional(readOnly = true)
-    public List<LivroDTO> obterTodos() {
-        return livroRepository.findAll()
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+    @CachePut(cacheNames = CacheConfig.LIVROS, key = "#id")
+    public LivroDTO recarregarPorId(Long id) {
+        return livroRepository.buscarDTOPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
+    }
+
+    // Versões para GET condicional: só metadados, sem carregar o recurso
+    @Transactional(readOnly = true)
+    public LocalDateTime obterVersao(Long id) {
+        return livroRepository.buscarDataAtualizacao(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
+    }
+
+    @Transactional(readOnly = true)
+    public VersaoColecaoDTO obterVersaoColecao() {
+        return livroRepository.buscarVersaoColecao();
+    }
+
+    @Transactional(readOnly = true)
+    public VersaoColecaoDTO obterVersaoPorAutor(Long autorId) {
+        return livroRepository.buscarVersaoPorAutor(autorId);
+    }
+
+    @Transactional(readOnly = true)
+    public VersaoColecaoDTO obterVersaoPorCategoria(Long categoriaId) {
+        return livroRepository.buscarVersaoPorCategoria(categoriaId);
     }
 
     @Transactional(readOnly = true)
-    public List<LivroDTO> buscarPorTitulo(String titulo) {
-        return livroRepository.findByTituloContainingIgnoreCase(titulo)
+    public PaginaDTO<LivroDTO> listarPagina(String cursor, Integer tamanho) {
+        int limite = CursorPaginacao.limitarTamanho(tamanho);
+
+        List<LivroDTO> livros;
+        if (cursor == null || cursor.isBlank()) {
+            livros = livroRepository.buscarPrimeiraPagina(CursorPaginacao.limiteConsulta(limite));
+        } else {
+            CursorPaginacao.ChaveCursor chave = CursorPaginacao.decodificarChave(cursor);
+            livros = livroRepository.buscarPaginaApos(chave.chave(), chave.id(), CursorPaginacao.limiteConsulta(limite));
+        }
+
+        return CursorPaginacao.montarPagina(livros, limite, Function.identity(),
+                livro -> CursorPaginacao.codificar(livro.getTitulo(), livro.getId()));
+    }
+
+    // Exportação em fluxo: cada livro vai para o consumidor assim que sai do cursor
+    @Transactional(readOnly = true)
+    public void exportar(LocalDateTime desde, Consumer<LivroDTO> consumidor) {
+        try (Stream<LivroDTO> livros = livroRepository.exportarDTOs(desde != null ? desde : EXPORTAR_DESDE_O_INICIO)) {
+            livros.forEach(consumidor);
+        }
+    }
+
+    /**
+     * Busca textual em título e descrição, do mais relevante para o menos relevante, com no
+     * máximo {@code limite} livros (padrão {@value #LIMITE_PADRAO_BUSCA}, teto {@value #LIMITE_MAXIMO_BUSCA}).
+     *
+     * O índice em memória resolve e ordena a busca, mas guarda só os termos: os livros são lidos
+     * do banco numa consulta pela chave primária, porque a quantidade disponível muda a cada
+     * empréstimo e o índice não acompanha. Consultas que não geram termos (só stopwords ou letras
+     * soltas, como "o") e buscas durante a carga do índice usam o LIKE sobre o título.
+     */
+    @Transactional(readOnly = true)
+    public List<LivroDTO> buscarPorTitulo(String titulo, Integer limite) {
+        int maximo = limitarBusca(limite);
+        if (!indiceBusca.isPronto() || NormalizadorTexto.termos(titulo).isEmpty()) {
+            return livroRepository.buscarDTOsPorTitulo(titulo, Limit.of(maximo));
+        }
+
+        List<Long> ids = indiceBusca.buscar(titulo, maximo);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, LivroDTO> livrosPorId = livroRepository.buscarDTOsPorIds(ids)
                 .stream()
-                .map(this::converterParaDTO)
+                .collect(Collectors.toMap(LivroDTO::getId, Function.identity()));
+        return ids.stream()
+                .map(livrosPorId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    private static int limitarBusca(Integer limite) {
+        if (limite == null) {
+            return LIMITE_PADRAO_BUSCA;
+        }
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Limite da busca deve ser maior que zero");
+        }
+        return Math.min(limite, LIMITE_MAXIMO_BUSCA);
+    }
+
     @Transactional(readOnly = true)
     public List<LivroDTO> buscarPorAutor(Long autorId) {
-        return livroRepository.findByAutorId(autorId)
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        return livroRepository.buscarDTOsPorAutor(autorId);
     }
 
     @Transactional(readOnly = true)
     public List<LivroDTO> buscarPorCategoria(Long categoriaId) {
-        return livroRepository.findByCategoriaId(categoriaId)
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        return livroRepository.buscarDTOsPorCategoria(categoriaId);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.LIVROS, CacheConfig.LIVROS_JSON}, key = "#id")
     public LivroDTO atualizar(Long id, LivroDTO dto) {
         Livro livro = livroRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
@@ -101,11 +206,8 @@ public class LivroService {
             throw new IllegalArgumentException("ISBN já está em uso");
         }
 
-        Autor autor = autorRepository.findById(dto.getAutorId())
-                .orElseThrow(() -> new ResourceNotFoundException("Autor não encontrado"));
-
-        Categoria categoria = categoriaRepository.findById(dto.getCategoriaId())
-                .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
+        Autor autor = referenciarAutor(dto.getAutorId());
+        Categoria categoria = referenciarCategoria(dto.getCategoriaId());
 
         livro.setTitulo(dto.getTitulo());
         livro.setIsbn(dto.getIsbn());
@@ -117,18 +219,40 @@ public class LivroService {
         livro.setCategoria(categoria);
 
         livroRepository.save(livro);
-        return converterParaDTO(livro);
+        controleExemplares.invalidarAposCommit(id);
+        return publicarAlteracao(livro);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.LIVROS, CacheConfig.LIVROS_JSON}, key = "#id")
     public void excluir(Long id) {
         if (!livroRepository.existsById(id)) {
             throw new ResourceNotFoundException("Livro não encontrado");
         }
         livroRepository.deleteById(id);
+        controleExemplares.invalidarAposCommit(id);
+        eventPublisher.publishEvent(new LivroAlteradoEvent(id, null));
+    }
+
+    // A existência é confirmada pelo cache de autores; o livro só guarda a referência
+    private Autor referenciarAutor(Long autorId) {
+        autorService.obterPorId(autorId);
+        return autorRepository.getReferenceById(autorId);
+    }
+
+    private Categoria referenciarCategoria(Long categoriaId) {
+        categoriaService.obterPorId(categoriaId);
+        return categoriaRepository.getReferenceById(categoriaId);
+    }
+
+    // Os ouvintes (índice de busca etc.) só aplicam a alteração depois do commit
+    private LivroDTO publicarAlteracao(Livro livro) {
+        LivroDTO dto = converterParaDTO(livro);
+        eventPublisher.publishEvent(new LivroAlteradoEvent(livro.getId(), dto));
+        return dto;
     }
 
-    private LivroDTO converterParaDTO(Livro livro) {
+    LivroDTO converterParaDTO(Livro livro) {
         return new LivroDTO(
                 livro.getId(),
                 livro.getTitulo(),
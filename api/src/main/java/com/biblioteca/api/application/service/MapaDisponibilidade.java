@@ -0,0 +1,296 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.AlteracoesDisponibilidadeDTO;
+import com.biblioteca.api.domain.dto.DisponibilidadeLivroDTO;
+import com.biblioteca.api.domain.event.LivroAlteradoEvent;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.infrastructure.search.IndiceFacetasLivros;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mapa em memória dos livros com exemplar disponível, num bitmap comprimido (Roaring).
+ *
+ * Cada mudança de um livro entre disponível e indisponível incrementa a versão do mapa e entra
+ * num histórico limitado, de onde saem as alterações desde uma versão conhecida pelo cliente.
+ * Os fluxos de empréstimo e as alterações de livros só marcam o livro após o commit; as
+ * marcações são conferidas no banco em lote a cada intervalo curto. Uma reconciliação
+ * periódica com a tabela corrige o que tiver mudado por fora desta instância.
+ *
+ * Cada mudança é repassada também ao índice de facetas do catálogo.
+ *
+ * Versões só fazem sentido dentro de uma época (o início da instância): com outra época, o
+ * cliente precisa baixar o mapa inteiro de novo.
+ */
+@Component
+public class MapaDisponibilidade {
+
+    private static final Logger log = LoggerFactory.getLogger(MapaDisponibilidade.class);
+
+    private static final int TAMANHO_LOTE_CARGA = 50_000;
+    private static final int TAMANHO_LOTE_VERIFICACAO = 1000;
+    // O bitmap guarda inteiros de 32 bits sem sinal
+    private static final long MAIOR_ID = 0xFFFF_FFFFL;
+
+    private final LivroRepository livroRepository;
+    private final IndiceFacetasLivros indiceFacetas;
+    private final int historicoMaximo;
+    private final long epoca = System.currentTimeMillis();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap disponiveis = new RoaringBitmap();
+    private final ArrayDeque<Alteracao> historico = new ArrayDeque<>();
+    private long versao;
+
+    // Atualizações pelo banco (verificação e reconciliação) nunca rodam em paralelo
+    private final ReentrantLock atualizacao = new ReentrantLock();
+    private final Set<Long> pendentes = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean pronto;
+    private volatile Instantaneo instantaneo;
+
+    public MapaDisponibilidade(LivroRepository livroRepository, IndiceFacetasLivros indiceFacetas,
+                               @Value("${livros.disponibilidade.historico-maximo:100000}") int historicoMaximo) {
+        this.livroRepository = livroRepository;
+        this.indiceFacetas = indiceFacetas;
+        this.historicoMaximo = historicoMaximo;
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    // O livro será conferido no banco se (e quando) a transação corrente for confirmada
+    public void verificarAposCommit(Long livroId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendentes.add(livroId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendentes.add(livroId);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarLivro(LivroAlteradoEvent evento) {
+        pendentes.add(evento.livroId());
+    }
+
+    /**
+     * Mapa completo no formato portável do Roaring, serializado uma vez por versão.
+     * Vazio enquanto a carga inicial não terminou.
+     */
+    public Optional<Instantaneo> obterInstantaneo() {
+        if (!pronto) {
+            return Optional.empty();
+        }
+        Instantaneo atual = instantaneo;
+        RoaringBitmap copia;
+        long versaoCopia;
+        lock.readLock().lock();
+        try {
+            if (atual != null && atual.versao() == versao) {
+                return Optional.of(atual);
+            }
+            copia = disponiveis.clone();
+            versaoCopia = versao;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        copia.runOptimize();
+        ByteBuffer bytes = ByteBuffer.allocate(copia.serializedSizeInBytes());
+        copia.serialize(bytes);
+        atual = new Instantaneo(epoca, versaoCopia, copia.getLongCardinality(), bytes.array());
+        instantaneo = atual;
+        return Optional.of(atual);
+    }
+
+    /**
+     * Estado final dos livros alterados depois da versão {@code desde}. Vazio quando a época
+     * é outra ou o histórico já não alcança essa versão: o cliente deve baixar o mapa inteiro.
+     */
+    public Optional<AlteracoesDisponibilidadeDTO> alteracoesDesde(long epocaCliente, long desde) {
+        if (!pronto || epocaCliente != epoca) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            Alteracao maisAntiga = historico.peekFirst();
+            long cobertoDesde = maisAntiga != null ? maisAntiga.versao() - 1 : versao;
+            if (desde < cobertoDesde || desde > versao) {
+                return Optional.empty();
+            }
+
+            // Do mais recente para o mais antigo: a primeira ocorrência de cada livro é o estado final
+            Map<Long, Boolean> finais = new HashMap<>();
+            Iterator<Alteracao> alteracoes = historico.descendingIterator();
+            while (alteracoes.hasNext()) {
+                Alteracao alteracao = alteracoes.next();
+                if (alteracao.versao() <= desde) {
+                    break;
+                }
+                finais.putIfAbsent(alteracao.livroId(), alteracao.disponivel());
+            }
+
+            List<Long> passaramDisponiveis = new ArrayList<>();
+            List<Long> passaramIndisponiveis = new ArrayList<>();
+            finais.forEach((livroId, disponivel) ->
+                    (disponivel ? passaramDisponiveis : passaramIndisponiveis).add(livroId));
+            passaramDisponiveis.sort(null);
+            passaramIndisponiveis.sort(null);
+            return Optional.of(new AlteracoesDisponibilidadeDTO(epoca, desde, versao,
+                    passaramDisponiveis, passaramIndisponiveis));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconciliar();
+    }
+
+    @Scheduled(fixedDelayString = "${livros.disponibilidade.intervalo-ms:1000}")
+    public void verificarPendentes() {
+        if (!pronto || pendentes.isEmpty()) {
+            return;
+        }
+        atualizacao.lock();
+        try {
+            // Retira antes de consultar: um commit posterior à consulta marca o livro de novo
+            List<Long> lote = new ArrayList<>(TAMANHO_LOTE_VERIFICACAO);
+            Iterator<Long> marcados = pendentes.iterator();
+            while (marcados.hasNext()) {
+                lote.add(marcados.next());
+                marcados.remove();
+                if (lote.size() == TAMANHO_LOTE_VERIFICACAO) {
+                    verificar(lote);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                verificar(lote);
+            }
+        } finally {
+            atualizacao.unlock();
+        }
+    }
+
+    /**
+     * Relê da tabela todos os livros disponíveis e aplica a diferença. Livros com verificação
+     * pendente ficam de fora: a verificação seguinte os lê mais recentes que esta varredura.
+     */
+    @Scheduled(fixedDelayString = "${livros.disponibilidade.reconciliacao-ms:300000}",
+            initialDelayString = "${livros.disponibilidade.reconciliacao-ms:300000}")
+    public void reconciliar() {
+        atualizacao.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            RoaringBitmap lidos = new RoaringBitmap();
+            long ultimoId = 0L;
+            List<Long> pagina;
+            do {
+                pagina = livroRepository.buscarIdsDisponiveisAposId(ultimoId, Limit.of(TAMANHO_LOTE_CARGA));
+                for (Long livroId : pagina) {
+                    if (livroId <= MAIOR_ID) {
+                        lidos.add((int) livroId.longValue());
+                    }
+                    ultimoId = livroId;
+                }
+            } while (pagina.size() == TAMANHO_LOTE_CARGA);
+
+            int alterados = 0;
+            lock.writeLock().lock();
+            try {
+                if (!pronto) {
+                    // Carga inicial: vira a versão 0, sem histórico
+                    disponiveis.or(lidos);
+                    pronto = true;
+                } else {
+                    RoaringBitmap diferenca = RoaringBitmap.xor(disponiveis, lidos);
+                    for (int chave : diferenca) {
+                        long livroId = Integer.toUnsignedLong(chave);
+                        if (!pendentes.contains(livroId) && aplicar(livroId, lidos.contains(chave))) {
+                            alterados++;
+                        }
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Mapa de disponibilidade reconciliado: {} livros disponíveis, {} alterados em {} ms",
+                    lidos.getLongCardinality(), alterados, System.currentTimeMillis() - inicio);
+        } finally {
+            atualizacao.unlock();
+        }
+    }
+
+    private void verificar(List<Long> livroIds) {
+        Map<Long, Integer> quantidades = new HashMap<>();
+        for (DisponibilidadeLivroDTO disponibilidade : livroRepository.buscarDisponibilidades(livroIds)) {
+            quantidades.put(disponibilidade.getLivroId(), disponibilidade.getQuantidadeDisponivel());
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long livroId : livroIds) {
+                // Ausente na tabela: o livro foi excluído
+                Integer quantidade = quantidades.get(livroId);
+                aplicar(livroId, quantidade != null && quantidade > 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Chamado com o bloqueio de escrita; só mudanças reais geram versão
+    private boolean aplicar(long livroId, boolean disponivel) {
+        if (livroId < 0 || livroId > MAIOR_ID) {
+            return false;
+        }
+        int chave = (int) livroId;
+        boolean mudou = disponivel ? disponiveis.checkedAdd(chave) : disponiveis.checkedRemove(chave);
+        if (mudou) {
+            versao++;
+            historico.addLast(new Alteracao(versao, livroId, disponivel));
+            if (historico.size() > historicoMaximo) {
+                historico.removeFirst();
+            }
+            indiceFacetas.marcarDisponibilidade(livroId, disponivel);
+        }
+        return mudou;
+    }
+
+    public record Instantaneo(long epoca, long versao, long disponiveis, byte[] bitmap) {
+    }
+
+    private record Alteracao(long versao, long livroId, boolean disponivel) {
+    }
+}
@@ -0,0 +1,199 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.ReservaDTO;
+import com.biblioteca.api.domain.entity.Reserva;
+import com.biblioteca.api.domain.entity.Usuario;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.domain.repository.ReservaRepository;
+import com.biblioteca.api.domain.repository.UsuarioRepository;
+import com.biblioteca.api.infrastructure.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reservas de livros sem exemplar disponível. Em vez de tentar o empréstimo repetidamente, o
+ * usuário entra na fila do título; cada exemplar devolvido é separado para o primeiro da fila
+ * (ver {@link FilaReservas}), que o retira criando o empréstimo normalmente. Exemplares
+ * separados e não retirados no prazo passam para o próximo da fila.
+ */
+@Service
+public class ReservaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaService.class);
+
+    private static final List<String> STATUS_ATIVOS = List.of("AGUARDANDO", "DISPONIVEL");
+
+    private final ReservaRepository reservaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final LivroRepository livroRepository;
+    private final FilaReservas filaReservas;
+    private final EmprestimoService emprestimoService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+
+    public ReservaService(ReservaRepository reservaRepository, UsuarioRepository usuarioRepository,
+                          LivroRepository livroRepository, FilaReservas filaReservas,
+                          EmprestimoService emprestimoService, PlatformTransactionManager transactionManager,
+                          @Value("${reservas.expiracao.tamanho-lote:500}") int tamanhoLote) {
+        this.reservaRepository = reservaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.livroRepository = livroRepository;
+        this.filaReservas = filaReservas;
+        this.emprestimoService = emprestimoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Transactional
+    public ReservaDTO reservar(ReservaDTO dto) {
+        if (dto.getUsuarioId() == null || dto.getLivroId() == null) {
+            throw new IllegalArgumentException("Usuário e livro são obrigatórios");
+        }
+        // Com o usuário bloqueado, reservas simultâneas dele passam uma de cada vez pela verificação
+        // de reserva ativa abaixo; o índice único parcial do banco (V8) continua como garantia final
+        Usuario usuario = usuarioRepository.buscarParaAtualizacao(dto.getUsuarioId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+        int disponiveis = livroRepository.buscarQuantidadeDisponivel(dto.getLivroId())
+                .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
+
+        // Com exemplar livre e ninguém na frente, não há o que esperar
+        int aguardando = filaReservas.aguardando(dto.getLivroId());
+        if (disponiveis > 0 && aguardando == 0) {
+            throw new IllegalArgumentException("Livro disponível: faça o empréstimo diretamente");
+        }
+        if (reservaRepository.existsByUsuarioIdAndLivroIdAndStatusIn(usuario.getId(), dto.getLivroId(), STATUS_ATIVOS)) {
+            throw new IllegalArgumentException("Usuário já tem uma reserva ativa para este livro");
+        }
+
+        Reserva reserva = new Reserva();
+        // Mesma precisão do banco: a fila recarregada tem a mesma ordem da mantida em memória
+        reserva.setDataReserva(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        reserva.setStatus("AGUARDANDO");
+        reserva.setUsuario(usuario);
+        reserva.setLivro(livroRepository.getReferenceById(dto.getLivroId()));
+        reservaRepository.save(reserva);
+        filaReservas.adicionarAposCommit(reserva);
+
+        ReservaDTO reservaDTO = converterParaDTO(reserva);
+        reservaDTO.setPosicao(aguardando + 1);
+        return reservaDTO;
+    }
+
+    @Transactional(readOnly = true)
+    public ReservaDTO obterPorId(Long id) {
+        Reserva reserva = reservaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada"));
+        ReservaDTO dto = converterParaDTO(reserva);
+        if ("AGUARDANDO".equals(reserva.getStatus())) {
+            filaReservas.posicao(dto.getLivroId(), dto.getUsuarioId()).ifPresent(dto::setPosicao);
+        }
+        return dto;
+    }
+
+    // Reservas ativas do usuário: aguardando (com a posição na fila) ou com exemplar separado
+    @Transactional(readOnly = true)
+    public List<ReservaDTO> buscarPorUsuario(Long usuarioId) {
+        if (!usuarioRepository.existsById(usuarioId)) {
+            throw new ResourceNotFoundException("Usuário não encontrado");
+        }
+        List<ReservaDTO> reservas = new ArrayList<>();
+        for (Reserva reserva : reservaRepository.buscarAtivasPorUsuario(usuarioId)) {
+            ReservaDTO dto = converterParaDTO(reserva);
+            if ("AGUARDANDO".equals(reserva.getStatus())) {
+                filaReservas.posicao(dto.getLivroId(), usuarioId).ifPresent(dto::setPosicao);
+            }
+            reservas.add(dto);
+        }
+        return reservas;
+    }
+
+    // Fila do livro na ordem de atendimento: primeiro quem já tem exemplar separado
+    @Transactional(readOnly = true)
+    public List<ReservaDTO> buscarFila(Long livroId) {
+        if (!livroRepository.existsById(livroId)) {
+            throw new ResourceNotFoundException("Livro não encontrado");
+        }
+        List<ReservaDTO> separadas = new ArrayList<>();
+        List<ReservaDTO> aguardando = new ArrayList<>();
+        for (Reserva reserva : reservaRepository.buscarAtivasPorLivro(livroId)) {
+            ReservaDTO dto = converterParaDTO(reserva);
+            if ("AGUARDANDO".equals(reserva.getStatus())) {
+                dto.setPosicao(aguardando.size() + 1);
+                aguardando.add(dto);
+            } else {
+                separadas.add(dto);
+            }
+        }
+        separadas.addAll(aguardando);
+        return separadas;
+    }
+
+    @Transactional
+    public void cancelar(Long id) {
+        Reserva reserva = reservaRepository.buscarParaAtualizacao(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada"));
+
+        String statusAnterior = reserva.getStatus();
+        if (!"AGUARDANDO".equals(statusAnterior) && !"DISPONIVEL".equals(statusAnterior)) {
+            throw new IllegalArgumentException("Reserva não está ativa");
+        }
+        reserva.setStatus("CANCELADA");
+        Long livroId = reserva.getLivro().getId();
+        filaReservas.removerAposCommit(livroId, reserva.getUsuario().getId());
+
+        if ("DISPONIVEL".equals(statusAnterior)) {
+            // O exemplar separado passa para o próximo da fila ou volta ao acervo
+            emprestimoService.liberarExemplar(livroId);
+        }
+    }
+
+    /**
+     * Expira, em blocos, os exemplares separados e não retirados no prazo. Cada exemplar passa
+     * para o próximo da fila (ou volta ao acervo) na mesma transação em que a reserva expira;
+     * reservas bloqueadas por uma retirada em andamento são puladas.
+     */
+    @Scheduled(fixedDelayString = "${reservas.expiracao.intervalo-ms:60000}",
+            initialDelayString = "${reservas.expiracao.intervalo-ms:60000}")
+    public void expirarSeparadas() {
+        long expiradas = 0;
+        int doLote;
+        do {
+            doLote = transactionTemplate.execute(status -> {
+                List<Long> livros = reservaRepository.expirarSeparadas(LocalDateTime.now(), tamanhoLote);
+                for (Long livroId : livros) {
+                    filaReservas.invalidarAposCommit(livroId);
+                    emprestimoService.liberarExemplar(livroId);
+                }
+                return livros.size();
+            });
+            expiradas += doLote;
+        } while (doLote == tamanhoLote);
+
+        if (expiradas > 0) {
+            log.info("Reservas: {} exemplares separados expiraram e foram repassados", expiradas);
+        }
+    }
+
+    private ReservaDTO converterParaDTO(Reserva reserva) {
+        return new ReservaDTO(
+                reserva.getId(),
+                reserva.getUsuario().getId(),
+                reserva.getLivro().getId(),
+                reserva.getStatus(),
+                reserva.getDataReserva(),
+                reserva.getDataExpiracao(),
+                null
+        );
+    }
+}
@@ -1,15 +1,20 @@
 package com.biblioteca.api.application.service;
 
 import com.biblioteca.api.domain.dto.UsuarioDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
 import com.biblioteca.api.domain.dto.UsuarioCriacaoDTO;
 import com.biblioteca.api.domain.entity.Usuario;
+import com.biblioteca.api.domain.repository.ResumoEmprestimosRepository;
 import com.biblioteca.api.domain.repository.UsuarioRepository;
 import com.biblioteca.api.infrastructure.exception.ResourceNotFoundException;
+import com.biblioteca.api.infrastructure.pagination.CursorPaginacao;
+import com.biblioteca.api.infrastructure.security.JwtAuthenticationCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,10 +22,16 @@ public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JwtAuthenticationCache autenticacaoCache;
+    private final ResumoEmprestimosRepository resumoEmprestimosRepository;
 
-    public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder,
+                          JwtAuthenticationCache autenticacaoCache,
+                          ResumoEmprestimosRepository resumoEmprestimosRepository) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
+        this.autenticacaoCache = autenticacaoCache;
+        this.resumoEmprestimosRepository = resumoEmprestimosRepository;
     }
 
     @Transactional
@@ -41,24 +52,24 @@ public class UsuarioService {
 
     @Transactional(readOnly = true)
     public UsuarioDTO obterPorId(Long id) {
-        Usuario usuario = usuarioRepository.findById(id)
+        return usuarioRepository.buscarDTOPorId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-        return converterParaDTO(usuario);
     }
 
     @Transactional(readOnly = true)
-    public List<UsuarioDTO> obterTodos() {
-        return usuarioRepository.findAll()
-                .stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<UsuarioDTO> listarPagina(String cursor, Integer tamanho) {
+        int limite = CursorPaginacao.limitarTamanho(tamanho);
+        List<UsuarioDTO> usuarios = usuarioRepository.buscarDTOsAposId(
+                CursorPaginacao.decodificarId(cursor), CursorPaginacao.limiteConsulta(limite));
+
+        return CursorPaginacao.montarPagina(usuarios, limite, Function.identity(),
+                usuario -> CursorPaginacao.codificar(usuario.getId()));
     }
 
     @Transactional(readOnly = true)
     public List<UsuarioDTO> buscarPorEmail(String email) {
-        return usuarioRepository.findByEmail(email)
+        return usuarioRepository.buscarDTOPorEmail(email)
                 .stream()
-                .map(this::converterParaDTO)
                 .collect(Collectors.toList());
     }
 
@@ -67,6 +78,9 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
+        // Tokens já verificados deste usuário precisam ser revalidados
+        autenticacaoCache.invalidarUsuario(usuario.getEmail());
+
         usuario.setNome(dto.getNome());
         usuario.setEmail(dto.getEmail());
         usuario.setFuncao(dto.getFuncao());
@@ -77,13 +91,15 @@ public class UsuarioService {
 
     @Transactional
     public void excluir(Long id) {
-        if (!usuarioRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Usuário não encontrado");
-        }
-        usuarioRepository.deleteById(id);
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+
+        autenticacaoCache.invalidarUsuario(usuario.getEmail());
+        resumoEmprestimosRepository.excluirPorUsuario(id);
+        usuarioRepository.delete(usuario);
     }
 
-    private UsuarioDTO converterParaDTO(Usuario usuario) {
+    UsuarioDTO converterParaDTO(Usuario usuario) {
         return new UsuarioDTO(
                 usuario.getId(),
                 usuario.getNome(),
@@ -0,0 +1,115 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.EstatisticasVarreduraDTO;
+import com.biblioteca.api.domain.repository.EmprestimoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Varredura periódica que marca como ATRASADO os empréstimos ativos com prazo vencido.
+ *
+ * Cada execução só considera os prazos entre a marca d'água da execução anterior e hoje,
+ * e atualiza em blocos limitados, cada um na sua própria transação, para não segurar
+ * bloqueios sobre muitas linhas. Como um empréstimo só vence quando muda o dia, as
+ * execuções seguintes no mesmo dia não tocam o banco. Na subida da aplicação a marca
+ * d'água está vazia e a primeira execução recupera todo o atraso acumulado.
+ *
+ * Linhas bloqueadas por uma devolução em andamento são puladas (SKIP LOCKED). Se alguma
+ * delas continuar ATIVO ao fim da execução, a marca d'água para no prazo mais antigo que
+ * ficou para trás, e a execução seguinte varre de novo a partir dele.
+ *
+ * A exclusão mútua usa um ReentrantLock em vez de synchronized porque a varredura espera
+ * pelo banco segurando o bloqueio, o que prenderia a thread portadora com threads virtuais.
+ */
+@Component
+public class VarreduraAtrasos {
+
+    private static final Logger log = LoggerFactory.getLogger(VarreduraAtrasos.class);
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final ArquivamentoEmprestimos arquivamento;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+    private final ReentrantLock execucao = new ReentrantLock();
+
+    private final AtomicLong execucoes = new AtomicLong();
+    private final AtomicLong linhasAtualizadasTotal = new AtomicLong();
+    private volatile long linhasAtualizadasUltimaExecucao;
+    private volatile long duracaoUltimaExecucaoMs;
+    private volatile LocalDateTime ultimaExecucao;
+    private volatile LocalDate varridoAte;
+
+    public VarreduraAtrasos(EmprestimoRepository emprestimoRepository, ArquivamentoEmprestimos arquivamento,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${emprestimos.atrasos.tamanho-lote:1000}") int tamanhoLote) {
+        this.emprestimoRepository = emprestimoRepository;
+        this.arquivamento = arquivamento;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Scheduled(fixedDelayString = "${emprestimos.atrasos.intervalo-ms:300000}",
+            initialDelayString = "${emprestimos.atrasos.atraso-inicial-ms:30000}")
+    public void varrer() {
+        execucao.lock();
+        try {
+            varrerAteHoje();
+        } finally {
+            execucao.unlock();
+        }
+    }
+
+    private void varrerAteHoje() {
+        LocalDate hoje = LocalDate.now();
+        if (varridoAte != null && !hoje.isAfter(varridoAte)) {
+            return;
+        }
+
+        long inicio = System.currentTimeMillis();
+        LocalDate desde = varridoAte != null ? varridoAte : LocalDate.EPOCH;
+        long atualizadas = 0;
+        int doLote;
+        do {
+            doLote = transactionTemplate.execute(status ->
+                    emprestimoRepository.marcarAtrasados(arquivamento.inicioAbertos(), desde, hoje, tamanhoLote,
+                            LocalDateTime.now()));
+            atualizadas += doLote;
+        } while (doLote == tamanhoLote);
+
+        // Só avança até hoje se nada da faixa ficou para trás por estar bloqueado
+        LocalDate pendente = emprestimoRepository.buscarPrimeiroPrazoVencidoAtivo(arquivamento.inicioAbertos(), desde, hoje);
+        varridoAte = pendente != null ? pendente : hoje;
+        duracaoUltimaExecucaoMs = System.currentTimeMillis() - inicio;
+        linhasAtualizadasUltimaExecucao = atualizadas;
+        linhasAtualizadasTotal.addAndGet(atualizadas);
+        ultimaExecucao = LocalDateTime.now();
+        execucoes.incrementAndGet();
+        log.info("Varredura de atrasos: {} empréstimos marcados como ATRASADO em {} ms",
+                atualizadas, duracaoUltimaExecucaoMs);
+        if (pendente != null) {
+            log.info("Varredura de atrasos: empréstimos bloqueados ficaram para a próxima execução (prazos desde {})",
+                    pendente);
+        }
+    }
+
+    public EstatisticasVarreduraDTO obterEstatisticas() {
+        return new EstatisticasVarreduraDTO(
+                execucoes.get(),
+                linhasAtualizadasTotal.get(),
+                linhasAtualizadasUltimaExecucao,
+                duracaoUltimaExecucaoMs,
+                ultimaExecucao,
+                varridoAte
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlteracoesDisponibilidadeDTO {
+    private long epoca;
+
+    private long desde;
+
+    private long versao;
+
+    // Estado final de cada livro alterado entre as duas versões
+    private List<Long> disponiveis;
+
+    private List<Long> indisponiveis;
+}
@@ -0,0 +1,32 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuscaFacetadaDTO {
+    private List<LivroResumoDTO> itens;
+
+    // Cursor opaco para a próxima página (null quando não há mais registros)
+    private String proximoCursor;
+
+    // Livros que atendem a todos os filtros
+    private long total;
+
+    // Contagens por faceta: cada uma considera os demais filtros, mas não o seu próprio
+    private Map<Long, Integer> autores;
+
+    private Map<Long, Integer> categorias;
+
+    private Map<Integer, Integer> anos;
+
+    private int disponiveis;
+
+    private int indisponiveis;
+}
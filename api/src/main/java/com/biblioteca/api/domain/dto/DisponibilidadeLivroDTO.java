@@ -0,0 +1,14 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadeLivroDTO {
+    private Long livroId;
+
+    private Integer quantidadeDisponivel;
+}
@@ -0,0 +1,17 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroImportacaoDTO {
+    // Posição do registro no arquivo (a partir de 1, sem contar o cabeçalho do CSV)
+    private long registro;
+
+    private String isbn;
+
+    private String mensagem;
+}
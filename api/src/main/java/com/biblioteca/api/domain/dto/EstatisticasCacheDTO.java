@@ -0,0 +1,22 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticasCacheDTO {
+    private String nome;
+
+    private long tamanho;
+
+    private long acertos;
+
+    private long falhas;
+
+    private double taxaAcerto;
+
+    private long remocoes;
+}
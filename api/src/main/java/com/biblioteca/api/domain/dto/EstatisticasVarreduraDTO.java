@@ -0,0 +1,26 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticasVarreduraDTO {
+    private long execucoes;
+
+    private long linhasAtualizadasTotal;
+
+    private long linhasAtualizadasUltimaExecucao;
+
+    private long duracaoUltimaExecucaoMs;
+
+    private LocalDateTime ultimaExecucao;
+
+    // Empréstimos com prazo anterior a esta data já foram marcados como atrasados
+    private LocalDate varridoAte;
+}
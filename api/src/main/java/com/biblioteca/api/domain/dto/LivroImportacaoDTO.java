@@ -0,0 +1,28 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LivroImportacaoDTO {
+    private String titulo;
+
+    private String isbn;
+
+    private String descricao;
+
+    private Integer anoPublicacao;
+
+    private Integer quantidadeTotal;
+
+    // Quando ausente, igual à quantidade total
+    private Integer quantidadeDisponivel;
+
+    // Autor e categoria pelo nome; criados se ainda não existirem
+    private String autor;
+
+    private String categoria;
+}
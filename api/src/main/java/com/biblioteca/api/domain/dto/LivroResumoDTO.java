@@ -0,0 +1,22 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LivroResumoDTO {
+    private Long id;
+
+    private String titulo;
+
+    private Long autorId;
+
+    private Long categoriaId;
+
+    private Integer anoPublicacao;
+
+    private boolean disponivel;
+}
@@ -0,0 +1,28 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaDTO {
+    private Long id;
+
+    private Long usuarioId;
+
+    private Long livroId;
+
+    private String status;
+
+    private LocalDateTime dataReserva;
+
+    // Prazo para retirar o exemplar separado, quando o status é DISPONIVEL
+    private LocalDateTime dataExpiracao;
+
+    // Posição na fila do livro (1 = próximo a receber um exemplar), quando o status é AGUARDANDO
+    private Integer posicao;
+}
@@ -0,0 +1,21 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Reserva ativa na fila de um livro, como mantida em memória
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaFilaDTO {
+    private Long id;
+
+    private Long usuarioId;
+
+    private String status;
+
+    private LocalDateTime dataReserva;
+}
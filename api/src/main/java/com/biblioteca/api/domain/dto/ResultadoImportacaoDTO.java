@@ -0,0 +1,28 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacaoDTO {
+    private long registrosLidos;
+
+    private long importados;
+
+    private long rejeitados;
+
+    private int autoresCriados;
+
+    private int categoriasCriadas;
+
+    private long duracaoMs;
+
+    // Limitado aos primeiros erros; o total está em rejeitados
+    private List<ErroImportacaoDTO> erros = new ArrayList<>();
+}
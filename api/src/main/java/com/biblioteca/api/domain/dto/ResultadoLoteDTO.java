@@ -0,0 +1,19 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+    // Posição do item na requisição
+    private int indice;
+
+    private boolean sucesso;
+
+    private EmprestimoDTO emprestimo;
+
+    private String mensagem;
+}
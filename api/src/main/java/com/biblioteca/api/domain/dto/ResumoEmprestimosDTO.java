@@ -0,0 +1,20 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoEmprestimosDTO {
+    private Long usuarioId;
+
+    // Em aberto e dentro do prazo
+    private Long ativos;
+
+    private Long atrasados;
+
+    // Todos os empréstimos do usuário, inclusive os já devolvidos
+    private Long total;
+}
@@ -0,0 +1,16 @@
+package com.biblioteca.api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersaoColecaoDTO {
+    private Long quantidade;
+
+    private LocalDateTime ultimaAtualizacao;
+}
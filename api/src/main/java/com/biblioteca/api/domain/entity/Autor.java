@@ -1,15 +1,20 @@
 package com.biblioteca.api.domain.entity;
 
+import com.biblioteca.api.infrastructure.config.CacheSegundoNivelConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheSegundoNivelConfig.REGIAO_AUTORES)
 @Table(name = "autores")
 @Data
 @NoArgsConstructor
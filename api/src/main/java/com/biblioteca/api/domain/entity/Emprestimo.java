@@ -9,14 +9,20 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "emprestimos")
+@Table(name = "emprestimos", indexes = {
+        @Index(name = "idx_emprestimos_usuario_status_data", columnList = "usuario_id, status, data_emprestimo, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Emprestimo {
 
+    // Sequência com alocação em blocos: permite o batching de inserts do Hibernate. Na tabela
+    // particionada (V9) a chave primária é (id, data_emprestimo): só o id não descarta partições,
+    // e cada leitura, update ou delete por id consulta o índice da chave de todas elas
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emprestimos_seq")
+    @SequenceGenerator(name = "emprestimos_seq", sequenceName = "emprestimos_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -11,14 +11,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "livros")
+@Table(name = "livros", indexes = {
+        @Index(name = "idx_livros_titulo_id", columnList = "titulo, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Livro {
 
+    // Sequência com alocação em blocos: permite o batching de inserts do Hibernate
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livros_seq")
+    @SequenceGenerator(name = "livros_seq", sequenceName = "livros_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Título não pode ser vazio")
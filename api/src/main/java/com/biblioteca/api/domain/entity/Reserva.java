@@ -0,0 +1,63 @@
+package com.biblioteca.api.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reservas", indexes = {
+        @Index(name = "idx_reservas_livro_status_data", columnList = "livro_id, status, data_reserva, id"),
+        @Index(name = "idx_reservas_usuario_status", columnList = "usuario_id, status"),
+        @Index(name = "idx_reservas_status_expiracao", columnList = "status, data_expiracao")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservas_seq")
+    @SequenceGenerator(name = "reservas_seq", sequenceName = "reservas_id_seq", allocationSize = 50)
+    private Long id;
+
+    // Ordem de chegada na fila do livro
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime dataReserva;
+
+    // Prazo para retirar o exemplar separado (só com status DISPONIVEL)
+    private LocalDateTime dataExpiracao;
+
+    @Column(nullable = false)
+    private String status; // AGUARDANDO, DISPONIVEL, ATENDIDA, EXPIRADA, CANCELADA
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime dataCriacao;
+
+    @Column(nullable = false)
+    private LocalDateTime dataAtualizacao;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "livro_id", nullable = false)
+    private Livro livro;
+
+    @PrePersist
+    protected void onCreate() {
+        dataCriacao = LocalDateTime.now();
+        dataAtualizacao = LocalDateTime.now();
+        if (status == null) {
+            status = "AGUARDANDO";
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        dataAtualizacao = LocalDateTime.now();
+    }
+}
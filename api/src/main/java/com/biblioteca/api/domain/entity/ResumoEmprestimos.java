@@ -0,0 +1,33 @@
+package com.biblioteca.api.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Contadores de empréstimos por usuário, mantidos pelas mesmas transações que alteram os empréstimos
+@Entity
+@Table(name = "resumo_emprestimos_usuario")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoEmprestimos {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private Long ativos;
+
+    @Column(nullable = false)
+    private Long atrasados;
+
+    @Column(nullable = false)
+    private Long total;
+
+    @Column(nullable = false)
+    private LocalDateTime dataAtualizacao;
+}
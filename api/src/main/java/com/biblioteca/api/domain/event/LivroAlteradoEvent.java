@@ -0,0 +1,14 @@
+package com.biblioteca.api.domain.event;
+
+import com.biblioteca.api.domain.dto.LivroDTO;
+
+/**
+ * Publicado pelo LivroService quando um livro é criado, atualizado ou excluído.
+ * Para exclusões, {@code livro} é null.
+ */
+public record LivroAlteradoEvent(Long livroId, LivroDTO livro) {
+
+    public boolean removido() {
+        return livro == null;
+    }
+}
@@ -1,12 +1,60 @@
 package com.biblioteca.api.domain.repository;
 
+import com.biblioteca.api.domain.dto.AutorDTO;
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
 import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.infrastructure.config.CacheSegundoNivelConfig;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, Long> {
-    List<Autor> findByNomeContainingIgnoreCase(String nome);
+    // Projeções direto no DTO: leitura sem entidades gerenciadas no contexto de persistência
+    String PROJECAO_DTO = "select new com.biblioteca.api.domain.dto.AutorDTO(a.id, a.nome, a.biografia) from Autor a ";
+
+    // Listagens no cache de consultas: as projeções não passam pelo cache de entidades
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheSegundoNivelConfig.REGIAO_CONSULTAS_CATALOGO)
+    })
+    @Query(PROJECAO_DTO + "order by a.id")
+    List<AutorDTO> buscarTodosDTOs();
+
+    @Query(PROJECAO_DTO + "where a.id = :id")
+    Optional<AutorDTO> buscarDTOPorId(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheSegundoNivelConfig.REGIAO_CONSULTAS_CATALOGO)
+    })
+    @Query(PROJECAO_DTO + "where a.id > :id order by a.id")
+    List<AutorDTO> buscarDTOsAposId(@Param("id") Long id, Limit limite);
+
+    // Busca por nome no cache de consultas; invalidada a cada escrita na tabela de autores
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheSegundoNivelConfig.REGIAO_CONSULTAS_CATALOGO)
+    })
+    @Query(PROJECAO_DTO + "where lower(a.nome) like lower(concat('%', :nome, '%'))")
+    List<AutorDTO> buscarDTOsPorNome(@Param("nome") String nome);
+
+    // Metadados para GET condicional, sem carregar as linhas
+    String VERSAO_COLECAO = "select new com.biblioteca.api.domain.dto.VersaoColecaoDTO(count(a), max(a.dataAtualizacao)) " +
+            "from Autor a ";
+
+    @Query("select a.dataAtualizacao from Autor a where a.id = :id")
+    Optional<LocalDateTime> buscarDataAtualizacao(@Param("id") Long id);
+
+    @Query(VERSAO_COLECAO)
+    VersaoColecaoDTO buscarVersaoColecao();
 }
@@ -1,15 +1,66 @@
 package com.biblioteca.api.domain.repository;
 
+import com.biblioteca.api.domain.dto.CategoriaDTO;
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
 import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.infrastructure.config.CacheSegundoNivelConfig;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
-    List<Categoria> findByNomeContainingIgnoreCase(String nome);
-
+    // Cache de consultas: o resultado guarda só o id, e a categoria vem do cache de segundo nível
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheSegundoNivelConfig.REGIAO_CONSULTAS_CATALOGO)
+    })
     Optional<Categoria> findByNomeIgnoreCase(String nome);
+
+    // Projeções direto no DTO: leitura sem entidades gerenciadas no contexto de persistência
+    String PROJECAO_DTO = "select new com.biblioteca.api.domain.dto.CategoriaDTO(c.id, c.nome, c.descricao) from Categoria c ";
+
+    // Listagens no cache de consultas: as projeções não passam pelo cache de entidades
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheSegundoNivelConfig.REGIAO_CONSULTAS_CATALOGO)
+    })
+    @Query(PROJECAO_DTO + "order by c.id")
+    List<CategoriaDTO> buscarTodosDTOs();
+
+    @Query(PROJECAO_DTO + "where c.id = :id")
+    Optional<CategoriaDTO> buscarDTOPorId(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheSegundoNivelConfig.REGIAO_CONSULTAS_CATALOGO)
+    })
+    @Query(PROJECAO_DTO + "where c.id > :id order by c.id")
+    List<CategoriaDTO> buscarDTOsAposId(@Param("id") Long id, Limit limite);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheSegundoNivelConfig.REGIAO_CONSULTAS_CATALOGO)
+    })
+    @Query(PROJECAO_DTO + "where lower(c.nome) like lower(concat('%', :nome, '%'))")
+    List<CategoriaDTO> buscarDTOsPorNome(@Param("nome") String nome);
+
+    // Metadados para GET condicional, sem carregar as linhas
+    String VERSAO_COLECAO = "select new com.biblioteca.api.domain.dto.VersaoColecaoDTO(count(c), max(c.dataAtualizacao)) " +
+            "from Categoria c ";
+
+    @Query("select c.dataAtualizacao from Categoria c where c.id = :id")
+    Optional<LocalDateTime> buscarDataAtualizacao(@Param("id") Long id);
+
+    @Query(VERSAO_COLECAO)
+    VersaoColecaoDTO buscarVersaoColecao();
 }
@@ -1,18 +1,133 @@
 package com.biblioteca.api.domain.repository;
 
+import com.biblioteca.api.domain.dto.EmprestimoDTO;
+import com.biblioteca.api.domain.dto.ResumoEmprestimosDTO;
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
 import com.biblioteca.api.domain.entity.Emprestimo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmprestimoRepository extends JpaRepository<Emprestimo, Long> {
-    List<Emprestimo> findByUsuarioId(Long usuarioId);
+    List<Emprestimo> findByUsuarioIdAndStatus(Long usuarioId, String status);
 
-    List<Emprestimo> findByLivroId(Long livroId);
+    // Projeções direto no DTO; usuario_id e livro_id vêm da própria linha, sem join
+    String PROJECAO_DTO = "select new com.biblioteca.api.domain.dto.EmprestimoDTO(e.id, e.dataEmprestimo, " +
+            "e.dataDevolucaoPrevista, e.dataDevolucaoReal, e.status, e.usuario.id, e.livro.id) from Emprestimo e ";
 
-    List<Emprestimo> findByStatus(String status);
+    @Query(PROJECAO_DTO + "where e.id = :id")
+    Optional<EmprestimoDTO> buscarDTOPorId(@Param("id") Long id);
 
-    List<Emprestimo> findByUsuarioIdAndStatus(Long usuarioId, String status);
+    @Query(PROJECAO_DTO + "where e.id > :id order by e.id")
+    List<EmprestimoDTO> buscarDTOsAposId(@Param("id") Long id, Limit limite);
+
+    // Exportação: cursor só de avanço, buscado em blocos do tamanho do fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(PROJECAO_DTO + "where e.dataAtualizacao >= :desde order by e.id")
+    Stream<EmprestimoDTO> exportarDTOs(@Param("desde") LocalDateTime desde);
+
+    @Query(PROJECAO_DTO + "where e.usuario.id = :usuarioId")
+    List<EmprestimoDTO> buscarDTOsPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    // Histórico do usuário do mais recente para o mais antigo, keyset sobre (data_emprestimo, id);
+    // com status, usa inteiro o índice idx_emprestimos_usuario_status_data
+    // O limite explícito em dataEmprestimo deixa o PostgreSQL descartar as partições mais novas
+    String HISTORICO_APOS = "e.dataEmprestimo <= :data and (e.dataEmprestimo < :data or (e.dataEmprestimo = :data and e.id < :id)) " +
+            "order by e.dataEmprestimo desc, e.id desc";
+
+    @Query(PROJECAO_DTO + "where e.usuario.id = :usuarioId and " + HISTORICO_APOS)
+    List<EmprestimoDTO> buscarHistoricoApos(@Param("usuarioId") Long usuarioId, @Param("data") LocalDate data,
+                                            @Param("id") Long id, Limit limite);
+
+    @Query(PROJECAO_DTO + "where e.usuario.id = :usuarioId and e.status = :status and " + HISTORICO_APOS)
+    List<EmprestimoDTO> buscarHistoricoPorStatusApos(@Param("usuarioId") Long usuarioId, @Param("status") String status,
+                                                     @Param("data") LocalDate data, @Param("id") Long id, Limit limite);
+
+    // Resumo calculado dos empréstimos, para usuários que ainda não têm linha de contadores
+    @Query("select new com.biblioteca.api.domain.dto.ResumoEmprestimosDTO(e.usuario.id, " +
+            "coalesce(sum(case when e.status = 'ATIVO' then 1L else 0L end), 0L), " +
+            "coalesce(sum(case when e.status = 'ATRASADO' then 1L else 0L end), 0L), count(e)) " +
+            "from Emprestimo e where e.usuario.id = :usuarioId group by e.usuario.id")
+    Optional<ResumoEmprestimosDTO> calcularResumo(@Param("usuarioId") Long usuarioId);
+
+    @Query(PROJECAO_DTO + "where e.livro.id = :livroId")
+    List<EmprestimoDTO> buscarDTOsPorLivro(@Param("livroId") Long livroId);
+
+    @Query(PROJECAO_DTO + "where e.status = :status")
+    List<EmprestimoDTO> buscarDTOsPorStatus(@Param("status") String status);
+
+    // Empréstimos abertos nunca estão antes de :desde (início das partições não arquivadas):
+    // o limite na chave de partição tira o histórico do plano
+    @Query(PROJECAO_DTO + "where e.status = :status and e.dataEmprestimo >= :desde")
+    List<EmprestimoDTO> buscarDTOsAbertosPorStatus(@Param("status") String status, @Param("desde") LocalDate desde);
+
+    // Bloqueia só o empréstimo, evitando devolução/exclusão em dobro
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Emprestimo e where e.id = :id")
+    Optional<Emprestimo> buscarParaAtualizacao(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Emprestimo e where e.id in :ids")
+    List<Emprestimo> buscarTodosParaAtualizacao(@Param("ids") Collection<Long> ids);
+
+    // Marca um bloco de empréstimos vencidos numa única instrução, pelo índice parcial
+    // idx_emprestimos_ativos_prazo; linhas bloqueadas por uma devolução em andamento são puladas.
+    // Na mesma instrução, os contadores de cada usuário afetado passam de ativos para atrasados
+    @Query(value = "WITH marcados AS (" +
+            "UPDATE emprestimos SET status = 'ATRASADO', data_atualizacao = :agora WHERE id IN (" +
+            "SELECT id FROM emprestimos WHERE status = 'ATIVO' AND data_emprestimo >= :inicioAbertos " +
+            "AND data_devolucao_prevista >= :desde AND data_devolucao_prevista < :ate " +
+            "ORDER BY data_devolucao_prevista, id LIMIT :limite FOR UPDATE SKIP LOCKED) RETURNING usuario_id), " +
+            "contadores AS (" +
+            "UPDATE resumo_emprestimos_usuario r SET ativos = r.ativos - m.quantidade, " +
+            "atrasados = r.atrasados + m.quantidade, data_atualizacao = :agora " +
+            "FROM (SELECT usuario_id, count(*) AS quantidade FROM marcados GROUP BY usuario_id) m " +
+            "WHERE r.usuario_id = m.usuario_id) " +
+            "SELECT CAST(count(*) AS INTEGER) FROM marcados", nativeQuery = true)
+    int marcarAtrasados(@Param("inicioAbertos") LocalDate inicioAbertos, @Param("desde") LocalDate desde,
+                        @Param("ate") LocalDate ate, @Param("limite") int limite, @Param("agora") LocalDateTime agora);
+
+    // Prazo vencido mais antigo ainda ATIVO na faixa varrida (linhas puladas pela varredura)
+    @Query("select min(e.dataDevolucaoPrevista) from Emprestimo e where e.status = 'ATIVO' " +
+            "and e.dataEmprestimo >= :inicioAbertos and e.dataDevolucaoPrevista >= :desde and e.dataDevolucaoPrevista < :ate")
+    LocalDate buscarPrimeiroPrazoVencidoAtivo(@Param("inicioAbertos") LocalDate inicioAbertos,
+                                              @Param("desde") LocalDate desde, @Param("ate") LocalDate ate);
+
+    // Metadados para GET condicional, sem carregar as linhas
+    String VERSAO_COLECAO = "select new com.biblioteca.api.domain.dto.VersaoColecaoDTO(count(e), max(e.dataAtualizacao)) " +
+            "from Emprestimo e ";
+
+    @Query("select e.dataAtualizacao from Emprestimo e where e.id = :id")
+    Optional<LocalDateTime> buscarDataAtualizacao(@Param("id") Long id);
+
+    @Query(VERSAO_COLECAO)
+    VersaoColecaoDTO buscarVersaoColecao();
+
+    @Query(VERSAO_COLECAO + "where e.usuario.id = :usuarioId")
+    VersaoColecaoDTO buscarVersaoPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Query(VERSAO_COLECAO + "where e.livro.id = :livroId")
+    VersaoColecaoDTO buscarVersaoPorLivro(@Param("livroId") Long livroId);
+
+    @Query(VERSAO_COLECAO + "where e.status = :status")
+    VersaoColecaoDTO buscarVersaoPorStatus(@Param("status") String status);
+
+    @Query(VERSAO_COLECAO + "where e.status = :status and e.dataEmprestimo >= :desde")
+    VersaoColecaoDTO buscarVersaoAbertosPorStatus(@Param("status") String status, @Param("desde") LocalDate desde);
 }
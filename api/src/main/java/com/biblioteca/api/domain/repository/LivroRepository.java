@@ -1,19 +1,100 @@
 package com.biblioteca.api.domain.repository;
 
+import com.biblioteca.api.domain.dto.DisponibilidadeLivroDTO;
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
 import com.biblioteca.api.domain.entity.Livro;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface LivroRepository extends JpaRepository<Livro, Long> {
+public interface LivroRepository extends JpaRepository<Livro, Long>, LivroRepositoryCustom {
     Optional<Livro> findByIsbn(String isbn);
 
-    List<Livro> findByTituloContainingIgnoreCase(String titulo);
+    // Projeções direto no DTO; autor_id e categoria_id vêm da própria linha, sem join
+    String PROJECAO_DTO = "select new com.biblioteca.api.domain.dto.LivroDTO(l.id, l.titulo, l.isbn, l.descricao, " +
+            "l.anoPublicacao, l.quantidadeTotal, l.quantidadeDisponivel, l.autor.id, l.categoria.id) from Livro l ";
 
-    List<Livro> findByAutorId(Long autorId);
+    @Query(PROJECAO_DTO + "where l.id = :id")
+    Optional<LivroDTO> buscarDTOPorId(@Param("id") Long id);
 
-    List<Livro> findByCategoriaId(Long categoriaId);
+    @Query(PROJECAO_DTO + "where l.id > :id order by l.id")
+    List<LivroDTO> buscarDTOsAposId(@Param("id") Long id, Limit limite);
+
+    // Exportação: cursor só de avanço, buscado em blocos do tamanho do fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(PROJECAO_DTO + "where l.dataAtualizacao >= :desde order by l.id")
+    Stream<LivroDTO> exportarDTOs(@Param("desde") LocalDateTime desde);
+
+    @Query(PROJECAO_DTO + "where l.id in :ids")
+    List<LivroDTO> buscarDTOsPorIds(@Param("ids") Collection<Long> ids);
+
+    // Busca por trecho do título sem o índice em memória (carga do índice ou consulta só com stopwords)
+    @Query(PROJECAO_DTO + "where lower(l.titulo) like lower(concat('%', :titulo, '%')) order by l.titulo, l.id")
+    List<LivroDTO> buscarDTOsPorTitulo(@Param("titulo") String titulo, Limit limite);
+
+    @Query(PROJECAO_DTO + "where l.autor.id = :autorId")
+    List<LivroDTO> buscarDTOsPorAutor(@Param("autorId") Long autorId);
+
+    @Query(PROJECAO_DTO + "where l.categoria.id = :categoriaId")
+    List<LivroDTO> buscarDTOsPorCategoria(@Param("categoriaId") Long categoriaId);
+
+    @Query(PROJECAO_DTO + "order by l.titulo, l.id")
+    List<LivroDTO> buscarPrimeiraPagina(Limit limite);
+
+    // Keyset sobre (titulo, id): usa o índice idx_livros_titulo_id, sem OFFSET
+    @Query(PROJECAO_DTO + "where l.titulo >= :titulo and (l.titulo > :titulo or l.id > :id) order by l.titulo, l.id")
+    List<LivroDTO> buscarPaginaApos(@Param("titulo") String titulo, @Param("id") Long id, Limit limite);
+
+    // Carga do mapa de disponibilidade, em páginas pela chave primária
+    @Query("select l.id from Livro l where l.id > :id and l.quantidadeDisponivel > 0 order by l.id")
+    List<Long> buscarIdsDisponiveisAposId(@Param("id") Long id, Limit limite);
+
+    @Query("select l.quantidadeDisponivel from Livro l where l.id = :id")
+    Optional<Integer> buscarQuantidadeDisponivel(@Param("id") Long id);
+
+    @Query("select new com.biblioteca.api.domain.dto.DisponibilidadeLivroDTO(l.id, l.quantidadeDisponivel) " +
+            "from Livro l where l.id in :ids")
+    List<DisponibilidadeLivroDTO> buscarDisponibilidades(@Param("ids") Collection<Long> ids);
+
+    // Decremento condicional: nunca deixa a quantidade disponível ficar negativa. Grava antes o
+    // que estiver pendente (o insert do empréstimo), para que seja o último comando da transação
+    @Modifying(flushAutomatically = true)
+    @Query("update Livro l set l.quantidadeDisponivel = l.quantidadeDisponivel - :quantidade, l.dataAtualizacao = :agora " +
+            "where l.id = :id and l.quantidadeDisponivel >= :quantidade")
+    int reservarExemplares(@Param("id") Long id, @Param("quantidade") int quantidade, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("update Livro l set l.quantidadeDisponivel = l.quantidadeDisponivel + :quantidade, l.dataAtualizacao = :agora " +
+            "where l.id = :id and l.quantidadeDisponivel + :quantidade <= l.quantidadeTotal")
+    int liberarExemplares(@Param("id") Long id, @Param("quantidade") int quantidade, @Param("agora") LocalDateTime agora);
+
+    // Metadados para GET condicional, sem carregar as linhas
+    String VERSAO_COLECAO = "select new com.biblioteca.api.domain.dto.VersaoColecaoDTO(count(l), max(l.dataAtualizacao)) " +
+            "from Livro l ";
+
+    @Query("select l.dataAtualizacao from Livro l where l.id = :id")
+    Optional<LocalDateTime> buscarDataAtualizacao(@Param("id") Long id);
+
+    @Query(VERSAO_COLECAO)
+    VersaoColecaoDTO buscarVersaoColecao();
+
+    @Query(VERSAO_COLECAO + "where l.autor.id = :autorId")
+    VersaoColecaoDTO buscarVersaoPorAutor(@Param("autorId") Long autorId);
+
+    @Query(VERSAO_COLECAO + "where l.categoria.id = :categoriaId")
+    VersaoColecaoDTO buscarVersaoPorCategoria(@Param("categoriaId") Long categoriaId);
 }
@@ -0,0 +1,26 @@
+package com.biblioteca.api.domain.repository;
+
+import com.biblioteca.api.domain.dto.LivroDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface LivroRepositoryCustom {
+
+    // Aplica os decrementos condicionais de vários livros num único round trip; retorna os livros atendidos
+    Set<Long> reservarExemplaresEmLote(Map<Long, Integer> quantidadesPorLivro);
+
+    // Incrementos limitados a quantidade_total, também num único round trip
+    Set<Long> liberarExemplaresEmLote(Map<Long, Integer> quantidadesPorLivro);
+
+    // Reserva ids na sequência em blocos, do mesmo jeito que o Hibernate (allocationSize)
+    List<Long> alocarIds(int quantidade);
+
+    // Insere livros com id já alocado; ISBN repetido é ignorado. Retorna os ids inseridos
+    Set<Long> inserirEmLote(List<LivroDTO> livros);
+
+    // Percorre todos os ISBNs cadastrados sem montar uma lista intermediária
+    void percorrerIsbns(Consumer<String> consumidor);
+}
@@ -0,0 +1,173 @@
+package com.biblioteca.api.domain.repository;
+
+import com.biblioteca.api.domain.dto.LivroDTO;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class LivroRepositoryCustomImpl implements LivroRepositoryCustom {
+
+    private static final String RESERVAR =
+            "UPDATE livros SET quantidade_disponivel = quantidade_disponivel - ?, data_atualizacao = ? " +
+            "WHERE id = ? AND quantidade_disponivel >= ?";
+
+    private static final String LIBERAR =
+            "UPDATE livros SET quantidade_disponivel = quantidade_disponivel + ?, data_atualizacao = ? " +
+            "WHERE id = ? AND quantidade_disponivel + ? <= quantidade_total";
+
+    private static final String INCREMENTO_SEQUENCIA =
+            "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'livros_id_seq'";
+
+    private static final String PROXIMOS_BLOCOS = "SELECT nextval('livros_id_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERIR =
+            "INSERT INTO livros (id, titulo, isbn, descricao, ano_publicacao, quantidade_total, quantidade_disponivel, " +
+            "autor_id, categoria_id, data_criacao, data_atualizacao) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (isbn) DO NOTHING";
+
+    private static final int TAMANHO_FETCH_ISBNS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Long incrementoSequencia;
+
+    public LivroRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Set<Long> reservarExemplaresEmLote(Map<Long, Integer> quantidadesPorLivro) {
+        return executarEmLote(RESERVAR, quantidadesPorLivro);
+    }
+
+    @Override
+    public Set<Long> liberarExemplaresEmLote(Map<Long, Integer> quantidadesPorLivro) {
+        return executarEmLote(LIBERAR, quantidadesPorLivro);
+    }
+
+    /**
+     * Cada nextval devolve o fim de um bloco de {@code increment_by} ids, e o Hibernate usa o
+     * bloco inteiro que termina nele (otimizador pooled). Alocando da mesma forma, os ids
+     * gerados aqui nunca colidem com os do Hibernate, mesmo com a V4 não aplicada (incremento 1).
+     */
+    @Override
+    public List<Long> alocarIds(int quantidade) {
+        long incremento = incrementoSequencia();
+        List<Long> ids = new ArrayList<>(quantidade);
+        while (ids.size() < quantidade) {
+            long blocos = (quantidade - ids.size() + incremento - 1) / incremento;
+            for (Long fim : jdbcTemplate.queryForList(PROXIMOS_BLOCOS, Long.class, blocos)) {
+                // Bloco incompleto no início de uma sequência nova: descartado, como no Hibernate
+                if (fim < incremento) {
+                    continue;
+                }
+                for (long id = fim - incremento + 1; id <= fim && ids.size() < quantidade; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public Set<Long> inserirEmLote(List<LivroDTO> livros) {
+        Set<Long> inseridos = new HashSet<>();
+        if (livros.isEmpty()) {
+            return inseridos;
+        }
+
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        int[] linhasAfetadas = jdbcTemplate.batchUpdate(INSERIR, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LivroDTO livro = livros.get(i);
+                ps.setLong(1, livro.getId());
+                ps.setString(2, livro.getTitulo());
+                ps.setString(3, livro.getIsbn());
+                ps.setString(4, livro.getDescricao());
+                ps.setInt(5, livro.getAnoPublicacao());
+                ps.setInt(6, livro.getQuantidadeTotal());
+                ps.setInt(7, livro.getQuantidadeDisponivel());
+                ps.setLong(8, livro.getAutorId());
+                ps.setLong(9, livro.getCategoriaId());
+                ps.setTimestamp(10, agora);
+                ps.setTimestamp(11, agora);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return livros.size();
+            }
+        });
+
+        for (int i = 0; i < linhasAfetadas.length; i++) {
+            if (linhasAfetadas[i] > 0) {
+                inseridos.add(livros.get(i).getId());
+            }
+        }
+        return inseridos;
+    }
+
+    @Override
+    public void percorrerIsbns(Consumer<String> consumidor) {
+        // O fetch size só tem efeito dentro de uma transação (cursor do Postgres)
+        jdbcTemplate.query(conexao -> {
+            PreparedStatement ps = conexao.prepareStatement("SELECT isbn FROM livros");
+            ps.setFetchSize(TAMANHO_FETCH_ISBNS);
+            return ps;
+        }, rs -> {
+            consumidor.accept(rs.getString(1));
+        });
+    }
+
+    private long incrementoSequencia() {
+        Long incremento = incrementoSequencia;
+        if (incremento == null) {
+            incremento = jdbcTemplate.queryForObject(INCREMENTO_SEQUENCIA, Long.class);
+            incrementoSequencia = incremento;
+        }
+        return incremento;
+    }
+
+    private Set<Long> executarEmLote(String sql, Map<Long, Integer> quantidadesPorLivro) {
+        Set<Long> atendidos = new HashSet<>();
+        if (quantidadesPorLivro.isEmpty()) {
+            return atendidos;
+        }
+
+        List<Map.Entry<Long, Integer>> itens = new ArrayList<>(quantidadesPorLivro.entrySet());
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+
+        int[] linhasAfetadas = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> item = itens.get(i);
+                ps.setInt(1, item.getValue());
+                ps.setTimestamp(2, agora);
+                ps.setLong(3, item.getKey());
+                ps.setInt(4, item.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return itens.size();
+            }
+        });
+
+        for (int i = 0; i < linhasAfetadas.length; i++) {
+            if (linhasAfetadas[i] > 0) {
+                atendidos.add(itens.get(i).getKey());
+            }
+        }
+        return atendidos;
+    }
+}
@@ -0,0 +1,44 @@
+package com.biblioteca.api.domain.repository;
+
+import com.biblioteca.api.domain.dto.ReservaFilaDTO;
+import com.biblioteca.api.domain.entity.Reserva;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservaRepository extends JpaRepository<Reserva, Long>, ReservaRepositoryCustom {
+
+    // Reservas ativas do livro na ordem da fila (carga da fila em memória)
+    @Query("select new com.biblioteca.api.domain.dto.ReservaFilaDTO(r.id, r.usuario.id, r.status, r.dataReserva) " +
+            "from Reserva r where r.livro.id = :livroId and r.status in ('AGUARDANDO', 'DISPONIVEL') " +
+            "order by r.dataReserva, r.id")
+    List<ReservaFilaDTO> buscarFila(@Param("livroId") Long livroId);
+
+    @Query("select r from Reserva r where r.usuario.id = :usuarioId and r.status in ('AGUARDANDO', 'DISPONIVEL') " +
+            "order by r.dataReserva, r.id")
+    List<Reserva> buscarAtivasPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Query("select r from Reserva r where r.livro.id = :livroId and r.status in ('AGUARDANDO', 'DISPONIVEL') " +
+            "order by r.dataReserva, r.id")
+    List<Reserva> buscarAtivasPorLivro(@Param("livroId") Long livroId);
+
+    boolean existsByUsuarioIdAndLivroIdAndStatusIn(Long usuarioId, Long livroId, Collection<String> status);
+
+    // Bloqueia a reserva, evitando retirada e cancelamento simultâneos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Reserva r where r.id = :id")
+    Optional<Reserva> buscarParaAtualizacao(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Reserva r where r.usuario.id = :usuarioId and r.livro.id = :livroId " +
+            "and r.status in ('AGUARDANDO', 'DISPONIVEL')")
+    Optional<Reserva> buscarAtivaParaAtualizacao(@Param("usuarioId") Long usuarioId, @Param("livroId") Long livroId);
+}
@@ -0,0 +1,20 @@
+package com.biblioteca.api.domain.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Instruções UPDATE ... RETURNING da fila de reservas, executadas direto no JDBC da transação.
+ * Não passam pelo contexto de persistência: uma Reserva já carregada na mesma transação não
+ * enxerga a mudança e precisa ser buscada de novo.
+ */
+public interface ReservaRepositoryCustom {
+
+    // Separa um exemplar para o primeiro da fila numa única instrução; uma reserva bloqueada
+    // por um cancelamento em andamento é pulada. Vazio quando ninguém está aguardando
+    Optional<Long> separarParaProxima(Long livroId, LocalDateTime expiracao, LocalDateTime agora);
+
+    // Expira um bloco de exemplares separados e não retirados no prazo; devolve o livro de cada um
+    List<Long> expirarSeparadas(LocalDateTime agora, int limite);
+}
@@ -0,0 +1,45 @@
+package com.biblioteca.api.domain.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class ReservaRepositoryCustomImpl implements ReservaRepositoryCustom {
+
+    private static final String SEPARAR_PARA_PROXIMA =
+            "WITH separada AS (" +
+            "UPDATE reservas SET status = 'DISPONIVEL', data_expiracao = ?, data_atualizacao = ? " +
+            "WHERE id = (SELECT id FROM reservas WHERE livro_id = ? AND status = 'AGUARDANDO' " +
+            "ORDER BY data_reserva, id LIMIT 1 FOR UPDATE SKIP LOCKED) RETURNING id) " +
+            "SELECT id FROM separada";
+
+    private static final String EXPIRAR_SEPARADAS =
+            "WITH expiradas AS (" +
+            "UPDATE reservas SET status = 'EXPIRADA', data_atualizacao = ? WHERE id IN (" +
+            "SELECT id FROM reservas WHERE status = 'DISPONIVEL' AND data_expiracao < ? " +
+            "ORDER BY data_expiracao, id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING livro_id) " +
+            "SELECT livro_id FROM expiradas";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReservaRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<Long> separarParaProxima(Long livroId, LocalDateTime expiracao, LocalDateTime agora) {
+        return jdbcTemplate.queryForList(SEPARAR_PARA_PROXIMA, Long.class,
+                        Timestamp.valueOf(expiracao), Timestamp.valueOf(agora), livroId)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<Long> expirarSeparadas(LocalDateTime agora, int limite) {
+        Timestamp instante = Timestamp.valueOf(agora);
+        return jdbcTemplate.queryForList(EXPIRAR_SEPARADAS, Long.class, instante, instante, limite);
+    }
+}
@@ -0,0 +1,52 @@
+package com.biblioteca.api.domain.repository;
+
+import com.biblioteca.api.domain.dto.ResumoEmprestimosDTO;
+import com.biblioteca.api.domain.entity.ResumoEmprestimos;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ResumoEmprestimosRepository extends JpaRepository<ResumoEmprestimos, Long> {
+
+    @Query("select new com.biblioteca.api.domain.dto.ResumoEmprestimosDTO(r.usuarioId, r.ativos, r.atrasados, r.total) " +
+            "from ResumoEmprestimos r where r.usuarioId = :usuarioId")
+    Optional<ResumoEmprestimosDTO> buscarDTOPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    // Aplica a variação sobre a linha existente; 0 quando o usuário ainda não tem resumo.
+    // O flush antes garante que a inicialização, se necessária, já veja a alteração do empréstimo.
+    // As instruções nativas declaram a tabela que alteram: sem isso o Hibernate esvaziaria
+    // todo o cache de segundo nível a cada empréstimo
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_emprestimos_usuario"))
+    @Query(value = "UPDATE resumo_emprestimos_usuario SET ativos = ativos + :ativos, atrasados = atrasados + :atrasados, " +
+            "total = total + :total, data_atualizacao = :agora WHERE usuario_id = :usuarioId", nativeQuery = true)
+    int somar(@Param("usuarioId") Long usuarioId, @Param("ativos") long ativos, @Param("atrasados") long atrasados,
+              @Param("total") long total, @Param("agora") LocalDateTime agora);
+
+    // Primeira alteração de um usuário sem resumo: conta o histórico já gravado (que inclui a
+    // alteração corrente). Se outra transação criou a linha antes, só soma a variação
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_emprestimos_usuario"))
+    @Query(value = "INSERT INTO resumo_emprestimos_usuario (usuario_id, ativos, atrasados, total, data_atualizacao) " +
+            "SELECT :usuarioId, count(*) FILTER (WHERE status = 'ATIVO'), count(*) FILTER (WHERE status = 'ATRASADO'), " +
+            "count(*), :agora FROM emprestimos WHERE usuario_id = :usuarioId " +
+            "ON CONFLICT (usuario_id) DO UPDATE SET ativos = resumo_emprestimos_usuario.ativos + :ativos, " +
+            "atrasados = resumo_emprestimos_usuario.atrasados + :atrasados, " +
+            "total = resumo_emprestimos_usuario.total + :total, data_atualizacao = EXCLUDED.data_atualizacao",
+            nativeQuery = true)
+    int inicializar(@Param("usuarioId") Long usuarioId, @Param("ativos") long ativos, @Param("atrasados") long atrasados,
+                    @Param("total") long total, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("delete from ResumoEmprestimos r where r.usuarioId = :usuarioId")
+    int excluirPorUsuario(@Param("usuarioId") Long usuarioId);
+}
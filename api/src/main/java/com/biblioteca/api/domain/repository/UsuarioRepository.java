@@ -1,9 +1,18 @@
 package com.biblioteca.api.domain.repository;
 
+import com.biblioteca.api.domain.dto.UsuarioDTO;
 import com.biblioteca.api.domain.entity.Usuario;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +20,25 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // Bloqueia o usuário até o commit: serializa operações do mesmo usuário que verificam antes de gravar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from Usuario u where u.id = :id")
+    Optional<Usuario> buscarParaAtualizacao(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Usuario u set u.senha = :senha, u.dataAtualizacao = :agora where u.email = :email")
+    int atualizarSenha(@Param("email") String email, @Param("senha") String senha, @Param("agora") LocalDateTime agora);
+
+    // Projeções direto no DTO: a senha nem chega a ser lida
+    String PROJECAO_DTO = "select new com.biblioteca.api.domain.dto.UsuarioDTO(u.id, u.nome, u.email, u.funcao) from Usuario u ";
+
+    @Query(PROJECAO_DTO + "where u.id = :id")
+    Optional<UsuarioDTO> buscarDTOPorId(@Param("id") Long id);
+
+    @Query(PROJECAO_DTO + "where u.id > :id order by u.id")
+    List<UsuarioDTO> buscarDTOsAposId(@Param("id") Long id, Limit limite);
+
+    @Query(PROJECAO_DTO + "where u.email = :email")
+    Optional<UsuarioDTO> buscarDTOPorEmail(@Param("email") String email);
 }
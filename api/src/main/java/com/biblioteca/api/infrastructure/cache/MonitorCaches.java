@@ -0,0 +1,39 @@
+package com.biblioteca.api.infrastructure.cache;
+
+import com.biblioteca.api.domain.dto.EstatisticasCacheDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class MonitorCaches {
+
+    private final CacheManager cacheManager;
+
+    public MonitorCaches(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public List<EstatisticasCacheDTO> listarEstatisticas() {
+        List<EstatisticasCacheDTO> estatisticas = new ArrayList<>();
+        for (String nome : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nome);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                CacheStats stats = caffeine.stats();
+                estatisticas.add(new EstatisticasCacheDTO(
+                        nome,
+                        caffeine.estimatedSize(),
+                        stats.hitCount(),
+                        stats.missCount(),
+                        stats.hitRate(),
+                        stats.evictionCount()
+                ));
+            }
+        }
+        return estatisticas;
+    }
+}
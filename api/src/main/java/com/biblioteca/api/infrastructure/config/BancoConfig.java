@@ -0,0 +1,53 @@
+package com.biblioteca.api.infrastructure.config;
+
+import com.biblioteca.api.infrastructure.database.BulkheadConexoes;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class BancoConfig {
+
+    // Por padrão ligado junto com as threads virtuais (banco.bulkhead.habilitado)
+    @Bean
+    @ConditionalOnProperty(name = "banco.bulkhead.habilitado", havingValue = "true")
+    public static BeanPostProcessor bulkheadConexoes(Environment environment) {
+        int permissoes = environment.getProperty("banco.bulkhead.permissoes", Integer.class, 10);
+        long esperaMs = environment.getProperty("banco.bulkhead.espera-ms", Long.class, 30_000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadConexoes)) {
+                    return new BulkheadConexoes(dataSource, permissoes, esperaMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasBulkheadConexoes(DataSource dataSource) {
+        return registry -> {
+            try {
+                if (!dataSource.isWrapperFor(BulkheadConexoes.class)) {
+                    return;
+                }
+                BulkheadConexoes bulkhead = dataSource.unwrap(BulkheadConexoes.class);
+                Gauge.builder("biblioteca.banco.bulkhead.aguardando", bulkhead, BulkheadConexoes::aguardando)
+                        .description("Threads esperando permissão para pedir conexão")
+                        .register(registry);
+                Gauge.builder("biblioteca.banco.bulkhead.disponiveis", bulkhead, BulkheadConexoes::disponiveis)
+                        .register(registry);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+}
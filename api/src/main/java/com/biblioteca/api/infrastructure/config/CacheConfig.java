@@ -0,0 +1,46 @@
+package com.biblioteca.api.infrastructure.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caches em memória do catálogo (autores, categorias e livros por id), como DTO e como a
+ * resposta JSON já serializada (ver RespostasSerializadas).
+ *
+ * O Caffeine limita cada cache por tamanho, com política de admissão W-TinyLFU, e por
+ * tempo de vida. As remoções feitas pelos serviços dentro de uma transação só são
+ * aplicadas depois do commit, para que uma leitura concorrente não recoloque no cache
+ * o valor antigo.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String AUTORES = "autores";
+    public static final String CATEGORIAS = "categorias";
+    public static final String LIVROS = "livros";
+    public static final String AUTORES_JSON = "autores-json";
+    public static final String CATEGORIAS_JSON = "categorias-json";
+    public static final String LIVROS_JSON = "livros-json";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.catalogo.tamanho-maximo:10000}") long tamanhoMaximo,
+                                     @Value("${cache.catalogo.validade-minutos:10}") long validadeMinutos) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(AUTORES, CATEGORIAS, LIVROS,
+                AUTORES_JSON, CATEGORIAS_JSON, LIVROS_JSON);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(validadeMinutos))
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
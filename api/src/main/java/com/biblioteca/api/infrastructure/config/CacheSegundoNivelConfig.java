@@ -0,0 +1,82 @@
+package com.biblioteca.api.infrastructure.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Cache de segundo nível do Hibernate (JCache sobre Caffeine, em memória no próprio processo)
+ * para autores e categorias, que mudam raramente.
+ *
+ * A maior parte das leituras é projeção direto no DTO, que não passa pelas regiões de
+ * entidade: o que economiza SQL nelas é o cache de consultas (listagens, busca por nome e a
+ * carga completa da importação). As regiões de entidade atendem o que carrega a entidade:
+ * findById nas atualizações, o resultado de findByNomeIgnoreCase e proxies de Livro.autor e
+ * Livro.categoria quando inicializados. As gravações de livro usam getReferenceById, que não
+ * lê nada. A leitura por id da API fica no cache do Spring (CacheConfig).
+ *
+ * As regiões são criadas aqui, com tamanho e validade limitados, e o Hibernate recusa subir
+ * se uma entidade ou consulta apontar para uma região inexistente
+ * (hibernate.javax.cache.missing_cache_strategy=fail). A região de timestamps, que invalida
+ * o cache de consultas quando uma tabela muda, não expira: perder uma entrada faria uma
+ * consulta desatualizada parecer válida.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    public static final String REGIAO_AUTORES = "biblioteca.autores";
+    public static final String REGIAO_CATEGORIAS = "biblioteca.categorias";
+    public static final String REGIAO_CONSULTAS_CATALOGO = "biblioteca.consultas-catalogo";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheSegundoNivel(@Value("${cache.segundo-nivel.tamanho-maximo:10000}") long tamanhoMaximo,
+                                          @Value("${cache.segundo-nivel.validade-minutos:60}") long validadeMinutos,
+                                          @Value("${cache.segundo-nivel.consultas.tamanho-maximo:1000}") long consultasTamanhoMaximo,
+                                          @Value("${cache.segundo-nivel.consultas.validade-minutos:10}") long consultasValidadeMinutos) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        Duration validade = Duration.ofMinutes(validadeMinutos);
+        Duration validadeConsultas = Duration.ofMinutes(consultasValidadeMinutos);
+        criarRegiao(cacheManager, REGIAO_AUTORES, tamanhoMaximo, validade);
+        criarRegiao(cacheManager, REGIAO_CATEGORIAS, tamanhoMaximo, validade);
+        criarRegiao(cacheManager, REGIAO_CONSULTAS_CATALOGO, consultasTamanhoMaximo, validadeConsultas);
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                consultasTamanhoMaximo, validadeConsultas);
+        // Uma entrada por tabela: sem limite nem expiração
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, null, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelHibernate(CacheManager cacheSegundoNivel) {
+        return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, cacheSegundoNivel);
+    }
+
+    private static void criarRegiao(CacheManager cacheManager, String nome, Long tamanhoMaximo, Duration validade) {
+        // O provedor é compartilhado na JVM: outro contexto (testes) pode já ter criado a região
+        if (cacheManager.getCache(nome) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        if (tamanhoMaximo != null) {
+            configuracao.setMaximumSize(OptionalLong.of(tamanhoMaximo));
+        }
+        if (validade != null) {
+            configuracao.setExpireAfterWrite(OptionalLong.of(validade.toNanos()));
+        }
+        configuracao.setStatisticsEnabled(true);
+        cacheManager.createCache(nome, configuracao);
+    }
+}
@@ -0,0 +1,35 @@
+package com.biblioteca.api.infrastructure.config;
+
+import com.biblioteca.api.infrastructure.metrics.ContadoresAssincronos;
+import com.biblioteca.api.infrastructure.metrics.InstrumentacaoHibernate;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class MetricasConfig implements WebMvcConfigurer {
+
+    private static final String INTEGRATOR_PROVIDER = "hibernate.integrator_provider";
+
+    // Contagem de consultas, cargas e flushes por requisição (ver FiltroMetricasRequisicao)
+    @Bean
+    public HibernatePropertiesCustomizer instrumentacaoHibernate() {
+        InstrumentacaoHibernate instrumentacao = new InstrumentacaoHibernate();
+        return propriedades -> {
+            propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, instrumentacao);
+            propriedades.put(INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(instrumentacao));
+        };
+    }
+
+    // As exportações leem o banco na thread assíncrona: a contagem acompanha a requisição
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new ContadoresAssincronos());
+    }
+}
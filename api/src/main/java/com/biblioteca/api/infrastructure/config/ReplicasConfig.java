@@ -0,0 +1,106 @@
+package com.biblioteca.api.infrastructure.config;
+
+import com.biblioteca.api.infrastructure.database.JanelaLeituraPropriaEscrita;
+import com.biblioteca.api.infrastructure.database.ReplicasLeitura;
+import com.biblioteca.api.infrastructure.database.RoteamentoLeituraDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separação de leituras e escritas (banco.replicas.habilitado): substitui o DataSource do
+ * Spring Boot por um que manda as transações somente leitura para as réplicas.
+ *
+ * O primário continua configurado por spring.datasource.* (inclusive spring.datasource.hikari.*);
+ * cada réplica ganha um pool Hikari somente leitura, com espera curta por conexão para que uma
+ * réplica fora do ar desvie a leitura para o primário em vez de segurar a requisição.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banco.replicas.habilitado", havingValue = "true")
+public class ReplicasConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicasLeitura replicasLeitura(DataSourceProperties propriedades, ObjectProvider<MeterRegistry> registro,
+                                           @Value("${banco.replicas.urls:}") List<String> urls,
+                                           @Value("${banco.replicas.usuario:${spring.datasource.username:}}") String usuario,
+                                           @Value("${banco.replicas.senha:${spring.datasource.password:}}") String senha,
+                                           @Value("${banco.replicas.maximo-conexoes:10}") int maximoConexoes,
+                                           @Value("${banco.replicas.espera-conexao-ms:1000}") long esperaConexaoMs,
+                                           @Value("${banco.replicas.validacao-segundos:2}") int validacaoSegundos) {
+        List<DataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (pools.size() + 1));
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(usuario);
+            pool.setPassword(senha);
+            if (propriedades.getDriverClassName() != null) {
+                pool.setDriverClassName(propriedades.getDriverClassName());
+            }
+            pool.setMaximumPoolSize(maximoConexoes);
+            pool.setConnectionTimeout(esperaConexaoMs);
+            pool.setReadOnly(true);
+            // Uma réplica fora do ar na partida não impede a aplicação de subir
+            pool.setInitializationFailTimeout(-1);
+            registro.ifAvailable(pool::setMetricRegistry);
+            pools.add(pool);
+        }
+        if (pools.isEmpty()) {
+            throw new IllegalStateException("banco.replicas.habilitado=true exige ao menos uma url em banco.replicas.urls");
+        }
+        return new ReplicasLeitura(pools, validacaoSegundos);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties propriedades, Environment environment,
+                                 ObjectProvider<MeterRegistry> registro, ReplicasLeitura replicasLeitura,
+                                 JanelaLeituraPropriaEscrita janelaLeituraPropriaEscrita) {
+        HikariDataSource primario = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        if (primario.getPoolName() == null) {
+            primario.setPoolName("primario");
+        }
+        registro.ifAvailable(primario::setMetricRegistry);
+        return new RoteamentoLeituraDataSource(primario, replicasLeitura, janelaLeituraPropriaEscrita);
+    }
+
+    @Bean
+    public MeterBinder metricasReplicas(ReplicasLeitura replicasLeitura) {
+        return registry -> {
+            Gauge.builder("biblioteca.banco.replicas.saudaveis", replicasLeitura, ReplicasLeitura::saudaveis)
+                    .description("Réplicas de leitura no rodízio")
+                    .register(registry);
+            Gauge.builder("biblioteca.banco.replicas.total", replicasLeitura, ReplicasLeitura::total)
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.banco.replicas.leituras", replicasLeitura, ReplicasLeitura::leituras)
+                    .description("Conexões de leitura entregues pelas réplicas")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.banco.replicas.desvios", replicasLeitura, ReplicasLeitura::desvios)
+                    .description("Leituras enviadas ao primário por falta de réplica saudável")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.banco.replicas.saturacoes", replicasLeitura, ReplicasLeitura::saturacoes)
+                    .description("Pedidos de conexão recusados por pool de réplica sem conexão livre")
+                    .register(registry);
+        };
+    }
+}
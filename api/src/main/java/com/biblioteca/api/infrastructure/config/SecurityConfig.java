@@ -1,7 +1,13 @@
 package com.biblioteca.api.infrastructure.config;
 
+import com.biblioteca.api.infrastructure.security.CodificadorSenhas;
 import com.biblioteca.api.infrastructure.security.CustomUserDetailsService;
+import com.biblioteca.api.infrastructure.security.FiltroLimiteRequisicoes;
 import com.biblioteca.api.infrastructure.security.JwtAuthenticationFilter;
+import com.biblioteca.api.infrastructure.security.ProvedorAutenticacaoSenha;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,29 +19,43 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(securedEnabled = true) // Habilita segurança em nível de método
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final FiltroLimiteRequisicoes filtroLimiteRequisicoes;
     private final CustomUserDetailsService customUserDetailsService;
 
     // Construtor: Spring injeta os filtros e o UserDetailsService
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, CustomUserDetailsService customUserDetailsService) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, FiltroLimiteRequisicoes filtroLimiteRequisicoes,
+                          CustomUserDetailsService customUserDetailsService) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.filtroLimiteRequisicoes = filtroLimiteRequisicoes;
         this.customUserDetailsService = customUserDetailsService;
     }
 
-    // Bean para o Encoder
+    // Bean para o Encoder: BCrypt com limite de hashes simultâneos (429 quando esgotado)
+    @Bean
+    public CodificadorSenhas passwordEncoder(@Value("${seguranca.senha.forca-bcrypt:10}") int forca,
+                                             @Value("${seguranca.senha.threads:0}") int threads,
+                                             @Value("${seguranca.senha.fila:64}") int fila,
+                                             @Value("${seguranca.senha.tentar-apos-segundos:1}") long tentarApos) {
+        int nucleos = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new CodificadorSenhas(forca, nucleos, fila, Duration.ofSeconds(tentarApos));
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public MeterBinder metricasCodificadorSenhas(CodificadorSenhas codificador) {
+        return registry -> Gauge.builder("biblioteca.senhas.fila", codificador, CodificadorSenhas::tamanhoFila)
+                .description("Hashes de senha aguardando uma thread livre")
+                .register(registry);
     }
 
     // Bean para o Gerenciador de Autenticação (Necessário para a rota /auth/login)
@@ -45,16 +65,19 @@ public class SecurityConfig {
     }
 
     // Bean do Provedor de Autenticação (Conecta o UserDetailsService e o Encoder)
+    // Com o UserDetailsPasswordService, o provedor refaz o hash no login quando a força do BCrypt muda
+    // (e pula a troca, sem recusar o login, se o codificador estiver sem capacidade)
     @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+    public AuthenticationProvider authenticationProvider(CodificadorSenhas passwordEncoder) {
+        DaoAuthenticationProvider authProvider = new ProvedorAutenticacaoSenha();
         authProvider.setUserDetailsService(customUserDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(csrf -> csrf.disable()) // Desabilita CSRF
                 .exceptionHandling(e -> {}) // Mantém o exceptionHandling
@@ -68,6 +91,13 @@ public class SecurityConfig {
                                 // Libera rotas do Swagger (Documentação)
                                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
 
+                                // Health e coleta do Prometheus são públicos; demais endpoints do Actuator só para ADMIN
+                                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
+
+                                // Exportações completas só para ADMIN (job de análise)
+                                .requestMatchers(HttpMethod.GET, "/api/livros/exportar", "/api/emprestimos/exportar").hasRole("ADMIN")
+
                                 // Rotas de consulta GET são públicas
                                 .requestMatchers(HttpMethod.GET, "/api/livros/**", "/api/autores/**", "/api/categorias/**").permitAll()
 
@@ -79,10 +109,13 @@ public class SecurityConfig {
                 )
 
                 // Conecta o provedor de autenticação
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
 
                 // Adiciona o filtro JWT antes do filtro padrão de login/usuário
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Limite por cliente depois do JWT, para identificar o usuário autenticado
+                .addFilterAfter(filtroLimiteRequisicoes, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,111 @@
+package com.biblioteca.api.infrastructure.database;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita quantas threads podem estar com (ou esperando) uma conexão do pool ao mesmo tempo.
+ *
+ * Com threads virtuais, milhares de requisições podem chegar juntas ao pool; em vez de todas
+ * disputarem o Hikari, elas esperam numa fila justa do semáforo, e só quem tem permissão
+ * pede conexão. A permissão é devolvida quando a conexão é fechada (devolvida ao pool).
+ * Quem não consegue permissão dentro do tempo limite recebe o mesmo tipo de erro do pool.
+ */
+public class BulkheadConexoes extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final long esperaMs;
+
+    public BulkheadConexoes(DataSource alvo, int permissoes, long esperaMs) {
+        super(alvo);
+        this.permissoes = new Semaphore(permissoes, true);
+        this.esperaMs = esperaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        return liberarAoFechar(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        return liberarAoFechar(() -> super.getConnection(username, password));
+    }
+
+    public int aguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    public int disponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!permissoes.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Bulkhead de conexões esgotado: nenhuma permissão em " + esperaMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando conexão", e);
+        }
+    }
+
+    private Connection liberarAoFechar(ObtencaoConexao obtencao) throws SQLException {
+        Connection conexao;
+        try {
+            conexao = obtencao.obter();
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConexaoComPermissao(conexao));
+    }
+
+    @FunctionalInterface
+    private interface ObtencaoConexao {
+        Connection obter() throws SQLException;
+    }
+
+    private class ConexaoComPermissao implements InvocationHandler {
+
+        private final Connection alvo;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        ConexaoComPermissao(Connection alvo) {
+            this.alvo = alvo;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close") && liberada.compareAndSet(false, true)) {
+                try {
+                    alvo.close();
+                } finally {
+                    permissoes.release();
+                }
+                return null;
+            }
+            try {
+                return method.invoke(alvo, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
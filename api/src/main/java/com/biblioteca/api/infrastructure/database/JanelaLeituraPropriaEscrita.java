@@ -0,0 +1,64 @@
+package com.biblioteca.api.infrastructure.database;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Leitura da própria escrita com réplicas assíncronas: depois de confirmar uma escrita, o
+ * usuário autenticado passa a ler do primário por uma janela curta, maior que o atraso
+ * normal da replicação. Os demais usuários continuam lendo das réplicas.
+ */
+@Component
+public class JanelaLeituraPropriaEscrita {
+
+    private static final long MAXIMO_USUARIOS = 100_000;
+
+    private final Cache<String, Boolean> escritasRecentes;
+
+    public JanelaLeituraPropriaEscrita(@Value("${banco.replicas.janela-escrita-ms:2000}") long janelaMs) {
+        this.escritasRecentes = Caffeine.newBuilder()
+                .maximumSize(MAXIMO_USUARIOS)
+                .expireAfterWrite(Duration.ofMillis(janelaMs))
+                .build();
+    }
+
+    // A janela abre quando a transação corrente for confirmada (na hora, se não houver uma)
+    public void registrarEscrita() {
+        String usuario = usuarioAtual();
+        if (usuario == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            escritasRecentes.put(usuario, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                escritasRecentes.put(usuario, Boolean.TRUE);
+            }
+        });
+    }
+
+    public boolean ativa() {
+        String usuario = usuarioAtual();
+        return usuario != null && escritasRecentes.getIfPresent(usuario) != null;
+    }
+
+    private static String usuarioAtual() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao != null && autenticacao.isAuthenticated() && !(autenticacao instanceof AnonymousAuthenticationToken)) {
+            return autenticacao.getName();
+        }
+        return null;
+    }
+}
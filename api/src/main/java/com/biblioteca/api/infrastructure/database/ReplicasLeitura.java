@@ -0,0 +1,147 @@
+package com.biblioteca.api.infrastructure.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Réplicas de leitura do banco, usadas em rodízio.
+ *
+ * Uma réplica que falha ao entregar conexão sai do rodízio na hora; a verificação periódica
+ * testa todas e devolve ao rodízio as que voltaram a responder. Pool sem conexão livre dentro
+ * da espera não é falha da réplica: a leitura tenta a próxima, mas a réplica continua no
+ * rodízio. Sem nenhuma réplica que entregue conexão, {@link #conexao()} devolve null e quem
+ * chamou segue com o primário.
+ */
+public class ReplicasLeitura implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicasLeitura.class);
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final int validacaoSegundos;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final LongAdder leituras = new LongAdder();
+    private final LongAdder desvios = new LongAdder();
+    private final LongAdder saturacoes = new LongAdder();
+
+    public ReplicasLeitura(List<DataSource> dataSources, int validacaoSegundos) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma réplica de leitura configurada");
+        }
+        for (int i = 0; i < dataSources.size(); i++) {
+            replicas.add(new Replica("replica-" + (i + 1), dataSources.get(i)));
+        }
+        this.validacaoSegundos = validacaoSegundos;
+    }
+
+    // Conexão da próxima réplica saudável, ou null se nenhuma estiver disponível
+    public Connection conexao() {
+        int total = replicas.size();
+        int inicio = Math.floorMod(proxima.getAndIncrement(), total);
+        for (int i = 0; i < total; i++) {
+            Replica replica = replicas.get((inicio + i) % total);
+            if (!replica.saudavel) {
+                continue;
+            }
+            try {
+                Connection conexao = replica.dataSource.getConnection();
+                leituras.increment();
+                return conexao;
+            } catch (SQLException e) {
+                if (poolSaturado(e)) {
+                    saturacoes.increment();
+                } else {
+                    marcar(replica, false, e.getMessage());
+                }
+            }
+        }
+        desvios.increment();
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${banco.replicas.verificacao-ms:5000}",
+            initialDelayString = "${banco.replicas.verificacao-ms:5000}")
+    public void verificar() {
+        for (Replica replica : replicas) {
+            try (Connection conexao = replica.dataSource.getConnection()) {
+                boolean valida = conexao.isValid(validacaoSegundos);
+                marcar(replica, valida, valida ? null : "conexão inválida");
+            } catch (SQLException e) {
+                // Pool ocupado: a réplica respondeu às conexões que já tem, o estado fica como está
+                if (!poolSaturado(e)) {
+                    marcar(replica, false, e.getMessage());
+                }
+            }
+        }
+    }
+
+    public int saudaveis() {
+        return (int) replicas.stream().filter(replica -> replica.saudavel).count();
+    }
+
+    public int total() {
+        return replicas.size();
+    }
+
+    public long leituras() {
+        return leituras.sum();
+    }
+
+    // Leituras somente leitura que foram para o primário por falta de réplica saudável
+    public long desvios() {
+        return desvios.sum();
+    }
+
+    // Pedidos de conexão que esgotaram a espera com o pool da réplica todo em uso
+    public long saturacoes() {
+        return saturacoes.sum();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable fechavel) {
+                fechavel.close();
+            }
+        }
+    }
+
+    // O Hikari esgota a espera com SQLTransientConnectionException nos dois casos; quando não
+    // consegue abrir conexões, a causa é a última falha de conexão, e sem causa o pool só estava cheio
+    static boolean poolSaturado(SQLException e) {
+        return e instanceof SQLTransientConnectionException && e.getCause() == null;
+    }
+
+    private void marcar(Replica replica, boolean saudavel, String motivo) {
+        if (replica.saudavel == saudavel) {
+            return;
+        }
+        replica.saudavel = saudavel;
+        if (saudavel) {
+            log.info("Réplica {} voltou ao rodízio de leituras", replica.nome);
+        } else {
+            log.warn("Réplica {} fora do rodízio de leituras: {}", replica.nome, motivo);
+        }
+    }
+
+    private static class Replica {
+
+        private final String nome;
+        private final DataSource dataSource;
+        private volatile boolean saudavel = true;
+
+        Replica(String nome, DataSource dataSource) {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.biblioteca.api.infrastructure.database;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Envia as transações somente leitura para as réplicas e todo o resto para o primário.
+ *
+ * A escolha depende do estado da transação do Spring, que só é marcada como somente leitura
+ * depois que o gerenciador de transações já pediu a conexão. Por isso a conexão entregue é
+ * preguiçosa (LazyConnectionDataSourceProxy): a física só é obtida no primeiro comando, quando
+ * a decisão já pode ser tomada. Fora de transação, em transações de escrita e para usuários
+ * dentro da {@link JanelaLeituraPropriaEscrita}, a conexão vem do primário.
+ */
+public class RoteamentoLeituraDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final DataSource primario;
+
+    public RoteamentoLeituraDataSource(DataSource primario, ReplicasLeitura replicas, JanelaLeituraPropriaEscrita janela) {
+        super(new Roteador(primario, replicas, janela));
+        this.primario = primario;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (primario instanceof AutoCloseable fechavel) {
+            fechavel.close();
+        }
+    }
+
+    private static class Roteador extends DelegatingDataSource {
+
+        private final ReplicasLeitura replicas;
+        private final JanelaLeituraPropriaEscrita janela;
+
+        Roteador(DataSource primario, ReplicasLeitura replicas, JanelaLeituraPropriaEscrita janela) {
+            super(primario);
+            this.replicas = replicas;
+            this.janela = janela;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !janela.ativa()) {
+                Connection replica = replicas.conexao();
+                if (replica != null) {
+                    return replica;
+                }
+            }
+            return super.getConnection();
+        }
+    }
+}
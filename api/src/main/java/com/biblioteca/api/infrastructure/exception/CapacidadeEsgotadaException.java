@@ -0,0 +1,17 @@
+package com.biblioteca.api.infrastructure.exception;
+
+import java.time.Duration;
+
+public class CapacidadeEsgotadaException extends RuntimeException {
+
+    private final Duration tentarApos;
+
+    public CapacidadeEsgotadaException(String message, Duration tentarApos) {
+        super(message);
+        this.tentarApos = tentarApos;
+    }
+
+    public Duration getTentarApos() {
+        return tentarApos;
+    }
+}
@@ -0,0 +1,183 @@
+package com.biblioteca.api.infrastructure.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respostas de exportação escritas em fluxo, registro a registro, em NDJSON ou CSV.
+ *
+ * A fonte entrega cada item assim que o lê do banco e ele vai direto para a resposta (com
+ * gzip quando o cliente aceita), então a memória usada não cresce com o tamanho da exportação.
+ */
+public final class ExportacaoFluxo {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private ExportacaoFluxo() {
+    }
+
+    public enum Formato {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType tipo;
+        private final String extensao;
+
+        Formato(MediaType tipo, String extensao) {
+            this.tipo = tipo;
+            this.extensao = extensao;
+        }
+
+        public static Formato de(String valor) {
+            for (Formato formato : values()) {
+                if (formato.extensao.equalsIgnoreCase(valor)) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportação inválido: " + valor + " (use ndjson ou csv)");
+        }
+    }
+
+    // Colunas do CSV e como extrair os valores de cada item, na mesma ordem
+    public record LayoutCsv<T>(List<String> colunas, Function<T, Object[]> valores) {
+    }
+
+    public static <T> ResponseEntity<StreamingResponseBody> responder(String nome, String formato, String acceptEncoding,
+                                                                     ObjectMapper mapper, LayoutCsv<T> layoutCsv,
+                                                                     Consumer<Consumer<T>> fonte) {
+        Formato escolhido = Formato.de(formato);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        StreamingResponseBody corpo = saida -> {
+            OutputStream destino = gzip
+                    ? new GZIPOutputStream(saida, TAMANHO_BUFFER)
+                    : new BufferedOutputStream(saida, TAMANHO_BUFFER);
+            Escritor<T> escritor = escolhido == Formato.NDJSON
+                    ? new EscritorNdjson<>(destino, mapper)
+                    : new EscritorCsv<>(destino, layoutCsv);
+            try {
+                fonte.accept(escritor::escrever);
+            } catch (UncheckedIOException e) {
+                // Cliente desconectou no meio da exportação
+                throw e.getCause();
+            }
+            escritor.terminar();
+            if (destino instanceof GZIPOutputStream compactado) {
+                compactado.finish();
+            }
+            destino.flush();
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(escolhido.tipo);
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(nome + "." + escolhido.extensao)
+                .build());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ResponseEntity.ok().headers(headers).body(corpo);
+    }
+
+    private interface Escritor<T> {
+
+        void escrever(T item);
+
+        void terminar() throws IOException;
+    }
+
+    private static class EscritorNdjson<T> implements Escritor<T> {
+
+        private final ObjectWriter writer;
+        private final JsonGenerator gerador;
+
+        EscritorNdjson(OutputStream destino, ObjectMapper mapper) throws IOException {
+            this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.gerador = mapper.getFactory().createGenerator(destino);
+            this.gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cada objeto termina com quebra de linha; sem o separador padrão (espaço) entre eles
+            this.gerador.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void escrever(T item) {
+            try {
+                writer.writeValue(gerador, item);
+                gerador.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            gerador.flush();
+        }
+    }
+
+    private static class EscritorCsv<T> implements Escritor<T> {
+
+        private final Writer saida;
+        private final Function<T, Object[]> valores;
+
+        EscritorCsv(OutputStream destino, LayoutCsv<T> layout) throws IOException {
+            this.saida = new OutputStreamWriter(destino, StandardCharsets.UTF_8);
+            this.valores = layout.valores();
+            escreverLinha(layout.colunas().toArray());
+        }
+
+        @Override
+        public void escrever(T item) {
+            try {
+                escreverLinha(valores.apply(item));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            saida.flush();
+        }
+
+        private void escreverLinha(Object[] campos) throws IOException {
+            for (int i = 0; i < campos.length; i++) {
+                if (i > 0) {
+                    saida.write(',');
+                }
+                if (campos[i] != null) {
+                    saida.write(escapar(campos[i].toString()));
+                }
+            }
+            saida.write('\n');
+        }
+
+        private static String escapar(String valor) {
+            if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+                return valor;
+            }
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.biblioteca.api.infrastructure.http;
+
+import com.biblioteca.api.domain.dto.VersaoColecaoDTO;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validadores para GET condicional (If-None-Match / If-Modified-Since).
+ *
+ * Os validadores saem de consultas de metadados (dataAtualizacao, ou quantidade e maior
+ * dataAtualizacao de uma coleção), então um 304 é respondido sem carregar nem serializar
+ * o recurso. Quando retorna true a resposta já foi marcada como 304 e o controller não
+ * deve escrever corpo.
+ */
+public final class RespostaCondicional {
+
+    private RespostaCondicional() {
+    }
+
+    public static boolean naoModificado(WebRequest request, Long id, LocalDateTime dataAtualizacao) {
+        long ultimaModificacao = paraMillis(dataAtualizacao);
+        return request.checkNotModified(etagFraca(id + "-" + ultimaModificacao), ultimaModificacao);
+    }
+
+    // Coleções só usam ETag: exclusões não aumentam a maior dataAtualizacao, mas mudam a quantidade
+    public static boolean naoModificado(WebRequest request, VersaoColecaoDTO versao) {
+        return request.checkNotModified(
+                etagFraca(versao.getQuantidade() + "-" + paraMillis(versao.getUltimaAtualizacao())));
+    }
+
+    // Recursos com versão própria, mantida em memória
+    public static boolean naoModificado(WebRequest request, String versao) {
+        return request.checkNotModified(etagFraca(versao));
+    }
+
+    private static String etagFraca(String valor) {
+        return "W/\"" + valor + "\"";
+    }
+
+    private static long paraMillis(LocalDateTime dataHora) {
+        return dataHora == null ? 0L : dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,95 @@
+package com.biblioteca.api.infrastructure.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respostas JSON de recursos por id guardadas já serializadas (e, a partir de um tamanho,
+ * também compactadas com gzip), junto com a dataAtualizacao do recurso.
+ *
+ * O controller já consulta a dataAtualizacao para o GET condicional; se ela bate com a da
+ * entrada em cache, a resposta é só a escrita dos bytes, sem carregar o DTO nem passar pelo
+ * Jackson. Com outra versão a entrada é refeita, e os serviços a removem ao alterar ou excluir
+ * o recurso.
+ *
+ * Essa consulta da versão (uma leitura de coluna pela chave primária) continua em todo acerto:
+ * é o que responde o 304 e o que faz uma instância notar alterações feitas por outra, já que a
+ * remoção pelos serviços é local. Por isso {@code carregar} deve ler do banco, e não do cache de
+ * DTOs, que pode estar anterior à versão: como a leitura vem depois da consulta da versão, o
+ * conteúdo guardado nunca é mais antigo que a versão com que fica marcado.
+ */
+@Component
+public class RespostasSerializadas {
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final int gzipMinimoBytes;
+
+    public RespostasSerializadas(CacheManager cacheManager, ObjectMapper objectMapper,
+                                 @Value("${cache.respostas.gzip-minimo-bytes:1024}") int gzipMinimoBytes) {
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.gzipMinimoBytes = gzipMinimoBytes;
+    }
+
+    public ResponseEntity<byte[]> responder(String nomeCache, Long id, LocalDateTime versao, String acceptEncoding,
+                                            Supplier<?> carregar) {
+        Cache respostas = Objects.requireNonNull(cacheManager.getCache(nomeCache), nomeCache);
+        Serializada serializada = respostas.get(id, Serializada.class);
+        if (serializada == null || !Objects.equals(serializada.versao(), versao)) {
+            serializada = serializar(versao, carregar.get());
+            respostas.put(id, serializada);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (serializada.gzip() == null) {
+            return ResponseEntity.ok().headers(headers).body(serializada.json());
+        }
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return ResponseEntity.ok().headers(headers).body(serializada.gzip());
+        }
+        return ResponseEntity.ok().headers(headers).body(serializada.json());
+    }
+
+    private Serializada serializar(LocalDateTime versao, Object valor) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(valor);
+            return new Serializada(versao, json, json.length >= gzipMinimoBytes ? compactar(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a resposta", e);
+        }
+    }
+
+    private static byte[] compactar(byte[] json) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    // gzip é null quando o JSON é pequeno demais para compensar a compactação
+    public record Serializada(LocalDateTime versao, byte[] json, byte[] gzip) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.biblioteca.api.infrastructure.importacao;
+
+import com.biblioteca.api.domain.dto.LivroImportacaoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lê um arquivo de importação de livros registro a registro, sem carregá-lo inteiro.
+ *
+ * Formatos aceitos: CSV com cabeçalho (separador vírgula ou ponto e vírgula, campos entre
+ * aspas podem conter o separador e quebras de linha) e JSON Lines (um objeto por linha).
+ * Um registro malformado vira um {@link Registro} com erro, e a leitura segue no próximo.
+ */
+public abstract class LeitorImportacao implements Closeable {
+
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    public static final MediaType JSON_LINHAS = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final Set<String> COLUNAS_OBRIGATORIAS =
+            Set.of("titulo", "isbn", "anopublicacao", "quantidadetotal", "autor", "categoria");
+
+    protected final BufferedReader entrada;
+    protected long numero;
+
+    protected LeitorImportacao(InputStream corpo) {
+        this.entrada = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+    }
+
+    public static LeitorImportacao para(MediaType tipo, InputStream corpo, ObjectMapper mapper) throws IOException {
+        if (CSV.isCompatibleWith(tipo)) {
+            return new LeitorCsv(corpo);
+        }
+        if (JSON_LINHAS.isCompatibleWith(tipo)) {
+            return new LeitorJsonLinhas(corpo, mapper);
+        }
+        throw new IllegalArgumentException("Formato não suportado: " + tipo + " (use text/csv ou application/x-ndjson)");
+    }
+
+    // Próximo registro, ou null no fim do arquivo
+    public abstract Registro proximo() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+
+    public record Registro(long numero, LivroImportacaoDTO livro, String erro) {
+
+        static Registro valido(long numero, LivroImportacaoDTO livro) {
+            return new Registro(numero, livro, null);
+        }
+
+        static Registro invalido(long numero, String erro) {
+            return new Registro(numero, null, erro);
+        }
+    }
+
+    private static class LeitorJsonLinhas extends LeitorImportacao {
+
+        private final ObjectReader leitor;
+
+        LeitorJsonLinhas(InputStream corpo, ObjectMapper mapper) {
+            super(corpo);
+            this.leitor = mapper.readerFor(LivroImportacaoDTO.class)
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        }
+
+        @Override
+        public Registro proximo() throws IOException {
+            String linha;
+            do {
+                linha = entrada.readLine();
+                if (linha == null) {
+                    return null;
+                }
+            } while (linha.isBlank());
+
+            numero++;
+            try {
+                return Registro.valido(numero, leitor.readValue(linha));
+            } catch (JsonProcessingException e) {
+                return Registro.invalido(numero, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static class LeitorCsv extends LeitorImportacao {
+
+        private final char separador;
+        private final Map<String, Integer> colunas = new HashMap<>();
+
+        LeitorCsv(InputStream corpo) throws IOException {
+            super(corpo);
+            String cabecalho = entrada.readLine();
+            if (cabecalho == null) {
+                throw new IllegalArgumentException("Arquivo CSV vazio");
+            }
+            if (cabecalho.startsWith("\uFEFF")) {
+                cabecalho = cabecalho.substring(1);
+            }
+            separador = cabecalho.indexOf(';') >= 0 && cabecalho.indexOf(',') < 0 ? ';' : ',';
+
+            List<String> nomes = dividir(cabecalho);
+            for (int i = 0; i < nomes.size(); i++) {
+                colunas.put(nomes.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String obrigatoria : COLUNAS_OBRIGATORIAS) {
+                if (!colunas.containsKey(obrigatoria)) {
+                    throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho do CSV: " + obrigatoria);
+                }
+            }
+        }
+
+        @Override
+        public Registro proximo() throws IOException {
+            String linha;
+            do {
+                linha = entrada.readLine();
+                if (linha == null) {
+                    return null;
+                }
+            } while (linha.isBlank());
+
+            // Campo entre aspas com quebra de linha: junta as linhas seguintes
+            StringBuilder registro = new StringBuilder(linha);
+            while (aspasAbertas(registro)) {
+                String continuacao = entrada.readLine();
+                if (continuacao == null) {
+                    numero++;
+                    return Registro.invalido(numero, "Aspas não fechadas até o fim do arquivo");
+                }
+                registro.append('\n').append(continuacao);
+            }
+
+            numero++;
+            List<String> campos = dividir(registro);
+            try {
+                return Registro.valido(numero, new LivroImportacaoDTO(
+                        texto(campos, "titulo"),
+                        texto(campos, "isbn"),
+                        texto(campos, "descricao"),
+                        inteiro(campos, "anopublicacao"),
+                        inteiro(campos, "quantidadetotal"),
+                        inteiro(campos, "quantidadedisponivel"),
+                        texto(campos, "autor"),
+                        texto(campos, "categoria")
+                ));
+            } catch (NumberFormatException e) {
+                return Registro.invalido(numero, "Número inválido: " + e.getMessage());
+            }
+        }
+
+        private String texto(List<String> campos, String coluna) {
+            Integer indice = colunas.get(coluna);
+            if (indice == null || indice >= campos.size()) {
+                return null;
+            }
+            String valor = campos.get(indice).trim();
+            return valor.isEmpty() ? null : valor;
+        }
+
+        private Integer inteiro(List<String> campos, String coluna) {
+            String valor = texto(campos, coluna);
+            return valor == null ? null : Integer.valueOf(valor);
+        }
+
+        private boolean aspasAbertas(CharSequence registro) {
+            boolean abertas = false;
+            for (int i = 0; i < registro.length(); i++) {
+                if (registro.charAt(i) == '"') {
+                    abertas = !abertas;
+                }
+            }
+            return abertas;
+        }
+
+        // Aspas duplicadas ("") dentro de um campo entre aspas representam uma aspa
+        private List<String> dividir(CharSequence registro) {
+            List<String> campos = new ArrayList<>();
+            StringBuilder campo = new StringBuilder();
+            boolean entreAspas = false;
+            for (int i = 0; i < registro.length(); i++) {
+                char c = registro.charAt(i);
+                if (entreAspas) {
+                    if (c == '"' && i + 1 < registro.length() && registro.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreAspas = false;
+                    } else {
+                        campo.append(c);
+                    }
+                } else if (c == '"') {
+                    entreAspas = true;
+                } else if (c == separador) {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else {
+                    campo.append(c);
+                }
+            }
+            campos.add(campo.toString());
+            return campos;
+        }
+    }
+}
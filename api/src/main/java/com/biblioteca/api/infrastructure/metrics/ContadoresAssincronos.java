@@ -0,0 +1,28 @@
+package com.biblioteca.api.infrastructure.metrics;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Leva os {@link ContadoresRequisicao} para a thread do executor do Spring MVC que executa o
+ * trabalho assíncrono da requisição (Callable e StreamingResponseBody), como a leitura do
+ * banco durante as exportações em fluxo.
+ */
+public class ContadoresAssincronos implements CallableProcessingInterceptor {
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> tarefa) {
+        Object contadores = request.getAttribute(ContadoresRequisicao.ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+        if (contadores instanceof ContadoresRequisicao daRequisicao) {
+            ContadoresRequisicao.continuar(daRequisicao);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> tarefa, Object resultado) {
+        ContadoresRequisicao.encerrar();
+    }
+}
@@ -0,0 +1,72 @@
+package com.biblioteca.api.infrastructure.metrics;
+
+/**
+ * Contadores de atividade do Hibernate na requisição corrente (consultas SQL, entidades
+ * carregadas e flushes).
+ *
+ * Ficam numa ThreadLocal aberta pelo {@link FiltroMetricasRequisicao}; fora de uma
+ * requisição (varreduras agendadas, carga do índice) nada é contado. Numa resposta assíncrona
+ * a mesma instância passa à thread que continua a requisição ({@link ContadoresAssincronos});
+ * as duas threads não contam ao mesmo tempo, e a passagem pelo executor garante a visibilidade.
+ */
+public final class ContadoresRequisicao {
+
+    // Atributo da requisição com a instância, para a continuação assíncrona
+    static final String ATRIBUTO = ContadoresRequisicao.class.getName();
+
+    private static final ThreadLocal<ContadoresRequisicao> ATUAL = new ThreadLocal<>();
+
+    private int consultas;
+    private int carregamentos;
+    private int flushes;
+
+    private ContadoresRequisicao() {
+    }
+
+    static ContadoresRequisicao iniciar() {
+        ContadoresRequisicao contadores = new ContadoresRequisicao();
+        ATUAL.set(contadores);
+        return contadores;
+    }
+
+    static void continuar(ContadoresRequisicao contadores) {
+        ATUAL.set(contadores);
+    }
+
+    static void encerrar() {
+        ATUAL.remove();
+    }
+
+    static void registrarConsulta() {
+        ContadoresRequisicao contadores = ATUAL.get();
+        if (contadores != null) {
+            contadores.consultas++;
+        }
+    }
+
+    static void registrarCarregamento() {
+        ContadoresRequisicao contadores = ATUAL.get();
+        if (contadores != null) {
+            contadores.carregamentos++;
+        }
+    }
+
+    static void registrarFlush() {
+        ContadoresRequisicao contadores = ATUAL.get();
+        if (contadores != null) {
+            contadores.flushes++;
+        }
+    }
+
+    int consultas() {
+        return consultas;
+    }
+
+    int carregamentos() {
+        return carregamentos;
+    }
+
+    int flushes() {
+        return flushes;
+    }
+}
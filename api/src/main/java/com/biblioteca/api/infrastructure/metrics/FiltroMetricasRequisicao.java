@@ -0,0 +1,123 @@
+package com.biblioteca.api.infrastructure.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registra, por rota, quantas consultas SQL, cargas de entidade e flushes cada requisição fez.
+ *
+ * Roda antes da cadeia do Spring Security para incluir o trabalho do filtro JWT. A rota é o
+ * padrão mapeado no controller (ex.: {@code /api/livros/{id}}), nunca a URI crua, para não
+ * criar uma série por id. Os medidores de cada rota são criados na primeira requisição e
+ * guardados, como em {@link MetricasServicos}.
+ *
+ * Respostas assíncronas (as exportações com StreamingResponseBody) continuam o trabalho em
+ * outra thread depois que a cadeia de filtros volta: os contadores seguem a requisição até lá
+ * ({@link ContadoresAssincronos}) e só são registrados quando ela termina de fato.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class FiltroMetricasRequisicao extends OncePerRequestFilter {
+
+    private static final String ROTA_DESCONHECIDA = "desconhecida";
+
+    private final MeterRegistry registry;
+    private final Map<Chave, Medidores> medidores = new ConcurrentHashMap<>();
+
+    public FiltroMetricasRequisicao(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContadoresRequisicao contadores = ContadoresRequisicao.iniciar();
+        request.setAttribute(ContadoresRequisicao.ATRIBUTO, contadores);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContadoresRequisicao.encerrar();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new RegistroAoConcluir(request, contadores));
+            } else {
+                registrar(request, contadores);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, ContadoresRequisicao contadores) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Chave chave = new Chave(padrao != null ? padrao.toString() : ROTA_DESCONHECIDA, request.getMethod());
+
+        Medidores daRota = medidores.computeIfAbsent(chave, this::criarMedidores);
+        daRota.consultas().record(contadores.consultas());
+        daRota.carregamentos().record(contadores.carregamentos());
+        daRota.flushes().record(contadores.flushes());
+    }
+
+    private Medidores criarMedidores(Chave chave) {
+        return new Medidores(
+                resumo("biblioteca.hibernate.consultas", chave),
+                resumo("biblioteca.hibernate.carregamentos", chave),
+                resumo("biblioteca.hibernate.flushes", chave));
+    }
+
+    private DistributionSummary resumo(String nome, Chave chave) {
+        return DistributionSummary.builder(nome)
+                .description("Por requisição")
+                .tag("uri", chave.rota())
+                .tag("method", chave.metodo())
+                .register(registry);
+    }
+
+    private record Chave(String rota, String metodo) {
+    }
+
+    private record Medidores(DistributionSummary consultas, DistributionSummary carregamentos,
+                             DistributionSummary flushes) {
+    }
+
+    // onComplete também é chamado depois de timeout ou erro
+    private class RegistroAoConcluir implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final ContadoresRequisicao contadores;
+
+        RegistroAoConcluir(HttpServletRequest request, ContadoresRequisicao contadores) {
+            this.request = request;
+            this.contadores = contadores;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent evento) {
+            registrar(request, contadores);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent evento) {
+        }
+
+        @Override
+        public void onError(AsyncEvent evento) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent evento) {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.biblioteca.api.infrastructure.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Liga o Hibernate aos {@link ContadoresRequisicao}: cada SQL preparado passa pelo
+ * StatementInspector, e os eventos de carga de entidade e de flush pelos listeners
+ * registrados na subida da SessionFactory. Não altera o SQL nem o comportamento.
+ */
+public class InstrumentacaoHibernate implements Integrator, StatementInspector,
+        PostLoadEventListener, FlushEventListener {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registro = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_LOAD, this);
+        registro.appendListeners(EventType.FLUSH, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public String inspect(String sql) {
+        ContadoresRequisicao.registrarConsulta();
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        ContadoresRequisicao.registrarCarregamento();
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        ContadoresRequisicao.registrarFlush();
+    }
+}
@@ -0,0 +1,53 @@
+package com.biblioteca.api.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cronometra os métodos públicos dos serviços da camada de aplicação ({@code *Service}).
+ *
+ * O Timer de cada método é criado na primeira chamada e guardado, então o caminho quente é
+ * só uma consulta ao mapa e duas leituras de relógio. Chamadas internas ao próprio serviço
+ * não passam pelo proxy e ficam dentro do tempo do método chamador.
+ */
+@Aspect
+@Component
+public class MetricasServicos {
+
+    private final MeterRegistry registry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public MetricasServicos(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.biblioteca.api.application.service.*Service.*(..))")
+    public Object cronometrar(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method metodo = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.computeIfAbsent(metodo, this::criarTimer);
+        long inicio = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer criarTimer(Method metodo) {
+        return Timer.builder("biblioteca.servico")
+                .description("Tempo dos métodos dos serviços")
+                .tag("classe", metodo.getDeclaringClass().getSimpleName())
+                .tag("metodo", metodo.getName())
+                .register(registry);
+    }
+}
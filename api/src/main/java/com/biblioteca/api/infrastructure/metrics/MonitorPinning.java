@@ -0,0 +1,87 @@
+package com.biblioteca.api.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta threads virtuais presas à thread portadora (pinning), normalmente por bloqueio
+ * dentro de um bloco synchronized ou de código nativo.
+ *
+ * Assina o evento {@code jdk.VirtualThreadPinned} do JFR num stream em segundo plano, só
+ * quando as threads virtuais estão ligadas. Cada ocorrência acima do limite conta na métrica
+ * {@code biblioteca.threads.virtuais.pinning} e é logada com o topo da pilha, que aponta o
+ * trecho a trocar por um ReentrantLock.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class MonitorPinning {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorPinning.class);
+    private static final int QUADROS_NO_LOG = 8;
+
+    private final Counter ocorrencias;
+    private final Timer duracao;
+    private final Duration limite;
+    private RecordingStream stream;
+
+    public MonitorPinning(MeterRegistry registry,
+                          @Value("${threads.virtuais.pinning.limite-ms:20}") long limiteMs) {
+        this.ocorrencias = Counter.builder("biblioteca.threads.virtuais.pinning")
+                .description("Threads virtuais presas à portadora acima do limite")
+                .register(registry);
+        this.duracao = Timer.builder("biblioteca.threads.virtuais.pinning.duracao")
+                .register(registry);
+        this.limite = Duration.ofMillis(limiteMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(limite).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::registrar);
+        stream.startAsync();
+        log.info("Monitor de pinning de threads virtuais ativo (limite de {} ms)", limite.toMillis());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void registrar(RecordedEvent evento) {
+        ocorrencias.increment();
+        duracao.record(evento.getDuration());
+        log.warn("Thread virtual presa por {} ms em:\n{}", evento.getDuration().toMillis(), pilha(evento));
+    }
+
+    private static String pilha(RecordedEvent evento) {
+        if (evento.getStackTrace() == null) {
+            return "  (sem pilha)";
+        }
+        List<RecordedFrame> quadros = evento.getStackTrace().getFrames();
+        return quadros.stream()
+                .limit(QUADROS_NO_LOG)
+                .map(quadro -> "  at " + quadro.getMethod().getType().getName() + "." + quadro.getMethod().getName()
+                        + ":" + quadro.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
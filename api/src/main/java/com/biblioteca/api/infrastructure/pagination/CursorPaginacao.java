@@ -0,0 +1,100 @@
+package com.biblioteca.api.infrastructure.pagination;
+
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Paginação por cursor (keyset): a próxima página é buscada a partir da chave do último
+ * registro retornado, sem OFFSET, então páginas profundas custam o mesmo que a primeira.
+ */
+public final class CursorPaginacao {
+
+    public static final int TAMANHO_PADRAO = 50;
+    public static final int TAMANHO_MAXIMO = 500;
+
+    private static final char SEPARADOR = '\u001F';
+
+    private CursorPaginacao() {
+    }
+
+    public static int limitarTamanho(Integer tamanho) {
+        if (tamanho == null) {
+            return TAMANHO_PADRAO;
+        }
+        if (tamanho <= 0) {
+            throw new IllegalArgumentException("Tamanho da página deve ser maior que zero");
+        }
+        return Math.min(tamanho, TAMANHO_MAXIMO);
+    }
+
+    // Busca um registro a mais para saber se existe próxima página
+    public static Limit limiteConsulta(int tamanho) {
+        return Limit.of(tamanho + 1);
+    }
+
+    public static String codificar(Long id) {
+        return codificarTexto(String.valueOf(id));
+    }
+
+    public static String codificar(String chave, Long id) {
+        return codificarTexto(chave + SEPARADOR + id);
+    }
+
+    public static Long decodificarId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        return converterId(decodificarTexto(cursor));
+    }
+
+    public static ChaveCursor decodificarChave(String cursor) {
+        String texto = decodificarTexto(cursor);
+        int posicao = texto.lastIndexOf(SEPARADOR);
+        if (posicao < 0) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return new ChaveCursor(texto.substring(0, posicao), converterId(texto.substring(posicao + 1)));
+    }
+
+    public static <E, T> PaginaDTO<T> montarPagina(List<E> resultados, int tamanho,
+                                                   Function<E, T> conversor, Function<E, String> cursorDe) {
+        boolean temProxima = resultados.size() > tamanho;
+        List<E> pagina = temProxima ? resultados.subList(0, tamanho) : resultados;
+
+        List<T> itens = pagina.stream()
+                .map(conversor)
+                .collect(Collectors.toList());
+
+        String proximoCursor = temProxima ? cursorDe.apply(pagina.get(pagina.size() - 1)) : null;
+        return new PaginaDTO<>(itens, proximoCursor, itens.size());
+    }
+
+    private static String codificarTexto(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodificarTexto(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    private static Long converterId(String valor) {
+        try {
+            return Long.valueOf(valor);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    public record ChaveCursor(String chave, Long id) {
+    }
+}
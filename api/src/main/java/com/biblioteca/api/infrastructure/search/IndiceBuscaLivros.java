@@ -0,0 +1,236 @@
+package com.biblioteca.api.infrastructure.search;
+
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.event.LivroAlteradoEvent;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória sobre título e descrição dos livros.
+ *
+ * Cada termo normalizado aponta para os livros que o contêm (com peso maior para o título),
+ * e cada trigrama aponta para os termos que o contêm, o que permite buscar por prefixo e por
+ * trecho de palavra sem varrer a tabela. O índice é carregado na subida da aplicação e mantido
+ * pelos eventos de alteração de livros, aplicados após o commit.
+ */
+@Component
+public class IndiceBuscaLivros {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceBuscaLivros.class);
+
+    private static final int PESO_TITULO = 3;
+    private static final int PESO_DESCRICAO = 1;
+    private static final int TAMANHO_LOTE_CARGA = 5000;
+
+    private final LivroRepository livroRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termosPorTrigrama = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> documentos = new HashMap<>();
+    private final Set<Long> removidosDuranteCarga = new HashSet<>();
+
+    private volatile boolean pronto;
+
+    public IndiceBuscaLivros(LivroRepository livroRepository) {
+        this.livroRepository = livroRepository;
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Retorna os ids dos livros que contêm todos os termos da consulta, do mais relevante
+     * para o menos relevante.
+     */
+    public List<Long> buscar(String consulta, int limite) {
+        Set<String> termosConsulta = new LinkedHashSet<>(NormalizadorTexto.termos(consulta));
+        if (termosConsulta.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> pontuacao = null;
+            for (String termo : termosConsulta) {
+                Map<Long, Integer> doTermo = pontuarTermo(termo);
+                if (pontuacao == null) {
+                    pontuacao = doTermo;
+                } else {
+                    pontuacao.keySet().retainAll(doTermo.keySet());
+                    pontuacao.replaceAll((livroId, pontos) -> pontos + doTermo.get(livroId));
+                }
+                if (pontuacao.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return pontuacao.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.<Long, Integer>comparingByKey()))
+                    .limit(limite)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexar(LivroDTO livro) {
+        indexar(livro, true);
+    }
+
+    public void remover(Long livroId) {
+        lock.writeLock().lock();
+        try {
+            removerDocumento(livroId);
+            if (!pronto) {
+                removidosDuranteCarga.add(livroId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarLivro(LivroAlteradoEvent evento) {
+        if (evento.removido()) {
+            remover(evento.livroId());
+        } else {
+            indexar(evento.livro());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+        long ultimoId = 0L;
+        List<LivroDTO> pagina;
+        do {
+            pagina = livroRepository.buscarDTOsAposId(ultimoId, Limit.of(TAMANHO_LOTE_CARGA));
+            for (LivroDTO livro : pagina) {
+                // Alterações recebidas durante a carga são mais novas que a leitura: não sobrescreve
+                indexar(livro, false);
+                ultimoId = livro.getId();
+            }
+        } while (pagina.size() == TAMANHO_LOTE_CARGA);
+
+        lock.writeLock().lock();
+        try {
+            removidosDuranteCarga.clear();
+            pronto = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de busca carregado: {} livros, {} termos em {} ms",
+                documentos.size(), postings.size(), System.currentTimeMillis() - inicio);
+    }
+
+    private void indexar(LivroDTO livro, boolean sobrescrever) {
+        Map<String, Integer> termos = new HashMap<>();
+        NormalizadorTexto.termos(livro.getTitulo()).forEach(termo -> termos.merge(termo, PESO_TITULO, Integer::sum));
+        NormalizadorTexto.termos(livro.getDescricao()).forEach(termo -> termos.merge(termo, PESO_DESCRICAO, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            if (!sobrescrever && (documentos.containsKey(livro.getId()) || removidosDuranteCarga.contains(livro.getId()))) {
+                return;
+            }
+            removerDocumento(livro.getId());
+            documentos.put(livro.getId(), termos);
+            termos.forEach((termo, peso) -> postings.computeIfAbsent(termo, this::registrarTermo).put(livro.getId(), peso));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> registrarTermo(String termo) {
+        for (String trigrama : trigramas(termo)) {
+            termosPorTrigrama.computeIfAbsent(trigrama, chave -> new HashSet<>()).add(termo);
+        }
+        return new HashMap<>();
+    }
+
+    private void removerDocumento(Long livroId) {
+        Map<String, Integer> termos = documentos.remove(livroId);
+        if (termos == null) {
+            return;
+        }
+        for (String termo : termos.keySet()) {
+            Map<Long, Integer> livros = postings.get(termo);
+            livros.remove(livroId);
+            if (livros.isEmpty()) {
+                postings.remove(termo);
+                for (String trigrama : trigramas(termo)) {
+                    Set<String> termosDoTrigrama = termosPorTrigrama.get(trigrama);
+                    termosDoTrigrama.remove(termo);
+                    if (termosDoTrigrama.isEmpty()) {
+                        termosPorTrigrama.remove(trigrama);
+                    }
+                }
+            }
+        }
+    }
+
+    // Melhor pontuação de cada livro para um termo da consulta: exato > prefixo > trecho
+    private Map<Long, Integer> pontuarTermo(String termoConsulta) {
+        Map<Long, Integer> pontuacao = new HashMap<>();
+        for (String termo : termosCandidatos(termoConsulta)) {
+            int fator = termo.equals(termoConsulta) ? 4 : termo.startsWith(termoConsulta) ? 2 : 1;
+            postings.get(termo).forEach((livroId, peso) -> pontuacao.merge(livroId, peso * fator, Math::max));
+        }
+        return pontuacao;
+    }
+
+    private Collection<String> termosCandidatos(String termoConsulta) {
+        if (termoConsulta.length() < 3) {
+            return postings.subMap(termoConsulta, true, termoConsulta + Character.MAX_VALUE, true).keySet();
+        }
+
+        // Parte do trigrama mais seletivo e confirma o trecho em cada termo candidato
+        Set<String> menor = null;
+        for (String trigrama : trigramas(termoConsulta)) {
+            Set<String> termos = termosPorTrigrama.get(trigrama);
+            if (termos == null) {
+                return List.of();
+            }
+            if (menor == null || termos.size() < menor.size()) {
+                menor = termos;
+            }
+        }
+
+        List<String> candidatos = new ArrayList<>();
+        for (String termo : menor) {
+            if (termo.contains(termoConsulta)) {
+                candidatos.add(termo);
+            }
+        }
+        return candidatos;
+    }
+
+    private static List<String> trigramas(String termo) {
+        List<String> trigramas = new ArrayList<>();
+        for (int i = 0; i + 3 <= termo.length(); i++) {
+            trigramas.add(termo.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+}
@@ -0,0 +1,381 @@
+package com.biblioteca.api.infrastructure.search;
+
+import com.biblioteca.api.domain.dto.BuscaFacetadaDTO;
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.dto.LivroResumoDTO;
+import com.biblioteca.api.domain.event.LivroAlteradoEvent;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.infrastructure.pagination.CursorPaginacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice colunar em memória para a busca facetada do catálogo: autor, categoria, ano de
+ * publicação e disponibilidade.
+ *
+ * Cada livro ocupa uma posição nos arrays primitivos das colunas, e cada autor e categoria
+ * tem um BitSet com as posições dos seus livros. Uma busca percorre as posições uma única vez
+ * e, na mesma passada, separa a página de resultados e conta as facetas. A contagem de cada
+ * faceta respeita os demais filtros mas não o seu próprio, para mostrar quantos livros cada
+ * outra opção traria.
+ *
+ * Por causa dessas contagens a busca é O(n) no número de livros, mesmo com filtros: um livro
+ * fora do filtro de autor ainda conta na faceta de autores. Os BitSets só encurtam a passada
+ * quando há filtro de autor e de categoria ao mesmo tempo, porque um livro fora dos dois não
+ * entra em contagem nenhuma; nos demais casos eles servem de teste de pertinência dentro da
+ * passada. A passada lê só arrays primitivos, sem alocar nada por livro; um acervo grande o
+ * bastante para ela pesar pediria contagens mantidas por faceta a cada alteração.
+ *
+ * O índice é carregado na subida da aplicação e mantido pelos eventos de alteração de livros,
+ * aplicados após o commit, e pelo mapa de disponibilidade, que repassa as mudanças causadas
+ * por empréstimos e devoluções.
+ */
+@Component
+public class IndiceFacetasLivros {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceFacetasLivros.class);
+
+    private static final int TAMANHO_LOTE_CARGA = 5000;
+    private static final int CAPACIDADE_INICIAL = 1024;
+    private static final int SEM_ANO = Integer.MIN_VALUE;
+
+    private final LivroRepository livroRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Colunas, indexadas pela posição do livro
+    private long[] ids = new long[CAPACIDADE_INICIAL];
+    private String[] titulos = new String[CAPACIDADE_INICIAL];
+    private int[] autores = new int[CAPACIDADE_INICIAL];
+    private int[] categorias = new int[CAPACIDADE_INICIAL];
+    private int[] anos = new int[CAPACIDADE_INICIAL];
+    private final BitSet ocupadas = new BitSet();
+    private final BitSet disponiveis = new BitSet();
+
+    private final Map<Long, Integer> posicoes = new HashMap<>();
+    private final Dicionario dicionarioAutores = new Dicionario();
+    private final Dicionario dicionarioCategorias = new Dicionario();
+    private final Set<Long> removidosDuranteCarga = new HashSet<>();
+    private int menorAno = Integer.MAX_VALUE;
+    private int maiorAno = Integer.MIN_VALUE;
+
+    private volatile boolean pronto;
+
+    public IndiceFacetasLivros(LivroRepository livroRepository) {
+        this.livroRepository = livroRepository;
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Livros que atendem a todos os filtros, ordenados por id e paginados por cursor, com as
+     * contagens de cada faceta. Vazio enquanto a carga inicial não terminou.
+     */
+    public Optional<BuscaFacetadaDTO> buscar(Filtro filtro, String cursor, Integer tamanho) {
+        if (filtro.anoDe() != null && filtro.anoAte() != null && filtro.anoDe() > filtro.anoAte()) {
+            throw new IllegalArgumentException("Ano inicial maior que o ano final");
+        }
+        int limite = CursorPaginacao.limitarTamanho(tamanho);
+        long aposId = CursorPaginacao.decodificarId(cursor);
+        if (!pronto) {
+            return Optional.empty();
+        }
+
+        int anoDe = filtro.anoDe() != null ? filtro.anoDe() : Integer.MIN_VALUE;
+        int anoAte = filtro.anoAte() != null ? filtro.anoAte() : Integer.MAX_VALUE;
+        boolean filtraAno = filtro.anoDe() != null || filtro.anoAte() != null;
+
+        lock.readLock().lock();
+        try {
+            BitSet filtroAutores = dicionarioAutores.uniao(filtro.autorIds());
+            BitSet filtroCategorias = dicionarioCategorias.uniao(filtro.categoriaIds());
+
+            int[] porAutor = new int[dicionarioAutores.tamanho];
+            int[] porCategoria = new int[dicionarioCategorias.tamanho];
+            int[] porAno = new int[maiorAno >= menorAno ? maiorAno - menorAno + 1 : 0];
+            int comDisponivel = 0;
+            int semDisponivel = 0;
+            long total = 0;
+            // Maiores ids no topo: guarda só as primeiras posições da página (uma a mais que o limite)
+            PriorityQueue<Integer> pagina = new PriorityQueue<>(limite + 1,
+                    Comparator.comparingLong((Integer posicao) -> ids[posicao]).reversed());
+
+            BitSet varrer = ocupadas;
+            if (filtroAutores != null && filtroCategorias != null) {
+                varrer = (BitSet) filtroAutores.clone();
+                varrer.or(filtroCategorias);
+            }
+
+            for (int posicao = varrer.nextSetBit(0); posicao >= 0; posicao = varrer.nextSetBit(posicao + 1)) {
+                int ano = anos[posicao];
+                boolean disponivel = disponiveis.get(posicao);
+                boolean atendeAutor = filtroAutores == null || filtroAutores.get(posicao);
+                boolean atendeCategoria = filtroCategorias == null || filtroCategorias.get(posicao);
+                boolean atendeAno = !filtraAno || (ano != SEM_ANO && ano >= anoDe && ano <= anoAte);
+                boolean atendeDisponivel = filtro.disponivel() == null || filtro.disponivel() == disponivel;
+
+                if (atendeCategoria && atendeAno && atendeDisponivel) {
+                    porAutor[autores[posicao]]++;
+                }
+                if (atendeAutor && atendeAno && atendeDisponivel) {
+                    porCategoria[categorias[posicao]]++;
+                }
+                if (atendeAutor && atendeCategoria && atendeDisponivel && ano != SEM_ANO) {
+                    porAno[ano - menorAno]++;
+                }
+                if (atendeAutor && atendeCategoria && atendeAno) {
+                    if (disponivel) {
+                        comDisponivel++;
+                    } else {
+                        semDisponivel++;
+                    }
+                    if (atendeDisponivel) {
+                        total++;
+                        if (ids[posicao] > aposId) {
+                            pagina.add(posicao);
+                            if (pagina.size() > limite + 1) {
+                                pagina.poll();
+                            }
+                        }
+                    }
+                }
+            }
+
+            List<LivroResumoDTO> itens = new ArrayList<>(pagina.size());
+            while (!pagina.isEmpty()) {
+                itens.add(resumo(pagina.poll()));
+            }
+            itens.sort(Comparator.comparing(LivroResumoDTO::getId));
+            String proximoCursor = null;
+            if (itens.size() > limite) {
+                itens = itens.subList(0, limite);
+                proximoCursor = CursorPaginacao.codificar(itens.get(limite - 1).getId());
+            }
+
+            Map<Integer, Integer> contagemAnos = new TreeMap<>();
+            for (int i = 0; i < porAno.length; i++) {
+                if (porAno[i] > 0) {
+                    contagemAnos.put(menorAno + i, porAno[i]);
+                }
+            }
+            return Optional.of(new BuscaFacetadaDTO(itens, proximoCursor, total,
+                    dicionarioAutores.contagens(porAutor), dicionarioCategorias.contagens(porCategoria),
+                    contagemAnos, comDisponivel, semDisponivel));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexar(LivroDTO livro) {
+        indexar(livro, true);
+    }
+
+    public void remover(Long livroId) {
+        lock.writeLock().lock();
+        try {
+            Integer posicao = posicoes.remove(livroId);
+            if (posicao != null) {
+                dicionarioAutores.posicoes.get(autores[posicao]).clear(posicao);
+                dicionarioCategorias.posicoes.get(categorias[posicao]).clear(posicao);
+                titulos[posicao] = null;
+                ocupadas.clear(posicao);
+                disponiveis.clear(posicao);
+            }
+            if (!pronto) {
+                removidosDuranteCarga.add(livroId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Chamado pelo mapa de disponibilidade quando um livro passa a ter (ou deixa de ter) exemplar
+    public void marcarDisponibilidade(long livroId, boolean disponivel) {
+        lock.writeLock().lock();
+        try {
+            Integer posicao = posicoes.get(livroId);
+            if (posicao != null) {
+                disponiveis.set(posicao, disponivel);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarLivro(LivroAlteradoEvent evento) {
+        if (evento.removido()) {
+            remover(evento.livroId());
+        } else {
+            indexar(evento.livro());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+        long ultimoId = 0L;
+        List<LivroDTO> pagina;
+        do {
+            pagina = livroRepository.buscarDTOsAposId(ultimoId, Limit.of(TAMANHO_LOTE_CARGA));
+            for (LivroDTO livro : pagina) {
+                // Alterações recebidas durante a carga são mais novas que a leitura: não sobrescreve
+                indexar(livro, false);
+                ultimoId = livro.getId();
+            }
+        } while (pagina.size() == TAMANHO_LOTE_CARGA);
+
+        lock.writeLock().lock();
+        try {
+            removidosDuranteCarga.clear();
+            pronto = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de facetas carregado: {} livros, {} autores, {} categorias em {} ms",
+                posicoes.size(), dicionarioAutores.tamanho, dicionarioCategorias.tamanho,
+                System.currentTimeMillis() - inicio);
+    }
+
+    private void indexar(LivroDTO livro, boolean sobrescrever) {
+        Long livroId = livro.getId();
+        lock.writeLock().lock();
+        try {
+            if (!sobrescrever && (posicoes.containsKey(livroId) || removidosDuranteCarga.contains(livroId))) {
+                return;
+            }
+            Integer posicao = posicoes.get(livroId);
+            if (posicao == null) {
+                posicao = ocupadas.nextClearBit(0);
+                garantirCapacidade(posicao + 1);
+                posicoes.put(livroId, posicao);
+                ocupadas.set(posicao);
+            } else {
+                dicionarioAutores.posicoes.get(autores[posicao]).clear(posicao);
+                dicionarioCategorias.posicoes.get(categorias[posicao]).clear(posicao);
+            }
+
+            ids[posicao] = livroId;
+            titulos[posicao] = livro.getTitulo();
+            autores[posicao] = dicionarioAutores.registrar(livro.getAutorId(), posicao);
+            categorias[posicao] = dicionarioCategorias.registrar(livro.getCategoriaId(), posicao);
+            Integer ano = livro.getAnoPublicacao();
+            anos[posicao] = ano != null ? ano : SEM_ANO;
+            if (ano != null) {
+                menorAno = Math.min(menorAno, ano);
+                maiorAno = Math.max(maiorAno, ano);
+            }
+            Integer quantidade = livro.getQuantidadeDisponivel();
+            disponiveis.set(posicao, quantidade != null && quantidade > 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Chamado com o bloqueio de escrita
+    private void garantirCapacidade(int capacidade) {
+        if (capacidade <= ids.length) {
+            return;
+        }
+        int nova = Math.max(capacidade, ids.length * 2);
+        ids = Arrays.copyOf(ids, nova);
+        titulos = Arrays.copyOf(titulos, nova);
+        autores = Arrays.copyOf(autores, nova);
+        categorias = Arrays.copyOf(categorias, nova);
+        anos = Arrays.copyOf(anos, nova);
+    }
+
+    private LivroResumoDTO resumo(int posicao) {
+        int ano = anos[posicao];
+        return new LivroResumoDTO(ids[posicao], titulos[posicao],
+                dicionarioAutores.valores[autores[posicao]], dicionarioCategorias.valores[categorias[posicao]],
+                ano != SEM_ANO ? ano : null, disponiveis.get(posicao));
+    }
+
+    // Filtros vazios ou nulos não restringem a busca; vários ids na mesma faceta são alternativos
+    public record Filtro(Collection<Long> autorIds, Collection<Long> categoriaIds, Integer anoDe, Integer anoAte,
+                         Boolean disponivel) {
+    }
+
+    /**
+     * Ids de autor ou categoria mapeados para ordinais densos, com o BitSet das posições de
+     * cada um. Ordinais não são reaproveitados: um id sem livros fica com o BitSet vazio.
+     */
+    private static class Dicionario {
+
+        private final Map<Long, Integer> ordinais = new HashMap<>();
+        private final List<BitSet> posicoes = new ArrayList<>();
+        private long[] valores = new long[64];
+        private int tamanho;
+
+        int registrar(Long id, int posicao) {
+            Integer ordinal = ordinais.get(id);
+            if (ordinal == null) {
+                ordinal = tamanho++;
+                if (ordinal == valores.length) {
+                    valores = Arrays.copyOf(valores, valores.length * 2);
+                }
+                valores[ordinal] = id;
+                ordinais.put(id, ordinal);
+                posicoes.add(new BitSet());
+            }
+            posicoes.get(ordinal).set(posicao);
+            return ordinal;
+        }
+
+        // null quando não há filtro; ids desconhecidos não acrescentam posições
+        BitSet uniao(Collection<Long> ids) {
+            if (ids == null || ids.isEmpty()) {
+                return null;
+            }
+            BitSet uniao = new BitSet();
+            for (Long id : ids) {
+                Integer ordinal = ordinais.get(id);
+                if (ordinal != null) {
+                    uniao.or(posicoes.get(ordinal));
+                }
+            }
+            return uniao;
+        }
+
+        // Da maior contagem para a menor, sem os valores zerados
+        Map<Long, Integer> contagens(int[] contagem) {
+            List<Integer> ordinaisContados = new ArrayList<>();
+            for (int ordinal = 0; ordinal < contagem.length; ordinal++) {
+                if (contagem[ordinal] > 0) {
+                    ordinaisContados.add(ordinal);
+                }
+            }
+            ordinaisContados.sort(Comparator.comparingInt((Integer ordinal) -> contagem[ordinal]).reversed()
+                    .thenComparingLong(ordinal -> valores[ordinal]));
+            Map<Long, Integer> resultado = new LinkedHashMap<>();
+            for (Integer ordinal : ordinaisContados) {
+                resultado.put(valores[ordinal], contagem[ordinal]);
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.biblioteca.api.infrastructure.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balde de tokens de um cliente numa regra de limite, sem bloqueio.
+ *
+ * Implementado como GCRA: em vez de guardar o saldo e a hora da última recarga, guarda só o
+ * instante teórico em que o balde estaria cheio de novo. Cada requisição avança esse instante
+ * em um intervalo (período / capacidade) e é aceita se ele não passar de um período à frente
+ * de agora. Por ser um único long, a atualização é um compareAndSet.
+ */
+final class BaldeTokens {
+
+    private final AtomicLong cheioEm;
+
+    BaldeTokens(long agora) {
+        this.cheioEm = new AtomicLong(agora);
+    }
+
+    Consumo consumir(long agora, long intervalo, long periodo) {
+        while (true) {
+            long anterior = cheioEm.get();
+            long novo = Math.max(anterior, agora) + intervalo;
+            long ocupado = novo - agora;
+            if (ocupado > periodo) {
+                // Recusada: nada é consumido; libera quando sobrar espaço para um token
+                long ocupadoAtual = Math.max(anterior - agora, 0);
+                return new Consumo(false, 0, ocupadoAtual, ocupado - periodo);
+            }
+            if (cheioEm.compareAndSet(anterior, novo)) {
+                return new Consumo(true, (periodo - ocupado) / intervalo, ocupado, 0);
+            }
+        }
+    }
+
+    // Tempos em nanossegundos: até o balde encher de novo e, se recusada, até caber uma requisição
+    record Consumo(boolean permitido, long restantes, long ateCheio, long tentarApos) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.biblioteca.api.infrastructure.security;
+
+import com.biblioteca.api.infrastructure.exception.CapacidadeEsgotadaException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Limite de hashes BCrypt simultâneos: no máximo uma execução por thread do pool (por padrão,
+ * uma por núcleo) e uma fila curta de espera.
+ *
+ * A thread da requisição continua bloqueada até o hash terminar; o que o pool garante é que
+ * um pico de logins não ocupa mais núcleos do que isso. Com a fila cheia a chamada é recusada
+ * na hora com {@link CapacidadeEsgotadaException} (429 + Retry-After) em vez de esperar.
+ *
+ * {@link #upgradeEncoding} compara o custo gravado no hash com o configurado, nos dois
+ * sentidos: o {@link ProvedorAutenticacaoSenha} então refaz o hash no próximo login bem-sucedido.
+ */
+public class CodificadorSenhas implements PasswordEncoder, AutoCloseable {
+
+    private static final Pattern CUSTO_BCRYPT = Pattern.compile("^\\$2[abyx]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int forca;
+    private final ThreadPoolExecutor executor;
+    private final Duration tentarApos;
+
+    public CodificadorSenhas(int forca, int threads, int capacidadeFila, Duration tentarApos) {
+        this.bcrypt = new BCryptPasswordEncoder(forca);
+        this.forca = forca;
+        this.tentarApos = tentarApos;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), tarefa -> {
+                    Thread thread = new Thread(tarefa, "hash-senha-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public String encode(CharSequence senha) {
+        return executar(() -> bcrypt.encode(senha));
+    }
+
+    @Override
+    public boolean matches(CharSequence senha, String hash) {
+        return executar(() -> bcrypt.matches(senha, hash));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String hash) {
+        if (hash == null) {
+            return false;
+        }
+        Matcher custo = CUSTO_BCRYPT.matcher(hash);
+        return custo.find() && Integer.parseInt(custo.group(1)) != forca;
+    }
+
+    public int tamanhoFila() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T executar(Callable<T> tarefa) {
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(tarefa);
+        } catch (RejectedExecutionException e) {
+            throw new CapacidadeEsgotadaException("Muitas autenticações simultâneas, tente novamente", tentarApos);
+        }
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o hash da senha", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.biblioteca.api.infrastructure.security;
 
+import com.biblioteca.api.domain.entity.Usuario;
 import com.biblioteca.api.domain.repository.UsuarioRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
 
@@ -20,4 +25,15 @@ public class CustomUserDetailsService implements UserDetailsService {
         return usuarioRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
     }
+
+    // Chamado após um login bem-sucedido cujo hash foi gerado com outra força do BCrypt
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usuarioRepository.atualizarSenha(user.getUsername(), newPassword, LocalDateTime.now());
+        if (user instanceof Usuario usuario) {
+            usuario.setSenha(newPassword);
+        }
+        return user;
+    }
 }
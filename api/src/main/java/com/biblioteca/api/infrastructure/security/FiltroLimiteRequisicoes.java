@@ -0,0 +1,197 @@
+package com.biblioteca.api.infrastructure.security;
+
+import com.biblioteca.api.infrastructure.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de requisições por cliente, com um balde de tokens por cliente e regra.
+ *
+ * Roda na cadeia do Spring Security depois do filtro JWT: o cliente é o usuário autenticado
+ * ou, sem token, o IP de origem (atrás de proxy, configure server.forward-headers-strategy).
+ * Cada regra ({@code METODO /padrao/**=CAPACIDADE/PERIODO}) define um orçamento; vale a
+ * primeira que casar com a requisição, e rotas sem regra não são limitadas. As respostas
+ * levam os cabeçalhos RateLimit-*; acima do limite, 429 com Retry-After.
+ *
+ * Os baldes ficam num cache limitado e expiram após um período sem uso, quando já estariam
+ * cheios de novo: descartá-los não muda nenhuma decisão.
+ */
+@Component
+public class FiltroLimiteRequisicoes extends OncePerRequestFilter {
+
+    private static final long NANOS_POR_SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean habilitado;
+    private final List<Regra> regras = new ArrayList<>();
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public FiltroLimiteRequisicoes(@Value("${limite.requisicoes.habilitado:true}") boolean habilitado,
+                                   @Value("${limite.requisicoes.regras:}") List<String> regras,
+                                   @Value("${limite.requisicoes.maximo-clientes:100000}") long maximoClientes,
+                                   MeterRegistry registry, ObjectMapper objectMapper) {
+        this(habilitado, regras, maximoClientes, registry, objectMapper, System::nanoTime);
+    }
+
+    // Relógio em nanossegundos, usado pelos baldes e pela expiração do cache (substituível nos testes)
+    FiltroLimiteRequisicoes(boolean habilitado, List<String> regras, long maximoClientes,
+                            MeterRegistry registry, ObjectMapper objectMapper, LongSupplier relogio) {
+        this.habilitado = habilitado;
+        this.objectMapper = objectMapper;
+        for (String regra : regras) {
+            if (!regra.isBlank()) {
+                this.regras.add(Regra.de(regra.trim(), maximoClientes, registry, relogio));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitado || regras.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Regra regra = encontrarRegra(request);
+        if (regra == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        BaldeTokens.Consumo consumo = regra.consumir(cliente(request));
+        response.setHeader("RateLimit-Policy", regra.politica);
+        response.setHeader("RateLimit-Limit", String.valueOf(regra.capacidade));
+        response.setHeader("RateLimit-Remaining", String.valueOf(consumo.restantes()));
+        response.setHeader("RateLimit-Reset", String.valueOf(segundos(consumo.ateCheio())));
+
+        if (!consumo.permitido()) {
+            regra.rejeicoes.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(segundos(consumo.tentarApos()), 1)));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                    HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Limite de requisições excedido, tente novamente mais tarde",
+                    LocalDateTime.now()));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Regra encontrarRegra(HttpServletRequest request) {
+        PathContainer caminho = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Regra regra : regras) {
+            if (regra.casa(request.getMethod(), caminho)) {
+                return regra;
+            }
+        }
+        return null;
+    }
+
+    private static String cliente(HttpServletRequest request) {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao != null && autenticacao.isAuthenticated() && !(autenticacao instanceof AnonymousAuthenticationToken)) {
+            return "usuario:" + autenticacao.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long segundos(long nanos) {
+        return (nanos + NANOS_POR_SEGUNDO - 1) / NANOS_POR_SEGUNDO;
+    }
+
+    private static final class Regra {
+
+        private static final PathPatternParser PARSER = PathPatternParser.defaultInstance;
+
+        private final String metodo;
+        private final PathPattern padrao;
+        private final long capacidade;
+        private final long periodo;
+        private final long intervalo;
+        private final String politica;
+        private final Cache<String, BaldeTokens> baldes;
+        private final Counter rejeicoes;
+        private final LongSupplier relogio;
+
+        private Regra(String metodo, String padrao, long capacidade, Duration periodo, long maximoClientes,
+                      MeterRegistry registry, LongSupplier relogio) {
+            this.metodo = metodo;
+            this.relogio = relogio;
+            this.padrao = PARSER.parse(padrao);
+            this.capacidade = capacidade;
+            this.periodo = periodo.toNanos();
+            this.intervalo = Math.max(this.periodo / capacidade, 1);
+            this.politica = capacidade + ";w=" + Math.max(periodo.toSeconds(), 1);
+            this.baldes = Caffeine.newBuilder()
+                    .maximumSize(maximoClientes)
+                    .expireAfterAccess(periodo)
+                    .ticker(relogio::getAsLong)
+                    .build();
+            this.rejeicoes = Counter.builder("biblioteca.limite.rejeicoes")
+                    .description("Requisições recusadas pelo limite por cliente")
+                    .tag("regra", (metodo != null ? metodo : "*") + " " + padrao)
+                    .register(registry);
+        }
+
+        // Formato: "GET /api/livros/**=300/1m" (método * vale para todos)
+        static Regra de(String definicao, long maximoClientes, MeterRegistry registry, LongSupplier relogio) {
+            int igual = definicao.lastIndexOf('=');
+            int barra = definicao.lastIndexOf('/');
+            String[] rota = igual > 0 ? definicao.substring(0, igual).trim().split("\\s+") : new String[0];
+            if (rota.length != 2 || barra < igual) {
+                throw new IllegalArgumentException("Regra de limite inválida: '" + definicao
+                        + "' (formato: METODO /padrao/**=CAPACIDADE/PERIODO)");
+            }
+            long capacidade = Long.parseLong(definicao.substring(igual + 1, barra).trim());
+            Duration periodo = DurationStyle.detectAndParse(definicao.substring(barra + 1).trim());
+            if (capacidade <= 0 || periodo.isNegative() || periodo.isZero()) {
+                throw new IllegalArgumentException("Regra de limite inválida: '" + definicao
+                        + "' (capacidade e período devem ser positivos)");
+            }
+            String metodo = "*".equals(rota[0]) ? null : rota[0].toUpperCase(Locale.ROOT);
+            return new Regra(metodo, rota[1], capacidade, periodo, maximoClientes, registry, relogio);
+        }
+
+        boolean casa(String metodoRequisicao, PathContainer caminho) {
+            return (metodo == null || metodo.equals(metodoRequisicao)) && padrao.matches(caminho);
+        }
+
+        BaldeTokens.Consumo consumir(String cliente) {
+            long agora = relogio.getAsLong();
+            return baldes.get(cliente, chave -> new BaldeTokens(agora)).consumir(agora, intervalo, periodo);
+        }
+    }
+}
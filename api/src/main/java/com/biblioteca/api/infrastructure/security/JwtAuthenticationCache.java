@@ -0,0 +1,99 @@
+package com.biblioteca.api.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache de tokens JWT já verificados, indexado pelo SHA-256 do token.
+ * Cada entrada expira junto com o próprio token, então um acerto dispensa
+ * tanto a verificação da assinatura quanto a consulta ao banco de usuários.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final Cache<String, PrincipalVerificado> cache;
+    private final LongSupplier relogio;
+
+    @Autowired
+    public JwtAuthenticationCache(@Value("${jwt.cache.tamanho-maximo:10000}") long tamanhoMaximo) {
+        this(tamanhoMaximo, System::currentTimeMillis);
+    }
+
+    // Relógio de parede em milissegundos, o mesmo do "exp" dos tokens (substituível nos testes)
+    JwtAuthenticationCache(long tamanhoMaximo, LongSupplier relogio) {
+        this.relogio = relogio;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoDoToken())
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(relogio.getAsLong()))
+                .build();
+    }
+
+    public PrincipalVerificado obter(String token) {
+        PrincipalVerificado principal = cache.getIfPresent(digest(token));
+        if (principal == null || !principal.expiracao().isAfter(Instant.ofEpochMilli(relogio.getAsLong()))) {
+            return null;
+        }
+        return principal;
+    }
+
+    public void armazenar(String token, PrincipalVerificado principal) {
+        cache.put(digest(token), principal);
+    }
+
+    // Chamado quando o usuário é alterado ou excluído, para forçar nova validação no banco
+    public void invalidarUsuario(String username) {
+        cache.asMap().values().removeIf(principal -> principal.username().equals(username));
+    }
+
+    long tamanho() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 indisponível", ex);
+        }
+    }
+
+    public record PrincipalVerificado(String username, List<GrantedAuthority> authorities, Instant expiracao) {
+    }
+
+    private static class ExpiracaoDoToken implements Expiry<String, PrincipalVerificado> {
+
+        @Override
+        public long expireAfterCreate(String chave, PrincipalVerificado principal, long currentTime) {
+            long restante = TimeUnit.MILLISECONDS.toNanos(principal.expiracao().toEpochMilli()) - currentTime;
+            return Math.max(restante, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String chave, PrincipalVerificado principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(chave, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String chave, PrincipalVerificado principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
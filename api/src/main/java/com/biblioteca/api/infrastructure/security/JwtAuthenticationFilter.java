@@ -1,10 +1,15 @@
 package com.biblioteca.api.infrastructure.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -13,42 +18,92 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final JwtAuthenticationCache autenticacaoCache;
 
-    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService userDetailsService) {
+    // Tempo gasto só na autenticação do token, separado pelo caminho que a requisição seguiu
+    private final Timer tempoSemToken;
+    private final Timer tempoCache;
+    private final Timer tempoVerificado;
+    private final Timer tempoRejeitado;
+
+    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService userDetailsService,
+                                   JwtAuthenticationCache autenticacaoCache, MeterRegistry registry) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.autenticacaoCache = autenticacaoCache;
+        this.tempoSemToken = timer(registry, "sem_token");
+        this.tempoCache = timer(registry, "cache");
+        this.tempoVerificado = timer(registry, "verificado");
+        this.tempoRejeitado = timer(registry, "rejeitado");
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        Timer tempo = tempoSemToken;
         try {
             String jwt = extractJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                String username = jwtService.extractUsername(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                tempo = tempoCache;
+                JwtAuthenticationCache.PrincipalVerificado principal = autenticacaoCache.obter(jwt);
+                if (principal == null) {
+                    tempo = tempoVerificado;
+                    principal = verificar(jwt);
+                }
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                            new UsernamePasswordAuthenticationToken(principal.username(), null, principal.authorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    tempo = tempoRejeitado;
                 }
             }
         } catch (Exception ex) {
+            tempo = tempoRejeitado;
             logger.error("Could not set user authentication in security context", ex);
         }
+        tempo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
 
+    // Caminho frio: verifica o token uma única vez e confirma o usuário no banco antes de cachear
+    private JwtAuthenticationCache.PrincipalVerificado verificar(String jwt) {
+        Claims claims = jwtService.extractAllClaims(jwt);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+
+        List<GrantedAuthority> authorities = List.copyOf(userDetails.getAuthorities());
+        String funcao = claims.get(JwtService.CLAIM_FUNCAO, String.class);
+        if (funcao != null && !authorities.contains(new SimpleGrantedAuthority("ROLE_" + funcao))) {
+            // Função do usuário mudou depois da emissão do token: exige novo login
+            return null;
+        }
+
+        JwtAuthenticationCache.PrincipalVerificado principal = new JwtAuthenticationCache.PrincipalVerificado(
+                userDetails.getUsername(), authorities, claims.getExpiration().toInstant());
+        autenticacaoCache.armazenar(jwt, principal);
+        return principal;
+    }
+
+    private static Timer timer(MeterRegistry registry, String resultado) {
+        return Timer.builder("biblioteca.jwt.filtro")
+                .description("Tempo de autenticação do token JWT")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
     private String extractJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,10 +1,12 @@
 package com.biblioteca.api.infrastructure.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -17,18 +19,32 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret:mySecretKeyThatIsLongEnoughForHS256AlgorithmRequirement}")
-    private String jwtSecret;
+    public static final String CLAIM_FUNCAO = "funcao";
 
-    @Value("${jwt.expiration:86400000}") // 24 horas em millisegundos
-    private long jwtExpiration;
+    private static final String PREFIXO_PAPEL = "ROLE_";
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private final long jwtExpiration;
+
+    // Chave e parser são imutáveis e thread-safe: criados uma única vez
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    public JwtService(@Value("${jwt.secret:mySecretKeyThatIsLongEnoughForHS256AlgorithmRequirement}") String jwtSecret,
+                      @Value("${jwt.expiration:86400000}") long jwtExpiration) { // 24 horas em millisegundos
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parser()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(PREFIXO_PAPEL))
+                .findFirst()
+                .ifPresent(authority -> claims.put(CLAIM_FUNCAO, authority.substring(PREFIXO_PAPEL.length())));
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -41,7 +57,7 @@ public class JwtService {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -54,25 +70,16 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        // CORREÇÃO: Usando Jwts.parser() em vez de Jwts.parserBuilder()
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifica assinatura e expiração uma única vez e devolve as claims do token.
+     * Lança {@link io.jsonwebtoken.JwtException} se o token for inválido ou estiver expirado.
+     */
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.biblioteca.api.infrastructure.security;
+
+import com.biblioteca.api.infrastructure.exception.CapacidadeEsgotadaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * DaoAuthenticationProvider em que a troca do hash não derruba um login correto.
+ *
+ * O novo hash (custo do BCrypt alterado) passa pelo mesmo limite do {@link CodificadorSenhas}
+ * que a verificação da senha. Se o limite estiver esgotado nesse ponto, a senha já foi
+ * conferida: o login segue com o hash antigo e a troca fica para o próximo login.
+ */
+public class ProvedorAutenticacaoSenha extends DaoAuthenticationProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvedorAutenticacaoSenha.class);
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (CapacidadeEsgotadaException e) {
+            log.warn("Hash de {} não atualizado: codificador de senhas sem capacidade", user.getUsername());
+            UsernamePasswordAuthenticationToken resultado = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, authentication.getCredentials(), user.getAuthorities());
+            resultado.setDetails(authentication.getDetails());
+            return resultado;
+        }
+    }
+}
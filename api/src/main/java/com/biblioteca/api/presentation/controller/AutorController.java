@@ -2,14 +2,25 @@ package com.biblioteca.api.presentation.controller;
 
 import com.biblioteca.api.application.service.AutorService;
 import com.biblioteca.api.domain.dto.AutorDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import com.biblioteca.api.infrastructure.config.CacheConfig;
+import com.biblioteca.api.infrastructure.http.RespostaCondicional;
+import com.biblioteca.api.infrastructure.http.RespostasSerializadas;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,9 +30,11 @@ import java.util.List;
 public class AutorController {
 
     private final AutorService autorService;
+    private final RespostasSerializadas respostasSerializadas;
 
-    public AutorController(AutorService autorService) {
+    public AutorController(AutorService autorService, RespostasSerializadas respostasSerializadas) {
         this.autorService = autorService;
+        this.respostasSerializadas = respostasSerializadas;
     }
 
     @PostMapping
@@ -32,22 +45,37 @@ public class AutorController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar todos os autores")
-    public ResponseEntity<List<AutorDTO>> listarTodos() {
-        List<AutorDTO> autores = autorService.obterTodos();
+    @Operation(summary = "Listar autores (paginado por cursor)")
+    public ResponseEntity<PaginaDTO<AutorDTO>> listarTodos(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer tamanho,
+                                                           WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, autorService.obterVersaoColecao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        PaginaDTO<AutorDTO> autores = autorService.listarPagina(cursor, tamanho);
         return ResponseEntity.ok(autores);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obter autor por ID")
-    public ResponseEntity<AutorDTO> obterPorId(@PathVariable Long id) {
-        AutorDTO autor = autorService.obterPorId(id);
-        return ResponseEntity.ok(autor);
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = AutorDTO.class)))
+    public ResponseEntity<byte[]> obterPorId(@PathVariable Long id, WebRequest request,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        LocalDateTime versao = autorService.obterVersao(id);
+        if (RespostaCondicional.naoModificado(request, id, versao)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return respostasSerializadas.responder(CacheConfig.AUTORES_JSON, id, versao, acceptEncoding,
+                () -> autorService.recarregarPorId(id));
     }
 
     @GetMapping("/buscar/nome")
     @Operation(summary = "Buscar autores por nome")
-    public ResponseEntity<List<AutorDTO>> buscarPorNome(@RequestParam String nome) {
+    public ResponseEntity<List<AutorDTO>> buscarPorNome(@RequestParam String nome, WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, autorService.obterVersaoColecao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<AutorDTO> autores = autorService.buscarPorNome(nome);
         return ResponseEntity.ok(autores);
     }
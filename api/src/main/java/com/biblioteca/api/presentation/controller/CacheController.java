@@ -0,0 +1,32 @@
+package com.biblioteca.api.presentation.controller;
+
+import com.biblioteca.api.domain.dto.EstatisticasCacheDTO;
+import com.biblioteca.api.infrastructure.cache.MonitorCaches;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/caches")
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "Caches", description = "Monitoramento dos caches em memória")
+public class CacheController {
+
+    private final MonitorCaches monitorCaches;
+
+    public CacheController(MonitorCaches monitorCaches) {
+        this.monitorCaches = monitorCaches;
+    }
+
+    @GetMapping("/estatisticas")
+    @Operation(summary = "Acertos, falhas, remoções e tamanho de cada cache")
+    public ResponseEntity<List<EstatisticasCacheDTO>> listarEstatisticas() {
+        return ResponseEntity.ok(monitorCaches.listarEstatisticas());
+    }
+}
@@ -2,14 +2,25 @@ package com.biblioteca.api.presentation.controller;
 
 import com.biblioteca.api.application.service.CategoriaService;
 import com.biblioteca.api.domain.dto.CategoriaDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import com.biblioteca.api.infrastructure.config.CacheConfig;
+import com.biblioteca.api.infrastructure.http.RespostaCondicional;
+import com.biblioteca.api.infrastructure.http.RespostasSerializadas;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,9 +30,11 @@ import java.util.List;
 public class CategoriaController {
 
     private final CategoriaService categoriaService;
+    private final RespostasSerializadas respostasSerializadas;
 
-    public CategoriaController(CategoriaService categoriaService) {
+    public CategoriaController(CategoriaService categoriaService, RespostasSerializadas respostasSerializadas) {
         this.categoriaService = categoriaService;
+        this.respostasSerializadas = respostasSerializadas;
     }
 
     @PostMapping
@@ -32,22 +45,37 @@ public class CategoriaController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar todas as categorias")
-    public ResponseEntity<List<CategoriaDTO>> listarTodas() {
-        List<CategoriaDTO> categorias = categoriaService.obterTodas();
+    @Operation(summary = "Listar categorias (paginado por cursor)")
+    public ResponseEntity<PaginaDTO<CategoriaDTO>> listarTodas(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer tamanho,
+                                                               WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, categoriaService.obterVersaoColecao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        PaginaDTO<CategoriaDTO> categorias = categoriaService.listarPagina(cursor, tamanho);
         return ResponseEntity.ok(categorias);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obter categoria por ID")
-    public ResponseEntity<CategoriaDTO> obterPorId(@PathVariable Long id) {
-        CategoriaDTO categoria = categoriaService.obterPorId(id);
-        return ResponseEntity.ok(categoria);
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = CategoriaDTO.class)))
+    public ResponseEntity<byte[]> obterPorId(@PathVariable Long id, WebRequest request,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        LocalDateTime versao = categoriaService.obterVersao(id);
+        if (RespostaCondicional.naoModificado(request, id, versao)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return respostasSerializadas.responder(CacheConfig.CATEGORIAS_JSON, id, versao, acceptEncoding,
+                () -> categoriaService.recarregarPorId(id));
     }
 
     @GetMapping("/buscar/nome")
     @Operation(summary = "Buscar categorias por nome")
-    public ResponseEntity<List<CategoriaDTO>> buscarPorNome(@RequestParam String nome) {
+    public ResponseEntity<List<CategoriaDTO>> buscarPorNome(@RequestParam String nome, WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, categoriaService.obterVersaoColecao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<CategoriaDTO> categorias = categoriaService.buscarPorNome(nome);
         return ResponseEntity.ok(categorias);
     }
@@ -1,15 +1,28 @@
 package com.biblioteca.api.presentation.controller;
 
 import com.biblioteca.api.application.service.EmprestimoService;
+import com.biblioteca.api.application.service.VarreduraAtrasos;
 import com.biblioteca.api.domain.dto.EmprestimoDTO;
+import com.biblioteca.api.domain.dto.EstatisticasVarreduraDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import com.biblioteca.api.domain.dto.ResultadoLoteDTO;
+import com.biblioteca.api.domain.dto.ResumoEmprestimosDTO;
+import com.biblioteca.api.infrastructure.http.ExportacaoFluxo;
+import com.biblioteca.api.infrastructure.http.RespostaCondicional;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,10 +31,22 @@ import java.util.List;
 @Tag(name = "Empréstimos", description = "Gerenciamento de empréstimos")
 public class EmprestimoController {
 
+    private static final ExportacaoFluxo.LayoutCsv<EmprestimoDTO> LAYOUT_CSV = new ExportacaoFluxo.LayoutCsv<>(
+            List.of("id", "dataEmprestimo", "dataDevolucaoPrevista", "dataDevolucaoReal", "status",
+                    "usuarioId", "livroId"),
+            emprestimo -> new Object[]{emprestimo.getId(), emprestimo.getDataEmprestimo(),
+                    emprestimo.getDataDevolucaoPrevista(), emprestimo.getDataDevolucaoReal(), emprestimo.getStatus(),
+                    emprestimo.getUsuarioId(), emprestimo.getLivroId()});
+
     private final EmprestimoService emprestimoService;
+    private final VarreduraAtrasos varreduraAtrasos;
+    private final ObjectMapper objectMapper;
 
-    public EmprestimoController(EmprestimoService emprestimoService) {
+    public EmprestimoController(EmprestimoService emprestimoService, VarreduraAtrasos varreduraAtrasos,
+                                ObjectMapper objectMapper) {
         this.emprestimoService = emprestimoService;
+        this.varreduraAtrasos = varreduraAtrasos;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -31,41 +56,96 @@ public class EmprestimoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(emprestimoDTO);
     }
 
+    @PostMapping("/lote")
+    @Operation(summary = "Criar vários empréstimos numa única transação (resultado por item)")
+    public ResponseEntity<List<ResultadoLoteDTO>> criarEmLote(@RequestBody List<EmprestimoDTO> itens) {
+        List<ResultadoLoteDTO> resultados = emprestimoService.criarEmLote(itens);
+        return ResponseEntity.ok(resultados);
+    }
+
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar o histórico de empréstimos em fluxo (NDJSON ou CSV; gzip se aceito)")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return ExportacaoFluxo.responder("emprestimos", formato, acceptEncoding, objectMapper, LAYOUT_CSV,
+                consumidor -> emprestimoService.exportar(since, consumidor));
+    }
+
     @GetMapping
-    @Operation(summary = "Listar todos os empréstimos")
-    public ResponseEntity<List<EmprestimoDTO>> listarTodos() {
-        List<EmprestimoDTO> emprestimos = emprestimoService.obterTodos();
+    @Operation(summary = "Listar empréstimos (paginado por cursor)")
+    public ResponseEntity<PaginaDTO<EmprestimoDTO>> listarTodos(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer tamanho,
+                                                                WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, emprestimoService.obterVersaoColecao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        PaginaDTO<EmprestimoDTO> emprestimos = emprestimoService.listarPagina(cursor, tamanho);
         return ResponseEntity.ok(emprestimos);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obter empréstimo por ID")
-    public ResponseEntity<EmprestimoDTO> obterPorId(@PathVariable Long id) {
+    public ResponseEntity<EmprestimoDTO> obterPorId(@PathVariable Long id, WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, id, emprestimoService.obterVersao(id))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         EmprestimoDTO emprestimo = emprestimoService.obterPorId(id);
         return ResponseEntity.ok(emprestimo);
     }
 
     @GetMapping("/buscar/usuario/{usuarioId}")
     @Operation(summary = "Buscar empréstimos por usuário")
-    public ResponseEntity<List<EmprestimoDTO>> buscarPorUsuario(@PathVariable Long usuarioId) {
+    public ResponseEntity<List<EmprestimoDTO>> buscarPorUsuario(@PathVariable Long usuarioId, WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, emprestimoService.obterVersaoPorUsuario(usuarioId))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<EmprestimoDTO> emprestimos = emprestimoService.buscarPorUsuario(usuarioId);
         return ResponseEntity.ok(emprestimos);
     }
 
+    @GetMapping("/usuario/{usuarioId}/resumo")
+    @Operation(summary = "Resumo dos empréstimos do usuário (ativos, atrasados e total)")
+    public ResponseEntity<ResumoEmprestimosDTO> obterResumo(@PathVariable Long usuarioId) {
+        return ResponseEntity.ok(emprestimoService.obterResumo(usuarioId));
+    }
+
+    @GetMapping("/usuario/{usuarioId}/historico")
+    @Operation(summary = "Histórico de empréstimos do usuário, do mais recente ao mais antigo (paginado por cursor)")
+    public ResponseEntity<PaginaDTO<EmprestimoDTO>> buscarHistorico(@PathVariable Long usuarioId,
+                                                                    @RequestParam(required = false) String status,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(emprestimoService.buscarHistorico(usuarioId, status, cursor, tamanho));
+    }
+
     @GetMapping("/buscar/livro/{livroId}")
     @Operation(summary = "Buscar empréstimos por livro")
-    public ResponseEntity<List<EmprestimoDTO>> buscarPorLivro(@PathVariable Long livroId) {
+    public ResponseEntity<List<EmprestimoDTO>> buscarPorLivro(@PathVariable Long livroId, WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, emprestimoService.obterVersaoPorLivro(livroId))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<EmprestimoDTO> emprestimos = emprestimoService.buscarPorLivro(livroId);
         return ResponseEntity.ok(emprestimos);
     }
 
     @GetMapping("/buscar/status/{status}")
     @Operation(summary = "Buscar empréstimos por status")
-    public ResponseEntity<List<EmprestimoDTO>> buscarPorStatus(@PathVariable String status) {
+    public ResponseEntity<List<EmprestimoDTO>> buscarPorStatus(@PathVariable String status, WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, emprestimoService.obterVersaoPorStatus(status))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<EmprestimoDTO> emprestimos = emprestimoService.buscarPorStatus(status);
         return ResponseEntity.ok(emprestimos);
     }
 
+    @GetMapping("/atrasos/estatisticas")
+    @Operation(summary = "Estatísticas da varredura de empréstimos atrasados")
+    public ResponseEntity<EstatisticasVarreduraDTO> obterEstatisticasAtrasos() {
+        return ResponseEntity.ok(varreduraAtrasos.obterEstatisticas());
+    }
+
     @PutMapping("/{id}/devolver")
     @Operation(summary = "Devolver um empréstimo")
     public ResponseEntity<EmprestimoDTO> devolver(@PathVariable Long id) {
@@ -73,6 +153,13 @@ public class EmprestimoController {
         return ResponseEntity.ok(emprestimoDTO);
     }
 
+    @PutMapping("/lote/devolver")
+    @Operation(summary = "Devolver vários empréstimos numa única transação (resultado por item)")
+    public ResponseEntity<List<ResultadoLoteDTO>> devolverEmLote(@RequestBody List<Long> ids) {
+        List<ResultadoLoteDTO> resultados = emprestimoService.devolverEmLote(ids);
+        return ResponseEntity.ok(resultados);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar empréstimo")
     public ResponseEntity<EmprestimoDTO> atualizar(@PathVariable Long id, @Valid @RequestBody EmprestimoDTO dto) {
@@ -1,15 +1,39 @@
 package com.biblioteca.api.presentation.controller;
 
+import com.biblioteca.api.application.service.ImportacaoLivrosService;
 import com.biblioteca.api.application.service.LivroService;
+import com.biblioteca.api.application.service.MapaDisponibilidade;
+import com.biblioteca.api.domain.dto.AlteracoesDisponibilidadeDTO;
+import com.biblioteca.api.domain.dto.BuscaFacetadaDTO;
 import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import com.biblioteca.api.domain.dto.ResultadoImportacaoDTO;
+import com.biblioteca.api.infrastructure.config.CacheConfig;
+import com.biblioteca.api.infrastructure.http.ExportacaoFluxo;
+import com.biblioteca.api.infrastructure.http.RespostaCondicional;
+import com.biblioteca.api.infrastructure.http.RespostasSerializadas;
+import com.biblioteca.api.infrastructure.importacao.LeitorImportacao;
+import com.biblioteca.api.infrastructure.search.IndiceFacetasLivros;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,10 +42,33 @@ import java.util.List;
 @Tag(name = "Livros", description = "Gerenciamento de livros")
 public class LivroController {
 
+    private static final ExportacaoFluxo.LayoutCsv<LivroDTO> LAYOUT_CSV = new ExportacaoFluxo.LayoutCsv<>(
+            List.of("id", "titulo", "isbn", "descricao", "anoPublicacao", "quantidadeTotal",
+                    "quantidadeDisponivel", "autorId", "categoriaId"),
+            livro -> new Object[]{livro.getId(), livro.getTitulo(), livro.getIsbn(), livro.getDescricao(),
+                    livro.getAnoPublicacao(), livro.getQuantidadeTotal(), livro.getQuantidadeDisponivel(),
+                    livro.getAutorId(), livro.getCategoriaId()});
+
+    private static final String CABECALHO_EPOCA = "X-Disponibilidade-Epoca";
+    private static final String CABECALHO_VERSAO = "X-Disponibilidade-Versao";
+    private static final String CABECALHO_QUANTIDADE = "X-Disponibilidade-Quantidade";
+
     private final LivroService livroService;
+    private final ImportacaoLivrosService importacaoService;
+    private final MapaDisponibilidade mapaDisponibilidade;
+    private final ObjectMapper objectMapper;
+    private final RespostasSerializadas respostasSerializadas;
+    private final IndiceFacetasLivros indiceFacetas;
 
-    public LivroController(LivroService livroService) {
+    public LivroController(LivroService livroService, ImportacaoLivrosService importacaoService,
+                           MapaDisponibilidade mapaDisponibilidade, ObjectMapper objectMapper,
+                           RespostasSerializadas respostasSerializadas, IndiceFacetasLivros indiceFacetas) {
         this.livroService = livroService;
+        this.importacaoService = importacaoService;
+        this.mapaDisponibilidade = mapaDisponibilidade;
+        this.objectMapper = objectMapper;
+        this.respostasSerializadas = respostasSerializadas;
+        this.indiceFacetas = indiceFacetas;
     }
 
     @PostMapping
@@ -31,37 +78,129 @@ public class LivroController {
         return ResponseEntity.status(HttpStatus.CREATED).body(livroDTO);
     }
 
+    // O corpo é lido em fluxo direto da requisição, sem ser carregado inteiro em memória
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Importar livros em massa (CSV ou JSON Lines)")
+    public ResponseEntity<ResultadoImportacaoDTO> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String tipo,
+                                                           InputStream corpo) throws IOException {
+        try (LeitorImportacao leitor = LeitorImportacao.para(MediaType.parseMediaType(tipo), corpo, objectMapper)) {
+            return ResponseEntity.ok(importacaoService.importar(leitor));
+        }
+    }
+
+    @GetMapping(value = "/disponibilidade", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Mapa de livros disponíveis (bitmap Roaring serializado no formato portável)")
+    public ResponseEntity<byte[]> obterDisponibilidade(WebRequest request) {
+        MapaDisponibilidade.Instantaneo instantaneo = mapaDisponibilidade.obterInstantaneo().orElse(null);
+        if (instantaneo == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        if (RespostaCondicional.naoModificado(request, instantaneo.epoca() + "-" + instantaneo.versao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok()
+                .header(CABECALHO_EPOCA, String.valueOf(instantaneo.epoca()))
+                .header(CABECALHO_VERSAO, String.valueOf(instantaneo.versao()))
+                .header(CABECALHO_QUANTIDADE, String.valueOf(instantaneo.disponiveis()))
+                .body(instantaneo.bitmap());
+    }
+
+    // 410 quando a época mudou ou a versão já saiu do histórico: baixe o mapa inteiro
+    @GetMapping("/disponibilidade/alteracoes")
+    @Operation(summary = "Livros que mudaram de disponibilidade desde uma versão do mapa")
+    public ResponseEntity<AlteracoesDisponibilidadeDTO> obterAlteracoesDisponibilidade(@RequestParam long epoca,
+                                                                                       @RequestParam long desde) {
+        return mapaDisponibilidade.alteracoesDesde(epoca, desde)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).build());
+    }
+
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar o catálogo em fluxo (NDJSON ou CSV; gzip se aceito)")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return ExportacaoFluxo.responder("livros", formato, acceptEncoding, objectMapper, LAYOUT_CSV,
+                consumidor -> livroService.exportar(since, consumidor));
+    }
+
     @GetMapping
-    @Operation(summary = "Listar todos os livros")
-    public ResponseEntity<List<LivroDTO>> listarTodos() {
-        List<LivroDTO> livros = livroService.obterTodos();
+    @Operation(summary = "Listar livros ordenados por título (paginado por cursor)")
+    public ResponseEntity<PaginaDTO<LivroDTO>> listarTodos(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer tamanho,
+                                                           WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, livroService.obterVersaoColecao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        PaginaDTO<LivroDTO> livros = livroService.listarPagina(cursor, tamanho);
         return ResponseEntity.ok(livros);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obter livro por ID")
-    public ResponseEntity<LivroDTO> obterPorId(@PathVariable Long id) {
-        LivroDTO livro = livroService.obterPorId(id);
-        return ResponseEntity.ok(livro);
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = LivroDTO.class)))
+    public ResponseEntity<byte[]> obterPorId(@PathVariable Long id, WebRequest request,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        LocalDateTime versao = livroService.obterVersao(id);
+        if (RespostaCondicional.naoModificado(request, id, versao)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return respostasSerializadas.responder(CacheConfig.LIVROS_JSON, id, versao, acceptEncoding,
+                () -> livroService.recarregarPorId(id));
     }
 
     @GetMapping("/buscar/titulo")
-    @Operation(summary = "Buscar livros por título")
-    public ResponseEntity<List<LivroDTO>> buscarPorTitulo(@RequestParam String titulo) {
-        List<LivroDTO> livros = livroService.buscarPorTitulo(titulo);
+    @Operation(summary = "Buscar livros por título",
+            description = "Até `limite` livros por relevância (padrão " + LivroService.LIMITE_PADRAO_BUSCA +
+                    ", máximo " + LivroService.LIMITE_MAXIMO_BUSCA + ")")
+    public ResponseEntity<List<LivroDTO>> buscarPorTitulo(@RequestParam String titulo,
+                                                          @RequestParam(required = false) Integer limite,
+                                                          WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, livroService.obterVersaoColecao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        List<LivroDTO> livros = livroService.buscarPorTitulo(titulo, limite);
         return ResponseEntity.ok(livros);
     }
 
+    // 503 enquanto o índice carrega na subida da aplicação
+    @GetMapping("/buscar/facetas")
+    @Operation(summary = "Buscar livros por autor, categoria, ano e disponibilidade, com contagens por faceta")
+    public ResponseEntity<BuscaFacetadaDTO> buscarPorFacetas(@RequestParam(required = false) List<Long> autorId,
+                                                             @RequestParam(required = false) List<Long> categoriaId,
+                                                             @RequestParam(required = false) Integer anoDe,
+                                                             @RequestParam(required = false) Integer anoAte,
+                                                             @RequestParam(required = false) Boolean disponivel,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer tamanho) {
+        IndiceFacetasLivros.Filtro filtro = new IndiceFacetasLivros.Filtro(autorId, categoriaId, anoDe, anoAte, disponivel);
+        return indiceFacetas.buscar(filtro, cursor, tamanho)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+
     @GetMapping("/buscar/autor/{autorId}")
     @Operation(summary = "Buscar livros por autor")
-    public ResponseEntity<List<LivroDTO>> buscarPorAutor(@PathVariable Long autorId) {
+    public ResponseEntity<List<LivroDTO>> buscarPorAutor(@PathVariable Long autorId, WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, livroService.obterVersaoPorAutor(autorId))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<LivroDTO> livros = livroService.buscarPorAutor(autorId);
         return ResponseEntity.ok(livros);
     }
 
     @GetMapping("/buscar/categoria/{categoriaId}")
     @Operation(summary = "Buscar livros por categoria")
-    public ResponseEntity<List<LivroDTO>> buscarPorCategoria(@PathVariable Long categoriaId) {
+    public ResponseEntity<List<LivroDTO>> buscarPorCategoria(@PathVariable Long categoriaId, WebRequest request) {
+        if (RespostaCondicional.naoModificado(request, livroService.obterVersaoPorCategoria(categoriaId))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<LivroDTO> livros = livroService.buscarPorCategoria(categoriaId);
         return ResponseEntity.ok(livros);
     }
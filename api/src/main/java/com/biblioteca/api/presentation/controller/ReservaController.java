@@ -0,0 +1,57 @@
+package com.biblioteca.api.presentation.controller;
+
+import com.biblioteca.api.application.service.ReservaService;
+import com.biblioteca.api.domain.dto.ReservaDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reservas")
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "Reservas", description = "Fila de reservas de livros sem exemplar disponível")
+public class ReservaController {
+
+    private final ReservaService reservaService;
+
+    public ReservaController(ReservaService reservaService) {
+        this.reservaService = reservaService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Entrar na fila de reservas de um livro sem exemplar disponível")
+    public ResponseEntity<ReservaDTO> reservar(@RequestBody ReservaDTO dto) {
+        ReservaDTO reserva = reservaService.reservar(dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reserva);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Obter reserva por ID (com a posição na fila)")
+    public ResponseEntity<ReservaDTO> obterPorId(@PathVariable Long id) {
+        return ResponseEntity.ok(reservaService.obterPorId(id));
+    }
+
+    @GetMapping("/usuario/{usuarioId}")
+    @Operation(summary = "Reservas ativas do usuário (aguardando ou com exemplar separado)")
+    public ResponseEntity<List<ReservaDTO>> buscarPorUsuario(@PathVariable Long usuarioId) {
+        return ResponseEntity.ok(reservaService.buscarPorUsuario(usuarioId));
+    }
+
+    @GetMapping("/livro/{livroId}")
+    @Operation(summary = "Fila de reservas do livro, na ordem de atendimento")
+    public ResponseEntity<List<ReservaDTO>> buscarFila(@PathVariable Long livroId) {
+        return ResponseEntity.ok(reservaService.buscarFila(livroId));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancelar reserva (um exemplar separado passa para o próximo da fila)")
+    public ResponseEntity<Void> cancelar(@PathVariable Long id) {
+        reservaService.cancelar(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+}
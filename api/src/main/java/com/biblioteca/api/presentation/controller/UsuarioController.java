@@ -2,6 +2,7 @@ package com.biblioteca.api.presentation.controller;
 
 import com.biblioteca.api.application.service.UsuarioService;
 import com.biblioteca.api.domain.dto.UsuarioDTO;
+import com.biblioteca.api.domain.dto.PaginaDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,9 +26,10 @@ public class UsuarioController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar todos os usuários")
-    public ResponseEntity<List<UsuarioDTO>> listarTodos() {
-        List<UsuarioDTO> usuarios = usuarioService.obterTodos();
+    @Operation(summary = "Listar usuários (paginado por cursor)")
+    public ResponseEntity<PaginaDTO<UsuarioDTO>> listarTodos(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer tamanho) {
+        PaginaDTO<UsuarioDTO> usuarios = usuarioService.listarPagina(cursor, tamanho);
         return ResponseEntity.ok(usuarios);
     }
 
@@ -0,0 +1,2 @@
+-- Índice para a paginação por cursor do catálogo (ordenado por título e id)
+CREATE INDEX IF NOT EXISTS idx_livros_titulo_id ON livros(titulo, id);
@@ -0,0 +1,4 @@
+-- Livros e empréstimos passam a usar sequência com alocação em blocos de 50 (pooled),
+-- o que permite ao Hibernate agrupar os inserts em lotes JDBC
+ALTER SEQUENCE livros_id_seq INCREMENT BY 50;
+ALTER SEQUENCE emprestimos_id_seq INCREMENT BY 50;
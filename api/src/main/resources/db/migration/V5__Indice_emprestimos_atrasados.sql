@@ -0,0 +1,3 @@
+-- Índice parcial para a varredura de atrasos: só contém empréstimos ATIVO,
+-- ordenados pelo prazo, então cada execução lê apenas os que acabaram de vencer
+CREATE INDEX IF NOT EXISTS idx_emprestimos_ativos_prazo ON emprestimos(data_devolucao_prevista, id) WHERE status = 'ATIVO';
@@ -0,0 +1,6 @@
+-- Índices em data_atualizacao: a maior data de cada tabela compõe o ETag das listagens
+-- (GET condicional) e é lida direto do índice
+CREATE INDEX IF NOT EXISTS idx_autores_data_atualizacao ON autores(data_atualizacao);
+CREATE INDEX IF NOT EXISTS idx_categorias_data_atualizacao ON categorias(data_atualizacao);
+CREATE INDEX IF NOT EXISTS idx_livros_data_atualizacao ON livros(data_atualizacao);
+CREATE INDEX IF NOT EXISTS idx_emprestimos_data_atualizacao ON emprestimos(data_atualizacao);
@@ -0,0 +1,23 @@
+-- Contadores de empréstimos por usuário, mantidos pela aplicação a cada alteração
+CREATE TABLE IF NOT EXISTS resumo_emprestimos_usuario (
+    usuario_id BIGINT PRIMARY KEY,
+    ativos BIGINT NOT NULL,
+    atrasados BIGINT NOT NULL,
+    total BIGINT NOT NULL,
+    data_atualizacao TIMESTAMP NOT NULL
+);
+
+-- Carga inicial a partir do histórico existente
+INSERT INTO resumo_emprestimos_usuario (usuario_id, ativos, atrasados, total, data_atualizacao)
+SELECT usuario_id,
+       count(*) FILTER (WHERE status = 'ATIVO'),
+       count(*) FILTER (WHERE status = 'ATRASADO'),
+       count(*),
+       now()
+FROM emprestimos
+GROUP BY usuario_id
+ON CONFLICT (usuario_id) DO NOTHING;
+
+-- Histórico paginado por usuário (filtrado ou não por status), do mais recente ao mais antigo.
+-- Sem filtro de status, o índice delimita as linhas do usuário e só elas são ordenadas
+CREATE INDEX IF NOT EXISTS idx_emprestimos_usuario_status_data ON emprestimos(usuario_id, status, data_emprestimo, id);
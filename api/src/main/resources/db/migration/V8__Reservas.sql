@@ -0,0 +1,24 @@
+-- Fila de reservas por livro: AGUARDANDO em ordem de chegada; DISPONIVEL quando um exemplar
+-- devolvido foi separado para a reserva (até data_expiracao)
+CREATE SEQUENCE IF NOT EXISTS reservas_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reservas (
+    id BIGINT PRIMARY KEY DEFAULT nextval('reservas_id_seq'),
+    data_reserva TIMESTAMP NOT NULL,
+    data_expiracao TIMESTAMP,
+    status VARCHAR(20) NOT NULL,
+    data_criacao TIMESTAMP NOT NULL,
+    data_atualizacao TIMESTAMP NOT NULL,
+    usuario_id BIGINT NOT NULL REFERENCES usuarios(id),
+    livro_id BIGINT NOT NULL REFERENCES livros(id)
+);
+
+-- Próximo da fila de cada livro
+CREATE INDEX IF NOT EXISTS idx_reservas_livro_status_data ON reservas(livro_id, status, data_reserva, id);
+CREATE INDEX IF NOT EXISTS idx_reservas_usuario_status ON reservas(usuario_id, status);
+-- Varredura de exemplares separados com prazo vencido
+CREATE INDEX IF NOT EXISTS idx_reservas_status_expiracao ON reservas(status, data_expiracao);
+
+-- No máximo uma reserva ativa por usuário e livro
+CREATE UNIQUE INDEX IF NOT EXISTS idx_reservas_ativa_usuario_livro ON reservas(usuario_id, livro_id)
+    WHERE status IN ('AGUARDANDO', 'DISPONIVEL');
@@ -0,0 +1,64 @@
+-- Empréstimos particionados por mês de data_emprestimo (RANGE). Cada partição tem os seus
+-- próprios índices, do tamanho de um mês, e consultas com limite na data só leem as partições
+-- do intervalo. Meses antigos já encerrados vão para emprestimos_historico, que começa vazia e
+-- é estendida pelo arquivamento da aplicação (emprestimos.arquivamento.*); ela só aceita
+-- empréstimos DEVOLVIDO, então consultas de ATIVO/ATRASADO nunca precisam lê-la.
+
+-- A sequência sobrevive à troca da tabela (BIGSERIAL a apagaria junto)
+ALTER SEQUENCE emprestimos_id_seq OWNED BY NONE;
+
+CREATE TABLE emprestimos_particionada (
+    id BIGINT NOT NULL DEFAULT nextval('emprestimos_id_seq'),
+    data_emprestimo DATE NOT NULL,
+    data_devolucao_prevista DATE NOT NULL,
+    data_devolucao_real DATE,
+    status VARCHAR(50) NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    livro_id BIGINT NOT NULL,
+    data_criacao TIMESTAMP NOT NULL,
+    data_atualizacao TIMESTAMP NOT NULL,
+    CONSTRAINT fk_emprestimos_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios(id),
+    CONSTRAINT fk_emprestimos_livro FOREIGN KEY (livro_id) REFERENCES livros(id)
+) PARTITION BY RANGE (data_emprestimo);
+
+-- Um mês por partição, do empréstimo mais antigo até três meses à frente; o arquivamento
+-- cria os meses seguintes
+DO $$
+DECLARE
+    mes DATE := date_trunc('month', coalesce((SELECT min(data_emprestimo) FROM emprestimos), current_date))::date;
+    fim DATE := (date_trunc('month', current_date) + interval '3 months')::date;
+BEGIN
+    EXECUTE format('CREATE TABLE emprestimos_historico PARTITION OF emprestimos_particionada '
+                   'FOR VALUES FROM (MINVALUE) TO (%L) WITH (fillfactor = 100, autovacuum_freeze_min_age = 0)', mes);
+    WHILE mes < fim LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF emprestimos_particionada FOR VALUES FROM (%L) TO (%L)',
+                       'emprestimos_' || to_char(mes, 'YYYY_MM'), mes, (mes + interval '1 month')::date);
+        mes := (mes + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+ALTER TABLE emprestimos_historico ADD CONSTRAINT ck_emprestimos_historico_devolvido CHECK (status = 'DEVOLVIDO');
+
+-- Datas fora dos meses criados (ex.: muito à frente) não fazem o insert falhar
+CREATE TABLE emprestimos_default PARTITION OF emprestimos_particionada DEFAULT;
+
+INSERT INTO emprestimos_particionada (id, data_emprestimo, data_devolucao_prevista, data_devolucao_real, status,
+                                      usuario_id, livro_id, data_criacao, data_atualizacao)
+SELECT id, data_emprestimo, data_devolucao_prevista, data_devolucao_real, status,
+       usuario_id, livro_id, data_criacao, data_atualizacao
+FROM emprestimos;
+
+DROP TABLE emprestimos;
+ALTER TABLE emprestimos_particionada RENAME TO emprestimos;
+ALTER SEQUENCE emprestimos_id_seq OWNED BY emprestimos.id;
+
+-- A chave de partição precisa fazer parte da chave primária; os ids continuam únicos pela sequência
+ALTER TABLE emprestimos ADD CONSTRAINT emprestimos_pkey PRIMARY KEY (id, data_emprestimo);
+
+-- Índices das migrations anteriores, agora criados em cada partição
+CREATE INDEX idx_emprestimos_usuario ON emprestimos(usuario_id);
+CREATE INDEX idx_emprestimos_livro ON emprestimos(livro_id);
+CREATE INDEX idx_emprestimos_status ON emprestimos(status);
+CREATE INDEX idx_emprestimos_ativos_prazo ON emprestimos(data_devolucao_prevista, id) WHERE status = 'ATIVO';
+CREATE INDEX idx_emprestimos_data_atualizacao ON emprestimos(data_atualizacao);
+CREATE INDEX idx_emprestimos_usuario_status_data ON emprestimos(usuario_id, status, data_emprestimo, id);
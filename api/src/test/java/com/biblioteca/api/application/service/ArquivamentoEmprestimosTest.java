@@ -0,0 +1,221 @@
+package com.biblioteca.api.application.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arquivamento contra o PostgreSQL configurado (como o ApiApplicationTests), num schema próprio
+ * recriado pelas migrations a cada teste. As partições são reorganizadas para simular uma tabela
+ * criada há quatro meses: histórico até {@code mes(-4)} e um mês por partição desde então.
+ */
+@JdbcTest(properties = {
+        "spring.flyway.schemas=arquivamento_teste",
+        "spring.flyway.default-schema=arquivamento_teste",
+        "spring.flyway.clean-disabled=false",
+        "spring.datasource.hikari.schema=arquivamento_teste"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArquivamentoEmprestimosTest {
+
+    private static final int HORIZONTE_MESES = 2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Flyway flyway;
+
+    private ArquivamentoEmprestimos arquivamento;
+    private LocalDate mesAtual;
+    private long usuarioId;
+    private long livroId;
+
+    @BeforeEach
+    void preparar() {
+        flyway.clean();
+        flyway.migrate();
+
+        mesAtual = LocalDate.now().withDayOfMonth(1);
+        // O histórico criado pela V9 termina no mês corrente: recua quatro meses e cria as mensais
+        jdbcTemplate.execute("ALTER TABLE emprestimos DETACH PARTITION emprestimos_historico");
+        jdbcTemplate.execute("ALTER TABLE emprestimos ATTACH PARTITION emprestimos_historico " +
+                "FOR VALUES FROM (MINVALUE) TO ('" + mes(-4) + "')");
+        for (int i = -4; i < 0; i++) {
+            jdbcTemplate.execute("CREATE TABLE " + particao(mes(i)) + " PARTITION OF emprestimos " +
+                    "FOR VALUES FROM ('" + mes(i) + "') TO ('" + mes(i + 1) + "')");
+        }
+
+        usuarioId = jdbcTemplate.queryForObject("INSERT INTO usuarios (nome, email, senha, funcao, data_criacao, " +
+                "data_atualizacao) VALUES ('Leitor', 'leitor@biblioteca.com', 'hash', 'USUARIO', now(), now()) " +
+                "RETURNING id", Long.class);
+        livroId = jdbcTemplate.queryForObject("SELECT min(id) FROM livros", Long.class);
+
+        arquivamento = new ArquivamentoEmprestimos(jdbcTemplate, transactionManager, true, HORIZONTE_MESES, 3);
+        arquivamento.carregar();
+        assertEquals(mes(-4), arquivamento.inicioAbertos());
+    }
+
+    @Test
+    void arquivaMesesTotalmenteDevolvidos() {
+        emprestar(mes(-4).plusDays(3), "DEVOLVIDO");
+        emprestar(mes(-4).plusDays(20), "DEVOLVIDO");
+        emprestar(mes(-3).plusDays(10), "DEVOLVIDO");
+        emprestar(mes(-1).plusDays(5), "ATIVO");
+
+        arquivamento.executar();
+
+        // Corte em mes(-2): os dois meses mais antigos foram para o histórico
+        assertEquals(mes(-2), arquivamento.inicioAbertos());
+        assertEquals(mes(-2), fimHistorico());
+        assertFalse(particoes().contains(particao(mes(-4))));
+        assertFalse(particoes().contains(particao(mes(-3))));
+        assertTrue(particoes().contains(particao(mes(-2))));
+        assertEquals(Map.of("emprestimos_historico", 3L, particao(mes(-1)), 1L), linhasPorParticao());
+        // Constraints auxiliares de faixa só ficam as do corte atual
+        assertEquals(List.of("ck_emprestimos_historico_devolvido", "ck_emprestimos_historico_faixa_" + nome(mes(-2))),
+                constraints("emprestimos_historico"));
+        assertEquals(List.of("ck_emprestimos_default_piso_" + nome(mes(-2))), constraints("emprestimos_default"));
+    }
+
+    @Test
+    void mesComEmprestimoAbertoNaoEhArquivado() {
+        emprestar(mes(-4).plusDays(3), "DEVOLVIDO");
+        emprestar(mes(-3).plusDays(10), "DEVOLVIDO");
+        emprestar(mes(-3).plusDays(12), "ATRASADO");
+
+        arquivamento.executar();
+
+        // mes(-4) arquivado; mes(-3), com um atrasado, e os seguintes esperam
+        assertEquals(mes(-3), arquivamento.inicioAbertos());
+        assertEquals(mes(-3), fimHistorico());
+        assertTrue(particoes().contains(particao(mes(-3))));
+        assertEquals(Map.of("emprestimos_historico", 1L, particao(mes(-3)), 2L), linhasPorParticao());
+
+        // Devolvido o atrasado, a próxima execução arquiva o mês
+        jdbcTemplate.update("UPDATE emprestimos SET status = 'DEVOLVIDO', data_devolucao_real = current_date " +
+                "WHERE status = 'ATRASADO'");
+        arquivamento.executar();
+        assertEquals(mes(-2), arquivamento.inicioAbertos());
+        assertEquals(Map.of("emprestimos_historico", 3L), linhasPorParticao());
+    }
+
+    @Test
+    void reexecucaoNaoMudaNada() {
+        emprestar(mes(-4).plusDays(3), "DEVOLVIDO");
+        emprestar(mes(-3).plusDays(10), "DEVOLVIDO");
+        emprestar(mes(-2).plusDays(1), "ATIVO");
+        arquivamento.executar();
+        List<String> particoes = particoes();
+        Map<String, Long> linhas = linhasPorParticao();
+        List<String> constraints = constraints("emprestimos_historico");
+
+        arquivamento.executar();
+
+        assertEquals(mes(-2), arquivamento.inicioAbertos());
+        assertEquals(particoes, particoes());
+        assertEquals(linhas, linhasPorParticao());
+        assertEquals(constraints, constraints("emprestimos_historico"));
+
+        // Uma nova instância lê o mesmo corte das partições
+        ArquivamentoEmprestimos reiniciado = new ArquivamentoEmprestimos(jdbcTemplate, transactionManager, true,
+                HORIZONTE_MESES, 3);
+        reiniciado.carregar();
+        assertEquals(mes(-2), reiniciado.inicioAbertos());
+    }
+
+    @Test
+    void consultaDeAbertosNaoLeOHistorico() {
+        emprestar(mes(-4).plusDays(3), "DEVOLVIDO");
+        emprestar(mes(-3).plusDays(10), "DEVOLVIDO");
+        emprestar(mes(-1).plusDays(5), "ATIVO");
+        arquivamento.executar();
+        jdbcTemplate.execute("ANALYZE emprestimos");
+
+        Date inicioAbertos = Date.valueOf(arquivamento.inicioAbertos());
+
+        String abertos = plano("SELECT * FROM emprestimos WHERE status = ? AND data_emprestimo >= ?",
+                "ATIVO", inicioAbertos);
+        assertFalse(abertos.contains("emprestimos_historico"), abertos);
+        assertTrue(abertos.contains(particao(mes(-1))), abertos);
+
+        // O limite na data basta para podar o histórico, mesmo sem filtro de status
+        String doUsuario = plano("SELECT * FROM emprestimos WHERE usuario_id = ?", usuarioId);
+        String doUsuarioAbertos = plano("SELECT * FROM emprestimos WHERE usuario_id = ? AND data_emprestimo >= ?",
+                usuarioId, inicioAbertos);
+        assertTrue(doUsuario.contains("emprestimos_historico"), doUsuario);
+        assertFalse(doUsuarioAbertos.contains("emprestimos_historico"), doUsuarioAbertos);
+    }
+
+    private void emprestar(LocalDate data, String status) {
+        jdbcTemplate.update("INSERT INTO emprestimos (data_emprestimo, data_devolucao_prevista, data_devolucao_real, " +
+                        "status, usuario_id, livro_id, data_criacao, data_atualizacao) VALUES (?, ?, ?, ?, ?, ?, now(), now())",
+                Date.valueOf(data), Date.valueOf(data.plusDays(14)),
+                "DEVOLVIDO".equals(status) ? Date.valueOf(data.plusDays(7)) : null, status, usuarioId, livroId);
+    }
+
+    private String plano(String sql, Object... parametros) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parametros));
+    }
+
+    private LocalDate fimHistorico() {
+        String faixa = jdbcTemplate.queryForObject("SELECT pg_get_expr(relpartbound, oid) FROM pg_class " +
+                "WHERE oid = 'emprestimos_historico'::regclass", String.class);
+        return LocalDate.parse(faixa.replaceAll(".*TO \\('(.+)'\\).*", "$1"));
+    }
+
+    private List<String> particoes() {
+        return jdbcTemplate.queryForList("SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'emprestimos'::regclass ORDER BY 1", String.class);
+    }
+
+    // Só partições com linhas
+    private Map<String, Long> linhasPorParticao() {
+        return jdbcTemplate.query("SELECT tableoid::regclass::text, count(*) FROM emprestimos GROUP BY 1",
+                rs -> {
+                    Map<String, Long> linhas = new HashMap<>();
+                    while (rs.next()) {
+                        linhas.put(rs.getString(1), rs.getLong(2));
+                    }
+                    return linhas;
+                });
+    }
+
+    private List<String> constraints(String tabela) {
+        return jdbcTemplate.queryForList("SELECT conname::text FROM pg_constraint WHERE conrelid = ?::regclass " +
+                "AND contype = 'c' ORDER BY 1", String.class, tabela);
+    }
+
+    private LocalDate mes(int deslocamento) {
+        return mesAtual.plusMonths(deslocamento);
+    }
+
+    private static String particao(LocalDate mes) {
+        return "emprestimos_" + nome(mes);
+    }
+
+    private static String nome(LocalDate mes) {
+        return String.format("%d_%02d", mes.getYear(), mes.getMonthValue());
+    }
+}
@@ -0,0 +1,117 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.ResumoEmprestimosDTO;
+import com.biblioteca.api.domain.repository.EmprestimoRepository;
+import com.biblioteca.api.domain.repository.ResumoEmprestimosRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ContadoresEmprestimosTest {
+
+    private ResumoEmprestimosRepository resumoRepository;
+    private EmprestimoRepository emprestimoRepository;
+    private ContadoresEmprestimos contadores;
+
+    @BeforeEach
+    void preparar() {
+        resumoRepository = mock(ResumoEmprestimosRepository.class);
+        emprestimoRepository = mock(EmprestimoRepository.class);
+        when(resumoRepository.somar(anyLong(), anyLong(), anyLong(), anyLong(), any())).thenReturn(1);
+        contadores = new ContadoresEmprestimos(resumoRepository, emprestimoRepository);
+    }
+
+    @Test
+    void variacaoDeCadaTransicaoDeStatus() {
+        // Criação, atraso, devolução (no prazo e atrasada), renovação e exclusão
+        assertEquals(new ContadoresEmprestimos.Variacao(1, 0, 1), ContadoresEmprestimos.Variacao.de(null, "ATIVO", 1));
+        assertEquals(new ContadoresEmprestimos.Variacao(-1, 1, 0), ContadoresEmprestimos.Variacao.de("ATIVO", "ATRASADO", 0));
+        assertEquals(new ContadoresEmprestimos.Variacao(-1, 0, 0), ContadoresEmprestimos.Variacao.de("ATIVO", "DEVOLVIDO", 0));
+        assertEquals(new ContadoresEmprestimos.Variacao(0, -1, 0), ContadoresEmprestimos.Variacao.de("ATRASADO", "DEVOLVIDO", 0));
+        assertEquals(new ContadoresEmprestimos.Variacao(1, -1, 0), ContadoresEmprestimos.Variacao.de("ATRASADO", "ATIVO", 0));
+        assertEquals(new ContadoresEmprestimos.Variacao(0, -1, -1), ContadoresEmprestimos.Variacao.de("ATRASADO", null, -1));
+        assertEquals(new ContadoresEmprestimos.Variacao(0, 0, -1), ContadoresEmprestimos.Variacao.de("DEVOLVIDO", null, -1));
+        assertTrue(ContadoresEmprestimos.Variacao.de("DEVOLVIDO", "DEVOLVIDO", 0).nula());
+        assertTrue(ContadoresEmprestimos.Variacao.de("ATIVO", "ATIVO", 0).nula());
+    }
+
+    @Test
+    void ciclosCompletosSeAnulamNosAtivosEAtrasados() {
+        ContadoresEmprestimos.Variacao emprestadoEDevolvidoComAtraso = ContadoresEmprestimos.Variacao.de(null, "ATIVO", 1)
+                .somar(ContadoresEmprestimos.Variacao.de("ATIVO", "ATRASADO", 0))
+                .somar(ContadoresEmprestimos.Variacao.de("ATRASADO", "DEVOLVIDO", 0));
+
+        assertEquals(new ContadoresEmprestimos.Variacao(0, 0, 1), emprestadoEDevolvidoComAtraso);
+    }
+
+    @Test
+    void registrarSomaAVariacaoNoResumoExistente() {
+        contadores.registrar(7L, "ATIVO", "ATRASADO", 0);
+
+        verify(resumoRepository).somar(eq(7L), eq(-1L), eq(1L), eq(0L), any());
+        verify(resumoRepository, never()).inicializar(anyLong(), anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void usuarioSemResumoEhInicializadoComAVariacao() {
+        when(resumoRepository.somar(eq(7L), anyLong(), anyLong(), anyLong(), any())).thenReturn(0);
+
+        contadores.registrar(7L, null, "ATIVO", 1);
+
+        verify(resumoRepository).somar(eq(7L), eq(1L), eq(0L), eq(1L), any());
+        verify(resumoRepository).inicializar(eq(7L), eq(1L), eq(0L), eq(1L), any());
+    }
+
+    @Test
+    void transicaoSemEfeitoNaoTocaNoBanco() {
+        contadores.registrar(7L, "DEVOLVIDO", "DEVOLVIDO", 0);
+
+        verifyNoInteractions(resumoRepository);
+    }
+
+    @Test
+    void registrarTodasAplicaUmaVariacaoPorUsuario() {
+        Map<Long, ContadoresEmprestimos.Variacao> variacoes = new LinkedHashMap<>();
+        // Lote de devoluções: dois empréstimos do usuário 7 (um atrasado) e um do usuário 8
+        variacoes.merge(7L, ContadoresEmprestimos.Variacao.de("ATIVO", "DEVOLVIDO", 0), ContadoresEmprestimos.Variacao::somar);
+        variacoes.merge(7L, ContadoresEmprestimos.Variacao.de("ATRASADO", "DEVOLVIDO", 0), ContadoresEmprestimos.Variacao::somar);
+        variacoes.merge(8L, ContadoresEmprestimos.Variacao.de("ATIVO", "DEVOLVIDO", 0), ContadoresEmprestimos.Variacao::somar);
+
+        contadores.registrarTodas(variacoes);
+
+        verify(resumoRepository).somar(eq(7L), eq(-1L), eq(-1L), eq(0L), any());
+        verify(resumoRepository).somar(eq(8L), eq(-1L), eq(0L), eq(0L), any());
+    }
+
+    @Test
+    void leituraSemResumoCalculaDosEmprestimos() {
+        ResumoEmprestimosDTO calculado = new ResumoEmprestimosDTO(7L, 2L, 1L, 5L);
+        when(resumoRepository.buscarDTOPorUsuario(7L)).thenReturn(Optional.empty());
+        when(emprestimoRepository.calcularResumo(7L)).thenReturn(Optional.of(calculado));
+
+        assertEquals(Optional.of(calculado), contadores.obter(7L));
+    }
+
+    @Test
+    void leituraComResumoNaoPercorreOsEmprestimos() {
+        ResumoEmprestimosDTO resumo = new ResumoEmprestimosDTO(7L, 1L, 0L, 3L);
+        when(resumoRepository.buscarDTOPorUsuario(7L)).thenReturn(Optional.of(resumo));
+
+        assertEquals(Optional.of(resumo), contadores.obter(7L));
+        verifyNoInteractions(emprestimoRepository);
+    }
+}
@@ -0,0 +1,270 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.EmprestimoDTO;
+import com.biblioteca.api.domain.dto.ResultadoLoteDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.entity.Livro;
+import com.biblioteca.api.domain.entity.Usuario;
+import com.biblioteca.api.domain.repository.AutorRepository;
+import com.biblioteca.api.domain.repository.CategoriaRepository;
+import com.biblioteca.api.domain.repository.EmprestimoRepository;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.domain.repository.UsuarioRepository;
+import com.biblioteca.api.infrastructure.config.CacheSegundoNivelConfig;
+import com.biblioteca.api.infrastructure.database.JanelaLeituraPropriaEscrita;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Lotes de retirada e devolução contra um banco real (H2): cada item tem seu resultado, os
+ * decrementos em lote (executarEmLote) só valem para os títulos com saldo para todo o pedido e
+ * um lote desfeito não deixa rastro nem no banco nem no saldo em memória.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(CacheSegundoNivelConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmprestimoLoteTest {
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EmprestimoService emprestimoService;
+    private TransactionTemplate transacao;
+    private Autor autor;
+    private Categoria categoria;
+    private Long usuarioId;
+
+    @BeforeEach
+    void preparar() {
+        autor = new Autor();
+        autor.setNome("Machado de Assis");
+        autor = autorRepository.save(autor);
+
+        categoria = new Categoria();
+        categoria.setNome("Romance");
+        categoria = categoriaRepository.save(categoria);
+
+        Usuario usuario = new Usuario();
+        usuario.setNome("Leitor");
+        usuario.setEmail("leitor@biblioteca.com");
+        usuario.setSenha("hash");
+        usuario.setFuncao("USUARIO");
+        usuarioId = usuarioRepository.save(usuario).getId();
+
+        ControleExemplares controleExemplares = new ControleExemplares(livroRepository, 1000, 600);
+        emprestimoService = new EmprestimoService(emprestimoRepository, usuarioRepository, livroRepository,
+                controleExemplares, mock(ContadoresEmprestimos.class), mock(MapaDisponibilidade.class),
+                mock(FilaReservas.class), mock(JanelaLeituraPropriaEscrita.class),
+                mock(ArquivamentoEmprestimos.class), new ConcurrentMapCacheManager());
+        transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAll();
+        livroRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        autorRepository.deleteAll();
+        categoriaRepository.deleteAll();
+    }
+
+    @Test
+    void decrementoEmLoteSoAtendeTitulosComSaldoParaTodoOPedido() {
+        Long domCasmurro = livro("978-85-00000-00-1", 2);
+        Long memorias = livro("978-85-00000-00-2", 3);
+
+        Set<Long> atendidos = transacao.execute(status ->
+                livroRepository.reservarExemplaresEmLote(Map.of(domCasmurro, 3, memorias, 3)));
+
+        assertEquals(Set.of(memorias), atendidos);
+        assertEquals(2, disponiveis(domCasmurro));
+        assertEquals(0, disponiveis(memorias));
+    }
+
+    @Test
+    void retiradaEmLoteComSucessoParcial() {
+        Long domCasmurro = livro("978-85-00000-00-1", 2);
+        Long memorias = livro("978-85-00000-00-2", 1);
+
+        List<ResultadoLoteDTO> resultados = transacao.execute(status -> emprestimoService.criarEmLote(List.of(
+                pedido(usuarioId, domCasmurro),
+                pedido(usuarioId, domCasmurro),
+                pedido(usuarioId, domCasmurro),
+                pedido(usuarioId, memorias),
+                pedido(9999L, memorias),
+                pedido(usuarioId, 9999L))));
+
+        // Sem saldo para os três, Dom Casmurro é atendido item a item até esgotar
+        assertSucesso(resultados.get(0), domCasmurro);
+        assertSucesso(resultados.get(1), domCasmurro);
+        assertFalha(resultados.get(2), "Livro não está disponível");
+        assertSucesso(resultados.get(3), memorias);
+        assertFalha(resultados.get(4), "Usuário não encontrado");
+        assertFalha(resultados.get(5), "Livro não encontrado");
+
+        assertEquals(3, emprestimoRepository.count());
+        assertEquals(0, disponiveis(domCasmurro));
+        assertEquals(0, disponiveis(memorias));
+    }
+
+    @Test
+    void saldoEmMemoriaDesatualizadoCaiParaItemAItem() {
+        Long domCasmurro = livro("978-85-00000-00-1", 3);
+        // Carrega o saldo (3) e, em seguida, outro nó leva dois exemplares direto no banco
+        transacao.execute(status -> emprestimoService.criarEmLote(List.of(pedido(9999L, domCasmurro))));
+        transacao.executeWithoutResult(status -> livroRepository.reservarExemplares(domCasmurro, 2, LocalDateTime.now()));
+
+        List<ResultadoLoteDTO> resultados = transacao.execute(status -> emprestimoService.criarEmLote(List.of(
+                pedido(usuarioId, domCasmurro),
+                pedido(usuarioId, domCasmurro))));
+
+        // O decremento em lote de 2 falha no banco; o saldo é recarregado e só um item é atendido
+        assertSucesso(resultados.get(0), domCasmurro);
+        assertFalha(resultados.get(1), "Livro não está disponível");
+        assertEquals(1, emprestimoRepository.count());
+        assertEquals(0, disponiveis(domCasmurro));
+    }
+
+    @Test
+    void retiradaEmLoteDesfeitaDevolveOsExemplares() {
+        Long domCasmurro = livro("978-85-00000-00-1", 2);
+        List<EmprestimoDTO> lote = List.of(pedido(usuarioId, domCasmurro), pedido(usuarioId, domCasmurro));
+
+        transacao.executeWithoutResult(status -> {
+            emprestimoService.criarEmLote(lote);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, emprestimoRepository.count());
+        assertEquals(2, disponiveis(domCasmurro));
+        // Os exemplares também voltaram ao saldo em memória: o mesmo lote é atendido por inteiro
+        List<ResultadoLoteDTO> resultados = transacao.execute(status -> emprestimoService.criarEmLote(lote));
+        assertTrue(resultados.stream().allMatch(ResultadoLoteDTO::isSucesso));
+        assertEquals(0, disponiveis(domCasmurro));
+    }
+
+    @Test
+    void devolucaoEmLoteComSucessoParcial() {
+        Long domCasmurro = livro("978-85-00000-00-1", 2);
+        Long memorias = livro("978-85-00000-00-2", 1);
+        List<Long> ids = emprestar(domCasmurro, domCasmurro, memorias);
+
+        List<ResultadoLoteDTO> resultados = transacao.execute(status -> emprestimoService.devolverEmLote(List.of(
+                ids.get(0), ids.get(0), ids.get(2), 9999L)));
+
+        assertTrue(resultados.get(0).isSucesso());
+        assertEquals("DEVOLVIDO", resultados.get(0).getEmprestimo().getStatus());
+        assertFalha(resultados.get(1), "Empréstimo já foi devolvido");
+        assertTrue(resultados.get(2).isSucesso());
+        assertFalha(resultados.get(3), "Empréstimo não encontrado");
+
+        assertEquals("DEVOLVIDO", status(ids.get(0)));
+        assertEquals("ATIVO", status(ids.get(1)));
+        assertEquals("DEVOLVIDO", status(ids.get(2)));
+        assertEquals(1, disponiveis(domCasmurro));
+        assertEquals(1, disponiveis(memorias));
+    }
+
+    @Test
+    void devolucaoEmLoteDesfeitaMantemEmprestimosEAcervo() {
+        Long domCasmurro = livro("978-85-00000-00-1", 2);
+        List<Long> ids = emprestar(domCasmurro, domCasmurro);
+
+        transacao.executeWithoutResult(status -> {
+            emprestimoService.devolverEmLote(ids);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("ATIVO", status(ids.get(0)));
+        assertEquals("ATIVO", status(ids.get(1)));
+        assertEquals(0, disponiveis(domCasmurro));
+        // A devolução desfeita não creditou o saldo em memória: não há exemplar a emprestar
+        List<ResultadoLoteDTO> resultados = transacao.execute(status ->
+                emprestimoService.criarEmLote(List.of(pedido(usuarioId, domCasmurro))));
+        assertFalha(resultados.get(0), "Livro não está disponível");
+    }
+
+    private List<Long> emprestar(Long... livros) {
+        List<EmprestimoDTO> pedidos = Arrays.stream(livros).map(livroId -> pedido(usuarioId, livroId)).toList();
+        return transacao.execute(status -> emprestimoService.criarEmLote(pedidos)).stream()
+                .map(resultado -> resultado.getEmprestimo().getId())
+                .toList();
+    }
+
+    private Long livro(String isbn, int exemplares) {
+        Livro livro = new Livro();
+        livro.setTitulo("Livro " + isbn);
+        livro.setIsbn(isbn);
+        livro.setAnoPublicacao(1899);
+        livro.setQuantidadeTotal(exemplares);
+        livro.setQuantidadeDisponivel(exemplares);
+        livro.setAutor(autor);
+        livro.setCategoria(categoria);
+        return livroRepository.save(livro).getId();
+    }
+
+    private static EmprestimoDTO pedido(Long usuarioId, Long livroId) {
+        return new EmprestimoDTO(null, null, null, null, null, usuarioId, livroId);
+    }
+
+    private static void assertSucesso(ResultadoLoteDTO resultado, Long livroId) {
+        assertTrue(resultado.isSucesso(), resultado.getMensagem());
+        assertEquals(livroId, resultado.getEmprestimo().getLivroId());
+        assertNull(resultado.getMensagem());
+    }
+
+    private static void assertFalha(ResultadoLoteDTO resultado, String mensagem) {
+        assertFalse(resultado.isSucesso());
+        assertNull(resultado.getEmprestimo());
+        assertEquals(mensagem, resultado.getMensagem());
+    }
+
+    private String status(Long emprestimoId) {
+        return emprestimoRepository.findById(emprestimoId).orElseThrow().getStatus();
+    }
+
+    private int disponiveis(Long livroId) {
+        return livroRepository.buscarQuantidadeDisponivel(livroId).orElseThrow();
+    }
+}
@@ -0,0 +1,201 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.EmprestimoDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.entity.Livro;
+import com.biblioteca.api.domain.entity.Usuario;
+import com.biblioteca.api.domain.repository.AutorRepository;
+import com.biblioteca.api.domain.repository.CategoriaRepository;
+import com.biblioteca.api.domain.repository.EmprestimoRepository;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.domain.repository.UsuarioRepository;
+import com.biblioteca.api.infrastructure.config.CacheSegundoNivelConfig;
+import com.biblioteca.api.infrastructure.database.JanelaLeituraPropriaEscrita;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Retiradas concorrentes do mesmo título contra um banco real (H2): o acervo nunca fica
+ * negativo e os exemplares de transações desfeitas voltam ao saldo em memória.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(CacheSegundoNivelConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmprestimoServiceConcorrenciaTest {
+
+    private static final int EXEMPLARES = 5;
+    private static final int TENTATIVAS = 24;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EmprestimoService emprestimoService;
+    private TransactionTemplate transacao;
+    private Long usuarioId;
+    private Long livroId;
+
+    @BeforeEach
+    void preparar() {
+        Autor autor = new Autor();
+        autor.setNome("Machado de Assis");
+        autor = autorRepository.save(autor);
+
+        Categoria categoria = new Categoria();
+        categoria.setNome("Romance");
+        categoria = categoriaRepository.save(categoria);
+
+        Livro livro = new Livro();
+        livro.setTitulo("Dom Casmurro");
+        livro.setIsbn("978-85-00000-00-1");
+        livro.setAnoPublicacao(1899);
+        livro.setQuantidadeTotal(EXEMPLARES);
+        livro.setQuantidadeDisponivel(EXEMPLARES);
+        livro.setAutor(autor);
+        livro.setCategoria(categoria);
+        livroId = livroRepository.save(livro).getId();
+
+        Usuario usuario = new Usuario();
+        usuario.setNome("Leitor");
+        usuario.setEmail("leitor@biblioteca.com");
+        usuario.setSenha("hash");
+        usuario.setFuncao("USUARIO");
+        usuarioId = usuarioRepository.save(usuario).getId();
+
+        // Saldo em memória válido durante todo o teste: sem recarga, só a devolução no rollback o corrige
+        ControleExemplares controleExemplares = new ControleExemplares(livroRepository, 1000, 600);
+        emprestimoService = new EmprestimoService(emprestimoRepository, usuarioRepository, livroRepository,
+                controleExemplares, mock(ContadoresEmprestimos.class), mock(MapaDisponibilidade.class),
+                mock(FilaReservas.class), mock(JanelaLeituraPropriaEscrita.class),
+                mock(ArquivamentoEmprestimos.class), new ConcurrentMapCacheManager());
+        transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAll();
+        livroRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        autorRepository.deleteAll();
+        categoriaRepository.deleteAll();
+    }
+
+    @Test
+    void retiradasConcorrentesNaoVendemMaisQueOAcervo() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < TENTATIVAS; i++) {
+                // Metade das transações falha depois do decremento e é desfeita
+                boolean desfazer = i % 2 == 0;
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return retirar(desfazer);
+                }));
+            }
+            largada.countDown();
+
+            int confirmados = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get(30, TimeUnit.SECONDS)) {
+                    confirmados++;
+                }
+            }
+
+            assertTrue(confirmados <= EXEMPLARES, "Mais empréstimos que exemplares: " + confirmados);
+            assertEquals(confirmados, emprestimoRepository.count());
+            assertEquals(EXEMPLARES - confirmados, disponiveis());
+
+            // Os exemplares das transações desfeitas voltaram ao saldo: o restante ainda é emprestável
+            for (int i = confirmados; i < EXEMPLARES; i++) {
+                assertTrue(retirar(false), "Exemplar perdido no saldo em memória");
+            }
+            assertThrows(IllegalArgumentException.class, this::criar);
+            assertEquals(0, disponiveis());
+            assertEquals(EXEMPLARES, emprestimoRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void falhaDepoisDoDecrementoDevolveOExemplar() {
+        for (int i = 0; i < EXEMPLARES * 2; i++) {
+            retirar(true);
+        }
+
+        assertEquals(EXEMPLARES, disponiveis());
+        assertEquals(0, emprestimoRepository.count());
+        for (int i = 0; i < EXEMPLARES; i++) {
+            assertTrue(retirar(false));
+        }
+        assertEquals(0, disponiveis());
+    }
+
+    // true quando o empréstimo foi criado e confirmado
+    private boolean retirar(boolean desfazer) {
+        try {
+            Boolean confirmado = transacao.execute(status -> {
+                emprestimoService.criar(new EmprestimoDTO(null, null, null, null, null, usuarioId, livroId));
+                if (desfazer) {
+                    status.setRollbackOnly();
+                }
+                return !desfazer;
+            });
+            return Boolean.TRUE.equals(confirmado);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private void criar() {
+        transacao.executeWithoutResult(status ->
+                emprestimoService.criar(new EmprestimoDTO(null, null, null, null, null, usuarioId, livroId)));
+    }
+
+    private int disponiveis() {
+        return livroRepository.buscarQuantidadeDisponivel(livroId).orElseThrow();
+    }
+}
@@ -0,0 +1,174 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.AutorDTO;
+import com.biblioteca.api.domain.dto.CategoriaDTO;
+import com.biblioteca.api.domain.dto.ErroImportacaoDTO;
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.dto.ResultadoImportacaoDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.event.LivroAlteradoEvent;
+import com.biblioteca.api.domain.repository.AutorRepository;
+import com.biblioteca.api.domain.repository.CategoriaRepository;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.infrastructure.importacao.LeitorImportacao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportacaoLivrosServiceTest {
+
+    private static final String CABECALHO = "titulo,isbn,anoPublicacao,quantidadeTotal,quantidadeDisponivel,autor,categoria\n";
+
+    private final AtomicLong sequencia = new AtomicLong(100);
+    private final List<List<String>> chamadasInsercao = new ArrayList<>();
+    private final List<String> eventos = new ArrayList<>();
+    private LivroRepository livroRepository;
+    private AutorRepository autorRepository;
+    private ImportacaoLivrosService service;
+    private Function<List<LivroDTO>, Set<Long>> insercao;
+
+    @BeforeEach
+    void preparar() {
+        livroRepository = mock(LivroRepository.class);
+        autorRepository = mock(AutorRepository.class);
+        CategoriaRepository categoriaRepository = mock(CategoriaRepository.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+        doAnswer(invocacao -> {
+            invocacao.<Consumer<String>>getArgument(0).accept("978-85-00000-00-0");
+            return null;
+        }).when(livroRepository).percorrerIsbns(any());
+        when(autorRepository.buscarTodosDTOs()).thenReturn(List.of(new AutorDTO(1L, "Machado de Assis", null)));
+        when(categoriaRepository.buscarTodosDTOs()).thenReturn(List.of(new CategoriaDTO(2L, "Romance", null)));
+        when(autorRepository.save(any())).thenAnswer(invocacao -> {
+            Autor autor = invocacao.getArgument(0);
+            autor.setId(3L);
+            return autor;
+        });
+        when(livroRepository.alocarIds(anyInt())).thenAnswer(invocacao -> LongStream
+                .range(0, invocacao.<Integer>getArgument(0))
+                .mapToObj(i -> sequencia.incrementAndGet())
+                .toList());
+
+        // Por padrão todos os registros do lote entram
+        insercao = livros -> livros.stream().map(LivroDTO::getId).collect(HashSet::new, Set::add, Set::addAll);
+        when(livroRepository.inserirEmLote(any())).thenAnswer(invocacao -> {
+            List<LivroDTO> livros = invocacao.getArgument(0);
+            chamadasInsercao.add(livros.stream().map(LivroDTO::getIsbn).toList());
+            return insercao.apply(livros);
+        });
+        doAnswer(invocacao -> {
+            eventos.add(invocacao.<LivroAlteradoEvent>getArgument(0).livro().getIsbn());
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+
+        service = new ImportacaoLivrosService(livroRepository, autorRepository, categoriaRepository,
+                eventPublisher, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void registrosComProblemaSaoRelatadosSemInterromperOArquivo() throws Exception {
+        ResultadoImportacaoDTO resultado = importar(CABECALHO +
+                "Dom Casmurro,978-85-00000-00-1,1899,3,,Machado de Assis,Romance\n" +
+                "Sem ISBN,,1899,3,,Machado de Assis,Romance\n" +
+                "Já cadastrado,978-85-00000-00-0,1899,3,,Machado de Assis,Romance\n" +
+                "Repetido no arquivo,978-85-00000-00-1,1899,3,,Machado de Assis,Romance\n" +
+                "Disponível demais,978-85-00000-00-2,1899,3,4,Machado de Assis,Romance\n" +
+                "Ano inválido,978-85-00000-00-3,mil,3,,Machado de Assis,Romance\n" +
+                "Iracema,978-85-00000-00-4,1865,2,1,José de Alencar,Romance\n");
+
+        assertEquals(7, resultado.getRegistrosLidos());
+        assertEquals(2, resultado.getImportados());
+        assertEquals(5, resultado.getRejeitados());
+        assertEquals(1, resultado.getAutoresCriados());
+        assertEquals(0, resultado.getCategoriasCriadas());
+        assertEquals(List.of(
+                new ErroImportacaoDTO(2, null, "ISBN não pode ser vazio"),
+                new ErroImportacaoDTO(3, "978-85-00000-00-0", "ISBN já cadastrado"),
+                new ErroImportacaoDTO(4, "978-85-00000-00-1", "ISBN já cadastrado"),
+                new ErroImportacaoDTO(5, "978-85-00000-00-2", "Quantidade disponível deve estar entre zero e a quantidade total"),
+                new ErroImportacaoDTO(6, null, "Número inválido: For input string: \"mil\"")
+        ), resultado.getErros());
+        // Os válidos vão num único lote
+        assertEquals(List.of(List.of("978-85-00000-00-1", "978-85-00000-00-4")), chamadasInsercao);
+        assertEquals(List.of("978-85-00000-00-1", "978-85-00000-00-4"), eventos);
+    }
+
+    @Test
+    void loteQueFalhaEhRegravadoRegistroARegistro() throws Exception {
+        insercao = livros -> {
+            if (livros.stream().anyMatch(livro -> livro.getIsbn().equals("978-85-00000-00-2"))) {
+                throw new DataIntegrityViolationException("lote recusado",
+                        new SQLException("value too long for type character varying(50)"));
+            }
+            return livros.stream().map(LivroDTO::getId).collect(HashSet::new, Set::add, Set::addAll);
+        };
+
+        ResultadoImportacaoDTO resultado = importar(CABECALHO +
+                "Dom Casmurro,978-85-00000-00-1,1899,3,,Machado de Assis,Romance\n" +
+                "Recusado pelo banco,978-85-00000-00-2,1899,3,,Machado de Assis,Romance\n" +
+                "Iracema,978-85-00000-00-3,1865,2,,Machado de Assis,Romance\n");
+
+        assertEquals(2, resultado.getImportados());
+        assertEquals(1, resultado.getRejeitados());
+        assertEquals(List.of(new ErroImportacaoDTO(2, "978-85-00000-00-2", "value too long for type character varying(50)")),
+                resultado.getErros());
+        assertEquals(List.of(
+                List.of("978-85-00000-00-1", "978-85-00000-00-2", "978-85-00000-00-3"),
+                List.of("978-85-00000-00-1"),
+                List.of("978-85-00000-00-2"),
+                List.of("978-85-00000-00-3")
+        ), chamadasInsercao);
+        // Só os registros gravados são publicados para o índice de busca
+        assertEquals(List.of("978-85-00000-00-1", "978-85-00000-00-3"), eventos);
+    }
+
+    @Test
+    void isbnCadastradoEmParaleloEhIgnoradoPeloOnConflict() throws Exception {
+        // Outra requisição gravou o ISBN depois da carga inicial: o INSERT ... ON CONFLICT não devolve o id
+        insercao = livros -> livros.stream()
+                .filter(livro -> !livro.getIsbn().equals("978-85-00000-00-2"))
+                .map(LivroDTO::getId)
+                .collect(HashSet::new, Set::add, Set::addAll);
+
+        ResultadoImportacaoDTO resultado = importar(CABECALHO +
+                "Dom Casmurro,978-85-00000-00-1,1899,3,,Machado de Assis,Romance\n" +
+                "Concorrente,978-85-00000-00-2,1899,3,,Machado de Assis,Romance\n");
+
+        assertEquals(1, resultado.getImportados());
+        assertEquals(1, resultado.getRejeitados());
+        assertEquals(List.of(new ErroImportacaoDTO(2, "978-85-00000-00-2", "ISBN já cadastrado")), resultado.getErros());
+        assertEquals(1, chamadasInsercao.size());
+        assertEquals(List.of("978-85-00000-00-1"), eventos);
+    }
+
+    private ResultadoImportacaoDTO importar(String csv) throws IOException {
+        try (LeitorImportacao leitor = LeitorImportacao.para(LeitorImportacao.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), new ObjectMapper())) {
+            return service.importar(leitor);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.AlteracoesDisponibilidadeDTO;
+import com.biblioteca.api.domain.dto.DisponibilidadeLivroDTO;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.infrastructure.search.IndiceFacetasLivros;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MapaDisponibilidadeTest {
+
+    private final LivroRepository livroRepository = mock(LivroRepository.class);
+    private final IndiceFacetasLivros indiceFacetas = mock(IndiceFacetasLivros.class);
+
+    @Test
+    void cargaInicialEhAVersaoZeroSemHistorico() {
+        MapaDisponibilidade mapa = carregado(100, 1L, 2L, 3L);
+
+        MapaDisponibilidade.Instantaneo instantaneo = mapa.obterInstantaneo().orElseThrow();
+        assertEquals(0L, instantaneo.versao());
+        assertEquals(3L, instantaneo.disponiveis());
+
+        AlteracoesDisponibilidadeDTO alteracoes = mapa.alteracoesDesde(instantaneo.epoca(), 0).orElseThrow();
+        assertEquals(0L, alteracoes.getVersao());
+        assertTrue(alteracoes.getDisponiveis().isEmpty());
+        assertTrue(alteracoes.getIndisponiveis().isEmpty());
+    }
+
+    @Test
+    void alteracoesTrazemSoOEstadoFinalDeCadaLivro() {
+        MapaDisponibilidade mapa = carregado(100, 1L, 2L, 3L);
+        long epoca = epoca(mapa);
+
+        verificar(mapa, disponibilidade(2L, 0), disponibilidade(4L, 1));   // versões 1 e 2
+        verificar(mapa, disponibilidade(2L, 3), disponibilidade(3L, 0));   // versões 3 e 4
+        // Sem mudança real: não gera versão
+        verificar(mapa, disponibilidade(1L, 5));
+
+        AlteracoesDisponibilidadeDTO desdeInicio = mapa.alteracoesDesde(epoca, 0).orElseThrow();
+        assertEquals(4L, desdeInicio.getVersao());
+        assertEquals(List.of(2L, 4L), desdeInicio.getDisponiveis());
+        assertEquals(List.of(3L), desdeInicio.getIndisponiveis());
+
+        AlteracoesDisponibilidadeDTO desdeDois = mapa.alteracoesDesde(epoca, 2).orElseThrow();
+        assertEquals(List.of(2L), desdeDois.getDisponiveis());
+        assertEquals(List.of(3L), desdeDois.getIndisponiveis());
+
+        AlteracoesDisponibilidadeDTO atualizado = mapa.alteracoesDesde(epoca, 4).orElseThrow();
+        assertTrue(atualizado.getDisponiveis().isEmpty());
+        assertTrue(atualizado.getIndisponiveis().isEmpty());
+    }
+
+    @Test
+    void outraEpocaOuVersaoFuturaPedeOMapaInteiro() {
+        MapaDisponibilidade mapa = carregado(100, 1L);
+        long epoca = epoca(mapa);
+        verificar(mapa, disponibilidade(1L, 0));
+
+        assertFalse(mapa.alteracoesDesde(epoca - 1, 0).isPresent());
+        assertFalse(mapa.alteracoesDesde(epoca, 2).isPresent());
+        assertTrue(mapa.alteracoesDesde(epoca, 1).isPresent());
+    }
+
+    @Test
+    void versaoAbaixoDoHistoricoTruncadoPedeOMapaInteiro() {
+        MapaDisponibilidade mapa = carregado(2, 1L, 2L, 3L);
+        long epoca = epoca(mapa);
+
+        // Três mudanças com histórico de duas: a versão 1 sai do histórico
+        verificar(mapa, disponibilidade(1L, 0));
+        verificar(mapa, disponibilidade(2L, 0));
+        verificar(mapa, disponibilidade(3L, 0));
+
+        assertFalse(mapa.alteracoesDesde(epoca, 0).isPresent());
+        AlteracoesDisponibilidadeDTO desdeUm = mapa.alteracoesDesde(epoca, 1).orElseThrow();
+        assertEquals(List.of(2L, 3L), desdeUm.getIndisponiveis());
+        assertEquals(3L, desdeUm.getVersao());
+    }
+
+    @Test
+    void reconciliacaoPulaLivrosComVerificacaoPendente() {
+        MapaDisponibilidade mapa = carregado(100, 1L, 2L, 3L);
+        long epoca = epoca(mapa);
+
+        // Livro 1 emprestado nesta instância, ainda não verificado; 5 chegou por outra instância
+        mapa.verificarAposCommit(1L);
+        when(livroRepository.buscarIdsDisponiveisAposId(eq(0L), any(Limit.class))).thenReturn(List.of(2L, 3L, 5L));
+        mapa.reconciliar();
+
+        AlteracoesDisponibilidadeDTO aposReconciliar = mapa.alteracoesDesde(epoca, 0).orElseThrow();
+        assertEquals(List.of(5L), aposReconciliar.getDisponiveis());
+        assertTrue(aposReconciliar.getIndisponiveis().isEmpty());
+        verify(indiceFacetas, never()).marcarDisponibilidade(1L, false);
+
+        // A verificação pendente é quem tira o livro 1, com a quantidade lida depois
+        when(livroRepository.buscarDisponibilidades(anyCollection())).thenReturn(List.of(disponibilidade(1L, 0)));
+        mapa.verificarPendentes();
+
+        assertEquals(List.of(1L), mapa.alteracoesDesde(epoca, 1).orElseThrow().getIndisponiveis());
+        verify(indiceFacetas).marcarDisponibilidade(5L, true);
+        verify(indiceFacetas).marcarDisponibilidade(1L, false);
+    }
+
+    @Test
+    void livroExcluidoSaiDoMapa() {
+        MapaDisponibilidade mapa = carregado(100, 1L, 2L);
+
+        // Ausente na tabela
+        when(livroRepository.buscarDisponibilidades(anyCollection())).thenReturn(List.of());
+        mapa.verificarAposCommit(2L);
+        mapa.verificarPendentes();
+
+        assertEquals(1L, mapa.obterInstantaneo().orElseThrow().disponiveis());
+    }
+
+    private MapaDisponibilidade carregado(int historicoMaximo, Long... disponiveis) {
+        when(livroRepository.buscarIdsDisponiveisAposId(eq(0L), any(Limit.class))).thenReturn(Arrays.asList(disponiveis));
+        MapaDisponibilidade mapa = new MapaDisponibilidade(livroRepository, indiceFacetas, historicoMaximo);
+        assertFalse(mapa.alteracoesDesde(0, 0).isPresent());
+        mapa.carregar();
+        assertTrue(mapa.isPronto());
+        return mapa;
+    }
+
+    // Marca os livros e roda a verificação com as quantidades informadas
+    private void verificar(MapaDisponibilidade mapa, DisponibilidadeLivroDTO... quantidades) {
+        when(livroRepository.buscarDisponibilidades(anyCollection())).thenReturn(Arrays.asList(quantidades));
+        for (DisponibilidadeLivroDTO quantidade : quantidades) {
+            mapa.verificarAposCommit(quantidade.getLivroId());
+        }
+        mapa.verificarPendentes();
+    }
+
+    private static long epoca(MapaDisponibilidade mapa) {
+        return mapa.obterInstantaneo().orElseThrow().epoca();
+    }
+
+    private static DisponibilidadeLivroDTO disponibilidade(Long livroId, int quantidade) {
+        return new DisponibilidadeLivroDTO(livroId, quantidade);
+    }
+}
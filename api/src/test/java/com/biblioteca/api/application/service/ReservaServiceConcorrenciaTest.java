@@ -0,0 +1,184 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.dto.ReservaDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.entity.Livro;
+import com.biblioteca.api.domain.entity.Usuario;
+import com.biblioteca.api.domain.repository.AutorRepository;
+import com.biblioteca.api.domain.repository.CategoriaRepository;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.domain.repository.ReservaRepository;
+import com.biblioteca.api.domain.repository.UsuarioRepository;
+import com.biblioteca.api.infrastructure.config.CacheSegundoNivelConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Reservas simultâneas contra um banco real (H2, sem o índice único parcial das migrations):
+ * só o bloqueio do usuário no serviço impede duas reservas ativas do mesmo usuário e livro.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(CacheSegundoNivelConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservaServiceConcorrenciaTest {
+
+    private static final int TENTATIVAS = 16;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReservaService reservaService;
+    private TransactionTemplate transacao;
+    private Long livroId;
+    private Long anaId;
+    private Long brunoId;
+
+    @BeforeEach
+    void preparar() {
+        Autor autor = new Autor();
+        autor.setNome("Machado de Assis");
+        autor = autorRepository.save(autor);
+
+        Categoria categoria = new Categoria();
+        categoria.setNome("Romance");
+        categoria = categoriaRepository.save(categoria);
+
+        Livro livro = new Livro();
+        livro.setTitulo("Dom Casmurro");
+        livro.setIsbn("978-85-00000-00-2");
+        livro.setAnoPublicacao(1899);
+        livro.setQuantidadeTotal(1);
+        livro.setQuantidadeDisponivel(1);
+        livro.setAutor(autor);
+        livro.setCategoria(categoria);
+        livroId = livroRepository.save(livro).getId();
+
+        anaId = usuario("ana@biblioteca.com");
+        brunoId = usuario("bruno@biblioteca.com");
+
+        FilaReservas filaReservas = new FilaReservas(reservaRepository, 1000, 60, 48);
+        reservaService = new ReservaService(reservaRepository, usuarioRepository, livroRepository, filaReservas,
+                mock(EmprestimoService.class), transactionManager, 500);
+        transacao = new TransactionTemplate(transactionManager);
+
+        // Todos os exemplares emprestados: só resta reservar
+        transacao.executeWithoutResult(status -> livroRepository.reservarExemplares(livroId, 1, LocalDateTime.now()));
+    }
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        livroRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        autorRepository.deleteAll();
+        categoriaRepository.deleteAll();
+    }
+
+    @Test
+    void reservasSimultaneasCriamUmaPorUsuario() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < TENTATIVAS; i++) {
+                Long usuarioId = i % 2 == 0 ? anaId : brunoId;
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return reservar(usuarioId);
+                }));
+            }
+            largada.countDown();
+
+            int criadas = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get(30, TimeUnit.SECONDS)) {
+                    criadas++;
+                }
+            }
+
+            assertEquals(2, criadas);
+            assertEquals(1, reservaRepository.buscarAtivasPorUsuario(anaId).size());
+            assertEquals(1, reservaRepository.buscarAtivasPorUsuario(brunoId).size());
+            assertEquals(2, reservaRepository.buscarAtivasPorLivro(livroId).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void reservaCanceladaNaoImpedeNovaReserva() {
+        ReservaDTO primeira = transacao.execute(status -> reservaService.reservar(pedido(anaId)));
+        assertThrows(IllegalArgumentException.class,
+                () -> transacao.executeWithoutResult(status -> reservaService.reservar(pedido(anaId))));
+
+        transacao.executeWithoutResult(status -> reservaService.cancelar(primeira.getId()));
+
+        ReservaDTO segunda = transacao.execute(status -> reservaService.reservar(pedido(anaId)));
+        assertEquals("AGUARDANDO", segunda.getStatus());
+        assertEquals(1, reservaRepository.buscarAtivasPorUsuario(anaId).size());
+    }
+
+    // true quando a reserva foi criada; false quando o serviço recusou por já existir uma ativa
+    private boolean reservar(Long usuarioId) {
+        try {
+            transacao.executeWithoutResult(status -> reservaService.reservar(pedido(usuarioId)));
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private ReservaDTO pedido(Long usuarioId) {
+        return new ReservaDTO(null, usuarioId, livroId, null, null, null, null);
+    }
+
+    private Long usuario(String email) {
+        Usuario usuario = new Usuario();
+        usuario.setNome(email);
+        usuario.setEmail(email);
+        usuario.setSenha("hash");
+        usuario.setFuncao("USUARIO");
+        return usuarioRepository.save(usuario).getId();
+    }
+}
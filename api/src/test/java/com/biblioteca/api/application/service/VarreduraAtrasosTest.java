@@ -0,0 +1,60 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.domain.repository.EmprestimoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VarreduraAtrasosTest {
+
+    private EmprestimoRepository emprestimoRepository;
+    private VarreduraAtrasos varredura;
+    private final LocalDate hoje = LocalDate.now();
+
+    @BeforeEach
+    void preparar() {
+        emprestimoRepository = mock(EmprestimoRepository.class);
+        ArquivamentoEmprestimos arquivamento = mock(ArquivamentoEmprestimos.class);
+        when(arquivamento.inicioAbertos()).thenReturn(LocalDate.EPOCH);
+        varredura = new VarreduraAtrasos(emprestimoRepository, arquivamento, mock(PlatformTransactionManager.class), 10);
+    }
+
+    @Test
+    void semLinhasPuladasAvancaAteHojeENaoVarreDeNovoNoMesmoDia() {
+        when(emprestimoRepository.marcarAtrasados(any(), any(), any(), anyInt(), any())).thenReturn(10, 3);
+
+        varredura.varrer();
+        varredura.varrer();
+
+        assertEquals(hoje, varredura.obterEstatisticas().getVarridoAte());
+        assertEquals(13L, varredura.obterEstatisticas().getLinhasAtualizadasTotal());
+        verify(emprestimoRepository, times(2)).marcarAtrasados(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void linhasPuladasSeguramAMarcaDaguaNoPrazoPendente() {
+        LocalDate prazoPulado = hoje.minusDays(3);
+        when(emprestimoRepository.marcarAtrasados(any(), any(), any(), anyInt(), any())).thenReturn(2);
+        when(emprestimoRepository.buscarPrimeiroPrazoVencidoAtivo(any(), eq(LocalDate.EPOCH), eq(hoje)))
+                .thenReturn(prazoPulado);
+
+        varredura.varrer();
+        assertEquals(prazoPulado, varredura.obterEstatisticas().getVarridoAte());
+
+        // A execução seguinte, no mesmo dia, volta a varrer a partir do prazo pulado
+        varredura.varrer();
+        verify(emprestimoRepository).marcarAtrasados(any(), eq(prazoPulado), eq(hoje), anyInt(), any());
+        assertEquals(hoje, varredura.obterEstatisticas().getVarridoAte());
+    }
+}
@@ -0,0 +1,175 @@
+package com.biblioteca.api.domain.repository;
+
+import com.biblioteca.api.domain.dto.AutorDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.entity.Livro;
+import com.biblioteca.api.infrastructure.config.CacheSegundoNivelConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Confere, pelas estatísticas do Hibernate, que autores e categorias repetidos não vão ao banco.
+ *
+ * Sem a transação do teste: cada chamada ao repositório abre o seu próprio contexto de
+ * persistência, então o que evita o SQL é o cache de segundo nível e não o de primeiro.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // As migrations são do PostgreSQL: no H2 o esquema sai das entidades
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(CacheSegundoNivelConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheSegundoNivelTest {
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics estatisticas;
+    private Autor autor;
+    private Categoria categoria;
+
+    @BeforeEach
+    void preparar() {
+        autor = new Autor();
+        autor.setNome("Machado de Assis");
+        autor = autorRepository.save(autor);
+
+        categoria = new Categoria();
+        categoria.setNome("Romance");
+        categoria = categoriaRepository.save(categoria);
+
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        estatisticas.clear();
+    }
+
+    @AfterEach
+    void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        categoriaRepository.deleteAll();
+    }
+
+    @Test
+    void buscaRepetidaPorIdNaoConsultaOBanco() {
+        autorRepository.findById(autor.getId()).orElseThrow();
+        categoriaRepository.findById(categoria.getId()).orElseThrow();
+        long consultas = estatisticas.getPrepareStatementCount();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Machado de Assis", autorRepository.findById(autor.getId()).orElseThrow().getNome());
+            assertEquals("Romance", categoriaRepository.findById(categoria.getId()).orElseThrow().getNome());
+        }
+
+        assertEquals(consultas, estatisticas.getPrepareStatementCount());
+        assertEquals(10, estatisticas.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void buscaRepetidaPorNomeUsaOCacheDeConsultas() {
+        categoriaRepository.findByNomeIgnoreCase("romance").orElseThrow();
+        long consultas = estatisticas.getPrepareStatementCount();
+
+        assertEquals(categoria.getId(), categoriaRepository.findByNomeIgnoreCase("romance").orElseThrow().getId());
+
+        assertEquals(consultas, estatisticas.getPrepareStatementCount());
+        assertEquals(1, estatisticas.getQueryCacheHitCount());
+    }
+
+    @Test
+    void listagemPaginadaUsaOCacheDeConsultasAteATabelaMudar() {
+        autorRepository.buscarDTOsAposId(0L, Limit.of(10));
+        autorRepository.buscarTodosDTOs();
+        long consultas = estatisticas.getPrepareStatementCount();
+
+        assertEquals(List.of("Machado de Assis"),
+                autorRepository.buscarDTOsAposId(0L, Limit.of(10)).stream().map(AutorDTO::getNome).toList());
+        assertEquals(1, autorRepository.buscarTodosDTOs().size());
+        assertEquals(consultas, estatisticas.getPrepareStatementCount());
+        assertEquals(2, estatisticas.getQueryCacheHitCount());
+
+        Autor outro = new Autor();
+        outro.setNome("Aluísio Azevedo");
+        autorRepository.save(outro);
+
+        assertEquals(2, autorRepository.buscarDTOsAposId(0L, Limit.of(10)).size());
+        assertEquals(2, estatisticas.getQueryCacheHitCount());
+    }
+
+    @Test
+    void alteracaoInvalidaAsConsultasEmCache() {
+        categoriaRepository.findByNomeIgnoreCase("romance").orElseThrow();
+        categoriaRepository.findById(categoria.getId()).ifPresent(c -> {
+            c.setDescricao("Ficção em prosa");
+            categoriaRepository.save(c);
+        });
+        long consultas = estatisticas.getPrepareStatementCount();
+
+        Categoria recarregada = categoriaRepository.findByNomeIgnoreCase("romance").orElseThrow();
+
+        assertEquals("Ficção em prosa", recarregada.getDescricao());
+        assertTrue(estatisticas.getPrepareStatementCount() > consultas);
+        assertEquals(0, estatisticas.getQueryCacheHitCount());
+    }
+
+    @Test
+    void autorECategoriaDoLivroVemDoCache() {
+        Livro livro = new Livro();
+        livro.setTitulo("Dom Casmurro");
+        livro.setIsbn("978-85-359-0277-1");
+        livro.setAnoPublicacao(1899);
+        livro.setQuantidadeTotal(3);
+        livro.setQuantidadeDisponivel(3);
+        livro.setAutor(autor);
+        livro.setCategoria(categoria);
+        Long livroId = livroRepository.save(livro).getId();
+
+        autorRepository.findById(autor.getId()).orElseThrow();
+        categoriaRepository.findById(categoria.getId()).orElseThrow();
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+
+        long consultas = estatisticas.getPrepareStatementCount();
+        leitura.executeWithoutResult(status -> {
+            Livro carregado = livroRepository.findById(livroId).orElseThrow();
+            assertEquals("Machado de Assis", carregado.getAutor().getNome());
+            assertEquals("Romance", carregado.getCategoria().getNome());
+        });
+
+        // Só a linha do livro: os proxies de autor e categoria são resolvidos pelo cache
+        assertEquals(consultas + 1, estatisticas.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,214 @@
+package com.biblioteca.api.infrastructure.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Roteamento contra bancos H2 em memória no lugar do primário e das réplicas: cada banco tem
+ * uma tabela com o próprio nome, então a consulta revela para onde a conexão foi.
+ */
+class RoteamentoLeituraDataSourceTest {
+
+    private static final DataSource PRIMARIO = banco("primario");
+    private static final DataSource REPLICA_1 = banco("replica-1");
+    private static final DataSource REPLICA_2 = banco("replica-2");
+
+    private ReplicaInstavel instavel;
+    private JanelaLeituraPropriaEscrita janela;
+
+    @BeforeAll
+    static void criarBancos() {
+        Map.of("primario", PRIMARIO, "replica-1", REPLICA_1, "replica-2", REPLICA_2).forEach((nome, banco) -> {
+            JdbcTemplate jdbc = new JdbcTemplate(banco);
+            jdbc.execute("create table if not exists origem (nome varchar(20))");
+            jdbc.update("delete from origem");
+            jdbc.update("insert into origem values (?)", nome);
+        });
+    }
+
+    @BeforeEach
+    void preparar() {
+        instavel = new ReplicaInstavel(REPLICA_1);
+        janela = new JanelaLeituraPropriaEscrita(60_000);
+    }
+
+    @AfterEach
+    void limpar() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void leituraVaiParaAReplicaEEscritaParaOPrimario() {
+        Roteamento roteamento = roteamento(REPLICA_1);
+
+        assertEquals("replica-1", roteamento.ler());
+        assertEquals("primario", roteamento.escrever());
+        assertEquals("primario", roteamento.semTransacao());
+    }
+
+    @Test
+    void leiturasSeAlternamEntreAsReplicas() {
+        Roteamento roteamento = roteamento(REPLICA_1, REPLICA_2);
+
+        assertEquals("replica-1", roteamento.ler());
+        assertEquals("replica-2", roteamento.ler());
+        assertEquals("replica-1", roteamento.ler());
+        assertEquals("replica-2", roteamento.ler());
+    }
+
+    @Test
+    void replicaForaDoArSaiDoRodizioEVoltaAposAVerificacao() {
+        ReplicasLeitura replicas = new ReplicasLeitura(List.of(instavel, REPLICA_2), 1);
+        Roteamento roteamento = new Roteamento(new RoteamentoLeituraDataSource(PRIMARIO, replicas, janela));
+
+        instavel.foraDoAr = true;
+        assertEquals("replica-2", roteamento.ler());
+        assertEquals("replica-2", roteamento.ler());
+        assertEquals(1, replicas.saudaveis());
+
+        instavel.foraDoAr = false;
+        replicas.verificar();
+        assertEquals(2, replicas.saudaveis());
+        assertEquals("replica-1", roteamento.ler());
+    }
+
+    @Test
+    void poolSaturadoNaoTiraAReplicaDoRodizio() {
+        ReplicasLeitura replicas = new ReplicasLeitura(List.of(instavel, REPLICA_2), 1);
+        Roteamento roteamento = new Roteamento(new RoteamentoLeituraDataSource(PRIMARIO, replicas, janela));
+
+        instavel.saturada = true;
+        assertEquals("replica-2", roteamento.ler());
+        assertEquals("replica-2", roteamento.ler());
+        replicas.verificar();
+        assertEquals(2, replicas.saudaveis());
+        assertEquals(1, replicas.saturacoes());
+
+        instavel.saturada = false;
+        assertEquals("replica-1", roteamento.ler());
+        assertEquals(0, replicas.desvios());
+    }
+
+    @Test
+    void todasAsReplicasSaturadasLeemDoPrimarioSemSairDoRodizio() {
+        ReplicasLeitura replicas = new ReplicasLeitura(List.of(instavel), 1);
+        Roteamento roteamento = new Roteamento(new RoteamentoLeituraDataSource(PRIMARIO, replicas, janela));
+
+        instavel.saturada = true;
+        assertEquals("primario", roteamento.ler());
+        assertEquals(1, replicas.saudaveis());
+        assertEquals(1, replicas.desvios());
+
+        instavel.saturada = false;
+        assertEquals("replica-1", roteamento.ler());
+    }
+
+    @Test
+    void semReplicaSaudavelALeituraVaiParaOPrimario() {
+        ReplicasLeitura replicas = new ReplicasLeitura(List.of(instavel), 1);
+        Roteamento roteamento = new Roteamento(new RoteamentoLeituraDataSource(PRIMARIO, replicas, janela));
+
+        instavel.foraDoAr = true;
+        assertEquals("primario", roteamento.ler());
+        assertEquals("primario", roteamento.ler());
+        assertEquals(2, replicas.desvios());
+    }
+
+    @Test
+    void quemEscreveuLeDoPrimarioDuranteAJanela() {
+        Roteamento roteamento = roteamento(REPLICA_1);
+
+        autenticar("ana");
+        janela.registrarEscrita();
+        assertEquals("primario", roteamento.ler());
+
+        autenticar("bruno");
+        assertEquals("replica-1", roteamento.ler());
+    }
+
+    private Roteamento roteamento(DataSource... replicas) {
+        return new Roteamento(new RoteamentoLeituraDataSource(PRIMARIO, new ReplicasLeitura(List.of(replicas), 1), janela));
+    }
+
+    private static void autenticar(String usuario) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(usuario, null, List.of()));
+    }
+
+    private static DataSource banco(String nome) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static class Roteamento {
+
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate leitura;
+        private final TransactionTemplate escrita;
+
+        Roteamento(DataSource dataSource) {
+            DataSourceTransactionManager transacoes = new DataSourceTransactionManager(dataSource);
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.leitura = new TransactionTemplate(transacoes);
+            this.leitura.setReadOnly(true);
+            this.escrita = new TransactionTemplate(transacoes);
+        }
+
+        String ler() {
+            return leitura.execute(status -> origem());
+        }
+
+        String escrever() {
+            return escrita.execute(status -> origem());
+        }
+
+        String semTransacao() {
+            return origem();
+        }
+
+        private String origem() {
+            return jdbc.queryForObject("select nome from origem", String.class);
+        }
+    }
+
+    // Réplica que pode ser derrubada, religada ou ter o pool esgotado durante o teste, com os
+    // erros que o Hikari lança ao esgotar a espera por conexão
+    private static class ReplicaInstavel extends DelegatingDataSource {
+
+        private volatile boolean foraDoAr;
+        private volatile boolean saturada;
+
+        ReplicaInstavel(DataSource alvo) {
+            super(alvo);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (foraDoAr) {
+                throw new SQLTransientConnectionException("replica-1 - Connection is not available, request timed out",
+                        "08001", new SQLException("Connection refused"));
+            }
+            if (saturada) {
+                throw new SQLTransientConnectionException("replica-1 - Connection is not available, request timed out");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.biblioteca.api.infrastructure.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExportacaoFluxoTest {
+
+    private static final ExportacaoFluxo.LayoutCsv<Item> LAYOUT = new ExportacaoFluxo.LayoutCsv<>(
+            List.of("id", "titulo", "descricao"),
+            item -> new Object[]{item.id(), item.titulo(), item.descricao()});
+
+    private static final List<Item> ITENS = List.of(
+            new Item(1L, "Dom Casmurro", null),
+            new Item(2L, "Memórias, Póstumas", "Narrador \"defunto autor\""),
+            new Item(3L, "Linhas", "primeira\nsegunda\r\nterceira"));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void ndjsonTemUmObjetoPorLinha() throws Exception {
+        String corpo = texto(escrever(exportar("ndjson", null)));
+
+        assertFalse(corpo.startsWith(" "));
+        String[] linhas = corpo.split("\n", -1);
+        // Três objetos e a linha vazia depois da última quebra
+        assertEquals(4, linhas.length);
+        assertEquals("", linhas[3]);
+        for (int i = 0; i < ITENS.size(); i++) {
+            JsonNode objeto = mapper.readTree(linhas[i]);
+            assertEquals(ITENS.get(i).id(), objeto.get("id").asLong());
+            assertEquals(ITENS.get(i).descricao(), objeto.get("descricao").isNull() ? null : objeto.get("descricao").asText());
+        }
+        // Quebras de linha do conteúdo ficam escapadas dentro do JSON
+        assertEquals("{\"id\":3,\"titulo\":\"Linhas\",\"descricao\":\"primeira\\nsegunda\\r\\nterceira\"}", linhas[2]);
+    }
+
+    @Test
+    void csvEscapaSeparadorAspasEQuebras() throws Exception {
+        String corpo = texto(escrever(exportar("CSV", null)));
+
+        assertEquals("id,titulo,descricao\n" +
+                "1,Dom Casmurro,\n" +
+                "2,\"Memórias, Póstumas\",\"Narrador \"\"defunto autor\"\"\"\n" +
+                "3,Linhas,\"primeira\nsegunda\r\nterceira\"\n", corpo);
+    }
+
+    @Test
+    void cabecalhosDaResposta() {
+        ResponseEntity<StreamingResponseBody> resposta = exportar("csv", null);
+
+        HttpHeaders headers = resposta.getHeaders();
+        assertEquals("text/csv;charset=UTF-8", headers.getContentType().toString());
+        assertEquals("attachment; filename=\"livros.csv\"", headers.getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, headers.getFirst(HttpHeaders.VARY));
+        assertNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void gzipFormaUmMembroCompletoSemFecharASaida() throws Exception {
+        byte[] semCompressao = escrever(exportar("ndjson", null));
+        ResponseEntity<StreamingResponseBody> resposta = exportar("ndjson", "br, GZIP;q=0.8");
+        SaidaRegistrada saida = new SaidaRegistrada();
+
+        resposta.getBody().writeTo(saida);
+
+        assertEquals("gzip", resposta.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        // Quem fecha a saída é o container; o trailer do gzip já tem que ter sido escrito
+        assertFalse(saida.fechada);
+        byte[] compactado = saida.toByteArray();
+        assertEquals((byte) 0x1f, compactado[0]);
+        assertEquals((byte) 0x8b, compactado[1]);
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(compactado))) {
+            assertArrayEquals(semCompressao, entrada.readAllBytes());
+        }
+    }
+
+    @Test
+    void formatoDesconhecidoEhRecusado() {
+        assertThrows(IllegalArgumentException.class, () -> exportar("xml", null));
+    }
+
+    @Test
+    void clienteDesconectadoPropagaOErroDeEscrita() {
+        ResponseEntity<StreamingResponseBody> resposta = ExportacaoFluxo.responder("livros", "ndjson", null, mapper,
+                LAYOUT, consumidor -> {
+                    // Mais que o buffer de 64 KB, para forçar a escrita na saída
+                    for (long i = 0; i < 10_000; i++) {
+                        consumidor.accept(new Item(i, "Título " + i, "x".repeat(20)));
+                    }
+                });
+        OutputStream desconectada = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        IOException erro = assertThrows(IOException.class, () -> resposta.getBody().writeTo(desconectada));
+        assertEquals("Broken pipe", erro.getMessage());
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportar(String formato, String acceptEncoding) {
+        Consumer<Consumer<Item>> fonte = ITENS::forEach;
+        return ExportacaoFluxo.responder("livros", formato, acceptEncoding, mapper, LAYOUT, fonte);
+    }
+
+    private static byte[] escrever(ResponseEntity<StreamingResponseBody> resposta) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        resposta.getBody().writeTo(saida);
+        return saida.toByteArray();
+    }
+
+    private static String texto(byte[] corpo) {
+        return new String(corpo, StandardCharsets.UTF_8);
+    }
+
+    record Item(Long id, String titulo, String descricao) {
+    }
+
+    private static class SaidaRegistrada extends ByteArrayOutputStream {
+
+        private boolean fechada;
+
+        @Override
+        public void close() {
+            fechada = true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.biblioteca.api.infrastructure.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FiltroMetricasRequisicaoTest {
+
+    private SimpleMeterRegistry registry;
+    private FiltroMetricasRequisicao filtro;
+
+    @BeforeEach
+    void preparar() {
+        registry = new SimpleMeterRegistry();
+        filtro = new FiltroMetricasRequisicao(registry);
+    }
+
+    @Test
+    void registraPorRotaReaproveitandoOsMedidores() throws Exception {
+        for (long id = 1; id <= 3; id++) {
+            filtro.doFilter(requisicao("/api/livros/" + id, "/api/livros/{id}"), new MockHttpServletResponse(), (req, res) -> {
+                ContadoresRequisicao.registrarConsulta();
+                ContadoresRequisicao.registrarConsulta();
+                ContadoresRequisicao.registrarCarregamento();
+            });
+        }
+
+        DistributionSummary consultas = resumo("biblioteca.hibernate.consultas", "/api/livros/{id}");
+        assertEquals(3, consultas.count());
+        assertEquals(6.0, consultas.totalAmount());
+        assertEquals(3.0, resumo("biblioteca.hibernate.carregamentos", "/api/livros/{id}").totalAmount());
+        assertEquals(1, registry.find("biblioteca.hibernate.consultas").summaries().size());
+    }
+
+    @Test
+    void respostaAssincronaContaOTrabalhoDaOutraThreadERegistraAoConcluir() throws Exception {
+        MockHttpServletRequest request = requisicao("/api/livros/exportar", "/api/livros/exportar");
+        request.setAsyncSupported(true);
+
+        filtro.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            ContadoresRequisicao.registrarConsulta();
+            req.startAsync();
+            // Como o executor do Spring MVC faz com o StreamingResponseBody
+            CompletableFuture.runAsync(() -> continuarEmOutraThread(request)).join();
+        });
+
+        assertNull(registry.find("biblioteca.hibernate.consultas").summary());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        DistributionSummary consultas = resumo("biblioteca.hibernate.consultas", "/api/livros/exportar");
+        assertEquals(1, consultas.count());
+        assertEquals(4.0, consultas.totalAmount());
+    }
+
+    private static void continuarEmOutraThread(MockHttpServletRequest request) {
+        ContadoresAssincronos propagacao = new ContadoresAssincronos();
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        Callable<Void> tarefa = () -> null;
+
+        propagacao.preProcess(webRequest, tarefa);
+        try {
+            ContadoresRequisicao.registrarConsulta();
+            ContadoresRequisicao.registrarConsulta();
+            ContadoresRequisicao.registrarConsulta();
+        } finally {
+            propagacao.postProcess(webRequest, tarefa, null);
+        }
+        // Fora da continuação, a thread do executor não conta mais nada
+        ContadoresRequisicao.registrarConsulta();
+    }
+
+    private DistributionSummary resumo(String nome, String rota) {
+        return registry.get(nome).tag("uri", rota).tag("method", "GET").summary();
+    }
+
+    private static MockHttpServletRequest requisicao(String uri, String rota) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, rota);
+        return request;
+    }
+}
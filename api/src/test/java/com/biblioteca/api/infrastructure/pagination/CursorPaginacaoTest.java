@@ -0,0 +1,94 @@
+package com.biblioteca.api.infrastructure.pagination;
+
+import com.biblioteca.api.domain.dto.PaginaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorPaginacaoTest {
+
+    private record Registro(String titulo, Long id) {
+    }
+
+    @Test
+    void idIdaEVolta() {
+        String cursor = CursorPaginacao.codificar(123456789L);
+
+        assertEquals(123456789L, CursorPaginacao.decodificarId(cursor));
+        // Vai em query string sem escape
+        assertEquals(cursor, cursor.replaceAll("[^A-Za-z0-9_-]", ""));
+    }
+
+    @Test
+    void semCursorComecaDoInicio() {
+        assertEquals(0L, CursorPaginacao.decodificarId(null));
+        assertEquals(0L, CursorPaginacao.decodificarId(" "));
+    }
+
+    @Test
+    void chaveIdaEVoltaComAcentosESeparadorNaChave() {
+        String titulo = "Memórias Póstumas \u001F de Brás Cubas";
+
+        CursorPaginacao.ChaveCursor chave = CursorPaginacao.decodificarChave(CursorPaginacao.codificar(titulo, 42L));
+
+        assertEquals(titulo, chave.chave());
+        assertEquals(42L, chave.id());
+    }
+
+    @Test
+    void empateNaChaveDesempatadoPeloId() {
+        List<Registro> resultados = List.of(
+                new Registro("Dom Casmurro", 7L),
+                new Registro("Dom Casmurro", 9L),
+                new Registro("Dom Casmurro", 12L));
+
+        PaginaDTO<Long> pagina = CursorPaginacao.montarPagina(resultados, 2, Registro::id,
+                registro -> CursorPaginacao.codificar(registro.titulo(), registro.id()));
+
+        assertEquals(List.of(7L, 9L), pagina.getItens());
+        CursorPaginacao.ChaveCursor chave = CursorPaginacao.decodificarChave(pagina.getProximoCursor());
+        assertEquals("Dom Casmurro", chave.chave());
+        assertEquals(9L, chave.id());
+        assertNotEquals(CursorPaginacao.codificar("Dom Casmurro", 7L), pagina.getProximoCursor());
+    }
+
+    @Test
+    void ultimaPaginaSemCursor() {
+        List<Registro> resultados = List.of(new Registro("A", 1L), new Registro("B", 2L));
+
+        PaginaDTO<Long> pagina = CursorPaginacao.montarPagina(resultados, 2, Registro::id,
+                registro -> CursorPaginacao.codificar(registro.id()));
+
+        assertEquals(2, pagina.getTamanho());
+        assertNull(pagina.getProximoCursor());
+    }
+
+    @Test
+    void cursorAdulteradoRecusado() {
+        assertThrows(IllegalArgumentException.class, () -> CursorPaginacao.decodificarId("não é base64!"));
+        assertThrows(IllegalArgumentException.class, () -> CursorPaginacao.decodificarId(base64("12a")));
+        assertThrows(IllegalArgumentException.class, () -> CursorPaginacao.decodificarChave(base64("sem separador")));
+        assertThrows(IllegalArgumentException.class, () -> CursorPaginacao.decodificarChave(base64("titulo\u001Fxyz")));
+        // Cursor de chave usado onde se espera só o id
+        assertThrows(IllegalArgumentException.class,
+                () -> CursorPaginacao.decodificarId(CursorPaginacao.codificar("titulo", 1L)));
+    }
+
+    @Test
+    void tamanhoDaPagina() {
+        assertEquals(CursorPaginacao.TAMANHO_PADRAO, CursorPaginacao.limitarTamanho(null));
+        assertEquals(CursorPaginacao.TAMANHO_MAXIMO, CursorPaginacao.limitarTamanho(10_000));
+        assertThrows(IllegalArgumentException.class, () -> CursorPaginacao.limitarTamanho(0));
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
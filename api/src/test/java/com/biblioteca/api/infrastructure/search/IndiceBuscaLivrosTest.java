@@ -0,0 +1,119 @@
+package com.biblioteca.api.infrastructure.search;
+
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.event.LivroAlteradoEvent;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceBuscaLivrosTest {
+
+    private LivroRepository livroRepository;
+    private IndiceBuscaLivros indice;
+
+    @BeforeEach
+    void preparar() {
+        livroRepository = mock(LivroRepository.class);
+        indice = new IndiceBuscaLivros(livroRepository);
+        indice.indexar(livro(1L, "Memórias Póstumas de Brás Cubas", "Romance narrado por um defunto autor"));
+        indice.indexar(livro(2L, "Dom Casmurro", "Bentinho e Capitu; memórias de um homem ciumento"));
+        indice.indexar(livro(3L, "O Cortiço", "Naturalismo no Rio de Janeiro"));
+    }
+
+    @Test
+    void ignoraAcentosEMaiusculas() {
+        assertEquals(List.of(1L), indice.buscar("MEMORIAS postumas", 10));
+        assertEquals(List.of(3L), indice.buscar("cortico", 10));
+    }
+
+    @Test
+    void buscaPorPrefixoEPorTrechoDePalavra() {
+        assertEquals(List.of(2L), indice.buscar("casm", 10));
+        // Prefixo de duas letras: sem trigrama, vai pela ordem dos termos
+        assertEquals(List.of(2L), indice.buscar("ca", 10));
+        assertEquals(List.of(1L), indice.buscar("stuma", 10));
+    }
+
+    @Test
+    void exigeTodosOsTermos() {
+        assertEquals(List.of(1L), indice.buscar("memorias defunto", 10));
+        assertTrue(indice.buscar("memorias naturalismo", 10).isEmpty());
+        assertTrue(indice.buscar("inexistente", 10).isEmpty());
+    }
+
+    @Test
+    void tituloPesaMaisQueDescricao() {
+        // "memorias" no título do 1 e na descrição do 2
+        assertEquals(List.of(1L, 2L), indice.buscar("memorias", 10));
+        assertEquals(List.of(1L), indice.buscar("memorias", 1));
+    }
+
+    @Test
+    void termoExatoValeMaisQuePrefixoEPrefixoMaisQueTrecho() {
+        indice.indexar(livro(5L, "Memória", null));
+
+        // Exato no 5, prefixo ("memorias") no título do 1 e na descrição do 2
+        assertEquals(List.of(5L, 1L, 2L), indice.buscar("memoria", 10));
+        // Só trechos: empate entre os títulos desempatado pelo id
+        assertEquals(List.of(1L, 5L, 2L), indice.buscar("emoria", 10));
+    }
+
+    @Test
+    void consultaSemTermosNaoTrazResultados() {
+        assertTrue(indice.buscar("o de", 10).isEmpty());
+    }
+
+    @Test
+    void remocaoTiraOLivroETermosOrfaos() {
+        indice.aoAlterarLivro(new LivroAlteradoEvent(3L, null));
+
+        assertTrue(indice.buscar("cortico", 10).isEmpty());
+        assertTrue(indice.buscar("naturalismo", 10).isEmpty());
+        assertEquals(List.of(1L), indice.buscar("postumas", 10));
+    }
+
+    @Test
+    void atualizacaoSubstituiOsTermosAntigos() {
+        indice.aoAlterarLivro(new LivroAlteradoEvent(2L, livro(2L, "Quincas Borba", "Humanitismo")));
+
+        assertTrue(indice.buscar("casmurro", 10).isEmpty());
+        assertEquals(List.of(2L), indice.buscar("quincas", 10));
+        assertEquals(List.of(1L), indice.buscar("memorias", 10));
+    }
+
+    @Test
+    void cargaNaoSobrescreveAlteracoesRecebidasDuranteELa() {
+        IndiceBuscaLivros novo = new IndiceBuscaLivros(livroRepository);
+        when(livroRepository.buscarDTOsAposId(eq(0L), any(Limit.class))).thenAnswer(chamada -> {
+            // Eventos de commits que chegam enquanto a página lida ainda está a caminho
+            novo.indexar(livro(1L, "Esaú e Jacó", null));
+            novo.remover(2L);
+            return List.of(livro(1L, "Memórias Póstumas de Brás Cubas", null), livro(2L, "Dom Casmurro", null),
+                    livro(3L, "O Cortiço", null));
+        });
+
+        assertFalse(novo.isPronto());
+        novo.carregar();
+
+        assertTrue(novo.isPronto());
+        assertEquals(List.of(1L), novo.buscar("esau", 10));
+        assertTrue(novo.buscar("postumas", 10).isEmpty());
+        assertTrue(novo.buscar("casmurro", 10).isEmpty());
+        assertEquals(List.of(3L), novo.buscar("cortico", 10));
+    }
+
+    private static LivroDTO livro(Long id, String titulo, String descricao) {
+        return new LivroDTO(id, titulo, "isbn-" + id, descricao, 1900, 1, 1, 1L, 1L);
+    }
+}
@@ -0,0 +1,210 @@
+package com.biblioteca.api.infrastructure.search;
+
+import com.biblioteca.api.application.service.MapaDisponibilidade;
+import com.biblioteca.api.domain.dto.BuscaFacetadaDTO;
+import com.biblioteca.api.domain.dto.DisponibilidadeLivroDTO;
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.dto.LivroResumoDTO;
+import com.biblioteca.api.domain.event.LivroAlteradoEvent;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import com.biblioteca.api.infrastructure.search.IndiceFacetasLivros.Filtro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceFacetasLivrosTest {
+
+    private LivroRepository livroRepository;
+    private IndiceFacetasLivros indice;
+
+    @BeforeEach
+    void preparar() {
+        livroRepository = mock(LivroRepository.class);
+        indice = new IndiceFacetasLivros(livroRepository);
+        when(livroRepository.buscarDTOsAposId(eq(0L), any(Limit.class))).thenReturn(List.of(
+                livro(1L, 10L, 100L, 1899, 1),
+                livro(2L, 10L, 200L, 1900, 0),
+                livro(3L, 20L, 100L, 1881, 2),
+                livro(4L, 20L, 200L, null, 0),
+                livro(5L, 30L, 100L, 1900, 1)));
+        indice.carregar();
+    }
+
+    @Test
+    void antesDaCargaNaoResponde() {
+        IndiceFacetasLivros vazio = new IndiceFacetasLivros(livroRepository);
+
+        assertFalse(vazio.isPronto());
+        assertFalse(vazio.buscar(filtro(null, null, null, null, null), null, 10).isPresent());
+    }
+
+    @Test
+    void semFiltrosContaOAcervoInteiro() {
+        BuscaFacetadaDTO busca = buscar(filtro(null, null, null, null, null));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(busca));
+        assertEquals(5, busca.getTotal());
+        assertEquals(Map.of(10L, 2, 20L, 2, 30L, 1), busca.getAutores());
+        assertEquals(Map.of(100L, 3, 200L, 2), busca.getCategorias());
+        // Livro sem ano fica fora da faceta de anos
+        assertEquals(Map.of(1881, 1, 1899, 1, 1900, 2), busca.getAnos());
+        assertEquals(3, busca.getDisponiveis());
+        assertEquals(2, busca.getIndisponiveis());
+    }
+
+    @Test
+    void cadaFacetaIgnoraOProprioFiltro() {
+        BuscaFacetadaDTO busca = buscar(filtro(List.of(10L), null, null, null, null));
+
+        assertEquals(List.of(1L, 2L), ids(busca));
+        assertEquals(2, busca.getTotal());
+        // Autores: sem o filtro de autor, então todos aparecem
+        assertEquals(Map.of(10L, 2, 20L, 2, 30L, 1), busca.getAutores());
+        assertEquals(Map.of(100L, 1, 200L, 1), busca.getCategorias());
+        assertEquals(Map.of(1899, 1, 1900, 1), busca.getAnos());
+        assertEquals(1, busca.getDisponiveis());
+        assertEquals(1, busca.getIndisponiveis());
+    }
+
+    @Test
+    void contagensOrdenadasDaMaiorParaAMenorEDepoisPorId() {
+        BuscaFacetadaDTO busca = buscar(filtro(null, null, null, null, null));
+
+        assertEquals(List.of(10L, 20L, 30L), List.copyOf(busca.getAutores().keySet()));
+        assertEquals(List.of(100L, 200L), List.copyOf(busca.getCategorias().keySet()));
+    }
+
+    @Test
+    void filtroDeAutorECategoriaCombinados() {
+        BuscaFacetadaDTO busca = buscar(filtro(List.of(10L, 20L), List.of(100L), null, null, null));
+
+        assertEquals(List.of(1L, 3L), ids(busca));
+        assertEquals(Map.of(10L, 1, 20L, 1, 30L, 1), busca.getAutores());
+        assertEquals(Map.of(100L, 2, 200L, 2), busca.getCategorias());
+        assertEquals(Map.of(1881, 1, 1899, 1), busca.getAnos());
+        assertEquals(2, busca.getDisponiveis());
+        assertEquals(0, busca.getIndisponiveis());
+
+        // Só os livros do autor ou da categoria entram na passada: 3 e 5 não contam em nada
+        BuscaFacetadaDTO restrita = buscar(filtro(List.of(10L), List.of(200L), null, null, null));
+        assertEquals(List.of(2L), ids(restrita));
+        assertEquals(Map.of(10L, 1, 20L, 1), restrita.getAutores());
+        assertEquals(Map.of(100L, 1, 200L, 1), restrita.getCategorias());
+        assertEquals(Map.of(1900, 1), restrita.getAnos());
+    }
+
+    @Test
+    void filtroDeAnoEDisponibilidade() {
+        BuscaFacetadaDTO porAno = buscar(filtro(null, null, 1900, 1900, null));
+        assertEquals(List.of(2L, 5L), ids(porAno));
+        assertEquals(Map.of(1881, 1, 1899, 1, 1900, 2), porAno.getAnos());
+        assertEquals(1, porAno.getDisponiveis());
+        assertEquals(1, porAno.getIndisponiveis());
+
+        BuscaFacetadaDTO disponiveis = buscar(filtro(null, null, null, null, true));
+        assertEquals(List.of(1L, 3L, 5L), ids(disponiveis));
+        assertEquals(3, disponiveis.getDisponiveis());
+        assertEquals(2, disponiveis.getIndisponiveis());
+        assertEquals(Map.of(10L, 1, 20L, 1, 30L, 1), disponiveis.getAutores());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> indice.buscar(filtro(null, null, 1950, 1900, null), null, 10));
+    }
+
+    @Test
+    void idsDesconhecidosNaoTrazemResultados() {
+        BuscaFacetadaDTO busca = buscar(filtro(List.of(99L), null, null, null, null));
+
+        assertTrue(busca.getItens().isEmpty());
+        assertEquals(0, busca.getTotal());
+        assertEquals(Map.of(10L, 2, 20L, 2, 30L, 1), busca.getAutores());
+    }
+
+    @Test
+    void paginaPorCursorEmOrdemDeId() {
+        Filtro todos = filtro(null, null, null, null, null);
+
+        BuscaFacetadaDTO primeira = indice.buscar(todos, null, 2).orElseThrow();
+        assertEquals(List.of(1L, 2L), ids(primeira));
+        assertEquals(5, primeira.getTotal());
+        assertNotNull(primeira.getProximoCursor());
+
+        BuscaFacetadaDTO segunda = indice.buscar(todos, primeira.getProximoCursor(), 2).orElseThrow();
+        assertEquals(List.of(3L, 4L), ids(segunda));
+
+        BuscaFacetadaDTO ultima = indice.buscar(todos, segunda.getProximoCursor(), 2).orElseThrow();
+        assertEquals(List.of(5L), ids(ultima));
+        assertNull(ultima.getProximoCursor());
+    }
+
+    @Test
+    void alteracaoERemocaoDeLivroAtualizamAsFacetas() {
+        indice.aoAlterarLivro(new LivroAlteradoEvent(1L, livro(1L, 30L, 100L, 1899, 1)));
+        indice.aoAlterarLivro(new LivroAlteradoEvent(4L, null));
+
+        BuscaFacetadaDTO busca = buscar(filtro(List.of(30L), null, null, null, null));
+        assertEquals(List.of(1L, 5L), ids(busca));
+        assertEquals(Map.of(10L, 1, 20L, 1, 30L, 2), busca.getAutores());
+        assertEquals(4, buscar(filtro(null, null, null, null, null)).getTotal());
+
+        // A posição liberada é reaproveitada pelo próximo livro
+        indice.indexar(livro(6L, 10L, 200L, 2001, 1));
+        assertEquals(List.of(2L, 6L), ids(buscar(filtro(List.of(10L), null, null, null, null))));
+    }
+
+    @Test
+    void disponibilidadeRepassadaPeloMapaMudaOFiltroEAsContagens() {
+        when(livroRepository.buscarIdsDisponiveisAposId(eq(0L), any(Limit.class))).thenReturn(List.of(1L, 3L, 5L));
+        MapaDisponibilidade mapa = new MapaDisponibilidade(livroRepository, indice, 100);
+        mapa.carregar();
+
+        // Último exemplar do livro 1 emprestado e um exemplar do livro 2 devolvido
+        when(livroRepository.buscarDisponibilidades(anyCollection())).thenReturn(List.of(
+                new DisponibilidadeLivroDTO(1L, 0), new DisponibilidadeLivroDTO(2L, 1)));
+        mapa.verificarAposCommit(1L);
+        mapa.verificarAposCommit(2L);
+        mapa.verificarPendentes();
+
+        BuscaFacetadaDTO disponiveis = buscar(filtro(null, null, null, null, true));
+        assertEquals(List.of(2L, 3L, 5L), ids(disponiveis));
+        assertEquals(3, disponiveis.getDisponiveis());
+        assertEquals(2, disponiveis.getIndisponiveis());
+        assertEquals(Map.of(10L, 1, 20L, 1, 30L, 1), disponiveis.getAutores());
+
+        List<LivroResumoDTO> doAutor = buscar(filtro(List.of(10L), null, null, null, null)).getItens();
+        assertFalse(doAutor.get(0).isDisponivel());
+        assertTrue(doAutor.get(1).isDisponivel());
+    }
+
+    private BuscaFacetadaDTO buscar(Filtro filtro) {
+        return indice.buscar(filtro, null, 10).orElseThrow();
+    }
+
+    private static Filtro filtro(List<Long> autores, List<Long> categorias, Integer anoDe, Integer anoAte,
+                                 Boolean disponivel) {
+        return new Filtro(autores, categorias, anoDe, anoAte, disponivel);
+    }
+
+    private static List<Long> ids(BuscaFacetadaDTO busca) {
+        return busca.getItens().stream().map(LivroResumoDTO::getId).toList();
+    }
+
+    private static LivroDTO livro(Long id, Long autorId, Long categoriaId, Integer ano, int disponiveis) {
+        return new LivroDTO(id, "Livro " + id, "isbn-" + id, null, ano, 2, disponiveis, autorId, categoriaId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.biblioteca.api.infrastructure.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NormalizadorTextoTest {
+
+    @Test
+    void removeAcentosEMaiusculas() {
+        assertEquals("memorias postumas de bras cubas", NormalizadorTexto.normalizar("Memórias Póstumas de Brás Cubas"));
+        assertEquals("acao coracao", NormalizadorTexto.normalizar("AÇÃO Coração"));
+    }
+
+    @Test
+    void formaCompostaEDecompostaGeramOMesmoTermo() {
+        String composta = "Jos\u00e9";
+        String decomposta = "Jose\u0301";
+
+        assertEquals(NormalizadorTexto.termos(composta), NormalizadorTexto.termos(decomposta));
+    }
+
+    @Test
+    void separaPorPontuacaoEDescartaStopwordsELetrasSoltas() {
+        assertEquals(List.of("senhor", "aneis", "sociedade", "anel"),
+                NormalizadorTexto.termos("O Senhor dos Anéis: a Sociedade do Anel"));
+        assertEquals(List.of("c3po", "r2"), NormalizadorTexto.termos("C3PO & R2 - x"));
+    }
+
+    @Test
+    void textoSemTermosUteis() {
+        assertTrue(NormalizadorTexto.termos(null).isEmpty());
+        assertTrue(NormalizadorTexto.termos("   ").isEmpty());
+        assertTrue(NormalizadorTexto.termos("o").isEmpty());
+        assertTrue(NormalizadorTexto.termos("De A, e Os!").isEmpty());
+    }
+
+    @Test
+    void mantemRepeticoesParaAPontuacao() {
+        assertEquals(List.of("tempo", "tempo"), NormalizadorTexto.termos("Tempo, tempo"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.biblioteca.api.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaldeTokensTest {
+
+    // 5 requisições por segundo: um token a cada 200 ms
+    private static final long PERIODO = TimeUnit.SECONDS.toNanos(1);
+    private static final long INTERVALO = PERIODO / 5;
+
+    @Test
+    void rajadaAteACapacidadeDepoisRecusa() {
+        BaldeTokens balde = new BaldeTokens(0);
+
+        for (long restantes = 4; restantes >= 0; restantes--) {
+            BaldeTokens.Consumo consumo = balde.consumir(0, INTERVALO, PERIODO);
+            assertTrue(consumo.permitido());
+            assertEquals(restantes, consumo.restantes());
+            assertEquals((5 - restantes) * INTERVALO, consumo.ateCheio());
+        }
+
+        BaldeTokens.Consumo recusado = balde.consumir(0, INTERVALO, PERIODO);
+        assertFalse(recusado.permitido());
+        assertEquals(0, recusado.restantes());
+        assertEquals(PERIODO, recusado.ateCheio());
+        assertEquals(INTERVALO, recusado.tentarApos());
+    }
+
+    @Test
+    void recusaNaoConsomeEOTempoDeEsperaDiminui() {
+        BaldeTokens balde = esgotado(0);
+
+        assertEquals(INTERVALO, balde.consumir(0, INTERVALO, PERIODO).tentarApos());
+        BaldeTokens.Consumo depois = balde.consumir(INTERVALO / 4, INTERVALO, PERIODO);
+        assertFalse(depois.permitido());
+        assertEquals(INTERVALO - INTERVALO / 4, depois.tentarApos());
+        assertEquals(PERIODO - INTERVALO / 4, depois.ateCheio());
+    }
+
+    @Test
+    void recarregaUmTokenPorIntervalo() {
+        BaldeTokens balde = esgotado(0);
+
+        assertFalse(balde.consumir(INTERVALO - 1, INTERVALO, PERIODO).permitido());
+        BaldeTokens.Consumo recarregado = balde.consumir(INTERVALO, INTERVALO, PERIODO);
+        assertTrue(recarregado.permitido());
+        assertEquals(0, recarregado.restantes());
+        assertFalse(balde.consumir(INTERVALO, INTERVALO, PERIODO).permitido());
+
+        // Dois intervalos depois, dois tokens
+        assertTrue(balde.consumir(3 * INTERVALO, INTERVALO, PERIODO).permitido());
+        assertTrue(balde.consumir(3 * INTERVALO, INTERVALO, PERIODO).permitido());
+        assertFalse(balde.consumir(3 * INTERVALO, INTERVALO, PERIODO).permitido());
+    }
+
+    @Test
+    void ociosidadeNaoAcumulaAlemDaCapacidade() {
+        BaldeTokens balde = esgotado(0);
+
+        long muitoDepois = 10 * PERIODO;
+        BaldeTokens.Consumo primeiro = balde.consumir(muitoDepois, INTERVALO, PERIODO);
+        assertEquals(4, primeiro.restantes());
+        assertEquals(INTERVALO, primeiro.ateCheio());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(balde.consumir(muitoDepois, INTERVALO, PERIODO).permitido());
+        }
+        assertFalse(balde.consumir(muitoDepois, INTERVALO, PERIODO).permitido());
+    }
+
+    @Test
+    void concorrenciaNaoConcedeMaisQueACapacidade() throws Exception {
+        long capacidade = 100;
+        long intervalo = PERIODO / capacidade;
+        BaldeTokens balde = new BaldeTokens(0);
+        int threads = 8;
+        int tentativasPorThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> resultados = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    int permitidas = 0;
+                    for (int i = 0; i < tentativasPorThread; i++) {
+                        if (balde.consumir(0, intervalo, PERIODO).permitido()) {
+                            permitidas++;
+                        }
+                    }
+                    return permitidas;
+                }));
+            }
+            largada.countDown();
+
+            int total = 0;
+            for (Future<Integer> resultado : resultados) {
+                total += resultado.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(capacidade, total);
+            assertFalse(balde.consumir(0, intervalo, PERIODO).permitido());
+            assertTrue(balde.consumir(intervalo, intervalo, PERIODO).permitido());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BaldeTokens esgotado(long agora) {
+        BaldeTokens balde = new BaldeTokens(agora);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(balde.consumir(agora, INTERVALO, PERIODO).permitido());
+        }
+        return balde;
+    }
+}
@@ -0,0 +1,180 @@
+package com.biblioteca.api.infrastructure.security;
+
+import com.biblioteca.api.application.service.AuthenticationService;
+import com.biblioteca.api.infrastructure.exception.CapacidadeEsgotadaException;
+import com.biblioteca.api.infrastructure.exception.GlobalExceptionHandler;
+import com.biblioteca.api.presentation.controller.AuthenticationController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CodificadorSenhasTest {
+
+    private static final String EMAIL = "leitor@biblioteca.com";
+    private static final String SENHA = "senha123";
+
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final ExecutorService clientes = Executors.newFixedThreadPool(2);
+    private final AtomicReference<String> hashGravado = new AtomicReference<>();
+    private CodificadorSenhas codificador;
+
+    @BeforeEach
+    void preparar() {
+        // Uma thread e uma vaga na fila: dois hashes retidos esgotam o limite
+        codificador = new CodificadorSenhas(5, 1, 1, Duration.ofSeconds(7));
+    }
+
+    @AfterEach
+    void limpar() {
+        liberar.countDown();
+        clientes.shutdownNow();
+        codificador.close();
+    }
+
+    @Test
+    void filaCheiaRecusaNaHoraComTentarApos() throws Exception {
+        ocuparCodificador();
+
+        CapacidadeEsgotadaException erro = assertThrows(CapacidadeEsgotadaException.class,
+                () -> codificador.matches(SENHA, hash(5)));
+        assertEquals(Duration.ofSeconds(7), erro.getTentarApos());
+    }
+
+    @Test
+    void loginComFilaCheiaResponde429ComRetryAfter() throws Exception {
+        String hash = hash(5);
+        ProviderManager gerenciador = new ProviderManager(provedor(hash));
+        AuthenticationController controller = new AuthenticationController(
+                new AuthenticationService(gerenciador, null, null), null);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        ocuparCodificador();
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"senha\":\"" + SENHA + "\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "7"));
+    }
+
+    @Test
+    void upgradeEncodingNosDoisSentidos() {
+        assertTrue(codificador.upgradeEncoding(hash(4)), "custo abaixo do configurado");
+        assertTrue(codificador.upgradeEncoding(hash(6)), "custo acima do configurado");
+        assertFalse(codificador.upgradeEncoding(hash(5)));
+        assertFalse(codificador.upgradeEncoding(null));
+        assertFalse(codificador.upgradeEncoding("{noop}senha123"));
+    }
+
+    @Test
+    void loginComCustoAntigoRefazHash() {
+        ProvedorAutenticacaoSenha provedor = provedor(hash(4));
+
+        Authentication autenticado = provedor.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, SENHA));
+
+        assertTrue(autenticado.isAuthenticated());
+        String novo = hashGravado.get();
+        assertTrue(novo.startsWith("$2a$05$"), novo);
+        assertTrue(codificador.matches(SENHA, novo));
+        assertFalse(codificador.upgradeEncoding(novo));
+    }
+
+    @Test
+    void trocaDeHashSemCapacidadeNaoRecusaLogin() throws Exception {
+        ProvedorAutenticacaoSenha provedor = provedor(hash(4));
+        UserDetails usuario = usuario(hash(4));
+        UsernamePasswordAuthenticationToken tentativa = UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, SENHA);
+        ocuparCodificador();
+
+        // Senha já conferida: só o novo hash esbarra no limite
+        Authentication autenticado = provedor.createSuccessAuthentication(usuario, tentativa, usuario);
+
+        assertTrue(autenticado.isAuthenticated());
+        assertEquals(usuario, autenticado.getPrincipal());
+        assertEquals(List.copyOf(usuario.getAuthorities()), List.copyOf(autenticado.getAuthorities()));
+        assertNull(hashGravado.get());
+    }
+
+    private ProvedorAutenticacaoSenha provedor(String hash) {
+        ProvedorAutenticacaoSenha provedor = new ProvedorAutenticacaoSenha();
+        provedor.setUserDetailsService(email -> usuario(hashGravado.get() != null ? hashGravado.get() : hash));
+        provedor.setUserDetailsPasswordService((usuario, novaSenha) -> {
+            hashGravado.set(novaSenha);
+            return usuario(novaSenha);
+        });
+        provedor.setPasswordEncoder(codificador);
+        return provedor;
+    }
+
+    private static UserDetails usuario(String hash) {
+        return User.withUsername(EMAIL).password(hash).roles("USER").build();
+    }
+
+    private static String hash(int custo) {
+        return new BCryptPasswordEncoder(custo).encode(SENHA);
+    }
+
+    // Dois hashes que só terminam quando o teste libera: um na thread, outro na fila
+    private void ocuparCodificador() throws InterruptedException {
+        SenhaRetida retida = new SenhaRetida(liberar);
+        clientes.submit(() -> codificador.encode(retida));
+        clientes.submit(() -> codificador.encode(retida));
+        while (codificador.tamanhoFila() < 1) {
+            Thread.sleep(5);
+        }
+    }
+
+    private record SenhaRetida(CountDownLatch liberar) implements CharSequence {
+
+        @Override
+        public String toString() {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SENHA;
+        }
+
+        @Override
+        public int length() {
+            return SENHA.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return SENHA.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return SENHA.subSequence(start, end);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.biblioteca.api.infrastructure.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FiltroLimiteRequisicoesTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry registry;
+    private FiltroLimiteRequisicoes filtro;
+
+    @BeforeEach
+    void preparar() {
+        registry = new SimpleMeterRegistry();
+        filtro = filtro("GET /api/livros/**=2/1m", "* /api/**=3/1s");
+    }
+
+    @AfterEach
+    void limpar() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rajadaAteACapacidadeComCabecalhos() throws Exception {
+        MockHttpServletResponse primeira = executar("GET", "/api/livros/1", "10.0.0.1");
+        assertEquals(200, primeira.getStatus());
+        assertEquals("2;w=60", primeira.getHeader("RateLimit-Policy"));
+        assertEquals("2", primeira.getHeader("RateLimit-Limit"));
+        assertEquals("1", primeira.getHeader("RateLimit-Remaining"));
+        assertEquals("30", primeira.getHeader("RateLimit-Reset"));
+
+        MockHttpServletResponse segunda = executar("GET", "/api/livros/2", "10.0.0.1");
+        assertEquals(200, segunda.getStatus());
+        assertEquals("0", segunda.getHeader("RateLimit-Remaining"));
+        assertEquals("60", segunda.getHeader("RateLimit-Reset"));
+    }
+
+    @Test
+    void acimaDoLimiteResponde429ComRetryAfter() throws Exception {
+        executar("GET", "/api/livros", "10.0.0.1");
+        executar("GET", "/api/livros", "10.0.0.1");
+
+        MockHttpServletResponse recusada = executar("GET", "/api/livros", "10.0.0.1");
+        assertEquals(429, recusada.getStatus());
+        assertEquals("30", recusada.getHeader("Retry-After"));
+        assertEquals("0", recusada.getHeader("RateLimit-Remaining"));
+        assertEquals("60", recusada.getHeader("RateLimit-Reset"));
+        JsonNode corpo = objectMapper.readTree(recusada.getContentAsByteArray());
+        assertEquals(429, corpo.get("status").asInt());
+        assertEquals(1.0, registry.get("biblioteca.limite.rejeicoes").tag("regra", "GET /api/livros/**").counter().count());
+
+        // Retry-After conta a partir de agora e arredonda para cima
+        avancar(TimeUnit.MILLISECONDS.toNanos(10_500));
+        assertEquals("20", executar("GET", "/api/livros", "10.0.0.1").getHeader("Retry-After"));
+    }
+
+    @Test
+    void retryAfterNuncaEhMenorQueUmSegundo() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, executar("POST", "/api/emprestimos", "10.0.0.1").getStatus());
+        }
+
+        // Um token a cada 333 ms
+        MockHttpServletResponse recusada = executar("POST", "/api/emprestimos", "10.0.0.1");
+        assertEquals(429, recusada.getStatus());
+        assertEquals("1", recusada.getHeader("Retry-After"));
+
+        avancar(TimeUnit.MILLISECONDS.toNanos(300));
+        assertEquals("1", executar("POST", "/api/emprestimos", "10.0.0.1").getHeader("Retry-After"));
+    }
+
+    @Test
+    void recargaLiberaNovasRequisicoes() throws Exception {
+        executar("GET", "/api/livros", "10.0.0.1");
+        executar("GET", "/api/livros", "10.0.0.1");
+        assertEquals(429, executar("GET", "/api/livros", "10.0.0.1").getStatus());
+
+        avancar(TimeUnit.SECONDS.toNanos(30));
+        MockHttpServletResponse recarregada = executar("GET", "/api/livros", "10.0.0.1");
+        assertEquals(200, recarregada.getStatus());
+        assertEquals("0", recarregada.getHeader("RateLimit-Remaining"));
+        assertEquals(429, executar("GET", "/api/livros", "10.0.0.1").getStatus());
+
+        // Depois de um período ocioso o balde está cheio de novo
+        avancar(TimeUnit.MINUTES.toNanos(5));
+        assertEquals("1", executar("GET", "/api/livros", "10.0.0.1").getHeader("RateLimit-Remaining"));
+    }
+
+    @Test
+    void cadaClienteTemSeuBalde() throws Exception {
+        executar("GET", "/api/livros", "10.0.0.1");
+        executar("GET", "/api/livros", "10.0.0.1");
+        assertEquals(429, executar("GET", "/api/livros", "10.0.0.1").getStatus());
+
+        assertEquals(200, executar("GET", "/api/livros", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void usuarioAutenticadoEhOClienteIndependenteDoIp() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("ana", null, List.of()));
+
+        executar("GET", "/api/livros", "10.0.0.1");
+        executar("GET", "/api/livros", "10.0.0.2");
+        assertEquals(429, executar("GET", "/api/livros", "10.0.0.3").getStatus());
+
+        SecurityContextHolder.clearContext();
+        assertEquals(200, executar("GET", "/api/livros", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void valeAPrimeiraRegraQueCasaERotaSemRegraPassaSemLimite() throws Exception {
+        // POST em /api/livros não casa a regra de GET: cai na genérica
+        assertEquals("3", executar("POST", "/api/livros", "10.0.0.1").getHeader("RateLimit-Limit"));
+
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse fora = executar("GET", "/actuator/health", "10.0.0.1");
+            assertEquals(200, fora.getStatus());
+            assertNull(fora.getHeader("RateLimit-Limit"));
+        }
+    }
+
+    @Test
+    void desabilitadoNaoLimita() throws Exception {
+        filtro = new FiltroLimiteRequisicoes(false, List.of("* /api/**=1/1m"), 100, registry, objectMapper, relogio::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(executar("GET", "/api/livros", "10.0.0.1").getHeader("RateLimit-Limit"));
+        }
+    }
+
+    @Test
+    void regraInvalidaFalhaNaPartida() {
+        assertThrows(IllegalArgumentException.class, () -> filtro("/api/**=10/1m"));
+        assertThrows(IllegalArgumentException.class, () -> filtro("GET /api/**=0/1m"));
+        assertThrows(IllegalArgumentException.class, () -> filtro("GET /api/**=10"));
+    }
+
+    private FiltroLimiteRequisicoes filtro(String... regras) {
+        return new FiltroLimiteRequisicoes(true, List.of(regras), 100, registry, objectMapper, relogio::get);
+    }
+
+    private void avancar(long nanos) {
+        relogio.addAndGet(nanos);
+    }
+
+    private MockHttpServletResponse executar(String metodo, String uri, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filtro.doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest());
+        } else {
+            assertNull(chain.getRequest());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,92 @@
+package com.biblioteca.api.infrastructure.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JwtAuthenticationCacheTest {
+
+    private static final long INICIO = Instant.parse("2025-03-01T12:00:00Z").toEpochMilli();
+
+    private final AtomicLong relogio = new AtomicLong(INICIO);
+    private JwtAuthenticationCache cache;
+
+    @BeforeEach
+    void preparar() {
+        cache = new JwtAuthenticationCache(100, relogio::get);
+    }
+
+    @Test
+    void acertoAteAExpiracaoDoProprioToken() {
+        JwtAuthenticationCache.PrincipalVerificado principal = principal("ana@biblioteca.com", 60);
+        cache.armazenar("token-ana", principal);
+
+        assertSame(principal, cache.obter("token-ana"));
+        avancar(59);
+        assertSame(principal, cache.obter("token-ana"));
+        avancar(1);
+        assertNull(cache.obter("token-ana"));
+    }
+
+    @Test
+    void cadaEntradaSaiDoCacheNoExpDoSeuToken() {
+        cache.armazenar("token-curto", principal("ana@biblioteca.com", 30));
+        cache.armazenar("token-longo", principal("ana@biblioteca.com", 120));
+        assertEquals(2, cache.tamanho());
+
+        avancar(31);
+        assertEquals(1, cache.tamanho());
+        assertNull(cache.obter("token-curto"));
+        assertEquals("ana@biblioteca.com", cache.obter("token-longo").username());
+
+        avancar(90);
+        assertEquals(0, cache.tamanho());
+    }
+
+    @Test
+    void tokenJaExpiradoNaoFicaNoCache() {
+        cache.armazenar("token-vencido", principal("ana@biblioteca.com", -5));
+
+        assertNull(cache.obter("token-vencido"));
+        assertEquals(0, cache.tamanho());
+    }
+
+    @Test
+    void tokenDiferenteNaoAproveitaEntradaDeOutro() {
+        cache.armazenar("token-ana", principal("ana@biblioteca.com", 60));
+
+        assertNull(cache.obter("token-ana-adulterado"));
+    }
+
+    @Test
+    void invalidarUsuarioRemoveSoOsTokensDele() {
+        cache.armazenar("token-ana-1", principal("ana@biblioteca.com", 60));
+        cache.armazenar("token-ana-2", principal("ana@biblioteca.com", 60));
+        cache.armazenar("token-bruno", principal("bruno@biblioteca.com", 60));
+
+        cache.invalidarUsuario("ana@biblioteca.com");
+
+        assertNull(cache.obter("token-ana-1"));
+        assertNull(cache.obter("token-ana-2"));
+        assertEquals("bruno@biblioteca.com", cache.obter("token-bruno").username());
+        assertEquals(1, cache.tamanho());
+    }
+
+    private JwtAuthenticationCache.PrincipalVerificado principal(String username, long segundosRestantes) {
+        return new JwtAuthenticationCache.PrincipalVerificado(username, List.of(new SimpleGrantedAuthority("ROLE_USER")),
+                Instant.ofEpochMilli(relogio.get() + TimeUnit.SECONDS.toMillis(segundosRestantes)));
+    }
+
+    private void avancar(long segundos) {
+        relogio.addAndGet(TimeUnit.SECONDS.toMillis(segundos));
+    }
+}
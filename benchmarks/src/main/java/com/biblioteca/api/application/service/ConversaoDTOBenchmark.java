@@ -0,0 +1,92 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.benchmark.Dados;
+import com.biblioteca.api.domain.dto.AutorDTO;
+import com.biblioteca.api.domain.dto.CategoriaDTO;
+import com.biblioteca.api.domain.dto.EmprestimoDTO;
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.dto.UsuarioDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.entity.Emprestimo;
+import com.biblioteca.api.domain.entity.Livro;
+import com.biblioteca.api.domain.entity.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeamento entidade -> DTO dos serviços. Fica no pacote dos serviços para chamar os
+ * converterParaDTO (visíveis no pacote); as dependências dos serviços não são usadas no
+ * mapeamento e ficam nulas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoDTOBenchmark {
+
+    private AutorService autorService;
+    private CategoriaService categoriaService;
+    private LivroService livroService;
+    private UsuarioService usuarioService;
+    private EmprestimoService emprestimoService;
+
+    private Autor autor;
+    private Categoria categoria;
+    private Livro livro;
+    private Usuario usuario;
+    private Emprestimo emprestimo;
+
+    @Setup
+    public void preparar() {
+        autorService = new AutorService(null);
+        categoriaService = new CategoriaService(null);
+        livroService = new LivroService(null, null, null, null, null, null, null, null);
+        usuarioService = new UsuarioService(null, null, null, null);
+        emprestimoService = new EmprestimoService(null, null, null, null, null, null, null, null, null, new ConcurrentMapCacheManager());
+
+        autor = Dados.autor();
+        categoria = Dados.categoria();
+        livro = Dados.livro(1L);
+        usuario = Dados.usuario("x");
+        emprestimo = Dados.emprestimo();
+    }
+
+    @Benchmark
+    public AutorDTO autor() {
+        return autorService.converterParaDTO(autor);
+    }
+
+    @Benchmark
+    public CategoriaDTO categoria() {
+        return categoriaService.converterParaDTO(categoria);
+    }
+
+    @Benchmark
+    public LivroDTO livro() {
+        return livroService.converterParaDTO(livro);
+    }
+
+    @Benchmark
+    public UsuarioDTO usuario() {
+        return usuarioService.converterParaDTO(usuario);
+    }
+
+    @Benchmark
+    public EmprestimoDTO emprestimo() {
+        return emprestimoService.converterParaDTO(emprestimo);
+    }
+}
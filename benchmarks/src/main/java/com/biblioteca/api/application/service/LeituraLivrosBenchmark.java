@@ -0,0 +1,150 @@
+package com.biblioteca.api.application.service;
+
+import com.biblioteca.api.benchmark.Dados;
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.entity.Livro;
+import com.biblioteca.api.domain.repository.LivroRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Primeira página de livros pelos dois caminhos de leitura: entidades carregadas numa transação
+ * somente leitura (como no @Transactional(readOnly = true) dos serviços) e convertidas com
+ * converterParaDTO, contra a projeção JPQL da API direto no LivroDTO. Hibernate e H2 em
+ * memória, com as entidades da API; rode com -prof gc para comparar a alocação por página.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeituraLivrosBenchmark {
+
+    private static final int LIVROS = 2_000;
+    private static final String ENTIDADES = "select l from Livro l order by l.titulo, l.id";
+    private static final String PROJECAO = LivroRepository.PROJECAO_DTO + "order by l.titulo, l.id";
+
+    @Param({"50", "500"})
+    private int tamanho;
+
+    private LocalContainerEntityManagerFactoryBean fabrica;
+    private EntityManagerFactory emf;
+    private LivroService livroService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:leitura;DB_CLOSE_DELAY=-1");
+
+        fabrica = new LocalContainerEntityManagerFactoryBean();
+        fabrica.setDataSource(dataSource);
+        fabrica.setPackagesToScan("com.biblioteca.api.domain.entity");
+        fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        fabrica.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.cache.use_second_level_cache", "false"));
+        fabrica.afterPropertiesSet();
+        emf = fabrica.getObject();
+        livroService = new LivroService(null, null, null, null, null, null, null, null);
+
+        popular();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        fabrica.destroy();
+    }
+
+    @Benchmark
+    public List<LivroDTO> entidades() {
+        return ler(em -> em.createQuery(ENTIDADES, Livro.class)
+                .setMaxResults(tamanho)
+                .getResultList()
+                .stream()
+                .map(livroService::converterParaDTO)
+                .toList());
+    }
+
+    @Benchmark
+    public List<LivroDTO> projecao() {
+        return ler(em -> em.createQuery(PROJECAO, LivroDTO.class)
+                .setMaxResults(tamanho)
+                .getResultList());
+    }
+
+    // O que o JpaTransactionManager faz com readOnly = true: sessão somente leitura, sem flush
+    private List<LivroDTO> ler(Function<EntityManager, List<LivroDTO>> consulta) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Session sessao = em.unwrap(Session.class);
+            sessao.setDefaultReadOnly(true);
+            sessao.setHibernateFlushMode(FlushMode.MANUAL);
+            em.getTransaction().begin();
+            List<LivroDTO> livros = consulta.apply(em);
+            em.getTransaction().commit();
+            return livros;
+        } finally {
+            em.close();
+        }
+    }
+
+    private void popular() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Autor> autores = new ArrayList<>();
+            List<Categoria> categorias = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Autor autor = Dados.autor();
+                autor.setId(null);
+                em.persist(autor);
+                autores.add(autor);
+
+                Categoria categoria = Dados.categoria();
+                categoria.setId(null);
+                categoria.setNome(categoria.getNome() + " " + i);
+                em.persist(categoria);
+                categorias.add(categoria);
+            }
+            for (int i = 1; i <= LIVROS; i++) {
+                Livro livro = Dados.livro(i);
+                livro.setId(null);
+                livro.setAutor(autores.get(i % autores.size()));
+                livro.setCategoria(categorias.get(i % categorias.size()));
+                em.persist(livro);
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
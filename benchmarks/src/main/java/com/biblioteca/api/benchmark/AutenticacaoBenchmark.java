@@ -0,0 +1,87 @@
+package com.biblioteca.api.benchmark;
+
+import com.biblioteca.api.application.service.AuthenticationService;
+import com.biblioteca.api.domain.dto.LoginDTO;
+import com.biblioteca.api.domain.dto.TokenDTO;
+import com.biblioteca.api.domain.entity.Usuario;
+import com.biblioteca.api.domain.repository.UsuarioRepository;
+import com.biblioteca.api.infrastructure.security.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do login: quase todo ele é a verificação BCrypt, que dobra a cada ponto de força.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutenticacaoBenchmark {
+
+    private static final String SENHA = "senha-de-teste-123";
+
+    // 10 é a força padrão do BCryptPasswordEncoder usado pela API
+    @Param({"10", "12"})
+    private int forcaBcrypt;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String senhaCodificada;
+    private AuthenticationService authenticationService;
+    private LoginDTO login;
+
+    @Setup
+    public void preparar() {
+        passwordEncoder = new BCryptPasswordEncoder(forcaBcrypt);
+        senhaCodificada = passwordEncoder.encode(SENHA);
+        Usuario usuario = Dados.usuario(senhaCodificada);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(username -> usuario);
+        provider.setPasswordEncoder(passwordEncoder);
+
+        authenticationService = new AuthenticationService(new ProviderManager(provider),
+                new JwtService(Dados.SEGREDO_JWT, Dados.EXPIRACAO_JWT), repositorioCom(usuario));
+        login = new LoginDTO(usuario.getEmail(), SENHA);
+    }
+
+    @Benchmark
+    public TokenDTO authenticate() {
+        return authenticationService.authenticate(login);
+    }
+
+    @Benchmark
+    public boolean verificarSenha() {
+        return passwordEncoder.matches(SENHA, senhaCodificada);
+    }
+
+    // O login só usa findByEmail: o repositório é substituído por um proxy, sem banco
+    private static UsuarioRepository repositorioCom(Usuario usuario) {
+        return (UsuarioRepository) Proxy.newProxyInstance(
+                UsuarioRepository.class.getClassLoader(),
+                new Class<?>[]{UsuarioRepository.class},
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("findByEmail")) {
+                        return Optional.of(usuario);
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+}
@@ -0,0 +1,88 @@
+package com.biblioteca.api.benchmark;
+
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.biblioteca.api.domain.entity.Autor;
+import com.biblioteca.api.domain.entity.Categoria;
+import com.biblioteca.api.domain.entity.Emprestimo;
+import com.biblioteca.api.domain.entity.Livro;
+import com.biblioteca.api.domain.entity.Usuario;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Massa de dados dos benchmarks, com tamanhos de texto parecidos com os do catálogo real.
+ */
+public final class Dados {
+
+    public static final String SEGREDO_JWT = "mySecretKeyThatIsLongEnoughForHS256AlgorithmRequirement";
+    public static final long EXPIRACAO_JWT = 86400000L;
+
+    private Dados() {
+    }
+
+    public static Usuario usuario(String senhaCodificada) {
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setNome("Maria da Silva");
+        usuario.setEmail("maria.silva@biblioteca.com");
+        usuario.setSenha(senhaCodificada);
+        usuario.setFuncao("USUARIO");
+        usuario.setDataCriacao(LocalDateTime.now());
+        usuario.setDataAtualizacao(LocalDateTime.now());
+        return usuario;
+    }
+
+    public static Autor autor() {
+        Autor autor = new Autor();
+        autor.setId(1L);
+        autor.setNome("Machado de Assis");
+        autor.setBiografia("Escritor brasileiro, fundador da Academia Brasileira de Letras.");
+        return autor;
+    }
+
+    public static Categoria categoria() {
+        Categoria categoria = new Categoria();
+        categoria.setId(1L);
+        categoria.setNome("Romance");
+        categoria.setDescricao("Obras de ficção em prosa");
+        return categoria;
+    }
+
+    public static Livro livro(long id) {
+        Livro livro = new Livro();
+        livro.setId(id);
+        livro.setTitulo("Dom Casmurro - edição " + id);
+        livro.setIsbn(String.format("978-85-%08d", id));
+        livro.setDescricao("Romance narrado por Bento Santiago, que relembra a juventude e o ciúme de Capitu.");
+        livro.setAnoPublicacao(1899);
+        livro.setQuantidadeTotal(5);
+        livro.setQuantidadeDisponivel(3);
+        livro.setAutor(autor());
+        livro.setCategoria(categoria());
+        return livro;
+    }
+
+    public static Emprestimo emprestimo() {
+        Emprestimo emprestimo = new Emprestimo();
+        emprestimo.setId(1L);
+        emprestimo.setDataEmprestimo(LocalDate.now());
+        emprestimo.setDataDevolucaoPrevista(LocalDate.now().plusDays(14));
+        emprestimo.setStatus("ATIVO");
+        emprestimo.setUsuario(usuario("x"));
+        emprestimo.setLivro(livro(1L));
+        return emprestimo;
+    }
+
+    public static List<LivroDTO> livrosDTO(int quantidade) {
+        List<LivroDTO> livros = new ArrayList<>(quantidade);
+        for (long id = 1; id <= quantidade; id++) {
+            Livro livro = livro(id);
+            livros.add(new LivroDTO(livro.getId(), livro.getTitulo(), livro.getIsbn(), livro.getDescricao(),
+                    livro.getAnoPublicacao(), livro.getQuantidadeTotal(), livro.getQuantidadeDisponivel(), 1L, 1L));
+        }
+        return livros;
+    }
+}
@@ -0,0 +1,47 @@
+package com.biblioteca.api.benchmark;
+
+import com.biblioteca.api.domain.dto.LivroDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SerializacaoLivrosBenchmark {
+
+    @Param({"1000", "100000"})
+    private int quantidade;
+
+    private ObjectMapper objectMapper;
+    private List<LivroDTO> livros;
+
+    @Setup
+    public void preparar() {
+        // Mesma configuração base do ObjectMapper que o Spring Boot usa nas respostas
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        livros = Dados.livrosDTO(quantidade);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(livros);
+    }
+}
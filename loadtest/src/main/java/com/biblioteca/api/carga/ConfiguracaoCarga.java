@@ -0,0 +1,102 @@
+package com.biblioteca.api.carga;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opções do teste de carga, lidas de argumentos no formato {@code --chave=valor}.
+ */
+public class ConfiguracaoCarga {
+
+    public static final String MODO_PLATAFORMA = "plataforma";
+    public static final String MODO_VIRTUAL = "virtual";
+
+    private final Map<String, String> opcoes = new HashMap<>();
+
+    public ConfiguracaoCarga(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use --chave=valor)");
+            }
+            int igual = arg.indexOf('=');
+            if (igual < 0) {
+                opcoes.put(arg.substring(2), "true");
+            } else {
+                opcoes.put(arg.substring(2, igual), arg.substring(igual + 1));
+            }
+        }
+    }
+
+    // API já em execução; quando ausente, a API é iniciada neste processo
+    public String urlApi() {
+        return opcoes.get("url");
+    }
+
+    // Postgres local; quando ausente, usa um Postgres embutido descartável
+    public String urlBanco() {
+        return opcoes.get("db-url");
+    }
+
+    public String usuarioBanco() {
+        return opcoes.getOrDefault("db-usuario", "postgres");
+    }
+
+    public String senhaBanco() {
+        return opcoes.getOrDefault("db-senha", "postgres");
+    }
+
+    public boolean gerarDados() {
+        return !opcoes.containsKey("sem-dados");
+    }
+
+    public VolumeDados volume() {
+        return new VolumeDados(
+                inteiro("autores", 10_000),
+                inteiro("categorias", 100),
+                inteiro("livros", 100_000),
+                inteiro("usuarios", 10_000),
+                inteiro("emprestimos", 1_000_000)
+        );
+    }
+
+    // Modos de execução da API a medir, em sequência: plataforma, virtual ou os dois
+    public List<String> modos() {
+        List<String> modos = List.of(opcoes.getOrDefault("modos", MODO_PLATAFORMA).split(","));
+        for (String modo : modos) {
+            if (!modo.equals(MODO_PLATAFORMA) && !modo.equals(MODO_VIRTUAL)) {
+                throw new IllegalArgumentException("Modo inválido: " + modo + " (use plataforma e/ou virtual)");
+            }
+        }
+        return modos;
+    }
+
+    public double taxaPorSegundo() {
+        return Double.parseDouble(opcoes.getOrDefault("taxa", "200"));
+    }
+
+    public Duration aquecimento() {
+        return Duration.ofSeconds(inteiro("aquecimento-s", 20));
+    }
+
+    public Duration duracao() {
+        return Duration.ofSeconds(inteiro("duracao-s", 120));
+    }
+
+    public int maximoEmVoo() {
+        return (int) inteiro("max-em-voo", 5_000);
+    }
+
+    public String arquivoRelatorio() {
+        return opcoes.getOrDefault("relatorio", "target/relatorio-carga.json");
+    }
+
+    private long inteiro(String chave, long padrao) {
+        String valor = opcoes.get(chave);
+        return valor == null ? padrao : Long.parseLong(valor.replace("_", ""));
+    }
+
+    public record VolumeDados(long autores, long categorias, long livros, long usuarios, long emprestimos) {
+    }
+}
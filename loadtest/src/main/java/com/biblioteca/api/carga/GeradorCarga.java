@@ -0,0 +1,149 @@
+package com.biblioteca.api.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Dispara requisições numa taxa de chegada fixa (modelo aberto), independente de quanto a
+ * API demora para responder.
+ *
+ * A latência é medida a partir do instante em que a requisição deveria ter saído, não de
+ * quando saiu de fato: se o gerador atrasar porque a API está lenta, esse atraso entra na
+ * medida (sem omissão coordenada). Requisições acima do limite em voo são descartadas e
+ * contadas, o que indica que a taxa pedida está acima da capacidade.
+ */
+public class GeradorCarga {
+
+    private static final long LATENCIA_MAXIMA_NS = TimeUnit.MINUTES.toNanos(2);
+
+    private final HttpClient cliente;
+    private final int maximoEmVoo;
+
+    public GeradorCarga(HttpClient cliente, int maximoEmVoo) {
+        this.cliente = cliente;
+        this.maximoEmVoo = maximoEmVoo;
+    }
+
+    public Map<String, Medicao> executar(List<Cenario> cenarios, double taxaPorSegundo,
+                                         Duration aquecimento, Duration duracao) throws InterruptedException {
+        Map<String, Medicao> medicoes = new LinkedHashMap<>();
+        int[] pesosAcumulados = new int[cenarios.size()];
+        int pesoTotal = 0;
+        for (int i = 0; i < cenarios.size(); i++) {
+            pesoTotal += cenarios.get(i).peso();
+            pesosAcumulados[i] = pesoTotal;
+            medicoes.put(cenarios.get(i).nome(), new Medicao());
+        }
+
+        AtomicInteger emVoo = new AtomicInteger();
+        long intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / taxaPorSegundo);
+        long inicio = System.nanoTime();
+        long inicioMedicao = inicio + aquecimento.toNanos();
+        long fim = inicioMedicao + duracao.toNanos();
+
+        for (long n = 0; ; n++) {
+            long previsto = inicio + n * intervalo;
+            if (previsto >= fim) {
+                break;
+            }
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            Cenario cenario = sortear(cenarios, pesosAcumulados, pesoTotal);
+            Medicao medicao = previsto >= inicioMedicao ? medicoes.get(cenario.nome()) : null;
+            HttpRequest requisicao = cenario.requisicao().get();
+            if (requisicao == null) {
+                continue;
+            }
+            if (emVoo.incrementAndGet() > maximoEmVoo) {
+                emVoo.decrementAndGet();
+                if (medicao != null) {
+                    medicao.descartadas.incrementAndGet();
+                }
+                continue;
+            }
+
+            cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.ofString()).whenComplete((resposta, erro) -> {
+                emVoo.decrementAndGet();
+                if (medicao != null) {
+                    medicao.registrar(System.nanoTime() - previsto, erro == null && resposta.statusCode() < 400);
+                }
+                if (resposta != null && cenario.aoResponder() != null) {
+                    cenario.aoResponder().accept(resposta);
+                }
+            });
+        }
+
+        // Aguarda as respostas pendentes antes de fechar as medições
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (emVoo.get() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(50);
+        }
+        return medicoes;
+    }
+
+    private static Cenario sortear(List<Cenario> cenarios, int[] pesosAcumulados, int pesoTotal) {
+        int sorteio = ThreadLocalRandom.current().nextInt(pesoTotal);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (sorteio < pesosAcumulados[i]) {
+                return cenarios.get(i);
+            }
+        }
+        return cenarios.get(cenarios.size() - 1);
+    }
+
+    /**
+     * Um tipo de requisição do mix. Quando {@code requisicao} devolve null a vez é pulada
+     * (por exemplo, devolução sem nenhum empréstimo criado ainda).
+     */
+    public record Cenario(String nome, int peso, Supplier<HttpRequest> requisicao,
+                          Consumer<HttpResponse<String>> aoResponder) {
+
+        public Cenario(String nome, int peso, Supplier<HttpRequest> requisicao) {
+            this(nome, peso, requisicao, null);
+        }
+    }
+
+    public static class Medicao {
+
+        private final Histogram latencias = new ConcurrentHistogram(LATENCIA_MAXIMA_NS, 3);
+        private final AtomicLong erros = new AtomicLong();
+        private final AtomicLong descartadas = new AtomicLong();
+
+        void registrar(long latenciaNs, boolean sucesso) {
+            latencias.recordValue(Math.min(latenciaNs, LATENCIA_MAXIMA_NS));
+            if (!sucesso) {
+                erros.incrementAndGet();
+            }
+        }
+
+        public Histogram latencias() {
+            return latencias;
+        }
+
+        public long erros() {
+            return erros.get();
+        }
+
+        public long descartadas() {
+            return descartadas.get();
+        }
+    }
+}
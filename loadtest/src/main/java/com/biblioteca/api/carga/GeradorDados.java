@@ -0,0 +1,215 @@
+package com.biblioteca.api.carga;
+
+import com.biblioteca.api.carga.ConfiguracaoCarga.VolumeDados;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * Gera a massa sintética do teste de carga direto no Postgres via COPY.
+ *
+ * As linhas são produzidas em memória e enviadas em blocos pelo protocolo de COPY, sem
+ * arquivos intermediários nem INSERTs. O gerador usa semente fixa, então o mesmo volume
+ * gera sempre os mesmos dados. Todos os usuários têm a senha {@link #SENHA_PADRAO}.
+ */
+public class GeradorDados {
+
+    public static final String SENHA_PADRAO = "senha123";
+
+    private static final int TAMANHO_BLOCO = 1 << 16;
+    private static final String[] PALAVRAS = {
+            "memórias", "sertão", "cidade", "mar", "noite", "história", "tempo", "amor", "guerra", "caminho",
+            "segredo", "jardim", "rio", "montanha", "sombra", "luz", "viagem", "casa", "estrela", "silêncio",
+            "dom", "casmurro", "alquimista", "vidas", "secas", "capitães", "areia", "hora", "grande", "pequeno"
+    };
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final SplittableRandom aleatorio = new SplittableRandom(42);
+    private final String agora = LocalDateTime.now().format(DATA_HORA);
+    private final LocalDate hoje = LocalDate.now();
+
+    /**
+     * Aplica as migrations da API (exceto os dados de exemplo da V2) num banco vazio.
+     */
+    public void criarEsquema(Connection conexao) throws IOException, SQLException {
+        Resource[] migrations = new PathMatchingResourcePatternResolver().getResources("classpath*:db/migration/V*.sql");
+        Arrays.sort(migrations, Comparator.comparingInt(GeradorDados::versao));
+        try (Statement statement = conexao.createStatement()) {
+            for (Resource migration : migrations) {
+                if (versao(migration) == 2) {
+                    continue;
+                }
+                statement.execute(migration.getContentAsString(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    public void carregar(Connection conexao, VolumeDados volume) throws SQLException {
+        CopyManager copy = conexao.unwrap(PGConnection.class).getCopyAPI();
+        String senha = new BCryptPasswordEncoder().encode(SENHA_PADRAO);
+
+        cronometrar("autores", volume.autores(), () -> copiar(copy,
+                "COPY autores (id, nome, biografia, data_criacao, data_atualizacao) FROM STDIN",
+                volume.autores(), (id, linha) -> linha
+                        .append(id).append('\t')
+                        .append("Autor ").append(id).append('\t')
+                        .append("Biografia do autor ").append(id).append('\t')
+                        .append(agora).append('\t').append(agora)));
+
+        cronometrar("categorias", volume.categorias(), () -> copiar(copy,
+                "COPY categorias (id, nome, descricao, data_criacao, data_atualizacao) FROM STDIN",
+                volume.categorias(), (id, linha) -> linha
+                        .append(id).append('\t')
+                        .append("Categoria ").append(id).append('\t')
+                        .append("Descrição da categoria ").append(id).append('\t')
+                        .append(agora).append('\t').append(agora)));
+
+        int[] totais = new int[(int) volume.livros() + 1];
+        cronometrar("livros", volume.livros(), () -> copiar(copy,
+                "COPY livros (id, titulo, isbn, descricao, ano_publicacao, quantidade_total, quantidade_disponivel, " +
+                        "autor_id, categoria_id, data_criacao, data_atualizacao) FROM STDIN",
+                volume.livros(), (id, linha) -> {
+                    int total = 1 + aleatorio.nextInt(10);
+                    totais[(int) id] = total;
+                    linha.append(id).append('\t')
+                            .append(palavra()).append(' ').append(palavra()).append(' ').append(palavra()).append('\t')
+                            .append(String.format("978-%010d", id)).append('\t')
+                            .append("Uma ").append(palavra()).append(" sobre ").append(palavra()).append(" e ")
+                            .append(palavra()).append('\t')
+                            .append(1850 + aleatorio.nextInt(175)).append('\t')
+                            .append(total).append('\t').append(total).append('\t')
+                            .append(1 + aleatorio.nextLong(volume.autores())).append('\t')
+                            .append(1 + aleatorio.nextLong(volume.categorias())).append('\t')
+                            .append(agora).append('\t').append(agora);
+                }));
+
+        cronometrar("usuarios", volume.usuarios(), () -> copiar(copy,
+                "COPY usuarios (id, nome, email, senha, funcao, data_criacao, data_atualizacao) FROM STDIN",
+                volume.usuarios(), (id, linha) -> linha
+                        .append(id).append('\t')
+                        .append("Usuário ").append(id).append('\t')
+                        .append(email(id)).append('\t')
+                        .append(senha).append('\t')
+                        .append(id == 1 ? "ADMIN" : "USUARIO").append('\t')
+                        .append(agora).append('\t').append(agora)));
+
+        // Empréstimos em aberto nunca passam da quantidade total do livro
+        int[] abertos = new int[totais.length];
+        cronometrar("emprestimos", volume.emprestimos(), () -> copiar(copy,
+                "COPY emprestimos (id, data_emprestimo, data_devolucao_prevista, data_devolucao_real, status, " +
+                        "usuario_id, livro_id, data_criacao, data_atualizacao) FROM STDIN",
+                volume.emprestimos(), (id, linha) -> {
+                    int livroId = 1 + aleatorio.nextInt(totais.length - 1);
+                    boolean aberto = aleatorio.nextInt(100) < 10 && abertos[livroId] < totais[livroId];
+                    LocalDate emprestimo = aberto
+                            ? hoje.minusDays(aleatorio.nextInt(30))
+                            : hoje.minusDays(30 + aleatorio.nextInt(700));
+                    LocalDate prevista = emprestimo.plusDays(14);
+                    String status;
+                    String devolucao;
+                    if (aberto) {
+                        abertos[livroId]++;
+                        status = prevista.isBefore(hoje) ? "ATRASADO" : "ATIVO";
+                        devolucao = "\\N";
+                    } else {
+                        status = "DEVOLVIDO";
+                        devolucao = emprestimo.plusDays(1 + aleatorio.nextInt(20)).toString();
+                    }
+                    linha.append(id).append('\t')
+                            .append(emprestimo).append('\t')
+                            .append(prevista).append('\t')
+                            .append(devolucao).append('\t')
+                            .append(status).append('\t')
+                            .append(1 + aleatorio.nextLong(volume.usuarios())).append('\t')
+                            .append(livroId).append('\t')
+                            .append(agora).append('\t').append(agora);
+                }));
+
+        try (Statement statement = conexao.createStatement()) {
+            statement.executeUpdate("UPDATE livros l SET quantidade_disponivel = l.quantidade_total - a.abertos " +
+                    "FROM (SELECT livro_id, count(*) AS abertos FROM emprestimos WHERE status <> 'DEVOLVIDO' " +
+                    "GROUP BY livro_id) a WHERE l.id = a.livro_id");
+            // Os contadores por usuário são mantidos pela API; aqui partem do histórico gerado
+            statement.executeUpdate("INSERT INTO resumo_emprestimos_usuario (usuario_id, ativos, atrasados, total, " +
+                    "data_atualizacao) SELECT usuario_id, count(*) FILTER (WHERE status = 'ATIVO'), " +
+                    "count(*) FILTER (WHERE status = 'ATRASADO'), count(*), now() FROM emprestimos " +
+                    "GROUP BY usuario_id ON CONFLICT (usuario_id) DO NOTHING");
+            for (String tabela : new String[]{"autores", "categorias", "livros", "usuarios", "emprestimos"}) {
+                statement.execute("SELECT setval('" + tabela + "_id_seq', (SELECT coalesce(max(id), 1) FROM " + tabela + "))");
+            }
+            statement.execute("ANALYZE");
+        }
+    }
+
+    public static String email(long usuarioId) {
+        return "usuario" + usuarioId + "@carga.biblioteca";
+    }
+
+    private String palavra() {
+        return PALAVRAS[aleatorio.nextInt(PALAVRAS.length)];
+    }
+
+    private static void copiar(CopyManager copy, String sql, long quantidade, GeradorLinha gerador)
+            throws SQLException {
+        CopyIn copyIn = copy.copyIn(sql);
+        try {
+            StringBuilder bloco = new StringBuilder(TAMANHO_BLOCO + 1024);
+            for (long id = 1; id <= quantidade; id++) {
+                gerador.escrever(id, bloco);
+                bloco.append('\n');
+                if (bloco.length() >= TAMANHO_BLOCO) {
+                    enviar(copyIn, bloco);
+                }
+            }
+            enviar(copyIn, bloco);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void enviar(CopyIn copyIn, StringBuilder bloco) throws SQLException {
+        byte[] bytes = bloco.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        bloco.setLength(0);
+    }
+
+    private static void cronometrar(String tabela, long quantidade, Etapa etapa) throws SQLException {
+        long inicio = System.nanoTime();
+        etapa.executar();
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        System.out.printf("  %-12s %,12d linhas em %,8d ms%n", tabela, quantidade, ms);
+    }
+
+    private static int versao(Resource migration) {
+        String nome = migration.getFilename();
+        return Integer.parseInt(nome.substring(1, nome.indexOf("__")));
+    }
+
+    @FunctionalInterface
+    private interface GeradorLinha {
+        void escrever(long id, StringBuilder linha);
+    }
+
+    @FunctionalInterface
+    private interface Etapa {
+        void executar() throws SQLException;
+    }
+}
@@ -0,0 +1,64 @@
+package com.biblioteca.api.carga;
+
+import com.biblioteca.api.carga.GeradorCarga.Medicao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumo por endpoint: vazão e percentis de latência, no console e num arquivo JSON.
+ */
+public class RelatorioCarga {
+
+    private final List<Map<String, Object>> linhas = new ArrayList<>();
+
+    public RelatorioCarga(Map<String, Medicao> medicoes, Duration duracao) {
+        double segundos = duracao.toMillis() / 1000.0;
+        medicoes.forEach((endpoint, medicao) -> {
+            Histogram latencias = medicao.latencias();
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("endpoint", endpoint);
+            linha.put("requisicoes", latencias.getTotalCount());
+            linha.put("erros", medicao.erros());
+            linha.put("descartadas", medicao.descartadas());
+            linha.put("vazaoPorSegundo", latencias.getTotalCount() / segundos);
+            linha.put("p50Ms", emMs(latencias.getValueAtPercentile(50)));
+            linha.put("p99Ms", emMs(latencias.getValueAtPercentile(99)));
+            linha.put("p999Ms", emMs(latencias.getValueAtPercentile(99.9)));
+            linha.put("maximoMs", emMs(latencias.getMaxValue()));
+            linhas.add(linha);
+        });
+    }
+
+    public void imprimir() {
+        System.out.printf("%n%-28s %10s %8s %10s %10s %10s %10s %10s %10s%n",
+                "endpoint", "req", "erros", "descart.", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map<String, Object> linha : linhas) {
+            System.out.printf("%-28s %10d %8d %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    linha.get("endpoint"), linha.get("requisicoes"), linha.get("erros"), linha.get("descartadas"),
+                    linha.get("vazaoPorSegundo"), linha.get("p50Ms"), linha.get("p99Ms"), linha.get("p999Ms"),
+                    linha.get("maximoMs"));
+        }
+    }
+
+    public void salvar(Path arquivo) throws IOException {
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(arquivo.toFile(), linhas);
+        System.out.println("\nRelatório salvo em " + arquivo.toAbsolutePath());
+    }
+
+    private static double emMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
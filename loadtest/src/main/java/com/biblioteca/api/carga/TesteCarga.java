@@ -0,0 +1,228 @@
+package com.biblioteca.api.carga;
+
+import com.biblioteca.api.ApiApplication;
+import com.biblioteca.api.carga.ConfiguracaoCarga.VolumeDados;
+import com.biblioteca.api.carga.GeradorCarga.Cenario;
+import com.biblioteca.api.carga.GeradorCarga.Medicao;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Teste de carga de ponta a ponta: prepara o banco, sobe a API e dispara um mix de
+ * leituras e escritas numa taxa fixa, relatando vazão e percentis por endpoint.
+ *
+ * Sem {@code --url} a API é iniciada neste processo, apontando para {@code --db-url} ou,
+ * na falta dele, para um Postgres embutido descartável. Veja o README do módulo.
+ */
+public class TesteCarga {
+
+    private static final String[] TERMOS_BUSCA = {"memórias", "sertão", "noite", "caminho", "estrela", "rio"};
+
+    private final ConfiguracaoCarga configuracao;
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private TesteCarga(ConfiguracaoCarga configuracao) {
+        this.configuracao = configuracao;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new TesteCarga(new ConfiguracaoCarga(args)).executar();
+    }
+
+    private void executar() throws Exception {
+        if (configuracao.urlApi() != null) {
+            medir(configuracao.urlApi(), Path.of(configuracao.arquivoRelatorio()));
+            return;
+        }
+
+        EmbeddedPostgres postgres = null;
+        try {
+            String urlBanco = configuracao.urlBanco();
+            if (urlBanco == null) {
+                System.out.println("Iniciando Postgres embutido...");
+                postgres = EmbeddedPostgres.builder().start();
+                urlBanco = postgres.getJdbcUrl("postgres", "postgres");
+            }
+            if (configuracao.gerarDados()) {
+                prepararBanco(urlBanco);
+            }
+
+            // Cada modo sobe uma API nova sobre o mesmo banco e recebe exatamente a mesma carga
+            List<String> modos = configuracao.modos();
+            for (String modo : modos) {
+                System.out.printf("%n=== Modo de execução: %s ===%n", modo);
+                try (ConfigurableApplicationContext contexto = iniciarApi(urlBanco, modo)) {
+                    int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+                    medir("http://localhost:" + porta, arquivoRelatorio(modo, modos.size() > 1));
+                }
+            }
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private void medir(String urlApi, Path arquivoRelatorio) throws Exception {
+        String token = autenticar(urlApi, GeradorDados.email(1));
+        List<Cenario> cenarios = cenarios(urlApi, token, configuracao.volume());
+
+        System.out.printf("%nDisparando %.0f req/s por %d s (aquecimento de %d s)...%n",
+                configuracao.taxaPorSegundo(), configuracao.duracao().toSeconds(),
+                configuracao.aquecimento().toSeconds());
+        Map<String, Medicao> medicoes = new GeradorCarga(cliente, configuracao.maximoEmVoo()).executar(
+                cenarios, configuracao.taxaPorSegundo(), configuracao.aquecimento(), configuracao.duracao());
+
+        RelatorioCarga relatorio = new RelatorioCarga(medicoes, configuracao.duracao());
+        relatorio.imprimir();
+        relatorio.salvar(arquivoRelatorio);
+    }
+
+    // Com mais de um modo, cada relatório ganha o nome do modo: relatorio-carga-virtual.json
+    private Path arquivoRelatorio(String modo, boolean sufixar) {
+        String arquivo = configuracao.arquivoRelatorio();
+        if (sufixar) {
+            int ponto = arquivo.lastIndexOf('.');
+            arquivo = ponto < 0 ? arquivo + "-" + modo : arquivo.substring(0, ponto) + "-" + modo + arquivo.substring(ponto);
+        }
+        return Path.of(arquivo);
+    }
+
+    private void prepararBanco(String urlBanco) throws Exception {
+        VolumeDados volume = configuracao.volume();
+        System.out.println("Gerando massa de dados: " + volume);
+        try (Connection conexao = DriverManager.getConnection(urlBanco, configuracao.usuarioBanco(),
+                configuracao.senhaBanco())) {
+            GeradorDados gerador = new GeradorDados();
+            gerador.criarEsquema(conexao);
+            gerador.carregar(conexao, volume);
+        }
+    }
+
+    private ConfigurableApplicationContext iniciarApi(String urlBanco, String modo) {
+        return new SpringApplication(ApiApplication.class).run(
+                "--spring.datasource.url=" + urlBanco,
+                "--spring.datasource.username=" + configuracao.usuarioBanco(),
+                "--spring.datasource.password=" + configuracao.senhaBanco(),
+                "--spring.threads.virtual.enabled=" + ConfiguracaoCarga.MODO_VIRTUAL.equals(modo),
+                // Toda a carga sai de um IP e um token: o limite por cliente recusaria quase tudo
+                "--limite.requisicoes.habilitado=false",
+                // O esquema já foi criado por GeradorDados, sem o histórico do Flyway
+                "--spring.flyway.enabled=false",
+                "--server.port=0"
+        );
+    }
+
+    private String autenticar(String urlApi, String email) throws IOException, InterruptedException {
+        HttpResponse<String> resposta = cliente.send(
+                json(urlApi + "/api/auth/login", null)
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"email\":\"" + email + "\",\"senha\":\"" + GeradorDados.SENHA_PADRAO + "\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("Falha ao autenticar " + email + ": HTTP " + resposta.statusCode());
+        }
+        return mapper.readTree(resposta.body()).get("token").asText();
+    }
+
+    /**
+     * Mix de requisições: predominam leituras do catálogo, com uma fração de logins e de
+     * empréstimos criados e devolvidos. Os empréstimos criados no teste alimentam a fila
+     * de devoluções, então o estoque dos livros não se esgota ao longo da execução.
+     */
+    private List<Cenario> cenarios(String urlApi, String token, VolumeDados volume) {
+        ConcurrentLinkedQueue<Long> emprestimosAbertos = new ConcurrentLinkedQueue<>();
+
+        return List.of(
+                new Cenario("GET /livros", 30, () ->
+                        json(urlApi + "/api/livros?tamanho=50", null).GET().build()),
+                new Cenario("GET /livros/{id}", 25, () ->
+                        json(urlApi + "/api/livros/" + aleatorio(volume.livros()), null).GET().build()),
+                new Cenario("GET /livros/buscar/titulo", 10, () ->
+                        json(urlApi + "/api/livros/buscar/titulo?titulo="
+                                + termoBusca(), null).GET().build()),
+                new Cenario("GET /emprestimos/usuario", 5, () ->
+                        json(urlApi + "/api/emprestimos/buscar/usuario/" + aleatorio(volume.usuarios()), token)
+                                .GET().build()),
+                new Cenario("GET /emprestimos/usuario/resumo", 10, () ->
+                        json(urlApi + "/api/emprestimos/usuario/" + aleatorio(volume.usuarios()) + "/resumo", token)
+                                .GET().build()),
+                new Cenario("POST /auth/login", 5, () ->
+                        json(urlApi + "/api/auth/login", null)
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\""
+                                        + GeradorDados.email(aleatorio(volume.usuarios())) + "\",\"senha\":\""
+                                        + GeradorDados.SENHA_PADRAO + "\"}"))
+                                .build()),
+                new Cenario("POST /emprestimos", 8, () ->
+                        json(urlApi + "/api/emprestimos", token)
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"usuarioId\":"
+                                        + aleatorio(volume.usuarios()) + ",\"livroId\":"
+                                        + aleatorio(volume.livros()) + "}"))
+                                .build(),
+                        resposta -> {
+                            if (resposta.statusCode() == 201 || resposta.statusCode() == 200) {
+                                emprestimosAbertos.add(idDaResposta(resposta));
+                            }
+                        }),
+                new Cenario("PUT /emprestimos/{id}/devolver", 7, () -> {
+                    Long id = emprestimosAbertos.poll();
+                    return id == null ? null : json(urlApi + "/api/emprestimos/" + id + "/devolver", token)
+                            .PUT(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                })
+        );
+    }
+
+    private Long idDaResposta(HttpResponse<String> resposta) {
+        try {
+            JsonNode corpo = mapper.readTree(resposta.body());
+            return corpo.get("id").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Resposta inválida: " + resposta.body(), e);
+        }
+    }
+
+    private static HttpRequest.Builder json(String url, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private static long aleatorio(long limite) {
+        return 1 + ThreadLocalRandom.current().nextLong(limite);
+    }
+
+    private static String termoBusca() {
+        String termo = TERMOS_BUSCA[ThreadLocalRandom.current().nextInt(TERMOS_BUSCA.length)];
+        return URLEncoder.encode(termo, StandardCharsets.UTF_8);
+    }
+}